@@ -0,0 +1,11 @@
+package com.ticketing.booking.admission;
+
+/**
+ * A hold request whose admission token was issued for another event or customer
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
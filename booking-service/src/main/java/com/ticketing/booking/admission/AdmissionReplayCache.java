@@ -0,0 +1,99 @@
+package com.ticketing.booking.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nonces of the admission tokens in use on this instance, so a token is good for one hold.
+ *
+ * A retry of the same request (same X-Idempotency-Key) may use the token again, so
+ * HoldIdempotencyService can replay the hold it made or wait for it. The token is only
+ * given back once every request using it has finished and none of them held seats.
+ *
+ * Entries only need to outlive their token: an expired token fails verification anyway,
+ * so they are swept once expired. When full even after a sweep, new tokens are refused
+ * rather than let the cache grow. Replays against another instance are not caught; the
+ * entry count stays small because each instance only sees its share of the admissions.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "booking.admission.enabled", havingValue = "true")
+public class AdmissionReplayCache {
+
+    @Value("${booking.admission.replay-cache.max-entries:200000}")
+    private int maxEntries;
+
+    private final Map<Long, Use> used = new ConcurrentHashMap<>();
+
+    /**
+     * @param idempotencyKey the request's X-Idempotency-Key, null if it has none
+     * @return false if the token was already used by another request, or the cache is full
+     */
+    public boolean markUsed(long nonce, long expiresAtMillis, String idempotencyKey) {
+        if (used.size() >= maxEntries && !used.containsKey(nonce)) {
+            evictExpired(System.currentTimeMillis());
+            if (used.size() >= maxEntries) {
+                log.warn("Admission replay cache full ({} entries), refusing admission token", used.size());
+                return false;
+            }
+        }
+        boolean[] accepted = new boolean[1];
+        used.compute(nonce, (key, use) -> {
+            if (use == null) {
+                use = new Use(expiresAtMillis, idempotencyKey);
+            } else if (idempotencyKey == null || !idempotencyKey.equals(use.idempotencyKey)) {
+                return use;
+            }
+            use.inFlight++;
+            accepted[0] = true;
+            return use;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * A request using the token finished; once none is left and none held seats, the token
+     * is usable again
+     */
+    public void finished(long nonce, boolean held) {
+        used.computeIfPresent(nonce, (key, use) -> {
+            use.held |= held;
+            use.inFlight--;
+            return use.inFlight > 0 || use.held ? use : null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${booking.admission.replay-cache.sweep.ms:10000}")
+    public void evictExpired() {
+        evictExpired(System.currentTimeMillis());
+    }
+
+    int evictExpired(long nowMillis) {
+        int before = used.size();
+        used.values().removeIf(use -> use.expiresAtMillis <= nowMillis);
+        return before - used.size();
+    }
+
+    int size() {
+        return used.size();
+    }
+
+    // Changed only inside compute, under the map's lock for the nonce
+    private static final class Use {
+        private final long expiresAtMillis;
+        private final String idempotencyKey;
+        private int inFlight;
+        private boolean held;
+
+        private Use(long expiresAtMillis, String idempotencyKey) {
+            this.expiresAtMillis = expiresAtMillis;
+            this.idempotencyKey = idempotencyKey;
+        }
+    }
+}
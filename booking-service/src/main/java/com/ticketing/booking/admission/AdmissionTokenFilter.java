@@ -0,0 +1,112 @@
+package com.ticketing.booking.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.booking.exception.ErrorResponse;
+import com.ticketing.common.util.AdmissionTokens;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Lets only customers admitted by the waiting room hold seats.
+ *
+ * Hold requests must carry the admission token from queue-service in X-Admission-Token.
+ * The token is checked here, from its signature alone, before the request is read or any
+ * Redis or DB work starts; a token is good for one successful hold, which retries carrying
+ * the same X-Idempotency-Key get replayed (see AdmissionReplayCache). The token's event and
+ * customer are passed on as a request attribute for the controller to match against the
+ * request body.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.admission.enabled", havingValue = "true")
+public class AdmissionTokenFilter extends OncePerRequestFilter {
+
+    public static final String ADMISSION_HEADER = "X-Admission-Token";
+    public static final String IDEMPOTENCY_HEADER = "X-Idempotency-Key";
+    public static final String ADMISSION_ATTRIBUTE = "com.ticketing.booking.admission.AdmissionTokenFilter.admission";
+
+    static final String REJECTED_METRIC = "booking.admission.rejected";
+
+    private static final Set<String> HOLD_PATHS = Set.of("/api/bookings/hold", "/api/bookings/hold/best-available");
+
+    private final AdmissionTokens admissionTokens;
+    private final AdmissionReplayCache replayCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !HOLD_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ADMISSION_HEADER);
+        if (token == null) {
+            reject(request, response, "missing", "Admission token required, join the event's waiting room");
+            return;
+        }
+
+        AdmissionTokens.Claims admission = new AdmissionTokens.Claims();
+        AdmissionTokens.Status status = admissionTokens.verify(token, System.currentTimeMillis(), admission);
+        if (status == AdmissionTokens.Status.EXPIRED) {
+            reject(request, response, "expired", "Admission token expired, join the event's waiting room again");
+            return;
+        }
+        if (status != AdmissionTokens.Status.VALID) {
+            reject(request, response, "invalid", "Invalid admission token");
+            return;
+        }
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_HEADER);
+        if (idempotencyKey != null && idempotencyKey.isBlank()) {
+            idempotencyKey = null;
+        }
+        if (!replayCache.markUsed(admission.getNonce(), admission.getExpiresAtMillis(), idempotencyKey)) {
+            reject(request, response, "replayed", "Admission token already used");
+            return;
+        }
+
+        request.setAttribute(ADMISSION_ATTRIBUTE, admission);
+        boolean held = false;
+        try {
+            filterChain.doFilter(request, response);
+            held = response.getStatus() < 400;
+        } finally {
+            // If no request with the token held seats (seats taken, validation...) the customer may try again
+            replayCache.finished(admission.getNonce(), held);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String reason, String message)
+            throws IOException {
+        log.debug("Rejected hold request without valid admission ({}): {}", reason, request.getRequestURI());
+        meterRegistry.counter(REJECTED_METRIC, "reason", reason).increment();
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.FORBIDDEN.value())
+            .error(HttpStatus.FORBIDDEN.getReasonPhrase())
+            .message(message)
+            .path(request.getRequestURI())
+            .build();
+        response.setStatus(HttpStatus.FORBIDDEN.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
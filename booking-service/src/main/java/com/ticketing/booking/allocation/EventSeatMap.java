@@ -0,0 +1,306 @@
+package com.ticketing.booking.allocation;
+
+import com.ticketing.common.entity.Seat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Free contiguous seat runs of one event, indexed for best-available allocation.
+ *
+ * A run is a maximal stretch of free seats in one row with consecutive seat numbers
+ * and one price. Runs are grouped into bands (section + price) and, inside a band,
+ * kept in a TreeMap by length, so "the smallest run that fits N seats" is a
+ * ceiling lookup instead of a scan. Taking or freeing a seat splits or merges at
+ * most three runs. Methods are synchronized: one map per event, short critical sections.
+ */
+class EventSeatMap {
+
+    private final Map<Long, SeatRef> seats = new HashMap<>();
+    // section -> price -> band
+    private final Map<String, TreeMap<BigDecimal, Band>> bands = new HashMap<>();
+    private final long loadedAt;
+
+    /**
+     * @param seatsInRowOrder seats ordered by section, row and seat number
+     * @param isFree which of them can be allocated
+     */
+    EventSeatMap(List<Seat> seatsInRowOrder, Predicate<Seat> isFree, long loadedAt) {
+        this.loadedAt = loadedAt;
+
+        int rowOrder = 0;
+        int from = 0;
+        while (from < seatsInRowOrder.size()) {
+            Seat first = seatsInRowOrder.get(from);
+            int to = from + 1;
+            while (to < seatsInRowOrder.size() && sameRow(first, seatsInRowOrder.get(to))) {
+                to++;
+            }
+            Row row = new Row(rowOrder++, seatsInRowOrder.subList(from, to));
+            for (int pos = 0; pos < row.size(); pos++) {
+                seats.put(row.seatIds[pos], new SeatRef(row, pos));
+            }
+            for (int pos = 0; pos < row.size(); pos++) {
+                if (isFree.test(seatsInRowOrder.get(from + pos))) {
+                    free(row, pos);
+                }
+            }
+            from = to;
+        }
+    }
+
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Pick and take {@code quantity} seats side by side in one row.
+     *
+     * Bands are tried from the most expensive price at or under {@code maxPrice}
+     * down; within a band the shortest run that fits wins (ties: front-most row),
+     * which keeps long runs available for larger groups.
+     *
+     * @return the seat IDs taken, or an empty list if no run fits
+     */
+    synchronized List<Long> allocateTogether(int quantity, String section, BigDecimal maxPrice) {
+        for (Band band : candidateBands(section, maxPrice)) {
+            Map.Entry<Integer, TreeSet<Run>> fits = band.runsByLength.ceilingEntry(quantity);
+            if (fits != null) {
+                Run run = fits.getValue().first();
+                return take(run.row, run.start, quantity);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Pick and take {@code quantity} seats, side by side when possible, otherwise
+     * from the longest runs of the best bands.
+     *
+     * @return the seat IDs taken, or an empty list if not enough seats are free
+     */
+    synchronized List<Long> allocateAny(int quantity, String section, BigDecimal maxPrice) {
+        List<Long> together = allocateTogether(quantity, section, maxPrice);
+        if (!together.isEmpty()) {
+            return together;
+        }
+
+        List<Run> picked = new ArrayList<>();
+        int remaining = quantity;
+        for (Band band : candidateBands(section, maxPrice)) {
+            for (TreeSet<Run> runs : band.runsByLength.descendingMap().values()) {
+                for (Run run : runs) {
+                    picked.add(run);
+                    remaining -= run.length;
+                    if (remaining <= 0) {
+                        break;
+                    }
+                }
+                if (remaining <= 0) {
+                    break;
+                }
+            }
+            if (remaining <= 0) {
+                break;
+            }
+        }
+        if (remaining > 0) {
+            return List.of();
+        }
+
+        List<Long> seatIds = new ArrayList<>(quantity);
+        for (Run run : picked) {
+            seatIds.addAll(take(run.row, run.start, Math.min(run.length, quantity - seatIds.size())));
+        }
+        return seatIds;
+    }
+
+    /**
+     * Mark seats as taken (held or booked). Unknown or already taken seats are ignored.
+     */
+    synchronized void markTaken(Collection<Long> seatIds) {
+        for (Long seatId : seatIds) {
+            SeatRef ref = seats.get(seatId);
+            if (ref != null && ref.row.free[ref.pos]) {
+                take(ref.row, ref.pos, 1);
+            }
+        }
+    }
+
+    /**
+     * Mark seats as free again. Unknown or already free seats are ignored.
+     */
+    synchronized void markFree(Collection<Long> seatIds) {
+        for (Long seatId : seatIds) {
+            SeatRef ref = seats.get(seatId);
+            if (ref != null && !ref.row.free[ref.pos]) {
+                free(ref.row, ref.pos);
+            }
+        }
+    }
+
+    synchronized int freeSeatCount() {
+        int count = 0;
+        for (TreeMap<BigDecimal, Band> byPrice : bands.values()) {
+            for (Band band : byPrice.values()) {
+                for (Map.Entry<Integer, TreeSet<Run>> entry : band.runsByLength.entrySet()) {
+                    count += entry.getKey() * entry.getValue().size();
+                }
+            }
+        }
+        return count;
+    }
+
+    private List<Band> candidateBands(String section, BigDecimal maxPrice) {
+        List<Band> candidates = new ArrayList<>();
+        Collection<TreeMap<BigDecimal, Band>> sections = section == null
+            ? bands.values()
+            : bands.containsKey(section) ? List.of(bands.get(section)) : List.of();
+        for (TreeMap<BigDecimal, Band> byPrice : sections) {
+            candidates.addAll((maxPrice == null ? byPrice : byPrice.headMap(maxPrice, true)).values());
+        }
+        candidates.sort(Comparator.comparing((Band band) -> band.price).reversed()
+            .thenComparing(band -> band.section));
+        return candidates;
+    }
+
+    // Take count seats starting at pos; they must all lie in one free run
+    private List<Long> take(Row row, int pos, int count) {
+        Run run = row.runs.floorEntry(pos).getValue();
+        removeRun(run);
+
+        List<Long> taken = new ArrayList<>(count);
+        for (int i = pos; i < pos + count; i++) {
+            row.free[i] = false;
+            taken.add(row.seatIds[i]);
+        }
+        if (pos > run.start) {
+            addRun(new Run(row, run.start, pos - run.start));
+        }
+        int runEnd = run.start + run.length;
+        if (pos + count < runEnd) {
+            addRun(new Run(row, pos + count, runEnd - pos - count));
+        }
+        return taken;
+    }
+
+    private void free(Row row, int pos) {
+        row.free[pos] = true;
+        int start = pos;
+        int end = pos + 1;
+
+        if (pos > 0 && !row.breakBefore[pos] && row.free[pos - 1]) {
+            Run left = row.runs.floorEntry(pos - 1).getValue();
+            removeRun(left);
+            start = left.start;
+        }
+        if (end < row.size() && !row.breakBefore[end] && row.free[end]) {
+            Run right = row.runs.get(end);
+            removeRun(right);
+            end = right.start + right.length;
+        }
+        addRun(new Run(row, start, end - start));
+    }
+
+    private void addRun(Run run) {
+        run.row.runs.put(run.start, run);
+        bands.computeIfAbsent(run.row.section, section -> new TreeMap<>())
+            .computeIfAbsent(run.row.prices[run.start], price -> new Band(run.row.section, price))
+            .runsByLength.computeIfAbsent(run.length, length -> new TreeSet<>(Run.ORDER))
+            .add(run);
+    }
+
+    private void removeRun(Run run) {
+        run.row.runs.remove(run.start);
+        Band band = bands.get(run.row.section).get(run.row.prices[run.start]);
+        TreeSet<Run> sameLength = band.runsByLength.get(run.length);
+        sameLength.remove(run);
+        if (sameLength.isEmpty()) {
+            band.runsByLength.remove(run.length);
+        }
+    }
+
+    private static boolean sameRow(Seat a, Seat b) {
+        return Objects.equals(a.getSection(), b.getSection()) && Objects.equals(a.getRowLetter(), b.getRowLetter());
+    }
+
+    private static final class Row {
+        private final int order;
+        private final String section;
+        private final long[] seatIds;
+        private final BigDecimal[] prices;
+        // A run never spans a gap in seat numbers (aisle) or a price change
+        private final boolean[] breakBefore;
+        private final boolean[] free;
+        // Free runs of this row by start position
+        private final TreeMap<Integer, Run> runs = new TreeMap<>();
+
+        Row(int order, List<Seat> seatsInRow) {
+            this.order = order;
+            this.section = seatsInRow.get(0).getSection();
+            int size = seatsInRow.size();
+            this.seatIds = new long[size];
+            this.prices = new BigDecimal[size];
+            this.breakBefore = new boolean[size];
+            this.free = new boolean[size];
+            for (int pos = 0; pos < size; pos++) {
+                Seat seat = seatsInRow.get(pos);
+                seatIds[pos] = seat.getId();
+                prices[pos] = seat.getPrice();
+                breakBefore[pos] = pos == 0
+                    || seat.getSeatNumber() != seatsInRow.get(pos - 1).getSeatNumber() + 1
+                    || seat.getPrice().compareTo(prices[pos - 1]) != 0;
+            }
+        }
+
+        int size() {
+            return seatIds.length;
+        }
+    }
+
+    private static final class SeatRef {
+        private final Row row;
+        private final int pos;
+
+        SeatRef(Row row, int pos) {
+            this.row = row;
+            this.pos = pos;
+        }
+    }
+
+    private static final class Run {
+        // Front-most row first, then left-most start
+        static final Comparator<Run> ORDER = Comparator.<Run>comparingInt(run -> run.row.order)
+            .thenComparingInt(run -> run.start);
+
+        private final Row row;
+        private final int start;
+        private final int length;
+
+        Run(Row row, int start, int length) {
+            this.row = row;
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+    private static final class Band {
+        private final String section;
+        private final BigDecimal price;
+        private final TreeMap<Integer, TreeSet<Run>> runsByLength = new TreeMap<>();
+
+        Band(String section, BigDecimal price) {
+            this.section = section;
+            this.price = price;
+        }
+    }
+}
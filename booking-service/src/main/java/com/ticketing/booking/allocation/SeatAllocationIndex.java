@@ -0,0 +1,96 @@
+package com.ticketing.booking.allocation;
+
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.common.entity.Seat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-event index of free contiguous seat runs used by best-available holds.
+ *
+ * Built lazily from the seats table and kept current from this instance's holds,
+ * cancellations and Redis hold expiries. Holds taken on other instances are only
+ * learned from conflicts or the periodic rebuild, so allocations are candidates:
+ * the hold itself (Redis locks + DB guard) still decides.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SeatAllocationIndex {
+
+    private final SeatRepository seatRepository;
+
+    @Value("${booking.allocation.index.refresh.seconds:30}")
+    private long refreshSeconds;
+
+    private final Map<Long, EventSeatMap> events = new ConcurrentHashMap<>();
+
+    /**
+     * Pick seats and mark them taken in the index.
+     *
+     * @param together whether all seats must be side by side in one row
+     * @return the picked seat IDs, or an empty list if not enough seats match
+     */
+    public List<Long> allocate(Long eventId, int quantity, String section, BigDecimal maxPrice, boolean together) {
+        EventSeatMap seatMap = seatMap(eventId);
+        return together
+            ? seatMap.allocateTogether(quantity, section, maxPrice)
+            : seatMap.allocateAny(quantity, section, maxPrice);
+    }
+
+    /**
+     * Record seats as held or booked. No-op for events that are not indexed yet.
+     */
+    public void markTaken(Long eventId, Collection<Long> seatIds) {
+        EventSeatMap seatMap = events.get(eventId);
+        if (seatMap != null) {
+            seatMap.markTaken(seatIds);
+        }
+    }
+
+    /**
+     * Record seats as available again. No-op for events that are not indexed yet.
+     */
+    public void markFree(Long eventId, Collection<Long> seatIds) {
+        EventSeatMap seatMap = events.get(eventId);
+        if (seatMap != null) {
+            seatMap.markFree(seatIds);
+        }
+    }
+
+    /**
+     * Drop an event so its next allocation rebuilds the index from the database.
+     */
+    public void evict(Long eventId) {
+        events.remove(eventId);
+    }
+
+    private EventSeatMap seatMap(Long eventId) {
+        EventSeatMap seatMap = events.get(eventId);
+        long now = System.currentTimeMillis();
+        if (seatMap == null || now - seatMap.loadedAt() > refreshSeconds * 1000) {
+            // Concurrent rebuilds of one event are harmless; the last one wins
+            seatMap = load(eventId, now);
+            events.put(eventId, seatMap);
+        }
+        return seatMap;
+    }
+
+    private EventSeatMap load(Long eventId, long now) {
+        List<Seat> seats = seatRepository.findByEventIdOrderBySectionAndRow(eventId);
+        Map<Long, Seat.SeatStatus> packedStatuses = seatRepository.packedStatuses(seats);
+        EventSeatMap seatMap = new EventSeatMap(seats,
+            seat -> packedStatuses.getOrDefault(seat.getId(), seat.getStatus()) == Seat.SeatStatus.AVAILABLE, now);
+        log.debug("Built seat allocation index for event {}: {} seats, {} free",
+                eventId, seats.size(), seatMap.freeSeatCount());
+        return seatMap;
+    }
+}
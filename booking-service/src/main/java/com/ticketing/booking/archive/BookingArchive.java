@@ -0,0 +1,82 @@
+package com.ticketing.booking.archive;
+
+import com.ticketing.common.dto.BookingDto;
+import com.ticketing.common.dto.SeatHoldDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read side of the archived_* tables written by {@link EventArchiver}, for history lookups
+ * that miss the hot tables.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingArchive {
+
+    private static final String BOOKING_SQL =
+        "SELECT id, booking_reference, customer_id, event_id, seat_ids, total_amount, status, " +
+        "payment_id, hold_token, created_at, confirmed_at, cancelled_at " +
+        "FROM archived_bookings WHERE booking_reference = ?";
+
+    private static final String HOLD_SQL =
+        "SELECT id, hold_token, customer_id, event_id, seat_ids, expires_at, status, created_at " +
+        "FROM archived_seat_holds WHERE hold_token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<BookingDto> findBookingByReference(String bookingReference) {
+        return jdbcTemplate.query(BOOKING_SQL, (rs, rowNum) -> BookingDto.builder()
+                .id(rs.getLong("id"))
+                .bookingReference(rs.getString("booking_reference"))
+                .customerId(rs.getLong("customer_id"))
+                .eventId(rs.getLong("event_id"))
+                .seatIds(longs(rs.getArray("seat_ids")))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .status(rs.getString("status"))
+                .paymentId(rs.getString("payment_id"))
+                .holdToken(rs.getString("hold_token"))
+                .createdAt(dateTime(rs, "created_at"))
+                .confirmedAt(dateTime(rs, "confirmed_at"))
+                .cancelledAt(dateTime(rs, "cancelled_at"))
+                .build(), bookingReference)
+            .stream().findFirst();
+    }
+
+    public Optional<SeatHoldDto> findHoldByToken(String holdToken) {
+        return jdbcTemplate.query(HOLD_SQL, (rs, rowNum) -> SeatHoldDto.builder()
+                .id(rs.getLong("id"))
+                .holdToken(rs.getString("hold_token"))
+                .customerId(rs.getLong("customer_id"))
+                .eventId(rs.getLong("event_id"))
+                .seatIds(longs(rs.getArray("seat_ids")))
+                .expiresAt(dateTime(rs, "expires_at"))
+                .status(rs.getString("status"))
+                .createdAt(dateTime(rs, "created_at"))
+                .build(), holdToken)
+            .stream().findFirst();
+    }
+
+    private static List<Long> longs(Array array) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        List<Long> longs = new ArrayList<>(values.length);
+        for (Object value : values) {
+            longs.add(((Number) value).longValue());
+        }
+        return longs;
+    }
+
+    private static LocalDateTime dateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,182 @@
+package com.ticketing.booking.archive;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves finished events out of the hot tables: once an event is booking.archive.after-days
+ * past its date, its seats, holds and bookings are moved into the archived_* tables in
+ * batches of booking.archive.batch-size rows, and finally the event row itself (with its
+ * pricing tiers folded into one jsonb column).
+ *
+ * Every batch is a single DELETE ... RETURNING feeding an INSERT, so a row is always in
+ * exactly one of the hot and archive tables; an interrupted event is picked up again on the
+ * next run because its events row is only moved last. Booking and hold lookups fall back to
+ * the archive through {@link BookingArchive}. One instance at a time archives, through a
+ * single-shard lease.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.archive.enabled", havingValue = "true")
+public class EventArchiver {
+
+    static final String JOB = "event-archive";
+
+    static final String[] HOT_TABLES = {"events", "seats", "seat_holds", "bookings", "hold_seats", "booking_seats"};
+
+    private static final String FINISHED_EVENTS_SQL =
+        "SELECT id FROM events WHERE event_date < ? ORDER BY event_date, id LIMIT ?";
+
+    // Packed seats take their status from the event's status blocks (see PackedSeatStatuses),
+    // which are deleted with the event after all seats have moved
+    private static final String ARCHIVE_SEATS_SQL =
+        "WITH moved AS (DELETE FROM seats WHERE id IN " +
+        "(SELECT id FROM seats WHERE event_id = ? ORDER BY id LIMIT ?) " +
+        "RETURNING id, event_id, section, row_letter, seat_number, price, status, status_index) " +
+        "INSERT INTO archived_seats (id, event_id, section, row_letter, seat_number, price, status) " +
+        "SELECT m.id, m.event_id, m.section, m.row_letter, m.seat_number, m.price, " +
+        "COALESCE((SELECT CASE (get_byte(p.statuses, (m.status_index % 4096) / 4) >> (m.status_index % 4 * 2)) & 3 " +
+        "WHEN 0 THEN 'AVAILABLE' WHEN 1 THEN 'HELD' ELSE 'BOOKED' END " +
+        "FROM packed_seat_statuses p WHERE p.event_id = m.event_id AND p.block = m.status_index / 4096), m.status) " +
+        "FROM moved m";
+
+    private static final String ARCHIVE_HOLDS_SQL =
+        "WITH batch AS (SELECT id FROM seat_holds WHERE event_id = ? ORDER BY id LIMIT ?), " +
+        "links AS (DELETE FROM hold_seats WHERE hold_id IN (SELECT id FROM batch)), " +
+        "moved AS (DELETE FROM seat_holds WHERE id IN (SELECT id FROM batch) " +
+        "RETURNING id, hold_token, customer_id, event_id, seat_ids, expires_at, status, created_at) " +
+        "INSERT INTO archived_seat_holds (id, hold_token, customer_id, event_id, seat_ids, expires_at, status, created_at) " +
+        "SELECT id, hold_token, customer_id, event_id, seat_ids, expires_at, status, created_at FROM moved";
+
+    private static final String ARCHIVE_BOOKINGS_SQL =
+        "WITH batch AS (SELECT id FROM bookings WHERE event_id = ? ORDER BY id LIMIT ?), " +
+        "links AS (DELETE FROM booking_seats WHERE booking_id IN (SELECT id FROM batch)), " +
+        "moved AS (DELETE FROM bookings WHERE id IN (SELECT id FROM batch) " +
+        "RETURNING id, booking_reference, customer_id, event_id, seat_ids, total_amount, status, " +
+        "payment_id, hold_token, created_at, confirmed_at, cancelled_at) " +
+        "INSERT INTO archived_bookings (id, booking_reference, customer_id, event_id, seat_ids, total_amount, " +
+        "status, payment_id, hold_token, created_at, confirmed_at, cancelled_at) " +
+        "SELECT id, booking_reference, customer_id, event_id, seat_ids, total_amount, status, " +
+        "payment_id, hold_token, created_at, confirmed_at, cancelled_at FROM moved";
+
+    private static final String ARCHIVE_EVENT_SQL =
+        "INSERT INTO archived_events (id, title, category, city, venue, event_date, total_capacity, " +
+        "available_seats, base_price, status, organizer_id, pricing_tiers, created_at) " +
+        "SELECT e.id, e.title, e.category, e.city, e.venue, e.event_date, e.total_capacity, " +
+        "e.available_seats, e.base_price, e.status, e.organizer_id, " +
+        "(SELECT jsonb_agg(jsonb_build_object('name', t.name, 'description', t.description, 'price', t.price, " +
+        "'maxQuantity', t.max_quantity, 'availableQuantity', t.available_quantity) ORDER BY t.id) " +
+        "FROM pricing_tiers t WHERE t.event_id = e.id), e.created_at " +
+        "FROM events e WHERE e.id = ?";
+
+    private static final String TABLE_SIZE_SQL =
+        "SELECT COALESCE(SUM(pg_total_relation_size(relid)), 0) FROM pg_partition_tree(CAST(? AS regclass))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final ShardCoordinator shardCoordinator;
+
+    @Value("${booking.archive.after-days:7}")
+    private int afterDays;
+
+    @Value("${booking.archive.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${booking.archive.max-events-per-run:50}")
+    private int maxEventsPerRun;
+
+    @PostConstruct
+    void start() {
+        shardCoordinator.register(JOB, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.archive.interval.ms:3600000}",
+               initialDelayString = "${booking.archive.initial-delay.ms:60000}")
+    public void archive() {
+        if (shardCoordinator.stillHeld(shardCoordinator.ownedShards(JOB)).isEmpty()) {
+            return;
+        }
+        archive(LocalDateTime.now());
+    }
+
+    /**
+     * Archives up to booking.archive.max-events-per-run finished events; returns how many were archived
+     */
+    int archive(LocalDateTime now) {
+        List<Long> eventIds = jdbcTemplate.queryForList(FINISHED_EVENTS_SQL, Long.class,
+            now.minusDays(afterDays), maxEventsPerRun);
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Long> before = hotTableSizes();
+        int archived = 0;
+        for (Long eventId : eventIds) {
+            try {
+                archiveEvent(eventId);
+                archived++;
+            } catch (DataAccessException e) {
+                log.error("Archiving event {} failed, retrying next run", eventId, e);
+            }
+        }
+        Map<String, Long> after = hotTableSizes();
+        log.info("Archived {} of {} finished events; hot table sizes (bytes) before {} after {}",
+            archived, eventIds.size(), before, after);
+        return archived;
+    }
+
+    void archiveEvent(Long eventId) {
+        long seats = drain(ARCHIVE_SEATS_SQL, eventId);
+        long holds = drain(ARCHIVE_HOLDS_SQL, eventId);
+        long bookings = drain(ARCHIVE_BOOKINGS_SQL, eventId);
+        transactionOperations.executeWithoutResult(status -> {
+            jdbcTemplate.update(ARCHIVE_EVENT_SQL, eventId);
+            jdbcTemplate.update("DELETE FROM pricing_tiers WHERE event_id = ?", eventId);
+            jdbcTemplate.update("DELETE FROM events WHERE id = ?", eventId);
+        });
+        log.info("Archived event {}: {} seats, {} holds, {} bookings", eventId, seats, holds, bookings);
+    }
+
+    /**
+     * Repeats one batch move until a batch comes back short
+     */
+    private long drain(String sql, Long eventId) {
+        long total = 0;
+        int moved;
+        do {
+            moved = jdbcTemplate.update(sql, eventId, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    /**
+     * Total size of each hot table including its indexes and partitions; empty if unavailable
+     */
+    Map<String, Long> hotTableSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        try {
+            for (String table : HOT_TABLES) {
+                sizes.put(table, jdbcTemplate.queryForObject(TABLE_SIZE_SQL, Long.class, table));
+            }
+        } catch (DataAccessException e) {
+            log.debug("Could not read hot table sizes", e);
+        }
+        return sizes;
+    }
+}
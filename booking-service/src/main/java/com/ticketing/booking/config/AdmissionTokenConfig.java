@@ -0,0 +1,20 @@
+package com.ticketing.booking.config;
+
+import com.ticketing.common.util.AdmissionTokens;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(value = "booking.admission.enabled", havingValue = "true")
+public class AdmissionTokenConfig {
+
+    /**
+     * Verifies waiting room admission tokens; queue-service signs them with the same secret
+     */
+    @Bean
+    public AdmissionTokens admissionTokens(@Value("${booking.admission.token.secret}") String secret) {
+        return new AdmissionTokens(secret);
+    }
+}
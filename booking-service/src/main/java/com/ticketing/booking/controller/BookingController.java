@@ -1,9 +1,15 @@
 package com.ticketing.booking.controller;
 
+import com.ticketing.booking.admission.AdmissionRejectedException;
+import com.ticketing.booking.admission.AdmissionTokenFilter;
+import com.ticketing.booking.load.HoldLoadMonitor;
+import com.ticketing.booking.service.BestAvailableHoldService;
 import com.ticketing.booking.service.BookingException;
 import com.ticketing.booking.service.BookingNotFoundException;
 import com.ticketing.booking.service.BookingService;
+import com.ticketing.booking.service.HoldIdempotencyService;
 import com.ticketing.common.dto.*;
+import com.ticketing.common.util.AdmissionTokens;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -26,6 +32,9 @@ import java.util.Optional;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final HoldIdempotencyService holdIdempotencyService;
+    private final BestAvailableHoldService bestAvailableHoldService;
+    private final HoldLoadMonitor holdLoadMonitor;
 
     @PostMapping("/hold")
     @Operation(
@@ -37,31 +46,84 @@ public class BookingController {
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Seats held successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid request or seats unavailable"),
+        @ApiResponse(responseCode = "403", description = "No valid admission token (when the waiting room is enforced)"),
         @ApiResponse(responseCode = "409", description = "Seats already held by another customer"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<SeatHoldResponse> holdSeats(
             @Valid @RequestBody SeatHoldRequest request,
-            @RequestHeader(value = "X-Idempotency-Key", required = false) String idempotencyKey) {
+            @RequestHeader(value = "X-Idempotency-Key", required = false) String idempotencyKey,
+            @RequestAttribute(name = AdmissionTokenFilter.ADMISSION_ATTRIBUTE, required = false)
+            AdmissionTokens.Claims admission) {
 
         log.info("Seat hold request received for customer: {} event: {} seats: {}",
                 request.getCustomerId(), request.getEventId(), request.getSeatIds().size());
+        checkAdmission(admission, request.getEventId(), request.getCustomerId());
 
+        long started = System.nanoTime();
         try {
             if (idempotencyKey != null) {
                 request.setIdempotencyKey(idempotencyKey);
             }
 
-            SeatHoldResponse response = bookingService.holdSeats(request);
+            // Retries with the same key replay the first response instead of holding again
+            SeatHoldResponse response = holdIdempotencyService.holdSeats(request);
 
             log.info("Seat hold successful: {} for customer: {}",
                     response.getHoldToken(), request.getCustomerId());
+            holdLoadMonitor.holdFinished(request.getEventId(), started, null);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
         } catch (BookingException e) {
             log.warn("Seat hold failed for customer: {} - {}", request.getCustomerId(), e.getMessage());
+            holdLoadMonitor.holdFinished(request.getEventId(), started, e);
             throw e; // Will be handled by global exception handler
+        } catch (RuntimeException e) {
+            holdLoadMonitor.holdFinished(request.getEventId(), started, e);
+            throw e;
+        }
+    }
+
+    @PostMapping("/hold/best-available")
+    @Operation(
+        summary = "Hold the best available seats",
+        description = "Let the server pick and hold a quantity of seats, optionally within a section, " +
+                     "at or below a price and side by side in one row. The picked seat IDs are " +
+                     "returned in the hold response."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "201", description = "Seats held successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or not enough seats available"),
+        @ApiResponse(responseCode = "403", description = "No valid admission token (when the waiting room is enforced)"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<SeatHoldResponse> holdBestAvailable(
+            @Valid @RequestBody BestAvailableHoldRequest request,
+            @RequestAttribute(name = AdmissionTokenFilter.ADMISSION_ATTRIBUTE, required = false)
+            AdmissionTokens.Claims admission) {
+
+        log.info("Best-available hold request received for customer: {} event: {} quantity: {} together: {}",
+                request.getCustomerId(), request.getEventId(), request.getQuantity(), request.isTogether());
+        checkAdmission(admission, request.getEventId(), request.getCustomerId());
+
+        long started = System.nanoTime();
+        try {
+            SeatHoldResponse response = bestAvailableHoldService.holdBestAvailable(request);
+
+            log.info("Best-available hold successful: {} seats {} for customer: {}",
+                    response.getHoldToken(), response.getSeatIds(), request.getCustomerId());
+            holdLoadMonitor.holdFinished(request.getEventId(), started, null);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (BookingException e) {
+            log.warn("Best-available hold failed for customer: {} - {}", request.getCustomerId(), e.getMessage());
+            holdLoadMonitor.holdFinished(request.getEventId(), started, e);
+            throw e;
+        } catch (RuntimeException e) {
+            holdLoadMonitor.holdFinished(request.getEventId(), started, e);
+            throw e;
         }
     }
 
@@ -194,4 +256,12 @@ public class BookingController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Booking Service is healthy");
     }
+
+    // Set by AdmissionTokenFilter when the waiting room is enforced: the token must be this customer's, for this event
+    private static void checkAdmission(AdmissionTokens.Claims admission, Long eventId, Long customerId) {
+        if (admission != null
+                && (admission.getEventId() != eventId || admission.getCustomerId() != customerId)) {
+            throw new AdmissionRejectedException("Admission token was issued for another event or customer");
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.ticketing.booking.coordination;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-instance deployments (booking.coordination.enabled=false): this instance owns every shard.
+ */
+@Component
+@ConditionalOnProperty(value = "booking.coordination.enabled", havingValue = "false")
+public class LocalShardCoordinator implements ShardCoordinator {
+
+    private final Map<String, List<ShardLease>> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public void register(String job, int shardCount) {
+        List<ShardLease> all = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            all.add(new ShardLease(job, shard, 1));
+        }
+        leases.put(job, List.copyOf(all));
+    }
+
+    @Override
+    public List<ShardLease> ownedShards(String job) {
+        return leases.getOrDefault(job, List.of());
+    }
+
+    @Override
+    public List<ShardLease> stillHeld(List<ShardLease> leases) {
+        return leases;
+    }
+}
@@ -0,0 +1,247 @@
+package com.ticketing.booking.coordination;
+
+import com.ticketing.common.util.RedisKeys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shard leases kept in Redis, renewed and rebalanced by a heartbeat.
+ *
+ * Every heartbeat runs one script per job that records this instance as live,
+ * drops instances whose last heartbeat is older than the lease, and deals the
+ * shards round-robin over the sorted live instances. A shard dealt to another
+ * instance is released; a shard dealt to this one is claimed once the previous
+ * holder's lease is gone, with a new fencing token. Shards therefore never have
+ * two holders, and move to other instances within one lease when an instance
+ * leaves or dies.
+ *
+ * The heartbeat has a thread of its own rather than a slot in the shared scheduler, so
+ * a long run of another scheduled job can't keep it from renewing the leases.
+ *
+ * Holding a lease is re-checked with {@link #stillHeld} right before writing.
+ * That keeps a paused holder from acting on shards it lost; it does not make the
+ * writes themselves conditional, so jobs still need idempotent writes.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.coordination.enabled", havingValue = "true", matchIfMissing = true)
+public class RedisShardCoordinator implements ShardCoordinator {
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${booking.coordination.instance-id:}")
+    private String instanceId;
+
+    @Value("${booking.coordination.lease.ms:15000}")
+    private long leaseMs;
+
+    @Value("${booking.coordination.heartbeat.ms:5000}")
+    private long heartbeatMs;
+
+    // KEYS: members, leases, fences. ARGV: instance, now ms, lease ms, shard count.
+    // Returns {shard, fencing token, ...} for the shards this instance holds after the heartbeat
+    private static final String HEARTBEAT_LUA =
+        "local me = ARGV[1] " +
+        "local now = tonumber(ARGV[2]) " +
+        "local ttl = tonumber(ARGV[3]) " +
+        "redis.call('ZADD', KEYS[1], now, me) " +
+        "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - ttl) " +
+        "local members = redis.call('ZRANGE', KEYS[1], 0, -1) " +
+        "table.sort(members) " +
+        "local held = {} " +
+        "for shard = 0, tonumber(ARGV[4]) - 1 do " +
+        "  local owner = members[(shard % #members) + 1] " +
+        "  local lease = redis.call('HGET', KEYS[2], shard) " +
+        "  local holder, token, expires " +
+        "  if lease then holder, token, expires = string.match(lease, '^(.*)|(%d+)|(%d+)$') end " +
+        "  local live = lease and tonumber(expires) > now " +
+        "  if owner == me then " +
+        "    if not live then " +
+        "      holder = me " +
+        "      token = tostring(redis.call('HINCRBY', KEYS[3], shard, 1)) " +
+        "    end " +
+        "    if holder == me then " +
+        "      redis.call('HSET', KEYS[2], shard, me .. '|' .. token .. '|' .. (now + ttl)) " +
+        "      held[#held + 1] = tostring(shard) " +
+        "      held[#held + 1] = token " +
+        "    end " +
+        "  elseif live and holder == me then " +
+        "    redis.call('HDEL', KEYS[2], shard) " +
+        "  end " +
+        "end " +
+        "return held";
+
+    // KEYS: leases. ARGV: instance, now ms, shard, token, shard, token...
+    // Returns 1/0 per shard: still held by this instance with that token
+    private static final String STILL_HELD_LUA =
+        "local result = {} " +
+        "for i = 3, #ARGV, 2 do " +
+        "  local lease = redis.call('HGET', KEYS[1], ARGV[i]) " +
+        "  local held = 0 " +
+        "  if lease then " +
+        "    local holder, token, expires = string.match(lease, '^(.*)|(%d+)|(%d+)$') " +
+        "    if holder == ARGV[1] and token == ARGV[i + 1] and tonumber(expires) > tonumber(ARGV[2]) then held = 1 end " +
+        "  end " +
+        "  result[#result + 1] = held " +
+        "end " +
+        "return result";
+
+    // KEYS: members, leases. ARGV: instance. Gives up membership and every lease of this instance
+    private static final String LEAVE_LUA =
+        "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+        "local leases = redis.call('HGETALL', KEYS[2]) " +
+        "for i = 1, #leases, 2 do " +
+        "  if string.match(leases[i + 1], '^(.*)|%d+|%d+$') == ARGV[1] then " +
+        "    redis.call('HDEL', KEYS[2], leases[i]) " +
+        "  end " +
+        "end " +
+        "return 1";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> HEARTBEAT_SCRIPT =
+        new DefaultRedisScript<>(HEARTBEAT_LUA, List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> STILL_HELD_SCRIPT =
+        new DefaultRedisScript<>(STILL_HELD_LUA, List.class);
+
+    private static final DefaultRedisScript<Long> LEAVE_SCRIPT =
+        new DefaultRedisScript<>(LEAVE_LUA, Long.class);
+
+    // job -> shard count
+    private final Map<String, Integer> jobs = new ConcurrentHashMap<>();
+    // job -> shards held as of the last heartbeat
+    private final Map<String, List<ShardLease>> owned = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    void init() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        log.info("Shard coordination instance id: {}", instanceId);
+
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void register(String job, int shardCount) {
+        jobs.put(job, shardCount);
+        heartbeat(job, shardCount, System.currentTimeMillis());
+    }
+
+    @Override
+    public List<ShardLease> ownedShards(String job) {
+        return owned.getOrDefault(job, List.of());
+    }
+
+    @Override
+    public List<ShardLease> stillHeld(List<ShardLease> leases) {
+        if (leases.isEmpty()) {
+            return leases;
+        }
+        List<ShardLease> held = new ArrayList<>(leases.size());
+        // Group per job: each job's leases live in one slot
+        Map<String, List<ShardLease>> byJob = new LinkedHashMap<>();
+        for (ShardLease lease : leases) {
+            byJob.computeIfAbsent(lease.getJob(), job -> new ArrayList<>()).add(lease);
+        }
+        long now = System.currentTimeMillis();
+        byJob.forEach((job, jobLeases) -> {
+            List<String> args = new ArrayList<>(2 + jobLeases.size() * 2);
+            args.add(instanceId);
+            args.add(String.valueOf(now));
+            for (ShardLease lease : jobLeases) {
+                args.add(String.valueOf(lease.getShard()));
+                args.add(String.valueOf(lease.getFencingToken()));
+            }
+            List<?> result = redisTemplate.execute(STILL_HELD_SCRIPT, List.of(RedisKeys.jobLeasesKey(job)), args.toArray());
+            for (int i = 0; result != null && i < result.size(); i++) {
+                if (((Number) result.get(i)).longValue() == 1) {
+                    held.add(jobLeases.get(i));
+                }
+            }
+        });
+        return held;
+    }
+
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        jobs.forEach((job, shardCount) -> heartbeat(job, shardCount, now));
+    }
+
+    void heartbeat(String job, int shardCount, long nowMillis) {
+        try {
+            List<?> result = redisTemplate.execute(HEARTBEAT_SCRIPT,
+                List.of(RedisKeys.jobMembersKey(job), RedisKeys.jobLeasesKey(job), RedisKeys.jobFencesKey(job)),
+                instanceId, String.valueOf(nowMillis), String.valueOf(leaseMs), String.valueOf(shardCount));
+
+            List<ShardLease> leases = new ArrayList<>();
+            for (int i = 0; result != null && i + 1 < result.size(); i += 2) {
+                leases.add(new ShardLease(job, Integer.parseInt(String.valueOf(result.get(i))),
+                    Long.parseLong(String.valueOf(result.get(i + 1)))));
+            }
+            List<ShardLease> previous = owned.put(job, List.copyOf(leases));
+            if (previous == null || previous.size() != leases.size()) {
+                log.info("Job {}: instance {} now holds {} of {} shards", job, instanceId, leases.size(), shardCount);
+            }
+        } catch (Exception e) {
+            // Without a heartbeat the leases can't be vouched for: hold nothing until the next one
+            owned.put(job, List.of());
+            log.warn("Shard heartbeat for job {} failed, dropping its shards until the next heartbeat", job, e);
+        }
+    }
+
+    @PreDestroy
+    void leave() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        jobs.keySet().forEach(job -> {
+            try {
+                redisTemplate.execute(LEAVE_SCRIPT,
+                    List.of(RedisKeys.jobMembersKey(job), RedisKeys.jobLeasesKey(job)), instanceId);
+            } catch (Exception e) {
+                log.warn("Could not hand back shards of job {}, they move once the leases run out", job, e);
+            }
+            owned.remove(job);
+        });
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "booking-service";
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ticketing.booking.coordination;
+
+import java.util.List;
+
+/**
+ * Splits the work of scheduled jobs across booking-service instances.
+ *
+ * A job declares a shard space (shards 0..shardCount-1, e.g. hash buckets of a
+ * row id). Each shard is leased to exactly one live instance at a time, and the
+ * shards are rebalanced when instances join or leave, so the total work stays the
+ * same however many instances run the job.
+ */
+public interface ShardCoordinator {
+
+    /**
+     * Declare a job's shard space. Called once per job, before it asks for shards.
+     */
+    void register(String job, int shardCount);
+
+    /**
+     * Shards of the job this instance held as of its last heartbeat; may be empty.
+     */
+    List<ShardLease> ownedShards(String job);
+
+    /**
+     * Re-check leases right before acting on them.
+     *
+     * @return the given leases that are still held with the same fencing token
+     */
+    List<ShardLease> stillHeld(List<ShardLease> leases);
+}
@@ -0,0 +1,22 @@
+package com.ticketing.booking.coordination;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * One shard of a background job, held by this instance.
+ *
+ * The fencing token grows every time the shard changes hands, so a holder that
+ * lost its lease (paused, partitioned) can be told apart from the current one.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class ShardLease {
+    private final String job;
+    private final int shard;
+    private final long fencingToken;
+}
@@ -1,5 +1,6 @@
 package com.ticketing.booking.exception;
 
+import com.ticketing.booking.admission.AdmissionRejectedException;
 import com.ticketing.booking.service.BookingException;
 import com.ticketing.booking.service.BookingNotFoundException;
 import lombok.extern.slf4j.Slf4j;
@@ -51,6 +52,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(errorResponse);
     }
 
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRejectedException(AdmissionRejectedException e) {
+        log.warn("Admission rejected: {}", e.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.FORBIDDEN.value())
+            .error("Forbidden")
+            .message(e.getMessage())
+            .path("/api/bookings")
+            .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException e) {
         Map<String, String> fieldErrors = new HashMap<>();
@@ -0,0 +1,109 @@
+package com.ticketing.booking.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Seat state of one event in primitive arrays indexed by seat ordinal.
+ *
+ * The ordinal is the position of the seat ID in the sorted seatIds array, so a
+ * lookup is a binary search and an event with 50k seats costs ~850 KB. Not
+ * thread-safe: an instance is only ever touched by the shard thread owning its event.
+ */
+class EventSeatInventory {
+
+    static final byte AVAILABLE = 0;
+    static final byte HELD = 1;
+    static final byte BOOKED = 2;
+
+    private final long[] seatIds;
+    private final byte[] states;
+    // Hold expiry in epoch millis, meaningful while the state is HELD
+    private final long[] heldUntil;
+
+    EventSeatInventory(long[] sortedSeatIds, byte[] states, long[] heldUntil) {
+        this.seatIds = sortedSeatIds;
+        this.states = states;
+        this.heldUntil = heldUntil;
+    }
+
+    /**
+     * All-or-nothing hold. Seats unknown to this snapshot (added after it was
+     * loaded) are not tracked and never reported as conflicts.
+     */
+    List<Long> tryHold(List<Long> requestedSeatIds, long holdUntilMillis, long nowMillis) {
+        List<Long> conflicts = new ArrayList<>();
+        for (Long seatId : requestedSeatIds) {
+            int ordinal = ordinal(seatId);
+            if (ordinal >= 0 && isTaken(ordinal, nowMillis)) {
+                conflicts.add(seatId);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        for (Long seatId : requestedSeatIds) {
+            int ordinal = ordinal(seatId);
+            if (ordinal >= 0) {
+                states[ordinal] = HELD;
+                heldUntil[ordinal] = holdUntilMillis;
+            }
+        }
+        return conflicts;
+    }
+
+    void confirm(List<Long> bookedSeatIds) {
+        for (Long seatId : bookedSeatIds) {
+            int ordinal = ordinal(seatId);
+            if (ordinal >= 0) {
+                states[ordinal] = BOOKED;
+            }
+        }
+    }
+
+    void release(List<Long> releasedSeatIds) {
+        for (Long seatId : releasedSeatIds) {
+            int ordinal = ordinal(seatId);
+            if (ordinal >= 0 && states[ordinal] == HELD) {
+                states[ordinal] = AVAILABLE;
+                heldUntil[ordinal] = 0;
+            }
+        }
+    }
+
+    void expire(List<Long> expiredSeatIds, long nowMillis) {
+        for (Long seatId : expiredSeatIds) {
+            int ordinal = ordinal(seatId);
+            if (ordinal >= 0 && states[ordinal] == HELD && heldUntil[ordinal] <= nowMillis) {
+                states[ordinal] = AVAILABLE;
+                heldUntil[ordinal] = 0;
+            }
+        }
+    }
+
+    /**
+     * Current state with expired holds reported as AVAILABLE, or -1 for unknown seats.
+     */
+    byte state(Long seatId, long nowMillis) {
+        int ordinal = ordinal(seatId);
+        if (ordinal < 0) {
+            return -1;
+        }
+        return isTaken(ordinal, nowMillis) ? states[ordinal] : AVAILABLE;
+    }
+
+    int size() {
+        return seatIds.length;
+    }
+
+    private boolean isTaken(int ordinal, long nowMillis) {
+        byte state = states[ordinal];
+        return state == BOOKED || (state == HELD && heldUntil[ordinal] > nowMillis);
+    }
+
+    private int ordinal(Long seatId) {
+        return Arrays.binarySearch(seatIds, seatId);
+    }
+}
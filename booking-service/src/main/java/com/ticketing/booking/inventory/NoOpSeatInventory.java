@@ -0,0 +1,32 @@
+package com.ticketing.booking.inventory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Default when the inventory engine is disabled: every hold goes straight to Redis and the DB.
+ */
+@Component
+@ConditionalOnProperty(value = "booking.inventory.engine.enabled", havingValue = "false", matchIfMissing = true)
+public class NoOpSeatInventory implements SeatInventory {
+
+    @Override
+    public List<Long> tryHold(Long eventId, List<Long> seatIds, LocalDateTime expiresAt) {
+        return List.of();
+    }
+
+    @Override
+    public void confirm(Long eventId, List<Long> seatIds) {
+    }
+
+    @Override
+    public void release(Long eventId, List<Long> seatIds) {
+    }
+
+    @Override
+    public void expire(Long eventId, List<Long> seatIds) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.ticketing.booking.inventory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * In-process view of seat availability used to reject conflicting holds
+ * before they reach Redis and Postgres. Redis locks and the DB guards stay
+ * authoritative; an implementation may be permissive but must never reject
+ * a seat that is actually free.
+ */
+public interface SeatInventory {
+
+    /**
+     * Mark the seats as held if none of them is held or booked.
+     *
+     * @param eventId Event the seats belong to
+     * @param seatIds Seats to hold
+     * @param expiresAt Hold expiry; the seats count as free again afterwards
+     * @return IDs of the seats that conflicted; empty when the seats were marked held
+     */
+    List<Long> tryHold(Long eventId, List<Long> seatIds, LocalDateTime expiresAt);
+
+    /**
+     * Mark held seats as booked (after the confirmation committed).
+     */
+    void confirm(Long eventId, List<Long> seatIds);
+
+    /**
+     * Mark held seats as available again (cancelled hold or failed hold attempt).
+     */
+    void release(Long eventId, List<Long> seatIds);
+
+    /**
+     * Mark seats whose hold has run out as available again (hold expiry). Seats held
+     * again since are left alone.
+     */
+    void expire(Long eventId, List<Long> seatIds);
+}
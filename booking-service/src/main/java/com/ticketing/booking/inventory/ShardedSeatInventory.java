@@ -0,0 +1,292 @@
+package com.ticketing.booking.inventory;
+
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.booking.service.BookingException;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event-sharded, single-writer seat inventory.
+ *
+ * Each event is owned by one shard (eventId hash), and every shard is a single
+ * thread, so hold, confirm and release commands for an event are applied in
+ * arrival order without locks. On a hot event most conflicting holds are then
+ * rejected in memory instead of costing Redis round trips and row-level UPDATE
+ * contention in Postgres.
+ *
+ * An event is loaded lazily on its first command from seats (BOOKED/HELD) and
+ * unexpired ACTIVE seat_holds (hold expiry). Expired holds are treated as free
+ * without waiting for the expiry pipeline. The load runs on a loader thread, so
+ * the shard keeps serving its other events; commands for the event arriving
+ * meanwhile are queued and applied in order once it is in. A hold that has to
+ * wait for its event's load gets load.timeout.ms on top of the command timeout.
+ *
+ * The view is per instance: enable it only when requests for one event are
+ * routed to one instance, otherwise holds released on another instance stay
+ * blocked here until they expire.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.inventory.engine.enabled", havingValue = "true")
+public class ShardedSeatInventory implements SeatInventory {
+
+    private final SeatRepository seatRepository;
+    private final SeatHoldRepository seatHoldRepository;
+
+    @Value("${booking.inventory.engine.shards:0}")
+    private int shardCount;
+
+    @Value("${booking.inventory.engine.command.timeout.ms:1000}")
+    private long commandTimeoutMs;
+
+    @Value("${booking.inventory.engine.load.timeout.ms:30000}")
+    private long loadTimeoutMs;
+
+    @Value("${booking.inventory.engine.loaders:2}")
+    private int loaderCount;
+
+    private Shard[] shards;
+    private ExecutorService loaders;
+
+    @PostConstruct
+    void start() {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i);
+        }
+        AtomicInteger loaderIndex = new AtomicInteger();
+        loaders = Executors.newFixedThreadPool(loaderCount, runnable -> {
+            Thread thread = new Thread(runnable, "seat-inventory-loader-" + loaderIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Seat inventory engine started with {} shards", count);
+    }
+
+    @PreDestroy
+    void stop() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        loaders.shutdownNow();
+    }
+
+    @Override
+    public List<Long> tryHold(Long eventId, List<Long> seatIds, LocalDateTime expiresAt) {
+        long holdUntilMillis = toEpochMillis(expiresAt);
+        Shard shard = shardFor(eventId);
+        long timeoutMs = shard.events.containsKey(eventId) ? commandTimeoutMs : loadTimeoutMs + commandTimeoutMs;
+        CompletableFuture<List<Long>> result = new CompletableFuture<>();
+        shard.submit(eventId, new Command() {
+            @Override
+            public void apply(EventSeatInventory inventory) {
+                if (result.isDone()) {
+                    // The caller gave up before it ran
+                    return;
+                }
+                List<Long> conflicts = inventory.tryHold(seatIds, holdUntilMillis, System.currentTimeMillis());
+                if (!result.complete(conflicts) && conflicts.isEmpty()) {
+                    inventory.release(seatIds);
+                }
+            }
+
+            @Override
+            public void failed(RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!result.cancel(false) && !result.isCompletedExceptionally() && result.join().isEmpty()) {
+                // Held just now: undo it
+                release(eventId, seatIds);
+            }
+            log.warn("Seat inventory shard {} did not answer within {} ms for event {}",
+                    shard.index, timeoutMs, eventId);
+            throw new BookingException("Seat inventory is busy, please retry");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seat inventory command failed for event " + eventId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Interrupted while waiting for seat inventory");
+        }
+    }
+
+    @Override
+    public void confirm(Long eventId, List<Long> seatIds) {
+        shardFor(eventId).submit(eventId, inventory -> inventory.confirm(seatIds));
+    }
+
+    @Override
+    public void release(Long eventId, List<Long> seatIds) {
+        shardFor(eventId).submit(eventId, inventory -> inventory.release(seatIds));
+    }
+
+    @Override
+    public void expire(Long eventId, List<Long> seatIds) {
+        shardFor(eventId).submit(eventId, inventory -> inventory.expire(seatIds, System.currentTimeMillis()));
+    }
+
+    /**
+     * Evict an event so its next command reloads it from the database.
+     */
+    public void evict(Long eventId) {
+        Shard shard = shardFor(eventId);
+        shard.executor.execute(() -> shard.events.remove(eventId));
+    }
+
+    private Shard shardFor(Long eventId) {
+        return shards[Math.floorMod(Long.hashCode(eventId), shards.length)];
+    }
+
+    /**
+     * Rebuild one event from seats and seat_holds. Runs on a loader thread.
+     */
+    EventSeatInventory load(Long eventId) {
+        List<Object[]> rows = seatRepository.findSeatStatesByEventId(eventId);
+
+        long[] seatIds = new long[rows.size()];
+        byte[] states = new byte[rows.size()];
+        long[] heldUntil = new long[rows.size()];
+        Map<Long, Integer> ordinals = new HashMap<>(rows.size() * 2);
+
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            seatIds[i] = (Long) row[0];
+            states[i] = toState((Seat.SeatStatus) row[1]);
+            ordinals.put(seatIds[i], i);
+        }
+
+        // HELD seats without an unexpired hold keep heldUntil = 0 and count as free,
+        // the same way holdSeatsGuarded lets them be re-held during expiry lag
+        for (SeatHold hold : seatHoldRepository.findActiveHoldsForEvent(eventId, LocalDateTime.now())) {
+            long until = toEpochMillis(hold.getExpiresAt());
+            for (Long seatId : hold.getSeatIds()) {
+                Integer ordinal = ordinals.get(seatId);
+                if (ordinal != null && states[ordinal] != EventSeatInventory.BOOKED) {
+                    states[ordinal] = EventSeatInventory.HELD;
+                    heldUntil[ordinal] = Math.max(heldUntil[ordinal], until);
+                }
+            }
+        }
+
+        log.info("Loaded seat inventory for event {}: {} seats", eventId, seatIds.length);
+        return new EventSeatInventory(seatIds, states, heldUntil);
+    }
+
+    private static byte toState(Seat.SeatStatus status) {
+        if (status == Seat.SeatStatus.BOOKED) {
+            return EventSeatInventory.BOOKED;
+        }
+        if (status == Seat.SeatStatus.HELD) {
+            return EventSeatInventory.HELD;
+        }
+        return EventSeatInventory.AVAILABLE;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * A command against one event's inventory, run on the shard thread owning it
+     */
+    private interface Command {
+
+        void apply(EventSeatInventory inventory);
+
+        // The event could not be loaded, or apply threw
+        default void failed(RuntimeException e) {
+        }
+    }
+
+    private class Shard {
+        private final int index;
+        private final ExecutorService executor;
+        // Loaded events; written only by this shard's thread, read by callers choosing a timeout
+        private final Map<Long, EventSeatInventory> events = new ConcurrentHashMap<>();
+        // Events being loaded, with the commands that arrived meanwhile in arrival order.
+        // Only accessed from this shard's thread
+        private final Map<Long, List<Command>> loading = new HashMap<>();
+
+        Shard(int index) {
+            this.index = index;
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "seat-inventory-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        // Fire-and-forget: a command still runs after everything submitted for its event before it
+        void submit(Long eventId, Command command) {
+            executor.execute(() -> run(eventId, command));
+        }
+
+        private void run(Long eventId, Command command) {
+            EventSeatInventory inventory = events.get(eventId);
+            if (inventory != null) {
+                apply(eventId, command, inventory);
+                return;
+            }
+            List<Command> queued = loading.get(eventId);
+            if (queued == null) {
+                queued = new ArrayList<>();
+                loading.put(eventId, queued);
+                loaders.execute(() -> loadAndInstall(eventId));
+            }
+            queued.add(command);
+        }
+
+        private void loadAndInstall(Long eventId) {
+            try {
+                EventSeatInventory inventory = load(eventId);
+                executor.execute(() -> {
+                    events.put(eventId, inventory);
+                    for (Command command : loading.remove(eventId)) {
+                        apply(eventId, command, inventory);
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.error("Loading the seat inventory of event {} failed", eventId, e);
+                executor.execute(() -> loading.remove(eventId).forEach(command -> command.failed(e)));
+            }
+        }
+
+        private void apply(Long eventId, Command command, EventSeatInventory inventory) {
+            try {
+                command.apply(inventory);
+            } catch (RuntimeException e) {
+                log.error("Seat inventory command failed for event {}", eventId, e);
+                command.failed(e);
+            }
+        }
+    }
+}
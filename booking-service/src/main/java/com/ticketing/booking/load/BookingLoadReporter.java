@@ -0,0 +1,117 @@
+package com.ticketing.booking.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.BookingLoadDto;
+import com.ticketing.common.util.RedisKeys;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Publishes this instance's hold load to Redis (booking:load, one field per instance) for
+ * queue-service's admission rate controller: the counts drained from HoldLoadMonitor
+ * plus the Hikari pool's active connections and threads waiting for one. The hash expires shortly after the last
+ * instance stops reporting, so queue-service can tell a silent booking-service from an
+ * idle one.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.load-report.enabled", havingValue = "true")
+public class BookingLoadReporter {
+
+    private final HoldLoadMonitor holdLoadMonitor;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+
+    @Value("${booking.coordination.instance-id:}")
+    private String instanceId;
+
+    @Value("${booking.load-report.interval.ms:1000}")
+    private long intervalMs;
+
+    @Value("${booking.load-report.ttl.ms:30000}")
+    private long ttlMs;
+
+    private long lastReportMillis;
+
+    @PostConstruct
+    void init() {
+        if (instanceId == null || instanceId.isBlank()) {
+            instanceId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        lastReportMillis = System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.load-report.interval.ms:1000}")
+    public void report() {
+        long now = System.currentTimeMillis();
+        BookingLoadDto load = holdLoadMonitor.drain();
+        load.setInstanceId(instanceId);
+        load.setReportedAtMillis(now);
+        load.setIntervalMillis(Math.max(1, now - lastReportMillis));
+        lastReportMillis = now;
+
+        HikariDataSource hikari = hikariDataSource();
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool != null) {
+            load.setDbActiveConnections(pool.getActiveConnections());
+            load.setDbPendingThreads(pool.getThreadsAwaitingConnection());
+            load.setDbMaxConnections(hikari.getMaximumPoolSize());
+        } else {
+            load.setDbActiveConnections(-1);
+            load.setDbMaxConnections(-1);
+        }
+
+        try {
+            redisTemplate.opsForHash().put(RedisKeys.BOOKING_LOAD_KEY, instanceId, objectMapper.writeValueAsString(load));
+            redisTemplate.expire(RedisKeys.BOOKING_LOAD_KEY, Duration.ofMillis(ttlMs));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialise the booking load report", e);
+        } catch (RuntimeException e) {
+            // Queue-service treats the missing report as overload and slows admissions
+            log.warn("Could not publish the booking load report: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void withdraw() {
+        try {
+            redisTemplate.opsForHash().delete(RedisKeys.BOOKING_LOAD_KEY, instanceId);
+        } catch (RuntimeException e) {
+            log.debug("Could not withdraw the booking load report of {}", instanceId, e);
+        }
+    }
+
+    private HikariDataSource hikariDataSource() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "booking";
+        }
+    }
+}
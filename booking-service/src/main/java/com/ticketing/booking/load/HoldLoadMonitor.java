@@ -0,0 +1,131 @@
+package com.ticketing.booking.load;
+
+import com.ticketing.booking.service.SeatUnavailableException;
+import com.ticketing.common.dto.BookingLoadDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts hold requests as they finish: latency (booking.hold.latency, p99 over a short
+ * rotating window), Redis failures and seat-unavailable rejections per event. Drained by
+ * BookingLoadReporter once per report interval.
+ */
+@Component
+@RequiredArgsConstructor
+public class HoldLoadMonitor {
+
+    static final String LATENCY_METRIC = "booking.hold.latency";
+
+    private final MeterRegistry meterRegistry;
+
+    // Window the published p99 covers
+    @Value("${booking.load-report.latency-window.ms:10000}")
+    private long latencyWindowMs;
+
+    private final LongAdder holds = new LongAdder();
+    private final LongAdder redisErrors = new LongAdder();
+    private final Map<Long, EventCounts> events = new ConcurrentHashMap<>();
+
+    private Timer latency;
+
+    @PostConstruct
+    void registerMetrics() {
+        latency = Timer.builder(LATENCY_METRIC)
+            .description("Time to answer a hold request")
+            .publishPercentiles(0.99)
+            .distributionStatisticExpiry(Duration.ofMillis(latencyWindowMs))
+            .distributionStatisticBufferLength(2)
+            .register(meterRegistry);
+    }
+
+    /**
+     * A hold request finished
+     *
+     * @param startNanos System.nanoTime() when it started
+     * @param failure why it failed, null if seats were held
+     */
+    public void holdFinished(Long eventId, long startNanos, Throwable failure) {
+        latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        holds.increment();
+        EventCounts counts = events.computeIfAbsent(eventId, id -> new EventCounts());
+        counts.holds.increment();
+        if (failure instanceof SeatUnavailableException) {
+            counts.unavailable.increment();
+        } else if (isRedisError(failure)) {
+            redisErrors.increment();
+        }
+    }
+
+    /**
+     * A hold went ahead on DB locks only because Redis was unavailable
+     */
+    public void redisUnavailable() {
+        redisErrors.increment();
+    }
+
+    /**
+     * Counts since the last drain, with the current p99; instance, time and pool are the
+     * reporter's to fill in
+     */
+    public BookingLoadDto drain() {
+        Map<Long, Long> holdsByEvent = new HashMap<>();
+        Map<Long, Long> unavailableByEvent = new HashMap<>();
+        events.forEach((eventId, counts) -> {
+            long eventHolds = counts.holds.sumThenReset();
+            long unavailable = counts.unavailable.sumThenReset();
+            if (eventHolds == 0) {
+                events.remove(eventId, counts);
+                return;
+            }
+            holdsByEvent.put(eventId, eventHolds);
+            if (unavailable > 0) {
+                unavailableByEvent.put(eventId, unavailable);
+            }
+        });
+
+        return BookingLoadDto.builder()
+            .holds(holds.sumThenReset())
+            .redisErrors(redisErrors.sumThenReset())
+            .holdP99Millis(holdP99Millis())
+            .holdsByEvent(holdsByEvent)
+            .unavailableByEvent(unavailableByEvent)
+            .build();
+    }
+
+    double holdP99Millis() {
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            return percentile.value(TimeUnit.MILLISECONDS);
+        }
+        return 0;
+    }
+
+    private static boolean isRedisError(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionFailureException || cause instanceof RedisSystemException
+                    || cause instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class EventCounts {
+        private final LongAdder holds = new LongAdder();
+        private final LongAdder unavailable = new LongAdder();
+    }
+}
@@ -0,0 +1,247 @@
+package com.ticketing.booking.partition;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the range partitions of seat_holds (daily) and bookings (monthly) in shape:
+ * creates the partitions of the coming days / months ahead of time and retires the
+ * ones older than the retention window.
+ *
+ * A retired partition is detached and, unless booking.partitions.retention-action is
+ * "detach", dropped; its seat link rows (hold_seats / booking_seats) and key rows
+ * (hold_tokens / booking_references) are deleted first, in the same transaction, so a
+ * failed retirement leaves the partition and its rows as they were.
+ * Hold partitions still holding an ACTIVE hold are left alone until the cleanup job has
+ * expired it. Only partitions named by this class (&lt;table&gt;_pYYYYMMDD, _pYYYYMM) are
+ * ever retired, never the default or legacy partitions. One instance at a time runs the
+ * DDL, through a single-shard lease.
+ *
+ * Rows land in the default partition while no partition covers them (maintainer disabled,
+ * behind, or without the lease), and Postgres refuses to create a partition for a range the
+ * default holds rows of. Such a partition is created with the default detached, and its rows
+ * are moved over from the default before it is attached again, all in one transaction.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintainer {
+
+    static final String JOB = "partition-maintenance";
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+        "WHERE c.relname = ?)";
+
+    private static final String PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?";
+
+    private static final String DEFAULT_PARTITION_SQL =
+        "SELECT c.relname FROM pg_partitioned_table pt JOIN pg_class p ON p.oid = pt.partrelid " +
+        "JOIN pg_class c ON c.oid = pt.partdefid WHERE p.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCoordinator shardCoordinator;
+
+    @Value("${booking.partitions.holds.days-ahead:7}")
+    private int holdDaysAhead;
+
+    @Value("${booking.partitions.holds.retention-days:30}")
+    private int holdRetentionDays;
+
+    @Value("${booking.partitions.bookings.months-ahead:3}")
+    private int bookingMonthsAhead;
+
+    // 0 keeps every booking partition
+    @Value("${booking.partitions.bookings.retention-months:0}")
+    private int bookingRetentionMonths;
+
+    // "drop" or "detach" (keep the retired partition as a standalone table)
+    @Value("${booking.partitions.retention-action:drop}")
+    private String retentionAction;
+
+    private List<PartitionedTable> tables;
+
+    @PostConstruct
+    void start() {
+        tables = List.of(
+            new PartitionedTable("seat_holds", ChronoUnit.DAYS, holdDaysAhead, holdRetentionDays,
+                "hold_seats", "hold_id", "hold_tokens", "hold_token", true),
+            new PartitionedTable("bookings", ChronoUnit.MONTHS, bookingMonthsAhead, bookingRetentionMonths,
+                "booking_seats", "booking_id", "booking_references", "booking_reference", false));
+        shardCoordinator.register(JOB, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.partitions.interval.ms:3600000}",
+               initialDelayString = "${booking.partitions.initial-delay.ms:30000}")
+    public void maintain() {
+        if (shardCoordinator.stillHeld(shardCoordinator.ownedShards(JOB)).isEmpty()) {
+            return;
+        }
+        maintain(LocalDate.now());
+    }
+
+    void maintain(LocalDate today) {
+        for (PartitionedTable table : tables) {
+            try {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class, table.name))) {
+                    log.debug("Table {} is not partitioned, skipping partition maintenance", table.name);
+                    continue;
+                }
+                Set<String> partitions = new HashSet<>(jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, table.name));
+                String defaultPartition = jdbcTemplate.queryForList(DEFAULT_PARTITION_SQL, String.class, table.name)
+                    .stream().findFirst().orElse(null);
+                createAhead(table, today, partitions, defaultPartition);
+                retireExpired(table, today, partitions);
+            } catch (DataAccessException e) {
+                log.error("Partition maintenance of {} failed, retrying next run", table.name, e);
+            }
+        }
+    }
+
+    private void createAhead(PartitionedTable table, LocalDate today, Set<String> partitions, String defaultPartition) {
+        LocalDate start = table.periodStart(today);
+        for (int i = 0; i <= table.ahead; i++) {
+            LocalDate from = start.plus(i, table.unit);
+            LocalDate to = from.plus(1, table.unit);
+            String partition = table.partitionName(from);
+            if (partitions.contains(partition)) {
+                continue;
+            }
+            String create = "CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table.name +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+            String inRange = "created_at >= '" + from + "' AND created_at < '" + to + "'";
+            if (defaultPartition != null && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE " + inRange + ")", Boolean.class))) {
+                Integer moved = transactionTemplate.execute(status ->
+                    createFromDefault(table, partition, create, defaultPartition, inRange));
+                log.warn("Created partition {}, moving {} rows over from {}", partition, moved, defaultPartition);
+            } else {
+                jdbcTemplate.execute(create);
+                log.info("Created partition {}", partition);
+            }
+        }
+    }
+
+    private int createFromDefault(PartitionedTable table, String partition, String create,
+                                  String defaultPartition, String inRange) {
+        jdbcTemplate.execute("ALTER TABLE " + table.name + " DETACH PARTITION " + defaultPartition);
+        jdbcTemplate.execute(create);
+        // The insert trigger of the new partition claims the moved rows' keys again
+        jdbcTemplate.update("DELETE FROM " + table.keyTable + " WHERE " + table.keyColumn + " IN (SELECT " +
+            table.keyColumn + " FROM " + defaultPartition + " WHERE " + inRange + ")");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition + " WHERE " + inRange +
+            " RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+        jdbcTemplate.execute("ALTER TABLE " + table.name + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+        return moved;
+    }
+
+    private void retireExpired(PartitionedTable table, LocalDate today, Set<String> partitions) {
+        if (table.retention <= 0) {
+            return;
+        }
+        LocalDate cutoff = table.periodStart(today).minus(table.retention, table.unit);
+        partitions.stream().sorted().forEach(partition -> {
+            LocalDate from = table.periodOf(partition);
+            if (from != null && !from.plus(1, table.unit).isAfter(cutoff)) {
+                retire(table, partition);
+            }
+        });
+    }
+
+    private void retire(PartitionedTable table, String partition) {
+        if (table.checkActiveHolds && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE status = 'ACTIVE')", Boolean.class))) {
+            log.warn("Partition {} is past retention but still has active holds, keeping it", partition);
+            return;
+        }
+        boolean drop = !"detach".equals(retentionAction);
+        Integer links = transactionTemplate.execute(status -> {
+            int deleted = jdbcTemplate.update("DELETE FROM " + table.linkTable + " l USING " + partition + " o " +
+                "WHERE l." + table.linkColumn + " = o.id");
+            jdbcTemplate.update("DELETE FROM " + table.keyTable + " k USING " + partition + " o " +
+                "WHERE k." + table.keyColumn + " = o." + table.keyColumn);
+            jdbcTemplate.execute("ALTER TABLE " + table.name + " DETACH PARTITION " + partition);
+            if (drop) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            }
+            return deleted;
+        });
+        log.info("{} partition {} ({} seat links deleted)", drop ? "Dropped" : "Detached", partition, links);
+    }
+
+    static class PartitionedTable {
+
+        final String name;
+        final ChronoUnit unit;
+        final int ahead;
+        final int retention;
+        final String linkTable;
+        final String linkColumn;
+        // Unpartitioned table keeping the key unique across partitions, and that key column
+        final String keyTable;
+        final String keyColumn;
+        final boolean checkActiveHolds;
+        private final DateTimeFormatter format;
+
+        PartitionedTable(String name, ChronoUnit unit, int ahead, int retention,
+                         String linkTable, String linkColumn, String keyTable, String keyColumn,
+                         boolean checkActiveHolds) {
+            this.name = name;
+            this.unit = unit;
+            this.ahead = ahead;
+            this.retention = retention;
+            this.linkTable = linkTable;
+            this.linkColumn = linkColumn;
+            this.keyTable = keyTable;
+            this.keyColumn = keyColumn;
+            this.checkActiveHolds = checkActiveHolds;
+            this.format = DateTimeFormatter.ofPattern(unit == ChronoUnit.MONTHS ? "yyyyMM" : "yyyyMMdd");
+        }
+
+        LocalDate periodStart(LocalDate date) {
+            return unit == ChronoUnit.MONTHS ? date.withDayOfMonth(1) : date;
+        }
+
+        String partitionName(LocalDate periodStart) {
+            return name + "_p" + format.format(periodStart);
+        }
+
+        /**
+         * Start of the period a partition of this table covers, or null for partitions not named by the maintainer
+         */
+        LocalDate periodOf(String partition) {
+            String prefix = name + "_p";
+            if (!partition.startsWith(prefix)) {
+                return null;
+            }
+            String suffix = partition.substring(prefix.length());
+            try {
+                return unit == ChronoUnit.MONTHS ? YearMonth.parse(suffix, format).atDay(1) : LocalDate.parse(suffix, format);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -66,8 +66,8 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * Check if seats are already booked for an event
      */
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
-           "FROM Booking b WHERE b.event.id = :eventId " +
-           "AND b.status = 'CONFIRMED' " +
-           "AND EXISTS (SELECT 1 FROM b.seatIds si WHERE si IN :seatIds)")
+           "FROM Booking b JOIN b.seats s WHERE s.eventId = :eventId " +
+           "AND s.seatId IN :seatIds " +
+           "AND b.status = 'CONFIRMED'")
     boolean areSeatsAlreadyBooked(@Param("eventId") Long eventId, @Param("seatIds") List<Long> seatIds);
 }
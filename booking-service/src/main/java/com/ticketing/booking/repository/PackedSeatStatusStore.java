@@ -0,0 +1,117 @@
+package com.ticketing.booking.repository;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Status blocks of packed-seat events (packed_seat_statuses, see {@link PackedSeatStatuses}).
+ * Seats are addressed by their status_index; {@link SeatStatusTransitionsImpl} maps seat ids
+ * to indexes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PackedSeatStatusStore {
+
+    private static final String BLOCK_FOR_UPDATE_SQL =
+        "SELECT statuses FROM packed_seat_statuses WHERE event_id = ? AND block = ? FOR UPDATE";
+
+    private static final String BLOCK_SQL =
+        "SELECT statuses FROM packed_seat_statuses WHERE event_id = ? AND block = ?";
+
+    private static final String UPDATE_BLOCK_SQL =
+        "UPDATE packed_seat_statuses SET statuses = ?, version = version + 1 WHERE event_id = ? AND block = ?";
+
+    private static final String EVENT_SQL =
+        "SELECT statuses FROM packed_seat_statuses WHERE event_id = ? ORDER BY block";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Move the given seats of an event to status {@code to}, skipping seats whose current
+     * status is not in {@code from} (the same guards as the row updates). Blocks are locked
+     * in block order and rewritten only when a seat of them changed.
+     *
+     * @return number of seats moved
+     */
+    public int transition(Long eventId, Collection<Integer> statusIndexes, Set<Seat.SeatStatus> from,
+                          Seat.SeatStatus to) {
+        Map<Integer, List<Integer>> offsetsByBlock = new TreeMap<>();
+        for (Integer statusIndex : statusIndexes) {
+            offsetsByBlock.computeIfAbsent(PackedSeatStatuses.block(statusIndex), block -> new ArrayList<>())
+                .add(PackedSeatStatuses.offset(statusIndex));
+        }
+
+        int moved = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : offsetsByBlock.entrySet()) {
+            List<byte[]> rows = jdbcTemplate.queryForList(BLOCK_FOR_UPDATE_SQL, byte[].class, eventId, entry.getKey());
+            if (rows.isEmpty()) {
+                continue;
+            }
+            byte[] statuses = rows.get(0);
+            int movedInBlock = 0;
+            for (Integer offset : entry.getValue()) {
+                if (from.contains(PackedSeatStatuses.get(statuses, offset))) {
+                    PackedSeatStatuses.set(statuses, offset, to);
+                    movedInBlock++;
+                }
+            }
+            if (movedInBlock > 0) {
+                jdbcTemplate.update(UPDATE_BLOCK_SQL, statuses, eventId, entry.getKey());
+                moved += movedInBlock;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Status blocks of an event by block number, only the requested ones
+     */
+    public Map<Integer, byte[]> blocks(Long eventId, Collection<Integer> blocks) {
+        Map<Integer, byte[]> statuses = new HashMap<>();
+        for (Integer block : blocks) {
+            List<byte[]> rows = jdbcTemplate.queryForList(BLOCK_SQL, byte[].class, eventId, block);
+            if (!rows.isEmpty()) {
+                statuses.put(block, rows.get(0));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Like {@link #blocks}, but locks the blocks FOR UPDATE, in block order as {@link #transition} does
+     */
+    public Map<Integer, byte[]> lockBlocks(Long eventId, Collection<Integer> blocks) {
+        Map<Integer, byte[]> statuses = new HashMap<>();
+        for (Integer block : new TreeSet<>(blocks)) {
+            List<byte[]> rows = jdbcTemplate.queryForList(BLOCK_FOR_UPDATE_SQL, byte[].class, eventId, block);
+            if (!rows.isEmpty()) {
+                statuses.put(block, rows.get(0));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Status array of a whole event (its blocks concatenated), empty when not packed
+     */
+    public byte[] statuses(Long eventId) {
+        ByteArrayOutputStream statuses = new ByteArrayOutputStream();
+        for (byte[] block : jdbcTemplate.queryForList(EVENT_SQL, byte[].class, eventId)) {
+            statuses.writeBytes(block);
+        }
+        return statuses.toByteArray();
+    }
+}
@@ -1,6 +1,7 @@
 package com.ticketing.booking.repository;
 
 import com.ticketing.common.entity.SeatHold;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,24 +40,93 @@ public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
                                            @Param("now") LocalDateTime now);
 
     /**
-     * Find holds for specific seats that are still active
-     * Uses native query because PostgreSQL array overlap requires native syntax
+     * Find all unexpired active holds of an event
      */
-    @Query(value = "SELECT * FROM seat_holds sh WHERE sh.event_id = :eventId " +
+    @Query("SELECT sh FROM SeatHold sh WHERE sh.event.id = :eventId " +
            "AND sh.status = 'ACTIVE' " +
-           "AND sh.expires_at > :now " +
-           "AND sh.seat_ids && CAST(:seatIds AS bigint[])", 
+           "AND sh.expiresAt > :now")
+    List<SeatHold> findActiveHoldsForEvent(@Param("eventId") Long eventId, @Param("now") LocalDateTime now);
+
+    /**
+     * Find holds for specific seats that are still active.
+     * Seats are looked up in hold_seats by (event_id, seat_id), then the holds by primary key.
+     */
+    @Query(value = "SELECT * FROM seat_holds sh WHERE sh.id IN (" +
+           "SELECT hs.hold_id FROM hold_seats hs WHERE hs.event_id = :eventId " +
+           "AND hs.seat_id = ANY(CAST(:seatIds AS bigint[]))) " +
+           "AND sh.status = 'ACTIVE' " +
+           "AND sh.expires_at > :now",
            nativeQuery = true)
     List<SeatHold> findActiveHoldsForSeats(@Param("eventId") Long eventId,
                                           @Param("seatIds") Long[] seatIds,
                                           @Param("now") LocalDateTime now);
 
     /**
-     * Find expired holds for cleanup
+     * Find expired, still active holds that contain any of the given seats.
+     * Set-based counterpart of findExpiredHoldsForSeat for batched expiry processing.
      */
-    @Query("SELECT sh FROM SeatHold sh WHERE sh.status = 'ACTIVE' " +
+    @Query(value = "SELECT * FROM seat_holds sh WHERE sh.id IN (" +
+           "SELECT hs.hold_id FROM hold_seats hs WHERE hs.event_id = :eventId " +
+           "AND hs.seat_id = ANY(CAST(:seatIds AS bigint[]))) " +
+           "AND sh.status = 'ACTIVE' " +
+           "AND sh.expires_at <= :now",
+           nativeQuery = true)
+    List<SeatHold> findExpiredHoldsForSeats(@Param("eventId") Long eventId,
+                                            @Param("seatIds") Long[] seatIds,
+                                            @Param("now") LocalDateTime now);
+
+    /**
+     * Mark the given holds expired in one statement (only those still active)
+     */
+    @Modifying
+    @Query("UPDATE SeatHold sh SET sh.status = 'EXPIRED' " +
+           "WHERE sh.id IN :holdIds AND sh.status = 'ACTIVE'")
+    int expireHolds(@Param("holdIds") List<Long> holdIds);
+
+    /**
+     * Expire one hold by token if it is still active and past its expiry time
+     */
+    @Modifying
+    @Query("UPDATE SeatHold sh SET sh.status = 'EXPIRED' " +
+           "WHERE sh.holdToken = :holdToken AND sh.status = 'ACTIVE' " +
+           "AND sh.expiresAt <= :now")
+    int expireHoldByToken(@Param("holdToken") String holdToken, @Param("now") LocalDateTime now);
+
+    /**
+     * Lock the given holds that are still active and past their expiry time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sh FROM SeatHold sh WHERE sh.holdToken IN :holdTokens " +
+           "AND sh.status = 'ACTIVE' " +
            "AND sh.expiresAt <= :now")
-    List<SeatHold> findExpiredHolds(@Param("now") LocalDateTime now);
+    List<SeatHold> findExpiredHoldsByTokenForUpdate(@Param("holdTokens") Collection<String> holdTokens,
+                                                    @Param("now") LocalDateTime now);
+
+    /**
+     * Next page of expired holds after the given id, in id order (keyset pagination for cleanup),
+     * limited to the cleanup shards (id mod shardCount) this instance holds
+     */
+    @Query("SELECT sh FROM SeatHold sh WHERE sh.status = 'ACTIVE' " +
+           "AND sh.expiresAt <= :now " +
+           "AND sh.id > :afterId " +
+           "AND MOD(sh.id, :shardCount) IN :shards " +
+           "ORDER BY sh.id")
+    List<SeatHold> findExpiredHoldsInShardsAfter(@Param("afterId") Long afterId,
+                                                 @Param("shardCount") long shardCount,
+                                                 @Param("shards") Collection<Long> shards,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable page);
+
+    /**
+     * Lock the given holds that are still active and past their expiry time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sh FROM SeatHold sh WHERE sh.id IN :holdIds " +
+           "AND sh.status = 'ACTIVE' " +
+           "AND sh.expiresAt <= :now " +
+           "ORDER BY sh.id")
+    List<SeatHold> findExpiredHoldsByIdForUpdate(@Param("holdIds") Collection<Long> holdIds,
+                                                 @Param("now") LocalDateTime now);
 
     /**
      * Bulk update expired holds
@@ -78,10 +149,10 @@ public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
      * Find active holds that contain a specific seat and have expired.
      * Used by SeatStateConsumer when processing TTL expiry events.
      */
-    @Query(value = "SELECT * FROM seat_holds sh WHERE sh.event_id = :eventId " +
+    @Query(value = "SELECT * FROM seat_holds sh WHERE sh.id IN (" +
+           "SELECT hs.hold_id FROM hold_seats hs WHERE hs.event_id = :eventId AND hs.seat_id = :seatId) " +
            "AND sh.status = 'ACTIVE' " +
-           "AND sh.expires_at <= :now " +
-           "AND :seatId = ANY(sh.seat_ids)",
+           "AND sh.expires_at <= :now",
            nativeQuery = true)
     List<SeatHold> findExpiredHoldsForSeat(@Param("eventId") Long eventId,
                                            @Param("seatId") Long seatId,
@@ -12,8 +12,12 @@ import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Status writes go through {@link SeatStatusTransitions}, which also handles events with
+ * packed seat statuses; the status column of their seat rows is not kept up to date.
+ */
 @Repository
-public interface SeatRepository extends JpaRepository<Seat, Long> {
+public interface SeatRepository extends JpaRepository<Seat, Long>, SeatStatusTransitions {
 
     /**
      * Find seats by event with availability status
@@ -61,34 +65,6 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
            "AND s.status = 'AVAILABLE'")
     boolean areAllSeatsAvailable(@Param("seatIds") List<Long> seatIds, @Param("expectedCount") long expectedCount);
 
-    /**
-     * Update seat status to HELD (legacy - only from AVAILABLE)
-     */
-    @Modifying
-    @Query("UPDATE Seat s SET s.status = 'HELD' " +
-           "WHERE s.id IN :seatIds AND s.status = 'AVAILABLE'")
-    int holdSeats(@Param("seatIds") List<Long> seatIds);
-
-    /**
-     * Update seat status to HELD with DB guard.
-     * Allows transition from any state except BOOKED.
-     * Redis SET NX prevents concurrent holds; this guard catches permanently sold seats
-     * and handles the Kafka-lag window where an expired hold hasn't been cleaned up in DB yet.
-     */
-    @Modifying
-    @Query("UPDATE Seat s SET s.status = 'HELD' " +
-           "WHERE s.id IN :seatIds AND s.status <> 'BOOKED'")
-    int holdSeatsGuarded(@Param("seatIds") List<Long> seatIds);
-
-    /**
-     * Update seat status to BOOKED with conditional check
-     * This ensures only the lock holder can confirm the booking
-     */
-    @Modifying
-    @Query("UPDATE Seat s SET s.status = 'BOOKED' " +
-           "WHERE s.id IN :seatIds AND s.status = 'HELD'")
-    int bookSeats(@Param("seatIds") List<Long> seatIds);
-    
     /**
      * Update seat status to BOOKED with lock token verification
      * Used for conditional updates to prevent race conditions
@@ -98,14 +74,6 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
            "WHERE s.id = :seatId AND s.status = 'HELD'")
     int bookSeatConditional(@Param("seatId") Long seatId);
 
-    /**
-     * Release held seats back to AVAILABLE
-     */
-    @Modifying
-    @Query("UPDATE Seat s SET s.status = 'AVAILABLE' " +
-           "WHERE s.id IN :seatIds AND s.status = 'HELD'")
-    int releaseSeats(@Param("seatIds") List<Long> seatIds);
-
     /**
      * Count available seats for an event
      */
@@ -0,0 +1,56 @@
+package com.ticketing.booking.repository;
+
+import com.ticketing.common.entity.Seat;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seat status writes and status reads that cover both storage modes: a status column per
+ * seat row, or packed status blocks for events with packed seats (seats.status_index set).
+ */
+public interface SeatStatusTransitions {
+
+    /**
+     * Update seat status to HELD (legacy - only from AVAILABLE)
+     */
+    int holdSeats(List<Long> seatIds);
+
+    /**
+     * Update seat status to HELD with DB guard.
+     * Allows transition from any state except BOOKED.
+     * Redis SET NX prevents concurrent holds; this guard catches permanently sold seats
+     * and handles the Kafka-lag window where an expired hold hasn't been cleaned up in DB yet.
+     */
+    int holdSeatsGuarded(List<Long> seatIds);
+
+    /**
+     * Update seat status to BOOKED with conditional check
+     * This ensures only the lock holder can confirm the booking
+     */
+    int bookSeats(List<Long> seatIds);
+
+    /**
+     * Release held seats back to AVAILABLE
+     */
+    int releaseSeats(List<Long> seatIds);
+
+    /**
+     * Seat id/status pairs of an event ordered by id.
+     * Used to rebuild the in-memory seat inventory without loading full entities.
+     */
+    List<Object[]> findSeatStatesByEventId(Long eventId);
+
+    /**
+     * Current statuses of the packed seats among the given ones; seats stored as rows are
+     * left out, their entity status is current.
+     */
+    Map<Long, Seat.SeatStatus> packedStatuses(Collection<Seat> seats);
+
+    /**
+     * {@link #packedStatuses}, locking the status blocks read until the transaction ends:
+     * packed seats change only through their blocks, so their seat row locks do not hold them.
+     */
+    Map<Long, Seat.SeatStatus> lockPackedStatuses(Collection<Seat> seats);
+}
@@ -0,0 +1,148 @@
+package com.ticketing.booking.repository;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Row updates are guarded by {@code statusIndex IS NULL} so they never touch packed seats;
+ * when they update fewer seats than asked, the packed ones among the rest go through
+ * {@link PackedSeatStatusStore} with the same guard.
+ */
+@RequiredArgsConstructor
+public class SeatStatusTransitionsImpl implements SeatStatusTransitions {
+
+    private static final String HOLD_JPQL = "UPDATE Seat s SET s.status = 'HELD' " +
+        "WHERE s.id IN :seatIds AND s.status = 'AVAILABLE' AND s.statusIndex IS NULL";
+
+    private static final String HOLD_GUARDED_JPQL = "UPDATE Seat s SET s.status = 'HELD' " +
+        "WHERE s.id IN :seatIds AND s.status <> 'BOOKED' AND s.statusIndex IS NULL";
+
+    private static final String BOOK_JPQL = "UPDATE Seat s SET s.status = 'BOOKED' " +
+        "WHERE s.id IN :seatIds AND s.status = 'HELD' AND s.statusIndex IS NULL";
+
+    private static final String RELEASE_JPQL = "UPDATE Seat s SET s.status = 'AVAILABLE' " +
+        "WHERE s.id IN :seatIds AND s.status = 'HELD' AND s.statusIndex IS NULL";
+
+    private static final String PACKED_POSITIONS_JPQL = "SELECT s.event.id, s.statusIndex FROM Seat s " +
+        "WHERE s.id IN :seatIds AND s.statusIndex IS NOT NULL";
+
+    private static final String SEAT_STATES_JPQL = "SELECT s.id, s.status, s.statusIndex FROM Seat s " +
+        "WHERE s.event.id = :eventId ORDER BY s.id";
+
+    private final EntityManager entityManager;
+    private final PackedSeatStatusStore packedSeatStatusStore;
+
+    @Override
+    public int holdSeats(List<Long> seatIds) {
+        return transition(HOLD_JPQL, seatIds, EnumSet.of(Seat.SeatStatus.AVAILABLE), Seat.SeatStatus.HELD);
+    }
+
+    @Override
+    public int holdSeatsGuarded(List<Long> seatIds) {
+        return transition(HOLD_GUARDED_JPQL, seatIds,
+            EnumSet.of(Seat.SeatStatus.AVAILABLE, Seat.SeatStatus.HELD), Seat.SeatStatus.HELD);
+    }
+
+    @Override
+    public int bookSeats(List<Long> seatIds) {
+        return transition(BOOK_JPQL, seatIds, EnumSet.of(Seat.SeatStatus.HELD), Seat.SeatStatus.BOOKED);
+    }
+
+    @Override
+    public int releaseSeats(List<Long> seatIds) {
+        return transition(RELEASE_JPQL, seatIds, EnumSet.of(Seat.SeatStatus.HELD), Seat.SeatStatus.AVAILABLE);
+    }
+
+    private int transition(String rowJpql, List<Long> seatIds, Set<Seat.SeatStatus> from, Seat.SeatStatus to) {
+        int updated = entityManager.createQuery(rowJpql)
+            .setParameter("seatIds", seatIds)
+            .executeUpdate();
+        if (updated == seatIds.size()) {
+            return updated;
+        }
+
+        // Events in id order, then blocks in block order: one lock order for every writer
+        Map<Long, List<Integer>> indexesByEvent = new TreeMap<>();
+        for (Object[] position : entityManager.createQuery(PACKED_POSITIONS_JPQL, Object[].class)
+                .setParameter("seatIds", seatIds)
+                .getResultList()) {
+            indexesByEvent.computeIfAbsent((Long) position[0], eventId -> new ArrayList<>())
+                .add((Integer) position[1]);
+        }
+        for (Map.Entry<Long, List<Integer>> entry : indexesByEvent.entrySet()) {
+            updated += packedSeatStatusStore.transition(entry.getKey(), entry.getValue(), from, to);
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Object[]> findSeatStatesByEventId(Long eventId) {
+        List<Object[]> rows = entityManager.createQuery(SEAT_STATES_JPQL, Object[].class)
+            .setParameter("eventId", eventId)
+            .getResultList();
+
+        List<Object[]> states = new ArrayList<>(rows.size());
+        byte[] packed = null;
+        for (Object[] row : rows) {
+            Integer statusIndex = (Integer) row[2];
+            if (statusIndex == null) {
+                states.add(new Object[]{row[0], row[1]});
+                continue;
+            }
+            if (packed == null) {
+                packed = packedSeatStatusStore.statuses(eventId);
+            }
+            states.add(new Object[]{row[0], PackedSeatStatuses.get(packed, statusIndex)});
+        }
+        return states;
+    }
+
+    @Override
+    public Map<Long, Seat.SeatStatus> packedStatuses(Collection<Seat> seats) {
+        return packedStatuses(seats, false);
+    }
+
+    @Override
+    public Map<Long, Seat.SeatStatus> lockPackedStatuses(Collection<Seat> seats) {
+        return packedStatuses(seats, true);
+    }
+
+    private Map<Long, Seat.SeatStatus> packedStatuses(Collection<Seat> seats, boolean lock) {
+        // Same event order as transition, so locking readers and writers never wait on each other in a cycle
+        Map<Long, List<Seat>> packedByEvent = new TreeMap<>();
+        for (Seat seat : seats) {
+            if (seat.getStatusIndex() != null) {
+                packedByEvent.computeIfAbsent(seat.getEvent().getId(), eventId -> new ArrayList<>()).add(seat);
+            }
+        }
+
+        Map<Long, Seat.SeatStatus> statuses = new HashMap<>();
+        for (Map.Entry<Long, List<Seat>> entry : packedByEvent.entrySet()) {
+            Set<Integer> blocks = new HashSet<>();
+            entry.getValue().forEach(seat -> blocks.add(PackedSeatStatuses.block(seat.getStatusIndex())));
+            Map<Integer, byte[]> blockStatuses = lock
+                ? packedSeatStatusStore.lockBlocks(entry.getKey(), blocks)
+                : packedSeatStatusStore.blocks(entry.getKey(), blocks);
+
+            for (Seat seat : entry.getValue()) {
+                byte[] block = blockStatuses.get(PackedSeatStatuses.block(seat.getStatusIndex()));
+                if (block != null) {
+                    statuses.put(seat.getId(), PackedSeatStatuses.get(block, PackedSeatStatuses.offset(seat.getStatusIndex())));
+                }
+            }
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import com.ticketing.common.service.SeatStatusCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Batch variant of {@link SeatStateConsumer} for mass expiries.
+ *
+ * Takes a whole poll and handles it set-based. Hold-level records are collapsed by
+ * token: one locking SELECT finds the holds still active, one UPDATE expires them and
+ * one guarded UPDATE releases all their seats. Per-seat records (published before
+ * hold-level tracking) are grouped by event: one locking SELECT and one guarded
+ * UPDATE release every still-HELD seat, one query per event finds the expired holds
+ * behind them and one UPDATE expires those. Each hold gets a single expiry event.
+ * Offsets are committed once per batch (AckMode.BATCH), so a failed batch is redelivered
+ * as a whole; every step is idempotent.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.expiry.consumer.batch.enabled", havingValue = "true")
+public class BatchSeatStateConsumer {
+
+    private final SeatRepository seatRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final EventMessagingService messagingService;
+    private final ObjectMapper objectMapper;
+    private final SeatStatusCacheService seatStatusCacheService;
+    private final SeatViewExpiryListener seatViewExpiryListener;
+
+    @Transactional
+    @KafkaListener(
+        topics = "${kafka.topics.seat-state-transitions:seat-state-transitions}",
+        groupId = "${kafka.consumer.group-id:booking-service-seat-state}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void onSeatStateTransitions(List<ConsumerRecord<String, String>> records) {
+        // Hold-level expiries by token (duplicates collapse), in token order for consistent locking
+        TreeSet<String> expiredHoldTokens = new TreeSet<>();
+        // Per-seat records from before hold-level tracking: eventId -> expired seat IDs, in id order
+        Map<Long, TreeSet<Long>> expiredSeatsByEvent = new HashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> event = objectMapper.readValue(record.value(), Map.class);
+
+                String eventType = (String) event.get("eventType");
+                if ("SEAT_HOLD_EXPIRED".equals(eventType) && event.get("holdToken") != null) {
+                    expiredHoldTokens.add((String) event.get("holdToken"));
+                } else if ("SEAT_HOLD_EXPIRED".equals(eventType)) {
+                    Long eventId = ((Number) event.get("eventId")).longValue();
+                    Long seatId = ((Number) event.get("seatId")).longValue();
+                    expiredSeatsByEvent.computeIfAbsent(eventId, id -> new TreeSet<>()).add(seatId);
+                } else {
+                    log.debug("Ignoring event type: {}", eventType);
+                }
+            } catch (Exception e) {
+                log.error("Failed to parse seat state transition: key={}", record.key(), e);
+            }
+        }
+
+        if (!expiredHoldTokens.isEmpty()) {
+            handleHoldExpiries(expiredHoldTokens);
+        }
+        if (!expiredSeatsByEvent.isEmpty()) {
+            handleSeatExpiries(expiredSeatsByEvent);
+        }
+    }
+
+    private void handleHoldExpiries(TreeSet<String> holdTokens) {
+        List<SeatHold> holds = seatHoldRepository.findExpiredHoldsByTokenForUpdate(holdTokens, LocalDateTime.now());
+        if (holds.isEmpty()) {
+            log.debug("None of {} expired holds is still active, skipping", holdTokens.size());
+            return;
+        }
+
+        Map<Long, List<Long>> seatsByEvent = new LinkedHashMap<>();
+        List<Long> seatIds = new ArrayList<>();
+        for (SeatHold hold : holds) {
+            seatsByEvent.computeIfAbsent(hold.getEvent().getId(), id -> new ArrayList<>()).addAll(hold.getSeatIds());
+            seatIds.addAll(hold.getSeatIds());
+        }
+
+        seatHoldRepository.expireHolds(holds.stream().map(SeatHold::getId).toList());
+        int released = seatRepository.releaseSeats(seatIds);
+        for (SeatHold hold : holds) {
+            messagingService.publishSeatHoldExpired(
+                hold.getHoldToken(),
+                hold.getCustomerId(),
+                hold.getEvent().getId(),
+                hold.getSeatIds()
+            );
+        }
+
+        transitionAfterCommit(seatsByEvent);
+
+        log.info("Hold expiry batch: {} holds expired, {} seats released across {} events",
+                holds.size(), released, seatsByEvent.size());
+    }
+
+    private void handleSeatExpiries(Map<Long, TreeSet<Long>> expiredSeatsByEvent) {
+        List<Long> expiredSeatIds = new ArrayList<>();
+        expiredSeatsByEvent.values().forEach(expiredSeatIds::addAll);
+
+        // Only seats still HELD go back to AVAILABLE; released or booked seats are left alone
+        List<Seat> expiredSeats = seatRepository.findByIdInForUpdate(expiredSeatIds);
+        // Seats of packed events keep their status in the event's blocks; only those need the extra read
+        boolean anyPacked = expiredSeats.stream().anyMatch(seat -> seat.getStatusIndex() != null);
+        Map<Long, Seat.SeatStatus> packedStatuses = anyPacked ? seatRepository.packedStatuses(expiredSeats) : Map.of();
+        List<Long> heldSeatIds = expiredSeats.stream()
+            .filter(seat -> packedStatuses.getOrDefault(seat.getId(), seat.getStatus()) == Seat.SeatStatus.HELD)
+            .map(Seat::getId)
+            .toList();
+        if (heldSeatIds.isEmpty()) {
+            log.debug("All {} expired seats already released or booked, skipping", expiredSeatIds.size());
+            return;
+        }
+        int released = seatRepository.releaseSeats(heldSeatIds);
+        Set<Long> releasedSeats = new HashSet<>(heldSeatIds);
+
+        Map<Long, List<Long>> releasedByEvent = new LinkedHashMap<>();
+        Map<Long, SeatHold> expiredHolds = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        expiredSeatsByEvent.forEach((eventId, seatIds) -> {
+            List<Long> releasedSeatIds = seatIds.stream().filter(releasedSeats::contains).toList();
+            if (releasedSeatIds.isEmpty()) {
+                return;
+            }
+            releasedByEvent.put(eventId, releasedSeatIds);
+            for (SeatHold hold : seatHoldRepository.findExpiredHoldsForSeats(
+                    eventId, releasedSeatIds.toArray(Long[]::new), now)) {
+                expiredHolds.putIfAbsent(hold.getId(), hold);
+            }
+        });
+
+        if (!expiredHolds.isEmpty()) {
+            seatHoldRepository.expireHolds(new ArrayList<>(expiredHolds.keySet()));
+            for (SeatHold hold : expiredHolds.values()) {
+                messagingService.publishSeatHoldExpired(
+                    hold.getHoldToken(),
+                    hold.getCustomerId(),
+                    hold.getEvent().getId(),
+                    hold.getSeatIds()
+                );
+            }
+        }
+
+        transitionAfterCommit(releasedByEvent);
+
+        log.info("Seat expiry batch: {} expired seats, {} released, {} holds expired across {} events",
+                expiredSeatIds.size(), released, expiredHolds.size(), releasedByEvent.size());
+    }
+
+    // Cache seat status transitions HELD → AVAILABLE and free the seats in the seat views after DB commit
+    private void transitionAfterCommit(Map<Long, List<Long>> seatsByEvent) {
+        seatsByEvent.forEach(seatViewExpiryListener::expiredAfterCommit);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    seatsByEvent.forEach((eventId, seatIds) ->
+                        seatStatusCacheService.transitionSeatStatuses(eventId, seatIds, "HELD", "AVAILABLE"));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.booking.allocation.SeatAllocationIndex;
+import com.ticketing.common.dto.BestAvailableHoldRequest;
+import com.ticketing.common.dto.SeatHoldRequest;
+import com.ticketing.common.dto.SeatHoldResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Holds seats picked by the server instead of the client.
+ *
+ * Seats come from the allocation index and go through the regular hold path, so
+ * Redis locks and the DB guard still decide. When the picked seats turn out to be
+ * taken (held through another instance, stale index) they stay marked taken in the
+ * index and other seats are picked, up to booking.allocation.max.attempts times. Any
+ * other failure hands the picked seats back to the index and is rethrown.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BestAvailableHoldService {
+
+    private final SeatAllocationIndex seatAllocationIndex;
+    private final BookingService bookingService;
+
+    @Value("${booking.allocation.max.attempts:3}")
+    private int maxAttempts;
+
+    public SeatHoldResponse holdBestAvailable(BestAvailableHoldRequest request) {
+        Long eventId = request.getEventId();
+        SeatUnavailableException lastConflict = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            List<Long> seatIds = seatAllocationIndex.allocate(eventId, request.getQuantity(),
+                    request.getSection(), request.getMaxPrice(), request.isTogether());
+            if (seatIds.isEmpty()) {
+                throw new SeatUnavailableException(request.isTogether()
+                    ? "Not enough seats available together for the requested quantity"
+                    : "Not enough seats available for the requested quantity");
+            }
+
+            SeatHoldRequest holdRequest = SeatHoldRequest.builder()
+                .customerId(request.getCustomerId())
+                .eventId(eventId)
+                .seatIds(seatIds)
+                .build();
+
+            try {
+                return bookingService.holdSeats(holdRequest);
+            } catch (SeatUnavailableException e) {
+                // Taken elsewhere: leave them marked taken and pick again
+                log.debug("Best-available attempt {} for event {} lost seats {}: {}",
+                        attempt, eventId, seatIds, e.getMessage());
+                lastConflict = e;
+            } catch (RuntimeException e) {
+                // Not about the seats (validation, idempotency, busy inventory): they are still free
+                seatAllocationIndex.markFree(eventId, seatIds);
+                throw e;
+            }
+        }
+
+        log.info("Best-available hold for event {} gave up after {} attempts", eventId, maxAttempts);
+        throw new SeatUnavailableException("Seats are in high demand, please retry", lastConflict);
+    }
+}
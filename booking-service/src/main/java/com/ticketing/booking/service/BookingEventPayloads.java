@@ -0,0 +1,80 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.dto.BookingDto;
+import com.ticketing.common.dto.SeatHoldDto;
+import com.ticketing.common.entity.Seat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON bodies of the booking domain events, shared by the direct Kafka and the outbox publishers.
+ */
+final class BookingEventPayloads {
+
+    private BookingEventPayloads() {
+    }
+
+    static Map<String, Object> seatHoldCreated(SeatHoldDto seatHold, List<Seat> seats) {
+        Map<String, Object> event = seatHoldEvent(seatHold, "CREATED");
+        event.put("seats", seats.stream().map(BookingEventPayloads::seatInfo).toList());
+        return event;
+    }
+
+    static Map<String, Object> seatHoldEvent(SeatHoldDto seatHold, String eventType) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", "SEAT_HOLD_" + eventType);
+        event.put("holdToken", seatHold.getHoldToken());
+        event.put("customerId", seatHold.getCustomerId());
+        event.put("eventId", seatHold.getEventId());
+        event.put("seatIds", seatHold.getSeatIds());
+        event.put("seatCount", seatHold.getSeatCount());
+        event.put("expiresAt", seatHold.getExpiresAt());
+        event.put("status", seatHold.getStatus());
+        event.put("createdAt", seatHold.getCreatedAt());
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("source", "booking-service");
+        return event;
+    }
+
+    static Map<String, Object> seatHoldExpired(String holdToken, Long customerId, Long eventId, List<Long> seatIds) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", "SEAT_HOLD_EXPIRED");
+        event.put("holdToken", holdToken);
+        event.put("customerId", customerId);
+        event.put("eventId", eventId);
+        event.put("seatIds", seatIds);
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("source", "booking-service");
+        return event;
+    }
+
+    static Map<String, Object> bookingConfirmed(BookingDto booking) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", "BOOKING_CONFIRMED");
+        event.put("bookingId", booking.getId());
+        event.put("bookingReference", booking.getBookingReference());
+        event.put("customerId", booking.getCustomerId());
+        event.put("eventId", booking.getEventId());
+        event.put("seatIds", booking.getSeatIds());
+        event.put("totalAmount", booking.getTotalAmount());
+        event.put("paymentId", booking.getPaymentId());
+        event.put("holdToken", booking.getHoldToken());
+        event.put("confirmedAt", booking.getConfirmedAt());
+        event.put("timestamp", System.currentTimeMillis());
+        event.put("source", "booking-service");
+        return event;
+    }
+
+    private static Map<String, Object> seatInfo(Seat seat) {
+        Map<String, Object> seatInfo = new HashMap<>();
+        seatInfo.put("seatId", seat.getId());
+        seatInfo.put("section", seat.getSection());
+        seatInfo.put("rowLetter", seat.getRowLetter());
+        seatInfo.put("seatNumber", seat.getSeatNumber());
+        seatInfo.put("price", seat.getPrice());
+        seatInfo.put("seatIdentifier", seat.getSeatIdentifier());
+        return seatInfo;
+    }
+}
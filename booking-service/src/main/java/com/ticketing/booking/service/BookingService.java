@@ -1,19 +1,24 @@
 package com.ticketing.booking.service;
 
+import com.ticketing.booking.allocation.SeatAllocationIndex;
+import com.ticketing.booking.archive.BookingArchive;
+import com.ticketing.booking.inventory.SeatInventory;
+import com.ticketing.booking.load.HoldLoadMonitor;
 import com.ticketing.booking.repository.BookingRepository;
 import com.ticketing.booking.repository.SeatHoldRepository;
 import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.booking.write.SeatWriteStage;
 import com.ticketing.common.dto.*;
 import com.ticketing.common.entity.*;
 import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.RedisKeys;
 import com.ticketing.common.util.TokenGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
@@ -22,8 +27,6 @@ import org.springframework.data.redis.RedisConnectionFailureException;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,8 +39,14 @@ public class BookingService {
     private final SeatHoldRepository seatHoldRepository;
     private final BookingRepository bookingRepository;
     private final EventMessagingService messagingService;
-    private final StringRedisTemplate redisTemplate;
+    private final SeatLockService seatLockService;
     private final SeatStatusCacheService seatStatusCacheService;
+    private final SeatInventory seatInventory;
+    private final SeatWriteStage seatWriteStage;
+    private final TransactionOperations transactionOperations;
+    private final SeatAllocationIndex seatAllocationIndex;
+    private final BookingArchive bookingArchive;
+    private final HoldLoadMonitor holdLoadMonitor;
 
     @Value("${booking.hold.duration.minutes:10}")
     private int defaultHoldDurationMinutes;
@@ -45,23 +54,12 @@ public class BookingService {
     @Value("${booking.max.seats.per.booking:10}")
     private int maxSeatsPerBooking;
 
-    // Lua script for atomic lock release: only delete if value matches
-    private static final String RELEASE_LOCK_LUA =
-        "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
-        "  return redis.call('DEL', KEYS[1]) " +
-        "else " +
-        "  return 0 " +
-        "end";
-
-    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT =
-        new DefaultRedisScript<>(RELEASE_LOCK_LUA, Long.class);
-
     /**
      * Build Redis key for a seat hold.
-     * Pattern: seat:{eventId}:{seatId}:HELD
+     * Pattern: seat:{evt:<eventId>}:<seatId>:HELD (hash-tagged, see RedisKeys)
      */
     static String seatHoldKey(Long eventId, Long seatId) {
-        return String.format("seat:%d:%d:HELD", eventId, seatId);
+        return RedisKeys.seatHoldKey(eventId, seatId);
     }
 
     /**
@@ -75,8 +73,8 @@ public class BookingService {
     /**
      * Create a seat hold using per-seat Redis locks.
      * Falls back to DB pessimistic row locking (SELECT ... FOR UPDATE) when Redis is unavailable.
+     * The DB transaction only spans the write, so no connection is held during the Redis round trip.
      */
-    @Transactional
     public SeatHoldResponse holdSeats(SeatHoldRequest request) {
         validateHoldRequest(request);
 
@@ -84,31 +82,32 @@ public class BookingService {
         String holdToken = TokenGenerator.generateHoldToken();
         String redisValue = seatHoldValue(request.getCustomerId(), holdToken);
         Duration holdDuration = Duration.ofMinutes(defaultHoldDurationMinutes);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(holdDuration);
+
+        // 0. Reject holds on seats the in-process inventory already knows are taken
+        List<Long> inventoryConflicts = seatInventory.tryHold(eventId, request.getSeatIds(), expiresAt);
+        if (!inventoryConflicts.isEmpty()) {
+            throw new SeatUnavailableException(
+                "One or more seats are currently held by another customer: " + inventoryConflicts);
+        }
 
-        // 1. Try per-seat Redis locks (all-or-nothing)
-        List<String> acquiredKeys = new ArrayList<>();
+        // 1. Acquire all per-seat Redis locks in one round trip (all-or-nothing)
+        boolean locksAcquired = false;
         boolean degradedMode = false;
 
         try {
-            boolean allAcquired = true;
-
-            for (Long seatId : request.getSeatIds()) {
-                String key = seatHoldKey(eventId, seatId);
-                Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key, redisValue, holdDuration);
-
-                if (Boolean.TRUE.equals(acquired)) {
-                    acquiredKeys.add(key);
-                } else {
-                    allAcquired = false;
-                    break;
-                }
-            }
-
-            if (!allAcquired) {
-                releaseRedisKeys(acquiredKeys, redisValue);
-                throw new BookingException("One or more seats are currently held by another customer");
+            List<Long> conflictingSeatIds =
+                seatLockService.acquireAll(eventId, request.getSeatIds(), redisValue, holdDuration);
+
+            if (!conflictingSeatIds.isEmpty()) {
+                // Held through another instance: keep best-available from offering them again
+                seatAllocationIndex.markTaken(eventId, conflictingSeatIds);
+                throw new SeatUnavailableException(
+                    "One or more seats are currently held by another customer: " + conflictingSeatIds);
             }
+            locksAcquired = true;
         } catch (BookingException e) {
+            seatInventory.release(eventId, request.getSeatIds());
             throw e;  // contention — not a Redis infrastructure failure
         } catch (RedisConnectionFailureException e) {
             degradedMode = true;
@@ -118,114 +117,138 @@ public class BookingService {
                 degradedMode = true;
                 log.warn("Redis unavailable — falling back to DB pessimistic locking for seat hold (event={})", eventId, e);
             } else {
-                releaseRedisKeys(acquiredKeys, redisValue);
+                seatInventory.release(eventId, request.getSeatIds());
                 throw e;
             }
         }
 
         // Capture for use inside lambdas
         final boolean isDegradedMode = degradedMode;
+        if (isDegradedMode) {
+            holdLoadMonitor.redisUnavailable();
+        }
 
         try {
-            List<Seat> seats;
+            // Group commit runs the write in its own batched transaction; the degraded
+            // path needs its row locks and update in one transaction with the caller
+            if (!isDegradedMode && seatWriteStage.commitsIndependently()) {
+                return createHold(request, holdToken, expiresAt, false);
+            }
+            return transactionOperations.execute(status -> createHold(request, holdToken, expiresAt, isDegradedMode));
+        } catch (Exception e) {
+            // The only release of a failed write's inventory hold (the rollback callback leaves
+            // it alone): a second one could free a hold a concurrent request took since
+            seatInventory.release(eventId, request.getSeatIds());
+            if (locksAcquired) {
+                releaseRedisKeys(eventId, request.getSeatIds(), redisValue);
+            }
+            throw e;
+        }
+    }
 
-            if (degradedMode) {
-                // ── DB fallback path ──────────────────────────────────────
-                // Pessimistic row lock serializes concurrent holds at DB level.
-                // Strict WHERE status='AVAILABLE' replaces Redis SET NX contention guard.
-                seats = seatRepository.findByIdInForUpdate(request.getSeatIds());
+    private SeatHoldResponse createHold(SeatHoldRequest request, String holdToken,
+                                        LocalDateTime expiresAt, boolean isDegradedMode) {
+        Long eventId = request.getEventId();
 
-                int updatedSeats = seatRepository.holdSeats(request.getSeatIds());
-                if (updatedSeats != request.getSeatIds().size()) {
-                    throw new BookingException("One or more selected seats are no longer available");
-                }
-            } else {
-                // ── Normal path ───────────────────────────────────────────
-                // Redis SET NX already prevents concurrent hold conflict.
-                // DB guard protects against permanently sold (BOOKED) seats
-                // and handles Kafka-lag where an expired hold hasn't been cleaned up.
-                int updatedSeats = seatRepository.holdSeatsGuarded(request.getSeatIds());
-                if (updatedSeats != request.getSeatIds().size()) {
-                    throw new BookingException("One or more selected seats are no longer available");
-                }
+        // 2-3. Guard seats in DB and create seat hold record
+        SeatHold seatHold = SeatHold.builder()
+            .holdToken(holdToken)
+            .customerId(request.getCustomerId())
+            .seatIds(request.getSeatIds())
+            .seatCount(request.getSeatIds().size())
+            .expiresAt(expiresAt)
+            .status(SeatHold.HoldStatus.ACTIVE)
+            .build();
 
-                seats = seatRepository.findByIdIn(request.getSeatIds());
-            }
+        List<Seat> seats;
 
-            // 3. Create seat hold record
-            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(defaultHoldDurationMinutes);
+        if (isDegradedMode) {
+            // ── DB fallback path ──────────────────────────────────────
+            // Pessimistic row lock serializes concurrent holds at DB level.
+            // Strict WHERE status='AVAILABLE' replaces Redis SET NX contention guard.
+            seats = seatRepository.findByIdInForUpdate(request.getSeatIds());
 
-            SeatHold seatHold = SeatHold.builder()
-                .holdToken(holdToken)
-                .customerId(request.getCustomerId())
-                .event(seats.get(0).getEvent())
-                .seatIds(request.getSeatIds())
-                .seatCount(request.getSeatIds().size())
-                .expiresAt(expiresAt)
-                .status(SeatHold.HoldStatus.ACTIVE)
-                .build();
+            int updatedSeats = seatRepository.holdSeats(request.getSeatIds());
+            if (updatedSeats != request.getSeatIds().size()) {
+                throw new SeatUnavailableException("One or more selected seats are no longer available");
+            }
 
+            seatHold.setEvent(seats.get(0).getEvent());
             seatHold = seatHoldRepository.save(seatHold);
+            publishSeatHoldCreated(new SeatWriteStage.HeldSeats(seatHold, seats));
+        } else {
+            // ── Normal path ───────────────────────────────────────────
+            // Domain event joins the write's transaction (outbox), the group-commit batch's included
+            SeatWriteStage.HeldSeats held = seatWriteStage.writeHold(seatHold, this::publishSeatHoldCreated);
+            seatHold = held.getSeatHold();
+            seats = held.getSeats();
+        }
+
+        // 4. Build response (prepare DTOs before afterCompletion to avoid lazy-load issues)
+        SeatHoldDto holdDto = convertToDto(seatHold);
+        List<Long> seatIdsCopy = List.copyOf(request.getSeatIds());
 
-            // 4. Build response (prepare DTOs before afterCompletion to avoid lazy-load issues)
-            SeatHoldDto holdDto = convertToDto(seatHold);
-            List<Seat> seatsCopy = List.copyOf(seats);
-            List<Long> seatIdsCopy = List.copyOf(request.getSeatIds());
-
-            // 5. Redis HASH + Kafka side-effects after DB transaction completes
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCompletion(int status) {
-                    if (status == STATUS_COMMITTED) {
-                        seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "HELD");
-                        messagingService.publishSeatHoldCreated(holdDto, seatsCopy);
-                        if (isDegradedMode) {
-                            log.info("Seat hold committed in degraded mode (DB locks only), event={}", eventId);
-                        }
-                    } else {
-                        seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "AVAILABLE");
-                        log.warn("Seat hold rolled back for event={}, re-affirmed AVAILABLE in Redis HASH", eventId);
+        // 5. Redis HASH side-effects after the transaction completes
+        runAfterCompletion(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "HELD");
+                    seatAllocationIndex.markTaken(eventId, seatIdsCopy);
+                    if (isDegradedMode) {
+                        log.info("Seat hold committed in degraded mode (DB locks only), event={}", eventId);
                     }
+                } else {
+                    seatAllocationIndex.markFree(eventId, seatIdsCopy);
+                    seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "AVAILABLE");
+                    log.warn("Seat hold rolled back for event={}, re-affirmed AVAILABLE in Redis HASH", eventId);
                 }
-            });
-
-            // 6. Build response
-            BigDecimal totalAmount = seats.stream()
-                .map(Seat::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            log.info("Seat hold created: token={} customer={} event={} seats={} degraded={}",
-                    holdToken, request.getCustomerId(), eventId, request.getSeatIds().size(), isDegradedMode);
-
-            SeatHoldResponse response = new SeatHoldResponse();
-            response.setHoldToken(holdDto.getHoldToken());
-            response.setCustomerId(holdDto.getCustomerId());
-            response.setEventId(holdDto.getEventId());
-            response.setEventTitle(seats.get(0).getEvent().getTitle());
-            response.setSeatCount(holdDto.getSeatCount());
-            response.setTotalAmount(totalAmount);
-            response.setExpiresAt(holdDto.getExpiresAt());
-            response.setTimeRemainingSeconds(holdDto.getTimeRemainingSeconds());
-            response.setStatus(holdDto.getStatus());
-            response.setCreatedAt(holdDto.getCreatedAt());
-            response.setMessage(isDegradedMode
-                    ? "Seats held successfully (degraded mode — no Redis TTL). Complete payment within " +
-                      defaultHoldDurationMinutes + " minutes."
-                    : "Seats held successfully. Complete payment within " +
-                      defaultHoldDurationMinutes + " minutes.");
-
-            return response;
-
-        } catch (BookingException e) {
-            if (!isDegradedMode) {
-                releaseRedisKeys(acquiredKeys, redisValue);
             }
-            throw e;
-        } catch (Exception e) {
-            if (!isDegradedMode) {
-                releaseRedisKeys(acquiredKeys, redisValue);
-            }
-            throw e;
+        });
+
+        // 6. Build response
+        BigDecimal totalAmount = seats.stream()
+            .map(Seat::getPrice)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        log.info("Seat hold created: token={} customer={} event={} seats={} degraded={}",
+                holdToken, request.getCustomerId(), eventId, request.getSeatIds().size(), isDegradedMode);
+
+        SeatHoldResponse response = new SeatHoldResponse();
+        response.setHoldToken(holdDto.getHoldToken());
+        response.setCustomerId(holdDto.getCustomerId());
+        response.setEventId(holdDto.getEventId());
+        response.setEventTitle(seats.get(0).getEvent().getTitle());
+        response.setSeatIds(holdDto.getSeatIds());
+        response.setSeatCount(holdDto.getSeatCount());
+        response.setTotalAmount(totalAmount);
+        response.setExpiresAt(holdDto.getExpiresAt());
+        response.setTimeRemainingSeconds(holdDto.getTimeRemainingSeconds());
+        response.setStatus(holdDto.getStatus());
+        response.setCreatedAt(holdDto.getCreatedAt());
+        response.setMessage(isDegradedMode
+                ? "Seats held successfully (degraded mode — no Redis TTL). Complete payment within " +
+                  defaultHoldDurationMinutes + " minutes."
+                : "Seats held successfully. Complete payment within " +
+                  defaultHoldDurationMinutes + " minutes.");
+
+        return response;
+    }
+
+    private void publishSeatHoldCreated(SeatWriteStage.HeldSeats held) {
+        messagingService.publishSeatHoldCreated(convertToDto(held.getSeatHold()), List.copyOf(held.getSeats()));
+    }
+
+    /**
+     * Run side effects after the write's transaction completes. Group-commit writes
+     * have already committed when they return and there is no caller transaction,
+     * so the side effects run right away.
+     */
+    private static void runAfterCompletion(TransactionSynchronization synchronization) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        } else {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
         }
     }
 
@@ -244,26 +267,32 @@ public class BookingService {
     }
 
     /**
-     * Release Redis keys atomically using Lua script.
-     * Only deletes the key if its value matches (prevents releasing someone else's lock).
+     * Release the seat hold keys in one batched call.
+     * Only keys whose value still matches are deleted (prevents releasing someone else's lock).
      */
-    private void releaseRedisKeys(List<String> keys, String expectedValue) {
-        for (String key : keys) {
-            try {
-                redisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(key), expectedValue);
-            } catch (Exception e) {
-                log.error("Failed to release Redis key: {}", key, e);
-            }
+    private void releaseRedisKeys(Long eventId, List<Long> seatIds, String expectedValue) {
+        try {
+            seatLockService.releaseAll(eventId, seatIds, expectedValue);
+        } catch (Exception e) {
+            log.error("Failed to release Redis keys for event={} seats={}", eventId, seatIds, e);
         }
     }
 
     /**
      * Confirm booking from seat hold
      */
-    @Transactional
     public BookingDto confirmBooking(BookingConfirmRequest request) {
         validateConfirmRequest(request);
 
+        // With group commit the reads below run without holding a connection for the batched write
+        if (seatWriteStage.commitsIndependently()) {
+            return doConfirmBooking(request);
+        }
+        return transactionOperations.execute(status -> doConfirmBooking(request));
+    }
+
+    private BookingDto doConfirmBooking(BookingConfirmRequest request) {
+
         SeatHold seatHold = seatHoldRepository.findByHoldToken(request.getHoldToken())
             .orElseThrow(() -> new BookingNotFoundException("Seat hold not found: " + request.getHoldToken()));
 
@@ -295,34 +324,26 @@ public class BookingService {
 
         booking.confirm(request.getPaymentId());
 
-        // Update seats from HELD to BOOKED
-        int bookedSeats = seatRepository.bookSeats(seatHold.getSeatIds());
-        if (bookedSeats != seatHold.getSeatIds().size()) {
-            throw new BookingException("Failed to confirm all seats. Some may have been released.");
-        }
-
-        seatHold.confirm();
-        seatHoldRepository.save(seatHold);
-        booking = bookingRepository.save(booking);
+        // Update seats from HELD to BOOKED, confirm the hold and save the booking; the domain
+        // events join the write's transaction (outbox)
+        booking = seatWriteStage.writeConfirmation(seatHold, booking, saved -> {
+            messagingService.publishBookingConfirmed(convertToDto(saved));
+            messagingService.publishSeatHoldConfirmed(convertToDto(seatHold));
+        });
 
         // Prepare DTOs before afterCommit to avoid lazy-load issues
         BookingDto bookingDto = convertToDto(booking);
-        SeatHoldDto holdDto = convertToDto(seatHold);
         List<Long> seatIdsCopy = List.copyOf(seatHold.getSeatIds());
-        List<String> keysToDelete = seatIdsCopy.stream()
-            .map(seatId -> seatHoldKey(eventId, seatId))
-            .toList();
 
-        // Redis HASH + Kafka side-effects after DB transaction completes
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        // Redis side-effects after the transaction completes
+        runAfterCompletion(new TransactionSynchronization() {
             @Override
             public void afterCompletion(int status) {
                 if (status == STATUS_COMMITTED) {
                     // DB commit succeeded: seats are BOOKED
                     seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "BOOKED");
-                    releaseRedisKeys(keysToDelete, expectedValue);
-                    messagingService.publishBookingConfirmed(bookingDto);
-                    messagingService.publishSeatHoldConfirmed(holdDto);
+                    seatInventory.confirm(eventId, seatIdsCopy);
+                    releaseRedisKeys(eventId, seatIdsCopy, expectedValue);
                 } else {
                     // DB rolled back: seats remain HELD — re-affirm in HASH
                     // (handles Redis restart where HASH may have lost HELD entries)
@@ -368,19 +389,18 @@ public class BookingService {
         // Prepare before afterCommit to avoid lazy-load issues
         SeatHoldDto holdDto = convertToDto(seatHold);
         List<Long> seatIdsCopy = List.copyOf(seatHold.getSeatIds());
-        List<String> keysToDelete = seatIdsCopy.stream()
-            .map(seatId -> seatHoldKey(eventId, seatId))
-            .toList();
 
-        // Redis HASH + Kafka side-effects after DB transaction completes
+        // Domain event joins the DB transaction (outbox); Redis side-effects after it completes
+        messagingService.publishSeatHoldCancelled(holdDto);
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
             @Override
             public void afterCompletion(int status) {
                 if (status == STATUS_COMMITTED) {
                     // DB commit succeeded: seats are AVAILABLE
                     seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "AVAILABLE");
-                    releaseRedisKeys(keysToDelete, expectedValue);
-                    messagingService.publishSeatHoldCancelled(holdDto);
+                    seatInventory.release(eventId, seatIdsCopy);
+                    seatAllocationIndex.markFree(eventId, seatIdsCopy);
+                    releaseRedisKeys(eventId, seatIdsCopy, expectedValue);
                 } else {
                     // DB rolled back: seats remain HELD — re-affirm in HASH
                     seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "HELD");
@@ -394,19 +414,21 @@ public class BookingService {
     }
 
     /**
-     * Get booking by reference
+     * Get booking by reference, from the archive once its event has been archived
      */
     public Optional<BookingDto> getBookingByReference(String bookingReference) {
         return bookingRepository.findByBookingReference(bookingReference)
-            .map(this::convertToDto);
+            .map(this::convertToDto)
+            .or(() -> bookingArchive.findBookingByReference(bookingReference));
     }
 
     /**
-     * Get seat hold by token
+     * Get seat hold by token, from the archive once its event has been archived
      */
     public Optional<SeatHoldDto> getSeatHold(String holdToken) {
         return seatHoldRepository.findByHoldToken(holdToken)
-            .map(this::convertToDto);
+            .map(this::convertToDto)
+            .or(() -> bookingArchive.findHoldByToken(holdToken));
     }
 
     // Validation methods
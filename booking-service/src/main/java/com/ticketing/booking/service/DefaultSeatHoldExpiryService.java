@@ -1,8 +1,10 @@
 package com.ticketing.booking.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.util.RedisKeys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
@@ -11,24 +13,32 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Listens to Redis keyspace notifications for expired seat hold keys.
- * On expiry, publishes a lightweight event to Kafka so the consumer
- * can handle the DB cleanup with proper retry and error handling.
+ * Listens to Redis keyspace notifications for expired hold triggers.
+ * On expiry, publishes one lightweight event per hold (all of its seats) to Kafka
+ * so the consumer can handle the DB cleanup with proper retry and error handling.
+ *
+ * Per-seat hold keys only guard contention; their expiry is ignored. Holds whose
+ * trigger is missing (taken before the trigger existed, or in degraded mode) are
+ * picked up by SeatHoldCleanupJob.
+ *
+ * Notifications are fire-and-forget: expiries are missed while no instance is
+ * subscribed, and only db 0 of the connected node is heard. Only active with
+ * booking.expiry.source=keyspace; by default {@link HoldExpiryDrainer} drains the
+ * durable schedule instead.
  */
 @Service
 @Slf4j
+@ConditionalOnProperty(value = "booking.expiry.source", havingValue = "keyspace")
 public class DefaultSeatHoldExpiryService implements SeatHoldExpiryService {
 
     private final RedisMessageListenerContainer listenerContainer;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
-
-    // Key prefix: seat:{eventId}:{seatId}:HELD
-    private static final String SEAT_KEY_PREFIX = "seat:";
-    private static final String HELD_SUFFIX = ":HELD";
+    private final SeatLockService seatLockService;
 
     @Value("${kafka.topics.seat-state-transitions:seat-state-transitions}")
     private String seatStateTransitionsTopic;
@@ -36,10 +46,12 @@ public class DefaultSeatHoldExpiryService implements SeatHoldExpiryService {
     public DefaultSeatHoldExpiryService(
             RedisMessageListenerContainer listenerContainer,
             KafkaTemplate<String, String> kafkaTemplate,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            SeatLockService seatLockService) {
         this.listenerContainer = listenerContainer;
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.seatLockService = seatLockService;
     }
 
     @PostConstruct
@@ -55,54 +67,63 @@ public class DefaultSeatHoldExpiryService implements SeatHoldExpiryService {
     public void onMessage(Message message, byte[] pattern) {
         String expiredKey = new String(message.getBody());
 
-        if (!expiredKey.startsWith(SEAT_KEY_PREFIX) || !expiredKey.endsWith(HELD_SUFFIX)) {
+        // Parse hold:{evt:<eventId>}:<customerId>:<holdToken>:EXPIRES; anything else (seat keys included) is ignored
+        String[] hold = RedisKeys.parseHoldExpiryKey(expiredKey);
+        if (hold == null) {
             return;
         }
 
-        // Parse seat:{eventId}:{seatId}:HELD
         try {
-            String[] parts = expiredKey.split(":");
-            if (parts.length != 4) {
-                log.warn("Unexpected key format: {}", expiredKey);
+            Long eventId = Long.parseLong(hold[0]);
+            Long customerId = Long.parseLong(hold[1]);
+            String holdToken = hold[2];
+
+            SeatLockService.ExpiredHold expired = seatLockService.claimExpiredHold(eventId, customerId + ":" + holdToken);
+            if (expired == null) {
+                log.debug("Seat list of expired hold {} is gone, skipping", holdToken);
                 return;
             }
 
-            Long eventId = Long.parseLong(parts[1]);
-            Long seatId = Long.parseLong(parts[2]);
-
-            log.info("Seat hold expired: eventId={} seatId={}", eventId, seatId);
+            log.info("Seat hold expired: eventId={} holdToken={} seats={}", eventId, holdToken, expired.getSeatIds().size());
 
-            publishExpiryEvent(eventId, seatId);
+            // The seat views are freed by SeatViewExpiryListener once the expiry is in the database
+            if (expired.isFirstClaim()) {
+                publishExpiryEvent(eventId, customerId, holdToken, expired.getSeatIds());
+            }
 
         } catch (NumberFormatException e) {
-            log.warn("Could not parse seat key: {}", expiredKey, e);
+            log.warn("Could not parse hold expiry key: {}", expiredKey, e);
+        } catch (Exception e) {
+            log.error("Failed to handle hold expiry: {}", expiredKey, e);
         }
     }
 
-    private void publishExpiryEvent(Long eventId, Long seatId) {
+    private void publishExpiryEvent(Long eventId, Long customerId, String holdToken, List<Long> seatIds) {
         try {
             Map<String, Object> event = new HashMap<>();
             event.put("eventType", "SEAT_HOLD_EXPIRED");
             event.put("eventId", eventId);
-            event.put("seatId", seatId);
+            event.put("customerId", customerId);
+            event.put("holdToken", holdToken);
+            event.put("seatIds", seatIds);
             event.put("timestamp", System.currentTimeMillis());
             event.put("source", "redis-ttl");
 
             String json = objectMapper.writeValueAsString(event);
-            String kafkaKey = eventId + ":" + seatId;
+            String kafkaKey = eventId + ":" + holdToken;
 
             kafkaTemplate.send(seatStateTransitionsTopic, kafkaKey, json)
                 .whenComplete((result, ex) -> {
                     if (ex != null) {
-                        log.error("Failed to publish seat expiry event: eventId={} seatId={}", eventId, seatId, ex);
+                        log.error("Failed to publish hold expiry event: eventId={} holdToken={}", eventId, holdToken, ex);
                     } else {
-                        log.debug("Published seat expiry event: eventId={} seatId={} partition={}",
-                                eventId, seatId, result.getRecordMetadata().partition());
+                        log.debug("Published hold expiry event: eventId={} holdToken={} partition={}",
+                                eventId, holdToken, result.getRecordMetadata().partition());
                     }
                 });
 
         } catch (Exception e) {
-            log.error("Error creating seat expiry event: eventId={} seatId={}", eventId, seatId, e);
+            log.error("Error creating hold expiry event: eventId={} holdToken={}", eventId, holdToken, e);
         }
     }
 
@@ -6,6 +6,10 @@ import com.ticketing.common.entity.Seat;
 
 import java.util.List;
 
+/**
+ * Booking domain events. Call from inside the transaction that makes the change:
+ * implementations make sure an event only goes out if that transaction commits.
+ */
 public interface EventMessagingService {
     void publishSeatHoldCreated(SeatHoldDto seatHold, List<Seat> seats);
     void publishSeatHoldConfirmed(SeatHoldDto seatHold);
@@ -0,0 +1,145 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains due holds from the {@link HoldExpiryScheduler} and publishes one
+ * SEAT_HOLD_EXPIRED record per hold to the seat state transitions topic.
+ *
+ * Every instance runs a drainer and walks all partitions from a random start, so
+ * instances spread over the partitions; claims make sure each hold goes to one of
+ * them. Holds are completed only after Kafka acknowledged their records. If sending
+ * fails they stay claimed and are picked up again when the lease runs out, so
+ * delivery is at-least-once (the consumers only expire holds that are still active).
+ * The seats are freed in the in-memory seat views by {@link SeatViewExpiryListener}, once
+ * a consumer has expired the hold in the database.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.expiry.source", havingValue = "scheduler", matchIfMissing = true)
+public class HoldExpiryDrainer {
+
+    static final String DELAY_METRIC = "booking.expiry.scheduler.delay";
+    static final String EXPIRED_METRIC = "booking.expiry.scheduler.expired";
+
+    private final HoldExpiryScheduler holdExpiryScheduler;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.topics.seat-state-transitions:seat-state-transitions}")
+    private String seatStateTransitionsTopic;
+
+    @Value("${booking.expiry.scheduler.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.expiry.scheduler.lease.ms:30000}")
+    private long leaseMs;
+
+    @Value("${booking.expiry.scheduler.send-timeout.ms:10000}")
+    private long sendTimeoutMs;
+
+    private Timer delay;
+    private Counter expired;
+
+    @PostConstruct
+    void registerMetrics() {
+        delay = Timer.builder(DELAY_METRIC)
+            .description("Time from a hold's expiry to its claim by a drainer")
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        expired = Counter.builder(EXPIRED_METRIC)
+            .description("Hold expiries published from the expiry schedule")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Drain every partition, batch after batch, until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${booking.expiry.scheduler.poll.interval.ms:200}")
+    public void drain() {
+        int partitions = holdExpiryScheduler.partitions();
+        if (partitions == 0) {
+            return;
+        }
+        int start = ThreadLocalRandom.current().nextInt(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int partition = (start + i) % partitions;
+            try {
+                int claimed;
+                do {
+                    claimed = drainBatch(partition);
+                } while (claimed == batchSize);
+            } catch (Exception e) {
+                log.error("Draining hold expiry partition {} failed, claimed holds are retried after the lease", partition, e);
+            }
+        }
+    }
+
+    int drainBatch(int partition) {
+        long now = System.currentTimeMillis();
+        List<HoldExpiryScheduler.DueHold> holds =
+            holdExpiryScheduler.claimDue(partition, now, batchSize, Duration.ofMillis(leaseMs));
+        if (holds.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(holds.size());
+        for (HoldExpiryScheduler.DueHold hold : holds) {
+            delay.record(Math.max(0, now - hold.getDueAtMillis()), TimeUnit.MILLISECONDS);
+            sends.add(kafkaTemplate.send(seatStateTransitionsTopic,
+                hold.getEventId() + ":" + hold.getHoldToken(), toJson(hold)));
+        }
+        awaitAcknowledgements(sends);
+
+        holdExpiryScheduler.complete(partition, holds);
+        expired.increment(holds.size());
+        log.debug("Published {} hold expiries from partition {}", holds.size(), partition);
+        return holds.size();
+    }
+
+    private String toJson(HoldExpiryScheduler.DueHold hold) {
+        Map<String, Object> event = BookingEventPayloads.seatHoldExpired(
+            hold.getHoldToken(), hold.getCustomerId(), hold.getEventId(), hold.getSeatIds());
+        event.put("source", "expiry-scheduler");
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not serialize expiry of hold " + hold.getHoldToken(), e);
+        }
+    }
+
+    private void awaitAcknowledgements(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge the hold expiry batch", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ticketing.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Durable schedule of seat hold expiries, split into partitions that several
+ * instances drain concurrently.
+ *
+ * Unlike keyspace notifications, scheduled holds stay in the schedule until a
+ * drainer has handled them, so expiries are not lost while no instance listens.
+ */
+public interface HoldExpiryScheduler {
+
+    /**
+     * Number of partitions; drainers claim from each of 0..partitions()-1.
+     */
+    int partitions();
+
+    /**
+     * Schedule the expiry of a hold. Scheduling the same hold again moves its due time.
+     *
+     * @param holderValue {customerId}:{holdToken}
+     * @param dueAtMillis Epoch millis at which the hold expires
+     */
+    void schedule(Long eventId, String holderValue, List<Long> seatIds, long dueAtMillis);
+
+    /**
+     * Remove a hold from the schedule (confirmed, cancelled or rolled back).
+     */
+    void cancel(Long eventId, String holderValue);
+
+    /**
+     * Claim up to {@code limit} holds of a partition that are due at {@code nowMillis}.
+     * Claimed holds are handed to no other caller until the lease runs out; holds whose
+     * lease ran out without {@link #complete} are claimed again.
+     */
+    List<DueHold> claimDue(int partition, long nowMillis, int limit, Duration lease);
+
+    /**
+     * Drop claimed holds from the schedule once their expiry has been handled.
+     */
+    void complete(int partition, List<DueHold> holds);
+
+    /**
+     * A claimed hold and the time it was due.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    class DueHold {
+        private final Long eventId;
+        private final Long customerId;
+        private final String holdToken;
+        private final List<Long> seatIds;
+        private final long dueAtMillis;
+
+        /**
+         * Schedule member: {eventId}:{customerId}:{holdToken}
+         */
+        public String member() {
+            return eventId + ":" + customerId + ":" + holdToken;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.SeatHoldRequest;
+import com.ticketing.common.dto.SeatHoldResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Replays seat hold responses for requests carrying an X-Idempotency-Key.
+ *
+ * The first request for a key (scoped per customer) runs the hold and records
+ * its SeatHoldResponse in Redis and in a bounded in-process near-cache. Retries
+ * get the recorded response back without touching the database:
+ *
+ * - near-cache / Redis hit  -> stored response (outcome=hit)
+ * - same key in flight      -> wait for that result, on this instance via a
+ *                              shared future, across instances by polling the
+ *                              Redis PENDING marker (outcome=wait)
+ * - first request           -> run the hold and record it (outcome=miss)
+ *
+ * Failed holds are not recorded, so a retry after an error runs again. When
+ * Redis is unavailable only the in-process layers apply.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class HoldIdempotencyService {
+
+    static final String METRIC_NAME = "booking.hold.idempotency";
+    private static final String PENDING = "PENDING";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final BookingService bookingService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.idempotency.ttl.minutes:10}")
+    private int ttlMinutes;
+
+    @Value("${booking.idempotency.wait.timeout.ms:5000}")
+    private long waitTimeoutMs;
+
+    // Outlives the slowest hold (up to the DB pool's 20 s connection timeout), so a retry never
+    // finds the marker gone while the first request is still running; a crashed holder's
+    // marker is cleared after it
+    @Value("${booking.idempotency.pending.ttl.ms:30000}")
+    private long pendingTtlMs;
+
+    @Value("${booking.idempotency.near-cache.max-entries:10000}")
+    private int nearCacheMaxEntries;
+
+    // Carries the owner's fingerprint along with its response, so waiters check it like a replay
+    private final ConcurrentHashMap<String, CompletableFuture<StoredHold>> inFlight = new ConcurrentHashMap<>();
+
+    private Map<String, StoredHold> nearCache;
+
+    @PostConstruct
+    void init() {
+        int maxEntries = nearCacheMaxEntries;
+        nearCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredHold> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Hold seats, replaying the recorded response if the idempotency key was seen before.
+     */
+    public SeatHoldResponse holdSeats(SeatHoldRequest request) {
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return bookingService.holdSeats(request);
+        }
+
+        String key = idempotencyRedisKey(request.getCustomerId(), idempotencyKey);
+        String fingerprint = fingerprint(request);
+
+        StoredHold cached = nearCacheGet(key);
+        if (cached != null) {
+            return replay(cached, fingerprint, "hit");
+        }
+
+        CompletableFuture<StoredHold> ownFuture = new CompletableFuture<>();
+        CompletableFuture<StoredHold> existing = inFlight.putIfAbsent(key, ownFuture);
+        if (existing != null) {
+            record("wait");
+            return replay(awaitInFlight(existing), fingerprint, null);
+        }
+
+        try {
+            SeatHoldResponse response = executeOnce(request, key, fingerprint);
+            ownFuture.complete(new StoredHold(fingerprint, response));
+            return response;
+        } catch (RuntimeException e) {
+            ownFuture.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, ownFuture);
+        }
+    }
+
+    private SeatHoldResponse executeOnce(SeatHoldRequest request, String key, String fingerprint) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        boolean waited = false;
+
+        while (true) {
+            Boolean claimed;
+            try {
+                claimed = redisTemplate.opsForValue().setIfAbsent(key, PENDING, Duration.ofMillis(pendingTtlMs));
+            } catch (DataAccessException e) {
+                log.warn("Redis unavailable for idempotency key {}, falling back to in-process dedup", key, e);
+                record("miss");
+                SeatHoldResponse response = bookingService.holdSeats(request);
+                nearCachePut(key, new StoredHold(fingerprint, response));
+                return response;
+            }
+
+            if (Boolean.TRUE.equals(claimed)) {
+                record("miss");
+                return runAndRecord(request, key, fingerprint);
+            }
+
+            String value = redisTemplate.opsForValue().get(key);
+            if (value != null && !PENDING.equals(value)) {
+                StoredHold stored = deserialize(value);
+                if (stored != null) {
+                    nearCachePut(key, stored);
+                    return replay(stored, fingerprint, waited ? null : "hit");
+                }
+            }
+
+            // Another instance is running the same request (or it just failed and released the key)
+            if (!waited) {
+                record("wait");
+                waited = true;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new BookingException("Idempotency conflict: a request with the same key is still in progress");
+            }
+            sleep();
+        }
+    }
+
+    private SeatHoldResponse runAndRecord(SeatHoldRequest request, String key, String fingerprint) {
+        SeatHoldResponse response;
+        try {
+            response = bookingService.holdSeats(request);
+        } catch (RuntimeException e) {
+            releasePending(key);
+            throw e;
+        }
+
+        StoredHold stored = new StoredHold(fingerprint, response);
+        nearCachePut(key, stored);
+        try {
+            redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(stored), Duration.ofMinutes(ttlMinutes));
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.error("Failed to record idempotent hold response for key {}", key, e);
+            releasePending(key);
+        }
+        return response;
+    }
+
+    private SeatHoldResponse replay(StoredHold stored, String fingerprint, String outcome) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new BookingException("Idempotency key was already used for a different hold request");
+        }
+        if (outcome != null) {
+            record(outcome);
+        }
+
+        SeatHoldResponse original = stored.getResponse();
+        SeatHoldResponse response = original.toBuilder().build();
+        if (original.getExpiresAt() != null) {
+            long remaining = Duration.between(LocalDateTime.now(), original.getExpiresAt()).getSeconds();
+            response.setTimeRemainingSeconds(Math.max(0, remaining));
+        }
+        return response;
+    }
+
+    private StoredHold awaitInFlight(CompletableFuture<StoredHold> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new BookingException("Idempotency conflict: a request with the same key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Interrupted while waiting for an in-flight hold request");
+        }
+    }
+
+    private void releasePending(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(key);
+            if (PENDING.equals(value)) {
+                redisTemplate.delete(key);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to release idempotency marker {}", key, e);
+        }
+    }
+
+    private StoredHold deserialize(String value) {
+        try {
+            return objectMapper.readValue(value, StoredHold.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable idempotency record", e);
+            return null;
+        }
+    }
+
+    private StoredHold nearCacheGet(String key) {
+        StoredHold stored = nearCache.get(key);
+        if (stored != null && stored.getCachedUntil() < System.currentTimeMillis()) {
+            nearCache.remove(key);
+            return null;
+        }
+        return stored;
+    }
+
+    private void nearCachePut(String key, StoredHold stored) {
+        stored.setCachedUntil(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes));
+        nearCache.put(key, stored);
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingException("Interrupted while waiting for an in-flight hold request");
+        }
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter(METRIC_NAME, "outcome", outcome).increment();
+    }
+
+    static String idempotencyRedisKey(Long customerId, String idempotencyKey) {
+        return "idem:hold:" + customerId + ":" + idempotencyKey;
+    }
+
+    /**
+     * Identifies the request body, so a reused key with different seats is rejected instead of replayed.
+     */
+    private static String fingerprint(SeatHoldRequest request) {
+        List<Long> seatIds = request.getSeatIds().stream().sorted().toList();
+        return request.getEventId() + ":" + seatIds;
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class StoredHold {
+        private String fingerprint;
+        private SeatHoldResponse response;
+
+        // Near-cache expiry only; Redis keeps its own TTL
+        @JsonIgnore
+        private long cachedUntil;
+
+        StoredHold(String fingerprint, SeatHoldResponse response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+        }
+    }
+}
@@ -7,18 +7,24 @@ import com.ticketing.common.entity.Seat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
+/**
+ * Publishes booking events straight to Kafka once the caller's transaction commits.
+ * Nothing is persisted, so events are lost if the process dies in between;
+ * only used with booking.outbox.enabled=false.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.outbox.enabled", havingValue = "false")
 public class KafkaEventMessagingService implements EventMessagingService {
 
     private final KafkaTemplate<String, String> kafkaTemplate;
@@ -45,22 +51,19 @@ public class KafkaEventMessagingService implements EventMessagingService {
     @Override
     public void publishSeatHoldCreated(SeatHoldDto seatHold, List<Seat> seats) {
         try {
-            Map<String, Object> event = createSeatHoldEvent(seatHold, "CREATED");
-            event.put("seats", seats.stream().map(this::createSeatInfo).toList());
+            Map<String, Object> event = BookingEventPayloads.seatHoldCreated(seatHold, seats);
 
             String eventJson = objectMapper.writeValueAsString(event);
 
-            CompletableFuture<SendResult<String, String>> future =
-                kafkaTemplate.send(seatHoldCreatedTopic, seatHold.getHoldToken(), eventJson);
-
-            future.whenComplete((result, throwable) -> {
-                if (throwable != null) {
-                    log.error("Failed to publish seat hold created event: {}", seatHold.getHoldToken(), throwable);
-                } else {
-                    log.debug("Published seat hold created event: {} to partition: {}",
-                             seatHold.getHoldToken(), result.getRecordMetadata().partition());
-                }
-            });
+            afterCommit(() -> kafkaTemplate.send(seatHoldCreatedTopic, seatHold.getHoldToken(), eventJson)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish seat hold created event: {}", seatHold.getHoldToken(), throwable);
+                    } else {
+                        log.debug("Published seat hold created event: {} to partition: {}",
+                                 seatHold.getHoldToken(), result.getRecordMetadata().partition());
+                    }
+                }));
 
         } catch (Exception e) {
             log.error("Error creating seat hold created event: {}", seatHold.getHoldToken(), e);
@@ -73,19 +76,17 @@ public class KafkaEventMessagingService implements EventMessagingService {
     @Override
     public void publishSeatHoldConfirmed(SeatHoldDto seatHold) {
         try {
-            Map<String, Object> event = createSeatHoldEvent(seatHold, "CONFIRMED");
+            Map<String, Object> event = BookingEventPayloads.seatHoldEvent(seatHold, "CONFIRMED");
             String eventJson = objectMapper.writeValueAsString(event);
 
-            CompletableFuture<SendResult<String, String>> future =
-                kafkaTemplate.send(seatHoldConfirmedTopic, seatHold.getHoldToken(), eventJson);
-
-            future.whenComplete((result, throwable) -> {
-                if (throwable != null) {
-                    log.error("Failed to publish seat hold confirmed event: {}", seatHold.getHoldToken(), throwable);
-                } else {
-                    log.debug("Published seat hold confirmed event: {}", seatHold.getHoldToken());
-                }
-            });
+            afterCommit(() -> kafkaTemplate.send(seatHoldConfirmedTopic, seatHold.getHoldToken(), eventJson)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish seat hold confirmed event: {}", seatHold.getHoldToken(), throwable);
+                    } else {
+                        log.debug("Published seat hold confirmed event: {}", seatHold.getHoldToken());
+                    }
+                }));
 
         } catch (Exception e) {
             log.error("Error creating seat hold confirmed event: {}", seatHold.getHoldToken(), e);
@@ -98,19 +99,17 @@ public class KafkaEventMessagingService implements EventMessagingService {
     @Override
     public void publishSeatHoldCancelled(SeatHoldDto seatHold) {
         try {
-            Map<String, Object> event = createSeatHoldEvent(seatHold, "CANCELLED");
+            Map<String, Object> event = BookingEventPayloads.seatHoldEvent(seatHold, "CANCELLED");
             String eventJson = objectMapper.writeValueAsString(event);
 
-            CompletableFuture<SendResult<String, String>> future =
-                kafkaTemplate.send(seatHoldCancelledTopic, seatHold.getHoldToken(), eventJson);
-
-            future.whenComplete((result, throwable) -> {
-                if (throwable != null) {
-                    log.error("Failed to publish seat hold cancelled event: {}", seatHold.getHoldToken(), throwable);
-                } else {
-                    log.debug("Published seat hold cancelled event: {}", seatHold.getHoldToken());
-                }
-            });
+            afterCommit(() -> kafkaTemplate.send(seatHoldCancelledTopic, seatHold.getHoldToken(), eventJson)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish seat hold cancelled event: {}", seatHold.getHoldToken(), throwable);
+                    } else {
+                        log.debug("Published seat hold cancelled event: {}", seatHold.getHoldToken());
+                    }
+                }));
 
         } catch (Exception e) {
             log.error("Error creating seat hold cancelled event: {}", seatHold.getHoldToken(), e);
@@ -123,27 +122,19 @@ public class KafkaEventMessagingService implements EventMessagingService {
     @Override
     public void publishSeatHoldExpired(String holdToken, Long customerId, Long eventId, List<Long> seatIds) {
         try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", "SEAT_HOLD_EXPIRED");
-            event.put("holdToken", holdToken);
-            event.put("customerId", customerId);
-            event.put("eventId", eventId);
-            event.put("seatIds", seatIds);
-            event.put("timestamp", System.currentTimeMillis());
-            event.put("source", "booking-service");
+            Map<String, Object> event =
+                BookingEventPayloads.seatHoldExpired(holdToken, customerId, eventId, seatIds);
 
             String eventJson = objectMapper.writeValueAsString(event);
 
-            CompletableFuture<SendResult<String, String>> future =
-                kafkaTemplate.send(seatHoldExpiredTopic, holdToken, eventJson);
-
-            future.whenComplete((result, throwable) -> {
-                if (throwable != null) {
-                    log.error("Failed to publish seat hold expired event: {}", holdToken, throwable);
-                } else {
-                    log.debug("Published seat hold expired event: {}", holdToken);
-                }
-            });
+            afterCommit(() -> kafkaTemplate.send(seatHoldExpiredTopic, holdToken, eventJson)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish seat hold expired event: {}", holdToken, throwable);
+                    } else {
+                        log.debug("Published seat hold expired event: {}", holdToken);
+                    }
+                }));
 
         } catch (Exception e) {
             log.error("Error creating seat hold expired event: {}", holdToken, e);
@@ -156,62 +147,35 @@ public class KafkaEventMessagingService implements EventMessagingService {
     @Override
     public void publishBookingConfirmed(BookingDto booking) {
         try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", "BOOKING_CONFIRMED");
-            event.put("bookingId", booking.getId());
-            event.put("bookingReference", booking.getBookingReference());
-            event.put("customerId", booking.getCustomerId());
-            event.put("eventId", booking.getEventId());
-            event.put("seatIds", booking.getSeatIds());
-            event.put("totalAmount", booking.getTotalAmount());
-            event.put("paymentId", booking.getPaymentId());
-            event.put("holdToken", booking.getHoldToken());
-            event.put("confirmedAt", booking.getConfirmedAt());
-            event.put("timestamp", System.currentTimeMillis());
-            event.put("source", "booking-service");
+            Map<String, Object> event = BookingEventPayloads.bookingConfirmed(booking);
 
             String eventJson = objectMapper.writeValueAsString(event);
 
-            CompletableFuture<SendResult<String, String>> future =
-                kafkaTemplate.send(bookingConfirmedTopic, booking.getBookingReference(), eventJson);
-
-            future.whenComplete((result, throwable) -> {
-                if (throwable != null) {
-                    log.error("Failed to publish booking confirmed event: {}", booking.getBookingReference(), throwable);
-                } else {
-                    log.debug("Published booking confirmed event: {}", booking.getBookingReference());
-                }
-            });
+            afterCommit(() -> kafkaTemplate.send(bookingConfirmedTopic, booking.getBookingReference(), eventJson)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Failed to publish booking confirmed event: {}", booking.getBookingReference(), throwable);
+                    } else {
+                        log.debug("Published booking confirmed event: {}", booking.getBookingReference());
+                    }
+                }));
 
         } catch (Exception e) {
             log.error("Error creating booking confirmed event: {}", booking.getBookingReference(), e);
         }
     }
 
-    private Map<String, Object> createSeatHoldEvent(SeatHoldDto seatHold, String eventType) {
-        Map<String, Object> event = new HashMap<>();
-        event.put("eventType", "SEAT_HOLD_" + eventType);
-        event.put("holdToken", seatHold.getHoldToken());
-        event.put("customerId", seatHold.getCustomerId());
-        event.put("eventId", seatHold.getEventId());
-        event.put("seatIds", seatHold.getSeatIds());
-        event.put("seatCount", seatHold.getSeatCount());
-        event.put("expiresAt", seatHold.getExpiresAt());
-        event.put("status", seatHold.getStatus());
-        event.put("createdAt", seatHold.getCreatedAt());
-        event.put("timestamp", System.currentTimeMillis());
-        event.put("source", "booking-service");
-        return event;
-    }
-
-    private Map<String, Object> createSeatInfo(Seat seat) {
-        Map<String, Object> seatInfo = new HashMap<>();
-        seatInfo.put("seatId", seat.getId());
-        seatInfo.put("section", seat.getSection());
-        seatInfo.put("rowLetter", seat.getRowLetter());
-        seatInfo.put("seatNumber", seat.getSeatNumber());
-        seatInfo.put("price", seat.getPrice());
-        seatInfo.put("seatIdentifier", seat.getSeatIdentifier());
-        return seatInfo;
+    // Callers publish from inside their transaction; nothing may leave before it commits
+    private static void afterCommit(Runnable send) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
     }
 }
@@ -0,0 +1,165 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-off migration of pre-cluster Redis keys to the hash-tagged layout.
+ *
+ * Runs once on startup, before the service reports ready:
+ * - seat:<eventId>:<seatId>:HELD  -> seat:{evt:<eventId>}:<seatId>:HELD  (value and remaining TTL kept)
+ * - <eventId>:seat_status         -> {evt:<eventId>}:seat_status         (fields already in the new HASH win)
+ *
+ * The migrated statuses carry no seat version, so the event's change log is reset
+ * afterwards: pollers holding a cursor from before the migration resync instead of
+ * missing them.
+ *
+ * SCAN is issued on every master node when connected to a cluster. The migration
+ * is idempotent, so every instance can run it during a rolling deploy. Disable it
+ * with booking.redis.legacy-key-migration.enabled=false once no legacy keys remain.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.redis.legacy-key-migration.enabled", havingValue = "true", matchIfMissing = true)
+public class LegacyRedisKeyMigrator implements ApplicationRunner {
+
+    private static final long SCAN_COUNT = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final SeatStatusCacheService seatStatusCacheService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            migrateLegacyKeys();
+        } catch (Exception e) {
+            // Never block startup; legacy keys simply expire on their own
+            log.warn("Legacy Redis key migration skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Migrate all legacy keys.
+     *
+     * @return Number of keys moved to the hash-tagged layout
+     */
+    int migrateLegacyKeys() {
+        int movedHolds = 0;
+        for (String legacyKey : scanKeys(RedisKeys.LEGACY_SEAT_HOLD_PATTERN)) {
+            if (migrateSeatHoldKey(legacyKey)) {
+                movedHolds++;
+            }
+        }
+
+        int movedStatuses = 0;
+        for (String legacyKey : scanKeys(RedisKeys.LEGACY_SEAT_STATUS_PATTERN)) {
+            if (migrateSeatStatusKey(legacyKey)) {
+                movedStatuses++;
+            }
+        }
+
+        if (movedHolds + movedStatuses > 0) {
+            log.info("Migrated legacy Redis keys: {} seat holds, {} seat status hashes", movedHolds, movedStatuses);
+        }
+        return movedHolds + movedStatuses;
+    }
+
+    private boolean migrateSeatHoldKey(String legacyKey) {
+        long[] ids = RedisKeys.parseSeatHoldKey(legacyKey);
+        if (ids == null) {
+            return false;
+        }
+
+        String value = redisTemplate.opsForValue().get(legacyKey);
+        Long ttlMillis = redisTemplate.getExpire(legacyKey, TimeUnit.MILLISECONDS);
+        if (value == null || ttlMillis == null || ttlMillis <= 0) {
+            // Expired meanwhile, or a key without TTL that the cleanup job reconciles
+            return false;
+        }
+
+        String newKey = RedisKeys.seatHoldKey(ids[0], ids[1]);
+        Boolean moved = redisTemplate.opsForValue().setIfAbsent(newKey, value, Duration.ofMillis(ttlMillis));
+        if (!Boolean.TRUE.equals(moved)) {
+            log.warn("Seat hold key {} already exists, dropping legacy key {}", newKey, legacyKey);
+        }
+
+        // DEL does not raise a keyspace "expired" event; the new key expires in its place
+        redisTemplate.delete(legacyKey);
+        return Boolean.TRUE.equals(moved);
+    }
+
+    private boolean migrateSeatStatusKey(String legacyKey) {
+        Long eventId = RedisKeys.parseLegacySeatStatusKey(legacyKey);
+        if (eventId == null) {
+            return false;
+        }
+
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(legacyKey);
+        Long ttlMillis = redisTemplate.getExpire(legacyKey, TimeUnit.MILLISECONDS);
+        if (entries.isEmpty()) {
+            return false;
+        }
+
+        String newKey = RedisKeys.seatStatusKey(eventId);
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(newKey))) {
+            // Statuses written after the switch are newer than the legacy ones
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                redisTemplate.opsForHash().putIfAbsent(newKey, entry.getKey(), entry.getValue());
+            }
+        } else {
+            redisTemplate.opsForHash().putAll(newKey, entries);
+            if (ttlMillis != null && ttlMillis > 0) {
+                redisTemplate.expire(newKey, Duration.ofMillis(ttlMillis));
+            }
+        }
+        seatStatusCacheService.resetChanges(eventId);
+
+        redisTemplate.delete(legacyKey);
+        return true;
+    }
+
+    private List<String> scanKeys(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+
+        List<String> keys = redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            List<String> found = new ArrayList<>();
+            if (connection instanceof RedisClusterConnection clusterConnection) {
+                // SCAN only covers the node it is sent to
+                for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+                    if (node.isMaster()) {
+                        try (Cursor<byte[]> cursor = clusterConnection.scan(node, options)) {
+                            cursor.forEachRemaining(key -> found.add(new String(key, StandardCharsets.UTF_8)));
+                        }
+                    }
+                }
+            } else {
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    cursor.forEachRemaining(key -> found.add(new String(key, StandardCharsets.UTF_8)));
+                }
+            }
+            return found;
+        });
+
+        return keys != null ? keys : List.of();
+    }
+}
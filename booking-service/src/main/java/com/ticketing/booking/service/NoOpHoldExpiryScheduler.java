@@ -0,0 +1,38 @@
+package com.ticketing.booking.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Used when expiries come from keyspace notifications (booking.expiry.source=keyspace):
+ * nothing is scheduled, so nothing piles up without a drainer.
+ */
+@Component
+@ConditionalOnProperty(value = "booking.expiry.source", havingValue = "keyspace")
+public class NoOpHoldExpiryScheduler implements HoldExpiryScheduler {
+
+    @Override
+    public int partitions() {
+        return 0;
+    }
+
+    @Override
+    public void schedule(Long eventId, String holderValue, List<Long> seatIds, long dueAtMillis) {
+    }
+
+    @Override
+    public void cancel(Long eventId, String holderValue) {
+    }
+
+    @Override
+    public List<DueHold> claimDue(int partition, long nowMillis, int limit, Duration lease) {
+        return List.of();
+    }
+
+    @Override
+    public void complete(int partition, List<DueHold> holds) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.booking.entity.OutboxEvent;
+import com.ticketing.common.dto.BookingDto;
+import com.ticketing.common.dto.SeatHoldDto;
+import com.ticketing.common.entity.Seat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes booking events to the outbox_events table instead of sending them.
+ *
+ * Events of one transaction are collected and inserted with a single JDBC batch
+ * just before it commits, so they are durable exactly when the change is; group-commit
+ * writes publish from inside their batch transaction. Without a transaction the
+ * insert runs on its own. {@link OutboxRelay} publishes the rows, keyed by event ID
+ * so all events of one event land on one partition (see there for their order).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxEventMessagingService implements EventMessagingService {
+
+    static final String INSERT_SQL =
+        "INSERT INTO outbox_events (topic, message_key, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kafka.topics.seat-hold-created:seat-hold-created}")
+    private String seatHoldCreatedTopic;
+
+    @Value("${kafka.topics.seat-hold-confirmed:seat-hold-confirmed}")
+    private String seatHoldConfirmedTopic;
+
+    @Value("${kafka.topics.seat-hold-cancelled:seat-hold-cancelled}")
+    private String seatHoldCancelledTopic;
+
+    @Value("${kafka.topics.seat-hold-expired:seat-hold-expired}")
+    private String seatHoldExpiredTopic;
+
+    @Value("${kafka.topics.booking-confirmed:booking-confirmed}")
+    private String bookingConfirmedTopic;
+
+    @Override
+    public void publishSeatHoldCreated(SeatHoldDto seatHold, List<Seat> seats) {
+        append(seatHoldCreatedTopic, seatHold.getEventId(), BookingEventPayloads.seatHoldCreated(seatHold, seats));
+    }
+
+    @Override
+    public void publishSeatHoldConfirmed(SeatHoldDto seatHold) {
+        append(seatHoldConfirmedTopic, seatHold.getEventId(),
+            BookingEventPayloads.seatHoldEvent(seatHold, "CONFIRMED"));
+    }
+
+    @Override
+    public void publishSeatHoldCancelled(SeatHoldDto seatHold) {
+        append(seatHoldCancelledTopic, seatHold.getEventId(),
+            BookingEventPayloads.seatHoldEvent(seatHold, "CANCELLED"));
+    }
+
+    @Override
+    public void publishSeatHoldExpired(String holdToken, Long customerId, Long eventId, List<Long> seatIds) {
+        append(seatHoldExpiredTopic, eventId,
+            BookingEventPayloads.seatHoldExpired(holdToken, customerId, eventId, seatIds));
+    }
+
+    @Override
+    public void publishBookingConfirmed(BookingDto booking) {
+        append(bookingConfirmedTopic, booking.getEventId(), BookingEventPayloads.bookingConfirmed(booking));
+    }
+
+    private void append(String topic, Long eventId, Map<String, Object> event) {
+        OutboxEvent row;
+        try {
+            row = OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(String.valueOf(eventId))
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(LocalDateTime.now())
+                .build();
+        } catch (JsonProcessingException e) {
+            // Failing the write beats committing a change whose event can never be sent
+            throw new IllegalStateException("Could not serialize " + event.get("eventType") + " event", e);
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(row));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<OutboxEvent> pending = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<OutboxEvent> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(rows);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventMessagingService.this);
+                }
+            });
+            pending = rows;
+        }
+        pending.add(row);
+    }
+
+    private void insert(List<OutboxEvent> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setString(1, row.getTopic());
+            statement.setString(2, row.getMessageKey());
+            statement.setString(3, row.getPayload());
+            statement.setTimestamp(4, Timestamp.valueOf(row.getCreatedAt()));
+        });
+        log.debug("Appended {} events to the outbox", rows.size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.booking.entity.OutboxEvent;
+import com.ticketing.booking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox rows to Kafka in id order and deletes them once acknowledged.
+ *
+ * Each batch is locked, sent without waiting per message, awaited as a whole and
+ * then removed with one DELETE, all in one transaction. If any send fails the
+ * transaction rolls back and the whole batch goes out again on the next run, so
+ * delivery is at-least-once: consumers must tolerate duplicates.
+ *
+ * Only the holder of a single-shard lease relays, so the other instances don't sit on
+ * the batch's row locks, each holding a pooled connection, while it waits for Kafka.
+ * The row locks only matter while the lease changes hands.
+ *
+ * Order: rows go out in id order, one relay at a time, but ids are drawn at insert, so two transactions can commit their rows
+ * out of id order and a later id may already be sent when an earlier one appears.
+ * Changes to the same seats can't interleave like that: their rows are inserted
+ * just before commit, while the writer still holds the seat row locks. So events
+ * of one seat are sent in commit order; events of one event ID (the message key)
+ * touching different seats are not ordered against each other.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    static final String JOB = "outbox-relay";
+
+    static final String LAG_METRIC = "booking.outbox.lag";
+    static final String RELAYED_METRIC = "booking.outbox.relayed";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+    private final ShardCoordinator shardCoordinator;
+
+    @Value("${booking.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.outbox.relay.send-timeout.ms:10000}")
+    private long sendTimeoutMs;
+
+    // Age of the oldest unsent event as of the last batch
+    private final AtomicLong lagMillis = new AtomicLong();
+    private Counter relayed;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder(LAG_METRIC, lagMillis, AtomicLong::get)
+            .description("Age of the oldest booking event still waiting in the outbox")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        relayed = Counter.builder(RELAYED_METRIC)
+            .description("Booking events published from the outbox")
+            .register(meterRegistry);
+        shardCoordinator.register(JOB, 1);
+    }
+
+    /**
+     * Drain the outbox, batch after batch, until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.relay.interval.ms:100}")
+    public void relay() {
+        if (shardCoordinator.stillHeld(shardCoordinator.ownedShards(JOB)).isEmpty()) {
+            return;
+        }
+        try {
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed, the batch will be retried", e);
+        }
+    }
+
+    int relayBatch() {
+        Integer sent = transactionOperations.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+            if (batch.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+            lagMillis.set(Math.max(0, Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis()));
+
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                sends.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+            }
+            awaitAcknowledgements(sends);
+
+            outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+            return batch.size();
+        });
+
+        int count = sent == null ? 0 : sent;
+        if (count > 0) {
+            relayed.increment(count);
+            log.debug("Relayed {} outbox events", count);
+        }
+        return count;
+    }
+
+    private void awaitAcknowledgements(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge the outbox batch", e);
+        }
+    }
+}
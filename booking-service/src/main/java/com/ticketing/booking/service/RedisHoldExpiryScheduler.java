@@ -0,0 +1,179 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hold expiry schedule kept in Redis sorted sets, one set of keys per partition.
+ *
+ * A hold goes to partition hash(member) % partitions and sits in the "due" ZSET
+ * scored by its expiry time. Claiming moves due holds to the "claimed" ZSET, scored
+ * by the lease deadline, in one script, so two drainers never get the same hold.
+ * A drainer that dies before completing its holds loses them to the next claim once
+ * the lease runs out. Each partition's keys share a hash tag, so every script runs
+ * on one cluster node while the partitions spread over the cluster.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.expiry.source", havingValue = "scheduler", matchIfMissing = true)
+public class RedisHoldExpiryScheduler implements HoldExpiryScheduler {
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${booking.expiry.scheduler.partitions:16}")
+    private int partitions;
+
+    // KEYS: due, holds. ARGV: member, due ms, "<due ms>,<seat ids>"
+    private static final String SCHEDULE_LUA =
+        "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+        "redis.call('HSET', KEYS[2], ARGV[1], ARGV[3]) " +
+        "return 1";
+
+    // KEYS: due, claimed, holds. ARGV: member
+    private static final String CANCEL_LUA =
+        "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+        "redis.call('ZREM', KEYS[2], ARGV[1]) " +
+        "return redis.call('HDEL', KEYS[3], ARGV[1])";
+
+    // KEYS: due, claimed, holds. ARGV: now ms, limit, lease deadline ms.
+    // Holds with a lapsed lease go first, then due holds; returns {member, details, ...}
+    private static final String CLAIM_DUE_LUA =
+        "local limit = tonumber(ARGV[2]) " +
+        "local members = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, limit) " +
+        "if #members < limit then " +
+        "  local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, limit - #members) " +
+        "  for _, member in ipairs(due) do " +
+        "    redis.call('ZREM', KEYS[1], member) " +
+        "    members[#members + 1] = member " +
+        "  end " +
+        "end " +
+        "local claimed = {} " +
+        "for _, member in ipairs(members) do " +
+        "  local details = redis.call('HGET', KEYS[3], member) " +
+        "  if details then " +
+        "    redis.call('ZADD', KEYS[2], ARGV[3], member) " +
+        "    claimed[#claimed + 1] = member " +
+        "    claimed[#claimed + 1] = details " +
+        "  else " +
+        "    redis.call('ZREM', KEYS[2], member) " +
+        "  end " +
+        "end " +
+        "return claimed";
+
+    // KEYS: claimed, holds. ARGV: members...
+    private static final String COMPLETE_LUA =
+        "for _, member in ipairs(ARGV) do " +
+        "  redis.call('ZREM', KEYS[1], member) " +
+        "  redis.call('HDEL', KEYS[2], member) " +
+        "end " +
+        "return #ARGV";
+
+    private static final DefaultRedisScript<Long> SCHEDULE_SCRIPT =
+        new DefaultRedisScript<>(SCHEDULE_LUA, Long.class);
+
+    private static final DefaultRedisScript<Long> CANCEL_SCRIPT =
+        new DefaultRedisScript<>(CANCEL_LUA, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_DUE_SCRIPT =
+        new DefaultRedisScript<>(CLAIM_DUE_LUA, List.class);
+
+    private static final DefaultRedisScript<Long> COMPLETE_SCRIPT =
+        new DefaultRedisScript<>(COMPLETE_LUA, Long.class);
+
+    @Override
+    public int partitions() {
+        return partitions;
+    }
+
+    @Override
+    public void schedule(Long eventId, String holderValue, List<Long> seatIds, long dueAtMillis) {
+        String member = eventId + ":" + holderValue;
+        int partition = partitionOf(member);
+
+        StringBuilder details = new StringBuilder().append(dueAtMillis);
+        for (Long seatId : seatIds) {
+            details.append(',').append(seatId);
+        }
+
+        redisTemplate.execute(SCHEDULE_SCRIPT,
+            List.of(RedisKeys.holdExpiryDueKey(partition), RedisKeys.holdExpiryHoldsKey(partition)),
+            member, String.valueOf(dueAtMillis), details.toString());
+    }
+
+    @Override
+    public void cancel(Long eventId, String holderValue) {
+        String member = eventId + ":" + holderValue;
+        redisTemplate.execute(CANCEL_SCRIPT, partitionKeys(partitionOf(member)), member);
+    }
+
+    @Override
+    public List<DueHold> claimDue(int partition, long nowMillis, int limit, Duration lease) {
+        List<?> result = redisTemplate.execute(CLAIM_DUE_SCRIPT, partitionKeys(partition),
+            String.valueOf(nowMillis), String.valueOf(limit), String.valueOf(nowMillis + lease.toMillis()));
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+
+        List<DueHold> holds = new ArrayList<>(result.size() / 2);
+        List<String> unreadable = new ArrayList<>();
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            String member = String.valueOf(result.get(i));
+            try {
+                holds.add(parse(member, String.valueOf(result.get(i + 1))));
+            } catch (RuntimeException e) {
+                // Would otherwise come back after every lease; the cleanup job still expires the hold
+                log.error("Dropping unreadable hold expiry entry in partition {}: {}", partition, member, e);
+                unreadable.add(member);
+            }
+        }
+        if (!unreadable.isEmpty()) {
+            removeClaimed(partition, unreadable.toArray());
+        }
+        return holds;
+    }
+
+    @Override
+    public void complete(int partition, List<DueHold> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+        removeClaimed(partition, holds.stream().map(DueHold::member).toArray());
+    }
+
+    private void removeClaimed(int partition, Object[] members) {
+        redisTemplate.execute(COMPLETE_SCRIPT,
+            List.of(RedisKeys.holdExpiryClaimedKey(partition), RedisKeys.holdExpiryHoldsKey(partition)), members);
+    }
+
+    int partitionOf(String member) {
+        return Math.floorMod(member.hashCode(), partitions);
+    }
+
+    private static List<String> partitionKeys(int partition) {
+        return List.of(RedisKeys.holdExpiryDueKey(partition), RedisKeys.holdExpiryClaimedKey(partition),
+            RedisKeys.holdExpiryHoldsKey(partition));
+    }
+
+    // member: <eventId>:<customerId>:<holdToken>, details: <due ms>,<seatId>,<seatId>...
+    private static DueHold parse(String member, String details) {
+        String[] ids = member.split(":", 3);
+        String[] values = details.split(",");
+        List<Long> seatIds = new ArrayList<>(values.length - 1);
+        for (int i = 1; i < values.length; i++) {
+            seatIds.add(Long.parseLong(values[i]));
+        }
+        return new DueHold(Long.parseLong(ids[0]), Long.parseLong(ids[1]), ids[2], seatIds, Long.parseLong(values[0]));
+    }
+}
@@ -0,0 +1,175 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-seat hold keys acquired and released in a single Redis round trip.
+ *
+ * Both operations run as Lua scripts, so a multi-seat hold either takes every
+ * seat:{evt:<eventId>}:<seatId>:HELD key or none of them. There is no window where a
+ * request holds a partial set of seats while contending with another request.
+ * The keys of one event share a hash tag, so the scripts also run on Redis Cluster.
+ *
+ * Alongside the seat keys the acquire script writes one expiry trigger per hold
+ * (same TTL) and the hold's seat list (kept a little longer). Seat keys are only
+ * there for contention; the hold's expiry is handled once, from the trigger.
+ * Acquired holds are also put on the {@link HoldExpiryScheduler}, and taken off it
+ * on release.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RedisSeatLockService implements SeatLockService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final HoldExpiryScheduler holdExpiryScheduler;
+
+    // KEYS: seat keys..., hold expiry trigger, hold seat list. ARGV: holder, ttl ms, seat ids, grace ms.
+    // Returns the 1-based positions of seat keys that already exist; sets all keys only when none exist
+    private static final String ACQUIRE_ALL_LUA =
+        "local n = #KEYS - 2 " +
+        "local conflicts = {} " +
+        "for i = 1, n do " +
+        "  if redis.call('EXISTS', KEYS[i]) == 1 then " +
+        "    conflicts[#conflicts + 1] = i " +
+        "  end " +
+        "end " +
+        "if #conflicts == 0 then " +
+        "  for i = 1, n do " +
+        "    redis.call('SET', KEYS[i], ARGV[1], 'PX', ARGV[2]) " +
+        "  end " +
+        "  redis.call('SET', KEYS[n + 1], ARGV[1], 'PX', ARGV[2]) " +
+        "  redis.call('HSET', KEYS[n + 2], 'seats', ARGV[3]) " +
+        "  redis.call('PEXPIRE', KEYS[n + 2], tonumber(ARGV[2]) + tonumber(ARGV[4])) " +
+        "end " +
+        "return conflicts";
+
+    // KEYS: seat keys..., hold expiry trigger, hold seat list. Deletes only the seat keys
+    // whose value still matches the holder, and the hold keys (unique to the holder)
+    private static final String RELEASE_ALL_LUA =
+        "local n = #KEYS - 2 " +
+        "local released = 0 " +
+        "for i = 1, n do " +
+        "  if redis.call('GET', KEYS[i]) == ARGV[1] then " +
+        "    released = released + redis.call('DEL', KEYS[i]) " +
+        "  end " +
+        "end " +
+        "redis.call('DEL', KEYS[n + 1], KEYS[n + 2]) " +
+        "return released";
+
+    // Returns {seat ids, 1 if this call claimed the expiry first}, or nil once the seat list is gone
+    private static final String CLAIM_EXPIRED_LUA =
+        "local seats = redis.call('HGET', KEYS[1], 'seats') " +
+        "if not seats then return false end " +
+        "return {seats, redis.call('HSETNX', KEYS[1], 'claimed', '1')}";
+
+    // How long a hold's seat list outlives its expiry trigger, for the expiry handlers to read it
+    static final Duration HOLD_SEATS_GRACE = Duration.ofMinutes(5);
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ACQUIRE_ALL_SCRIPT =
+        new DefaultRedisScript<>(ACQUIRE_ALL_LUA, List.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_ALL_SCRIPT =
+        new DefaultRedisScript<>(RELEASE_ALL_LUA, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_EXPIRED_SCRIPT =
+        new DefaultRedisScript<>(CLAIM_EXPIRED_LUA, List.class);
+
+    @Override
+    public List<Long> acquireAll(Long eventId, List<Long> seatIds, String holderValue, Duration ttl) {
+        if (seatIds == null || seatIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<?> conflictPositions = redisTemplate.execute(
+            ACQUIRE_ALL_SCRIPT, holdKeys(eventId, seatIds, holderValue), holderValue,
+            String.valueOf(ttl.toMillis()), joinSeatIds(seatIds), String.valueOf(HOLD_SEATS_GRACE.toMillis()));
+
+        if (conflictPositions == null) {
+            throw new IllegalStateException("Seat hold script returned no result for event " + eventId);
+        }
+
+        List<Long> conflictingSeatIds = new ArrayList<>(conflictPositions.size());
+        for (Object position : conflictPositions) {
+            conflictingSeatIds.add(seatIds.get(((Number) position).intValue() - 1));
+        }
+
+        if (!conflictingSeatIds.isEmpty()) {
+            log.debug("Seat hold keys already taken: eventId={} seatIds={}", eventId, conflictingSeatIds);
+            return conflictingSeatIds;
+        }
+
+        try {
+            holdExpiryScheduler.schedule(eventId, holderValue, seatIds, System.currentTimeMillis() + ttl.toMillis());
+        } catch (Exception e) {
+            // The seats are held; SeatHoldCleanupJob expires holds missing from the schedule
+            log.warn("Could not schedule hold expiry: eventId={} holder={}", eventId, holderValue, e);
+        }
+        return conflictingSeatIds;
+    }
+
+    @Override
+    public int releaseAll(Long eventId, List<Long> seatIds, String holderValue) {
+        if (seatIds == null || seatIds.isEmpty()) {
+            return 0;
+        }
+
+        Long released = redisTemplate.execute(RELEASE_ALL_SCRIPT, holdKeys(eventId, seatIds, holderValue), holderValue);
+        try {
+            holdExpiryScheduler.cancel(eventId, holderValue);
+        } catch (Exception e) {
+            // A stale entry only yields an expiry record the consumer ignores (hold no longer active)
+            log.warn("Could not unschedule hold expiry: eventId={} holder={}", eventId, holderValue, e);
+        }
+        log.debug("Released {} of {} seat hold keys for eventId={}", released, seatIds.size(), eventId);
+        return released != null ? released.intValue() : 0;
+    }
+
+    @Override
+    public ExpiredHold claimExpiredHold(Long eventId, String holderValue) {
+        List<?> result = redisTemplate.execute(
+            CLAIM_EXPIRED_SCRIPT, List.of(RedisKeys.holdSeatsKey(eventId, holderValue)));
+        if (result == null || result.size() < 2) {
+            return null;
+        }
+
+        List<Long> seatIds = new ArrayList<>();
+        for (String seatId : String.valueOf(result.get(0)).split(",")) {
+            seatIds.add(Long.parseLong(seatId));
+        }
+        return new ExpiredHold(seatIds, ((Number) result.get(1)).longValue() == 1);
+    }
+
+    // Seat keys in seat order, then the hold's expiry trigger and seat list
+    private static List<String> holdKeys(Long eventId, List<Long> seatIds, String holderValue) {
+        List<String> keys = new ArrayList<>(seatIds.size() + 2);
+        for (Long seatId : seatIds) {
+            keys.add(RedisKeys.seatHoldKey(eventId, seatId));
+        }
+        keys.add(RedisKeys.holdExpiryKey(eventId, holderValue));
+        keys.add(RedisKeys.holdSeatsKey(eventId, holderValue));
+        return keys;
+    }
+
+    private static String joinSeatIds(List<Long> seatIds) {
+        StringBuilder joined = new StringBuilder();
+        for (Long seatId : seatIds) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(seatId);
+        }
+        return joined.toString();
+    }
+}
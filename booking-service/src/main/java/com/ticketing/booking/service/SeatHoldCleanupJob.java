@@ -1,31 +1,62 @@
 package com.ticketing.booking.service;
 
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.booking.coordination.ShardLease;
 import com.ticketing.booking.repository.SeatHoldRepository;
 import com.ticketing.booking.repository.SeatRepository;
 import com.ticketing.common.entity.SeatHold;
 import com.ticketing.common.service.SeatStatusCacheService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Safety-net cleanup job that reconciles Redis vs DB state.
  * Runs periodically to catch any expired holds that were missed by
- * the Redis keyspace notification -> Kafka -> consumer pipeline.
+ * the expiry schedule (or keyspace notification) -> Kafka -> consumer pipeline.
  *
  * This handles edge cases like:
- * - Redis restart causing missed keyspace notifications
+ * - Holds taken in degraded mode, or whose expiry could not be scheduled
+ * - Redis restart losing the expiry schedule, or missed keyspace notifications
  * - Kafka consumer downtime
  * - Network partitions between Redis and the application
+ *
+ * Expired holds are read page by page in id order, so a backlog after an outage
+ * never has to fit in memory. Each page is one chunk: one MGET for all of its
+ * seat keys, then one short transaction that expires the holds and releases their
+ * seats with set-based statements. Up to booking.hold.cleanup.parallelism chunks
+ * are reconciled at once; a run stops paging once its time budget is used up and
+ * the next run picks up what is left.
+ *
+ * Holds are split into booking.hold.cleanup.shards shards by id, leased to the
+ * running instances through the {@link ShardCoordinator}; each instance only pages
+ * through the holds of its own shards, so adding instances does not add DB load.
+ * The leases are re-checked right before each chunk's transaction, and holds of
+ * shards lost in the meantime are left to their new owner.
  */
 @Component
 @Slf4j
@@ -33,92 +64,217 @@ import java.util.List;
 @ConditionalOnProperty(value = "booking.hold.cleanup.enabled", havingValue = "true", matchIfMissing = true)
 public class SeatHoldCleanupJob {
 
+    static final String JOB = "hold-cleanup";
+
     private final SeatHoldRepository seatHoldRepository;
     private final SeatRepository seatRepository;
     private final EventMessagingService messagingService;
     private final StringRedisTemplate redisTemplate;
     private final SeatStatusCacheService seatStatusCacheService;
+    private final TransactionOperations transactionOperations;
+    private final ShardCoordinator shardCoordinator;
+
+    @Value("${booking.hold.cleanup.shards:64}")
+    private int shardCount;
+
+    @Value("${booking.hold.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.hold.cleanup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${booking.hold.cleanup.time-budget.ms:50000}")
+    private long timeBudgetMs;
+
+    // Null when parallelism is 1: chunks then run on the scheduler thread
+    private ExecutorService chunkWorkers;
+
+    @PostConstruct
+    void start() {
+        shardCoordinator.register(JOB, shardCount);
+        if (parallelism > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            chunkWorkers = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "seat-hold-cleanup-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (chunkWorkers != null) {
+            chunkWorkers.shutdownNow();
+        }
+    }
 
     /**
      * Runs every 60 seconds. Finds holds that are ACTIVE in DB but past their expiry time,
-     * verifies the Redis key is actually gone, and cleans up DB state.
+     * verifies the Redis keys are actually gone, and cleans up DB state.
      */
     @Scheduled(fixedDelayString = "${booking.hold.cleanup.interval.ms:60000}")
-    @Transactional
     public void reconcileExpiredHolds() {
-        List<SeatHold> expiredHolds = seatHoldRepository.findExpiredHolds(LocalDateTime.now());
-
-        if (expiredHolds.isEmpty()) {
+        List<ShardLease> leases = shardCoordinator.ownedShards(JOB);
+        if (leases.isEmpty()) {
+            log.debug("Safety-net cleanup: no shards held by this instance");
             return;
         }
+        List<Long> shards = leases.stream().map(lease -> (long) lease.getShard()).toList();
+        LocalDateTime now = LocalDateTime.now();
+        long deadline = System.currentTimeMillis() + timeBudgetMs;
 
-        log.info("Safety-net cleanup: found {} expired holds to reconcile", expiredHolds.size());
-
+        Deque<CompletableFuture<Integer>> inFlight = new ArrayDeque<>();
+        long afterId = 0;
+        int scanned = 0;
         int cleaned = 0;
-        for (SeatHold hold : expiredHolds) {
-            try {
-                if (reconcileHold(hold)) {
-                    cleaned++;
+        boolean budgetUsedUp = false;
+
+        while (true) {
+            if (System.currentTimeMillis() >= deadline) {
+                budgetUsedUp = true;
+                break;
+            }
+            List<SeatHold> chunk = seatHoldRepository.findExpiredHoldsInShardsAfter(
+                afterId, shardCount, shards, now, PageRequest.ofSize(chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            scanned += chunk.size();
+
+            if (chunkWorkers == null) {
+                cleaned += reconcileChunkSafely(chunk, leases, now);
+            } else {
+                if (inFlight.size() >= parallelism) {
+                    cleaned += inFlight.poll().join();
                 }
-            } catch (Exception e) {
-                log.error("Failed to reconcile hold: {}", hold.getHoldToken(), e);
+                inFlight.add(CompletableFuture.supplyAsync(() -> reconcileChunkSafely(chunk, leases, now), chunkWorkers));
             }
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            cleaned += inFlight.poll().join();
         }
 
-        if (cleaned > 0) {
-            log.info("Safety-net cleanup: reconciled {} expired holds", cleaned);
+        if (budgetUsedUp) {
+            log.info("Safety-net cleanup: time budget used up after {} expired holds ({} reconciled), continuing next run",
+                    scanned, cleaned);
+        } else if (cleaned > 0) {
+            log.info("Safety-net cleanup: reconciled {} of {} expired holds", cleaned, scanned);
         }
     }
 
-    private boolean reconcileHold(SeatHold hold) {
-        Long eventId = hold.getEvent().getId();
+    private int reconcileChunkSafely(List<SeatHold> chunk, List<ShardLease> leases, LocalDateTime now) {
+        try {
+            return reconcileChunk(chunk, leases, now);
+        } catch (RuntimeException e) {
+            log.error("Failed to reconcile {} holds from id {}", chunk.size(), chunk.get(0).getId(), e);
+            return 0;
+        }
+    }
 
-        // Check if any Redis key still exists for this hold's seats.
-        // If it does, the hold hasn't truly expired yet (clock skew or TTL not yet reached).
-        String expectedValue = hold.getCustomerId() + ":" + hold.getHoldToken();
-        boolean anyKeyExists = false;
+    int reconcileChunk(List<SeatHold> chunk, List<ShardLease> leases, LocalDateTime now) {
+        // All seat keys of the chunk in one MGET (split per slot by the cluster client).
+        // A key still owned by the hold means it hasn't truly expired yet (clock skew or TTL not yet reached).
+        List<String> keys = new ArrayList<>();
+        for (SeatHold hold : chunk) {
+            for (Long seatId : hold.getSeatIds()) {
+                keys.add(BookingService.seatHoldKey(hold.getEvent().getId(), seatId));
+            }
+        }
+        List<String> stored = redisTemplate.opsForValue().multiGet(keys);
+        if (stored == null) {
+            throw new IllegalStateException("MGET returned no result for " + keys.size() + " seat keys");
+        }
 
-        for (Long seatId : hold.getSeatIds()) {
-            String key = BookingService.seatHoldKey(eventId, seatId);
-            String stored = redisTemplate.opsForValue().get(key);
-            if (expectedValue.equals(stored)) {
-                anyKeyExists = true;
-                break;
+        List<Long> expiredHoldIds = new ArrayList<>(chunk.size());
+        int position = 0;
+        for (SeatHold hold : chunk) {
+            String expectedValue = hold.getCustomerId() + ":" + hold.getHoldToken();
+            boolean anyKeyExists = false;
+            for (int i = 0; i < hold.getSeatIds().size(); i++) {
+                anyKeyExists |= expectedValue.equals(stored.get(position++));
             }
+            if (anyKeyExists) {
+                log.debug("Hold {} still has Redis keys, skipping", hold.getHoldToken());
+            } else {
+                expiredHoldIds.add(hold.getId());
+            }
+        }
+        if (expiredHoldIds.isEmpty()) {
+            return 0;
         }
 
-        if (anyKeyExists) {
-            log.debug("Hold {} still has Redis keys, skipping", hold.getHoldToken());
-            return false;
+        // Fencing: drop holds of shards that moved to another instance since the run started
+        Set<Integer> chunkShards = expiredHoldIds.stream().map(this::shardOf).collect(Collectors.toSet());
+        Set<Integer> held = shardCoordinator.stillHeld(leases.stream()
+                .filter(lease -> chunkShards.contains(lease.getShard())).toList())
+            .stream().map(ShardLease::getShard).collect(Collectors.toSet());
+        expiredHoldIds.removeIf(holdId -> !held.contains(shardOf(holdId)));
+        if (expiredHoldIds.isEmpty()) {
+            log.info("Safety-net cleanup: shards of {} holds moved to another instance, leaving them", chunk.size());
+            return 0;
         }
 
-        // Redis keys are gone. Clean up DB state.
-        int released = seatRepository.releaseSeats(hold.getSeatIds());
-        hold.expire();
-        seatHoldRepository.save(hold);
+        Integer cleaned = transactionOperations.execute(status -> expireHolds(expiredHoldIds, now));
+        return cleaned == null ? 0 : cleaned;
+    }
+
+    private int expireHolds(List<Long> holdIds, LocalDateTime now) {
+        // Re-read under lock: holds confirmed or cancelled since the page was read drop out here
+        List<SeatHold> holds = seatHoldRepository.findExpiredHoldsByIdForUpdate(holdIds, now);
+        if (holds.isEmpty()) {
+            return 0;
+        }
 
-        // Prepare values for afterCompletion (avoid lazy-load issues)
-        List<Long> seatIdsCopy = List.copyOf(hold.getSeatIds());
-        String holdToken = hold.getHoldToken();
-        Long customerId = hold.getCustomerId();
+        Map<Long, List<Long>> seatsByEvent = new LinkedHashMap<>();
+        List<Long> seatIds = new ArrayList<>();
+        for (SeatHold hold : holds) {
+            seatsByEvent.computeIfAbsent(hold.getEvent().getId(), id -> new ArrayList<>()).addAll(hold.getSeatIds());
+            seatIds.addAll(hold.getSeatIds());
+        }
+
+        int released = seatRepository.releaseSeats(seatIds);
+        seatHoldRepository.expireHolds(holds.stream().map(SeatHold::getId).toList());
 
-        // Update Redis HASH + publish Kafka after DB commit
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        // Expired events join the DB transaction (outbox); Redis HASH update after DB commit
+        for (SeatHold hold : holds) {
+            messagingService.publishSeatHoldExpired(
+                hold.getHoldToken(), hold.getCustomerId(), hold.getEvent().getId(), List.copyOf(hold.getSeatIds()));
+        }
+        runAfterCompletion(new TransactionSynchronization() {
             @Override
             public void afterCompletion(int status) {
                 if (status == STATUS_COMMITTED) {
                     // DB commit succeeded: seats are AVAILABLE
-                    seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "AVAILABLE");
-                    messagingService.publishSeatHoldExpired(holdToken, customerId, eventId, seatIdsCopy);
+                    seatsByEvent.forEach((eventId, eventSeatIds) ->
+                        seatStatusCacheService.cacheSeatStatusChanges(eventId, eventSeatIds, "AVAILABLE"));
                 } else {
                     // DB rolled back: seats remain HELD — re-affirm in HASH
-                    seatStatusCacheService.cacheSeatStatusChanges(eventId, seatIdsCopy, "HELD");
-                    log.warn("Safety-net cleanup rolled back for hold={}, re-affirmed HELD in Redis HASH", holdToken);
+                    seatsByEvent.forEach((eventId, eventSeatIds) ->
+                        seatStatusCacheService.cacheSeatStatusChanges(eventId, eventSeatIds, "HELD"));
+                    log.warn("Safety-net cleanup rolled back for {} holds, re-affirmed HELD in Redis HASH", holds.size());
                 }
             }
         });
 
-        log.info("Safety-net: cleaned up hold {} ({} seats released)", holdToken, released);
-        return true;
+        log.info("Safety-net: cleaned up {} holds ({} seats released)", holds.size(), released);
+        return holds.size();
+    }
+
+    private int shardOf(Long holdId) {
+        return (int) Math.floorMod(holdId, (long) shardCount);
+    }
+
+    private static void runAfterCompletion(TransactionSynchronization synchronization) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        } else {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
     }
 }
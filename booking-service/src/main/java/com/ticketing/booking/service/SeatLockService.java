@@ -0,0 +1,54 @@
+package com.ticketing.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface SeatLockService {
+
+    /**
+     * Acquire the hold keys for all seats, or for none of them.
+     * Together with the seat keys, the hold's expiry trigger and seat list are written,
+     * so its expiry is reported once per hold instead of once per seat.
+     *
+     * @param eventId Event the seats belong to
+     * @param seatIds Seats to lock
+     * @param holderValue Value stored in every key ({customerId}:{holdToken})
+     * @param ttl Hold duration
+     * @return IDs of the seats already held by someone else; empty when every key was acquired
+     */
+    List<Long> acquireAll(Long eventId, List<Long> seatIds, String holderValue, Duration ttl);
+
+    /**
+     * Release the hold keys of the given seats that are still owned by the holder,
+     * along with the hold's expiry trigger.
+     *
+     * @param eventId Event the seats belong to
+     * @param seatIds Seats to unlock
+     * @param holderValue Value that was stored when the keys were acquired
+     * @return Number of keys actually deleted
+     */
+    int releaseAll(Long eventId, List<Long> seatIds, String holderValue);
+
+    /**
+     * Read the seats of a hold whose expiry trigger fired.
+     * Every instance is notified of the expiry; exactly one gets the first claim.
+     *
+     * @param holderValue Value of the hold's keys ({customerId}:{holdToken})
+     * @return the hold's seats, or null if the hold was released before it expired
+     */
+    ExpiredHold claimExpiredHold(Long eventId, String holderValue);
+
+    /**
+     * Seats of an expired hold, and whether this caller claimed the expiry first
+     * (and so should publish it).
+     */
+    @Getter
+    @RequiredArgsConstructor
+    class ExpiredHold {
+        private final List<Long> seatIds;
+        private final boolean firstClaim;
+    }
+}
@@ -8,6 +8,7 @@ import com.ticketing.common.service.SeatStatusCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,15 +20,20 @@ import java.util.Map;
 
 /**
  * Kafka consumer for seat state transitions.
- * Handles DB updates when seat holds expire via Redis TTL.
+ * Handles DB updates when seat holds expire: one record per hold, expired with
+ * one UPDATE of the hold and one of its seats.
  *
- * The keyspace notification listener (DefaultSeatHoldExpiryService) publishes
- * lightweight events here. This consumer does the heavier DB work with proper
+ * The expiry drainer (HoldExpiryDrainer, or DefaultSeatHoldExpiryService with
+ * booking.expiry.source=keyspace) publishes lightweight events here. This consumer does the heavier DB work with proper
  * retry semantics provided by Kafka consumer groups.
+ *
+ * Handles one record at a time; {@link BatchSeatStateConsumer} replaces it
+ * when booking.expiry.consumer.batch.enabled=true.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.expiry.consumer.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class SeatStateConsumer {
 
     private final SeatRepository seatRepository;
@@ -35,6 +41,7 @@ public class SeatStateConsumer {
     private final EventMessagingService messagingService;
     private final ObjectMapper objectMapper;
     private final SeatStatusCacheService seatStatusCacheService;
+    private final SeatViewExpiryListener seatViewExpiryListener;
 
     @Transactional
     @KafkaListener(
@@ -49,7 +56,15 @@ public class SeatStateConsumer {
 
             String eventType = (String) event.get("eventType");
 
-            if ("SEAT_HOLD_EXPIRED".equals(eventType)) {
+            if ("SEAT_HOLD_EXPIRED".equals(eventType) && event.get("holdToken") != null) {
+                Long eventId = ((Number) event.get("eventId")).longValue();
+                Long customerId = ((Number) event.get("customerId")).longValue();
+                @SuppressWarnings("unchecked")
+                List<Long> seatIds = ((List<Number>) event.get("seatIds")).stream().map(Number::longValue).toList();
+
+                handleHoldExpiry(eventId, customerId, (String) event.get("holdToken"), seatIds);
+            } else if ("SEAT_HOLD_EXPIRED".equals(eventType)) {
+                // Per-seat record published before hold-level expiry tracking
                 Long eventId = ((Number) event.get("eventId")).longValue();
                 Long seatId = ((Number) event.get("seatId")).longValue();
 
@@ -63,6 +78,29 @@ public class SeatStateConsumer {
         }
     }
 
+    private void handleHoldExpiry(Long eventId, Long customerId, String holdToken, List<Long> seatIds) {
+        log.info("Processing hold expiry: eventId={} holdToken={} seats={}", eventId, holdToken, seatIds.size());
+
+        // The record carries everything needed: expire the hold, then release its seats (only if still HELD)
+        int expired = seatHoldRepository.expireHoldByToken(holdToken, LocalDateTime.now());
+        if (expired == 0) {
+            // Confirmed, cancelled or already expired (e.g. by the safety-net job). Nothing to do.
+            log.debug("Hold {} no longer active, skipping", holdToken);
+            return;
+        }
+
+        int released = seatRepository.releaseSeats(seatIds);
+
+        // Cache seat status transitions: HELD → AVAILABLE
+        seatStatusCacheService.transitionSeatStatuses(eventId, seatIds, "HELD", "AVAILABLE");
+        seatViewExpiryListener.expiredAfterCommit(eventId, seatIds);
+
+        messagingService.publishSeatHoldExpired(holdToken, customerId, eventId, seatIds);
+
+        log.info("Hold released via TTL expiry: eventId={} holdToken={} seatsReleased={}",
+                eventId, holdToken, released);
+    }
+
     private void handleSeatExpiry(Long eventId, Long seatId) {
         log.info("Processing seat expiry: eventId={} seatId={}", eventId, seatId);
 
@@ -77,6 +115,7 @@ public class SeatStateConsumer {
 
         // Cache seat status transition: HELD → AVAILABLE
         seatStatusCacheService.transitionSeatStatus(eventId, seatId, "HELD", "AVAILABLE");
+        seatViewExpiryListener.expiredAfterCommit(eventId, List.of(seatId));
 
         // Find the active hold that references this seat and mark it expired
         List<SeatHold> activeHolds = seatHoldRepository.findExpiredHoldsForSeat(eventId, seatId, LocalDateTime.now());
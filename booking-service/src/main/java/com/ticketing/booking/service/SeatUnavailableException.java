@@ -0,0 +1,16 @@
+package com.ticketing.booking.service;
+
+/**
+ * A hold lost its seats to another customer, or the event has not enough seats left.
+ * Counted separately from other hold failures in the load reported to the waiting room.
+ */
+public class SeatUnavailableException extends BookingException {
+
+    public SeatUnavailableException(String message) {
+        super(message);
+    }
+
+    public SeatUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.booking.allocation.SeatAllocationIndex;
+import com.ticketing.booking.inventory.SeatInventory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frees expired seats in this instance's in-memory seat views (the best-available
+ * {@link SeatAllocationIndex} and the {@link SeatInventory}), only once the expiry is in
+ * the database.
+ *
+ * The seat state consumer that ran the expiry applies it from an after-commit callback.
+ * Every other instance learns it from the SEAT_HOLD_EXPIRED record the expiry appended
+ * to the seat-hold-expired topic, read here with a group of its own per instance (from
+ * the latest offset). Through the outbox that record is relayed only after the expiry
+ * committed. Applying an expiry twice is harmless: the inventory only frees holds that
+ * have run out, and the index is a source of candidates the hold itself still checks.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SeatViewExpiryListener {
+
+    private final SeatAllocationIndex seatAllocationIndex;
+    private final SeatInventory seatInventory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Free the seats once the caller's transaction has committed; right away without one.
+     */
+    public void expiredAfterCommit(Long eventId, List<Long> seatIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    expired(eventId, seatIds);
+                }
+            });
+        } else {
+            expired(eventId, seatIds);
+        }
+    }
+
+    @KafkaListener(
+        topics = "${kafka.topics.seat-hold-expired:seat-hold-expired}",
+        groupId = "${kafka.consumer.group-id:booking-service-seat-state}-views-${random.uuid}",
+        properties = "auto.offset.reset=latest",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void onSeatHoldExpired(ConsumerRecord<String, String> record) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> event = objectMapper.readValue(record.value(), Map.class);
+            if (!"SEAT_HOLD_EXPIRED".equals(event.get("eventType")) || event.get("seatIds") == null) {
+                return;
+            }
+            Long eventId = ((Number) event.get("eventId")).longValue();
+            @SuppressWarnings("unchecked")
+            List<Long> seatIds = ((List<Number>) event.get("seatIds")).stream().map(Number::longValue).toList();
+            expired(eventId, seatIds);
+        } catch (Exception e) {
+            // The views catch up on their own: the index on its next rebuild, the inventory at hold expiry
+            log.warn("Could not apply hold expiry to the seat views: key={}", record.key(), e);
+        }
+    }
+
+    private void expired(Long eventId, List<Long> seatIds) {
+        seatAllocationIndex.markFree(eventId, seatIds);
+        seatInventory.expire(eventId, seatIds);
+    }
+}
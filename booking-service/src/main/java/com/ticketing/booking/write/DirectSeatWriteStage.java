@@ -0,0 +1,66 @@
+package com.ticketing.booking.write;
+
+import com.ticketing.booking.repository.BookingRepository;
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.booking.service.BookingException;
+import com.ticketing.booking.service.SeatUnavailableException;
+import com.ticketing.common.entity.Booking;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Default write stage: every request runs its own statements in the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.group-commit.enabled", havingValue = "false", matchIfMissing = true)
+public class DirectSeatWriteStage implements SeatWriteStage {
+
+    private final SeatRepository seatRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public HeldSeats writeHold(SeatHold seatHold, Consumer<HeldSeats> inTransaction) {
+        // Redis SET NX already prevents concurrent hold conflict.
+        // DB guard protects against permanently sold (BOOKED) seats
+        // and handles Kafka-lag where an expired hold hasn't been cleaned up.
+        int updatedSeats = seatRepository.holdSeatsGuarded(seatHold.getSeatIds());
+        if (updatedSeats != seatHold.getSeatIds().size()) {
+            throw new SeatUnavailableException("One or more selected seats are no longer available");
+        }
+
+        List<Seat> seats = seatRepository.findByIdIn(seatHold.getSeatIds());
+        seatHold.setEvent(seats.get(0).getEvent());
+        HeldSeats held = new HeldSeats(seatHoldRepository.save(seatHold), seats);
+        inTransaction.accept(held);
+        return held;
+    }
+
+    @Override
+    public Booking writeConfirmation(SeatHold seatHold, Booking booking, Consumer<Booking> inTransaction) {
+        // Update seats from HELD to BOOKED
+        int bookedSeats = seatRepository.bookSeats(seatHold.getSeatIds());
+        if (bookedSeats != seatHold.getSeatIds().size()) {
+            throw new BookingException("Failed to confirm all seats. Some may have been released.");
+        }
+
+        seatHold.confirm();
+        seatHoldRepository.save(seatHold);
+        Booking saved = bookingRepository.save(booking);
+        inTransaction.accept(saved);
+        return saved;
+    }
+
+    @Override
+    public boolean commitsIndependently() {
+        return false;
+    }
+}
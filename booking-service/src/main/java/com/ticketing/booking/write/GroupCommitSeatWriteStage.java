@@ -0,0 +1,329 @@
+package com.ticketing.booking.write;
+
+import com.ticketing.booking.repository.BookingRepository;
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.booking.service.BookingException;
+import com.ticketing.booking.service.SeatUnavailableException;
+import com.ticketing.common.entity.Booking;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Group-commit write stage.
+ *
+ * Hold and confirm writes arriving within a short window (or until the batch is
+ * full) share one transaction: one SELECT ... FOR UPDATE over every seat of the
+ * batch, conflict checks in arrival order, one guarded UPDATE per target status
+ * and one saveAll per table. The result is the same as running the writes one
+ * after another, but at the cost of one connection and one commit per batch.
+ * A conflicting write only fails its own caller; the rest of the batch commits.
+ * The in-transaction callbacks of the applied writes run after the saveAll, so
+ * their outbox rows go out in the batch's commit too.
+ *
+ * Callers block until their batch has committed (or failed).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "booking.group-commit.enabled", havingValue = "true")
+public class GroupCommitSeatWriteStage implements SeatWriteStage {
+
+    static final String BATCH_SIZE_METRIC = "booking.group.commit.batch.size";
+    static final String WAIT_METRIC = "booking.group.commit.wait";
+
+    private final SeatRepository seatRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.group-commit.window.micros:500}")
+    private long windowMicros;
+
+    @Value("${booking.group-commit.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${booking.group-commit.flushers:1}")
+    private int flusherCount;
+
+    private final BlockingQueue<SeatWrite> queue = new LinkedBlockingQueue<>();
+    private ExecutorService flushers;
+    private volatile boolean running;
+    private DistributionSummary batchSize;
+    private Timer waitTime;
+
+    @PostConstruct
+    void start() {
+        batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+            .description("Writes committed per group-commit transaction")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        waitTime = Timer.builder(WAIT_METRIC)
+            .description("Time a write waited for its group-commit batch to start")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        running = true;
+        AtomicInteger threadIndex = new AtomicInteger();
+        flushers = Executors.newFixedThreadPool(flusherCount, runnable -> {
+            Thread thread = new Thread(runnable, "seat-group-commit-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < flusherCount; i++) {
+            flushers.execute(this::runFlusher);
+        }
+        log.info("Seat group commit started: window={}us maxBatchSize={} flushers={}",
+                windowMicros, maxBatchSize, flusherCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        flushers.shutdownNow();
+        List<SeatWrite> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(write -> write.result.completeExceptionally(
+            new BookingException("Booking service is shutting down, please retry")));
+    }
+
+    @Override
+    public HeldSeats writeHold(SeatHold seatHold, Consumer<HeldSeats> inTransaction) {
+        SeatWrite write = submit(new SeatWrite(Seat.SeatStatus.HELD, seatHold, null,
+            applied -> inTransaction.accept(applied.heldSeats())));
+        return write.heldSeats();
+    }
+
+    @Override
+    public Booking writeConfirmation(SeatHold seatHold, Booking booking, Consumer<Booking> inTransaction) {
+        return submit(new SeatWrite(Seat.SeatStatus.BOOKED, seatHold, booking,
+            applied -> inTransaction.accept(applied.savedBooking))).savedBooking;
+    }
+
+    @Override
+    public boolean commitsIndependently() {
+        return true;
+    }
+
+    private SeatWrite submit(SeatWrite write) {
+        if (!running) {
+            throw new BookingException("Booking service is shutting down, please retry");
+        }
+        queue.add(write);
+        try {
+            return write.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runFlusher() {
+        List<SeatWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(windowMicros);
+                while (batch.size() < maxBatchSize) {
+                    SeatWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(write -> write.result.completeExceptionally(
+                    new BookingException("Booking service is shutting down, please retry")));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<SeatWrite> batch) {
+        long flushStart = System.nanoTime();
+        batch.forEach(write -> waitTime.record(flushStart - write.submittedAt, TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+
+        try {
+            transactionOperations.executeWithoutResult(status -> apply(batch));
+        } catch (Exception e) {
+            log.error("Group commit of {} seat writes failed", batch.size(), e);
+            batch.forEach(write -> write.result.completeExceptionally(e));
+            return;
+        }
+
+        // Only now that the batch is committed do callers learn their outcome
+        for (SeatWrite write : batch) {
+            if (write.rejection != null) {
+                write.result.completeExceptionally(write.target == Seat.SeatStatus.HELD
+                    ? new SeatUnavailableException(write.rejection)
+                    : new BookingException(write.rejection));
+            } else {
+                write.result.complete(write);
+            }
+        }
+    }
+
+    private void apply(List<SeatWrite> batch) {
+        TreeSet<Long> allSeatIds = new TreeSet<>();
+        batch.forEach(write -> allSeatIds.addAll(write.seatHold.getSeatIds()));
+
+        // Lock every seat of the batch in id order, then the status blocks of its packed seats
+        // (their row status is stale, and releases and expiries change them through the blocks
+        // only); statuses then only change through this batch
+        Map<Long, Seat> seats = new HashMap<>();
+        Map<Long, Seat.SeatStatus> statuses = new HashMap<>();
+        for (Seat seat : seatRepository.findByIdInForUpdate(new ArrayList<>(allSeatIds))) {
+            seats.put(seat.getId(), seat);
+            statuses.put(seat.getId(), seat.getStatus());
+        }
+        statuses.putAll(seatRepository.lockPackedStatuses(seats.values()));
+
+        TreeSet<Long> toHold = new TreeSet<>();
+        TreeSet<Long> toBook = new TreeSet<>();
+        List<SeatWrite> applied = new ArrayList<>();
+
+        for (SeatWrite write : batch) {
+            List<Long> seatIds = write.seatHold.getSeatIds();
+            if (!write.allowedFrom(seatIds, statuses)) {
+                write.rejection = write.target == Seat.SeatStatus.HELD
+                    ? "One or more selected seats are no longer available"
+                    : "Failed to confirm all seats. Some may have been released.";
+                continue;
+            }
+            seatIds.forEach(seatId -> statuses.put(seatId, write.target));
+            (write.target == Seat.SeatStatus.HELD ? toHold : toBook).addAll(seatIds);
+            applied.add(write);
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+
+        // HELD before BOOKED: a seat held and confirmed within one batch ends up BOOKED
+        if (!toHold.isEmpty()) {
+            expectUpdated(seatRepository.holdSeatsGuarded(new ArrayList<>(toHold)), toHold.size());
+        }
+        if (!toBook.isEmpty()) {
+            expectUpdated(seatRepository.bookSeats(new ArrayList<>(toBook)), toBook.size());
+        }
+
+        List<SeatHold> holds = new ArrayList<>(applied.size());
+        List<Booking> bookings = new ArrayList<>();
+        for (SeatWrite write : applied) {
+            if (write.target == Seat.SeatStatus.HELD) {
+                write.seats = write.seatHold.getSeatIds().stream().sorted().map(seats::get).toList();
+                write.seatHold.setEvent(write.seats.get(0).getEvent());
+                // The caller reads the event title after this transaction has ended
+                Hibernate.initialize(write.seatHold.getEvent());
+            } else {
+                write.seatHold.confirm();
+                bookings.add(write.booking);
+            }
+            holds.add(write.seatHold);
+        }
+
+        List<SeatHold> savedHolds = seatHoldRepository.saveAll(holds);
+        List<Booking> savedBookings = bookings.isEmpty() ? List.of() : bookingRepository.saveAll(bookings);
+
+        int bookingIndex = 0;
+        for (int i = 0; i < applied.size(); i++) {
+            SeatWrite write = applied.get(i);
+            write.savedHold = savedHolds.get(i);
+            if (write.target == Seat.SeatStatus.BOOKED) {
+                write.savedBooking = savedBookings.get(bookingIndex++);
+            }
+        }
+        // A failing callback fails the whole batch, like any other statement of it
+        applied.forEach(write -> write.inTransaction.accept(write));
+        log.debug("Group commit applied {} of {} seat writes ({} seats held, {} booked)",
+                applied.size(), batch.size(), toHold.size(), toBook.size());
+    }
+
+    private static void expectUpdated(int updated, int expected) {
+        // Seats are locked above, so a mismatch means the locking assumption broke: fail the whole batch
+        if (updated != expected) {
+            throw new IllegalStateException("Group commit updated " + updated + " seats, expected " + expected);
+        }
+    }
+
+    static final class SeatWrite {
+        private final Seat.SeatStatus target;
+        private final SeatHold seatHold;
+        private final Booking booking;
+        private final Consumer<SeatWrite> inTransaction;
+        private final long submittedAt = System.nanoTime();
+        final CompletableFuture<SeatWrite> result = new CompletableFuture<>();
+
+        // Filled in by the flusher thread, read by the caller after the future completes
+        private String rejection;
+        private List<Seat> seats;
+        private SeatHold savedHold;
+        private Booking savedBooking;
+
+        SeatWrite(Seat.SeatStatus target, SeatHold seatHold, Booking booking, Consumer<SeatWrite> inTransaction) {
+            this.target = target;
+            this.seatHold = seatHold;
+            this.booking = booking;
+            this.inTransaction = inTransaction;
+        }
+
+        private HeldSeats heldSeats() {
+            return new HeldSeats(savedHold, seats);
+        }
+
+        /**
+         * Same guards as holdSeatsGuarded (not BOOKED) and bookSeats (HELD), applied to
+         * the statuses as left by the earlier writes of the batch.
+         */
+        boolean allowedFrom(List<Long> seatIds, Map<Long, Seat.SeatStatus> statuses) {
+            if (new HashSet<>(seatIds).size() != seatIds.size()) {
+                return false;
+            }
+            for (Long seatId : seatIds) {
+                Seat.SeatStatus status = statuses.get(seatId);
+                if (status == null) {
+                    return false;
+                }
+                if (target == Seat.SeatStatus.HELD ? status == Seat.SeatStatus.BOOKED : status != Seat.SeatStatus.HELD) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
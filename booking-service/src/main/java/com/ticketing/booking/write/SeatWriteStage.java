@@ -0,0 +1,55 @@
+package com.ticketing.booking.write;
+
+import com.ticketing.common.entity.Booking;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Database writes of the hold and confirm paths: the guarded seat status
+ * UPDATE plus the seat_holds / bookings rows that go with it.
+ *
+ * Each write takes a callback run in the write's transaction once its rows are
+ * saved, for changes that must commit with it (the outbox rows of its events).
+ */
+public interface SeatWriteStage {
+
+    /**
+     * Move the hold's seats to HELD (unless BOOKED) and insert the hold.
+     * The hold's event is taken from its seats.
+     *
+     * @param inTransaction run with the saved hold in the write's transaction
+     * @throws com.ticketing.booking.service.BookingException if any seat is missing or already booked
+     */
+    HeldSeats writeHold(SeatHold seatHold, Consumer<HeldSeats> inTransaction);
+
+    /**
+     * Move the hold's seats from HELD to BOOKED, mark the hold confirmed and insert the booking.
+     *
+     * @param inTransaction run with the saved booking in the write's transaction
+     * @return the saved booking
+     * @throws com.ticketing.booking.service.BookingException if any seat is no longer HELD
+     */
+    Booking writeConfirmation(SeatHold seatHold, Booking booking, Consumer<Booking> inTransaction);
+
+    /**
+     * Whether writes commit in a transaction of their own. When true the caller
+     * must not wrap them in a transaction, or it would hold a pooled connection
+     * while waiting for the commit.
+     */
+    boolean commitsIndependently();
+
+    /**
+     * Saved hold together with its seats (event initialized).
+     */
+    @Getter
+    @RequiredArgsConstructor
+    class HeldSeats {
+        private final SeatHold seatHold;
+        private final List<Seat> seats;
+    }
+}
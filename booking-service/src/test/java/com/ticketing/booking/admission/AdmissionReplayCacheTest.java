@@ -0,0 +1,95 @@
+package com.ticketing.booking.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionReplayCacheTest {
+
+    private AdmissionReplayCache replayCache;
+
+    @BeforeEach
+    void setUp() {
+        replayCache = new AdmissionReplayCache();
+        ReflectionTestUtils.setField(replayCache, "maxEntries", 2);
+    }
+
+    @Test
+    void markUsed_SecondUseRejectedUntilTheFirstFails() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        assertTrue(replayCache.markUsed(1L, expiresAt, null));
+        assertFalse(replayCache.markUsed(1L, expiresAt, null));
+
+        replayCache.finished(1L, false);
+
+        assertTrue(replayCache.markUsed(1L, expiresAt, null));
+    }
+
+    @Test
+    void markUsed_SameIdempotencyKey_AcceptedAgainOtherKeysNot() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-1"));
+        replayCache.finished(1L, true);
+
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-1"));
+        assertFalse(replayCache.markUsed(1L, expiresAt, "idem-2"));
+        assertFalse(replayCache.markUsed(1L, expiresAt, null));
+    }
+
+    @Test
+    void finished_HeldByAnyRequest_StaysUsed() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-1"));
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-1"));
+
+        // The first held, its concurrent retry failed waiting for it
+        replayCache.finished(1L, true);
+        replayCache.finished(1L, false);
+
+        assertFalse(replayCache.markUsed(1L, expiresAt, "idem-2"));
+    }
+
+    @Test
+    void finished_NoneHeld_UsableOnceAllAreDone() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-1"));
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-1"));
+
+        replayCache.finished(1L, false);
+        assertFalse(replayCache.markUsed(1L, expiresAt, "idem-2"));
+        replayCache.finished(1L, false);
+
+        assertTrue(replayCache.markUsed(1L, expiresAt, "idem-2"));
+    }
+
+    @Test
+    void markUsed_Full_EvictsExpiredFirst() {
+        long now = System.currentTimeMillis();
+        assertTrue(replayCache.markUsed(1L, now - 1, null));
+        assertTrue(replayCache.markUsed(2L, now + 60_000, null));
+
+        assertTrue(replayCache.markUsed(3L, now + 60_000, null));
+        assertEquals(2, replayCache.size());
+    }
+
+    @Test
+    void markUsed_FullOfLiveTokens_Refused() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        replayCache.markUsed(1L, expiresAt, null);
+        replayCache.markUsed(2L, expiresAt, null);
+
+        assertFalse(replayCache.markUsed(3L, expiresAt, null));
+    }
+
+    @Test
+    void evictExpired_DropsOnlyExpired() {
+        replayCache.markUsed(1L, 1000L, null);
+        replayCache.markUsed(2L, 3000L, null);
+
+        assertEquals(1, replayCache.evictExpired(2000L));
+        assertEquals(1, replayCache.size());
+    }
+}
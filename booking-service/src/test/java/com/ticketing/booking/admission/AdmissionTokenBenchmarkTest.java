@@ -0,0 +1,95 @@
+package com.ticketing.booking.admission;
+
+import com.ticketing.common.util.AdmissionTokens;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JMH cost of checking an admission token on the hold path: a valid token, and a forged
+ * one with the right shape (the most expensive rejection, a full HMAC). Run with the GC
+ * profiler so allocation per check is reported next to the latency; the only allocation
+ * left is the result array Mac.doFinal copies out of. Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl booking-service test -Dtest=AdmissionTokenBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AdmissionTokenBenchmarkTest {
+
+    @State(Scope.Thread)
+    public static class Tokens {
+        AdmissionTokens admissionTokens;
+        AdmissionTokens.Claims claims;
+        String valid;
+        String forged;
+        long now;
+
+        @Setup
+        public void setUp() {
+            admissionTokens = new AdmissionTokens("benchmark-admission-token-secret-32b!");
+            claims = new AdmissionTokens.Claims();
+            now = System.currentTimeMillis();
+            valid = admissionTokens.sign(1L, 42L, now + TimeUnit.HOURS.toMillis(1), 12345L);
+            forged = new AdmissionTokens("another-admission-token-secret-32b!!")
+                .sign(1L, 42L, now + TimeUnit.HOURS.toMillis(1), 12345L);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public AdmissionTokens.Status verifyValid(Tokens tokens) {
+        return tokens.admissionTokens.verify(tokens.valid, tokens.now, tokens.claims);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public AdmissionTokens.Status verifyForged(Tokens tokens) {
+        return tokens.admissionTokens.verify(tokens.forged, tokens.now, tokens.claims);
+    }
+
+    @Test
+    void verify() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(AdmissionTokenBenchmarkTest.class.getName() + ".verify(Valid|Forged)")
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            double nanos = result.getPrimaryResult().getScore();
+            double allocated = result.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+            System.out.printf("%-60s %8.1f ns/op %8.1f B/op%n", benchmark, nanos, allocated);
+            // One 32-byte array with its header
+            assertThat(allocated).as("bytes allocated per check").isLessThan(64.0);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ticketing.booking.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ticketing.common.util.AdmissionTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionTokenFilterTest {
+
+    private final AdmissionTokens admissionTokens = new AdmissionTokens("test-admission-token-secret-32-bytes!");
+    private AdmissionReplayCache replayCache;
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        replayCache = new AdmissionReplayCache();
+        ReflectionTestUtils.setField(replayCache, "maxEntries", 100);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdmissionTokenFilter(admissionTokens, replayCache,
+            new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    private static MockHttpServletRequest hold(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings/hold");
+        if (token != null) {
+            request.addHeader(AdmissionTokenFilter.ADMISSION_HEADER, token);
+        }
+        return request;
+    }
+
+    private String token(long expiresAt) {
+        return admissionTokens.sign(1L, 5L, expiresAt, 99L);
+    }
+
+    @Test
+    void validToken_PassesWithTheAdmission() throws Exception {
+        MockHttpServletRequest request = hold(token(System.currentTimeMillis() + 60_000));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+        AdmissionTokens.Claims admission =
+            (AdmissionTokens.Claims) request.getAttribute(AdmissionTokenFilter.ADMISSION_ATTRIBUTE);
+        assertEquals(1L, admission.getEventId());
+        assertEquals(5L, admission.getCustomerId());
+    }
+
+    @Test
+    void usedToken_Rejected() throws Exception {
+        String token = token(System.currentTimeMillis() + 60_000);
+        filter.doFilter(hold(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(hold(token), response, chain);
+
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+        assertTrue(response.getContentAsString().contains("already used"));
+        assertEquals(1.0, meterRegistry.get(AdmissionTokenFilter.REJECTED_METRIC).tag("reason", "replayed").counter().count());
+    }
+
+    @Test
+    void retryWithTheSameIdempotencyKey_PassesToBeReplayed() throws Exception {
+        String token = token(System.currentTimeMillis() + 60_000);
+        MockHttpServletRequest first = hold(token);
+        first.addHeader(AdmissionTokenFilter.IDEMPOTENCY_HEADER, "idem-1");
+        filter.doFilter(first, new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletRequest retry = hold(token);
+        retry.addHeader(AdmissionTokenFilter.IDEMPOTENCY_HEADER, "idem-1");
+        MockFilterChain retryChain = new MockFilterChain();
+        filter.doFilter(retry, new MockHttpServletResponse(), retryChain);
+
+        MockHttpServletRequest other = hold(token);
+        other.addHeader(AdmissionTokenFilter.IDEMPOTENCY_HEADER, "idem-2");
+        MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+        filter.doFilter(other, otherResponse, new MockFilterChain());
+
+        assertSame(retry, retryChain.getRequest());
+        assertEquals(403, otherResponse.getStatus());
+    }
+
+    @Test
+    void failedHold_TokenUsableAgain() throws Exception {
+        String token = token(System.currentTimeMillis() + 60_000);
+        FilterChain conflict = (req, res) -> ((HttpServletResponse) res).setStatus(409);
+        filter.doFilter(hold(token), new MockHttpServletResponse(), conflict);
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(hold(token), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void missingExpiredOrForgedToken_Rejected() throws Exception {
+        String forged = new AdmissionTokens("another-admission-token-secret-32b!!")
+            .sign(1L, 5L, System.currentTimeMillis() + 60_000, 99L);
+        for (String token : new String[] {null, token(System.currentTimeMillis() - 1), forged, "QUEUE_ABC"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(hold(token), response, chain);
+
+            assertEquals(403, response.getStatus());
+            assertNull(chain.getRequest());
+        }
+        assertEquals(0, replayCache.size());
+    }
+
+    @Test
+    void otherRequests_NotFiltered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/hold/HOLD_X");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+}
@@ -0,0 +1,93 @@
+package com.ticketing.booking.admission;
+
+import com.ticketing.common.util.AdmissionTokens;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionTokensTest {
+
+    private static final String SECRET = "test-admission-token-secret-32-bytes!";
+
+    private final AdmissionTokens tokens = new AdmissionTokens(SECRET);
+    private final AdmissionTokens.Claims claims = new AdmissionTokens.Claims();
+
+    @Test
+    void signAndVerify_RoundTripsTheClaims() {
+        long now = System.currentTimeMillis();
+        String token = tokens.sign(42L, 7L, now + 60_000, Long.MIN_VALUE + 3);
+
+        assertTrue(token.startsWith(AdmissionTokens.PREFIX));
+        assertEquals(70, token.length());
+        assertEquals(AdmissionTokens.Status.VALID, tokens.verify(token, now, claims));
+        assertEquals(42L, claims.getEventId());
+        assertEquals(7L, claims.getCustomerId());
+        assertEquals(now + 60_000, claims.getExpiresAtMillis());
+        assertEquals(Long.MIN_VALUE + 3, claims.getNonce());
+        // Same claims, same token: every queue-service instance hands out the same one
+        assertEquals(token, tokens.sign(42L, 7L, now + 60_000, Long.MIN_VALUE + 3));
+    }
+
+    @Test
+    void sign_SignatureIsTruncatedHmacSha256() throws Exception {
+        for (String secret : new String[] {SECRET, SECRET.repeat(3)}) {
+            String token = new AdmissionTokens(secret).sign(42L, 7L, 1000L, -5L);
+
+            byte[] bytes = Base64.getUrlDecoder().decode(token.substring(AdmissionTokens.PREFIX.length()));
+            byte[] claimBytes = ByteBuffer.allocate(32).putLong(42L).putLong(7L).putLong(1000L).putLong(-5L).array();
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            assertArrayEquals(claimBytes, Arrays.copyOf(bytes, 32));
+            assertArrayEquals(Arrays.copyOf(mac.doFinal(claimBytes), 16), Arrays.copyOfRange(bytes, 32, 48));
+        }
+    }
+
+    @Test
+    void verify_Expired() {
+        String token = tokens.sign(42L, 7L, 1000L, 1L);
+
+        assertEquals(AdmissionTokens.Status.EXPIRED, tokens.verify(token, 1000L, claims));
+    }
+
+    @Test
+    void verify_AnyChangedCharacter_BadSignatureOrMalformed() {
+        String token = tokens.sign(42L, 7L, Long.MAX_VALUE, 1L);
+        for (int i = AdmissionTokens.PREFIX.length(); i < token.length(); i++) {
+            char replaced = token.charAt(i) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, i) + replaced + token.substring(i + 1);
+
+            assertEquals(AdmissionTokens.Status.BAD_SIGNATURE, tokens.verify(tampered, 0L, claims), "char " + i);
+        }
+    }
+
+    @Test
+    void verify_OtherSecret_BadSignature() {
+        String token = new AdmissionTokens("another-admission-token-secret-32b!!").sign(42L, 7L, Long.MAX_VALUE, 1L);
+
+        assertEquals(AdmissionTokens.Status.BAD_SIGNATURE, tokens.verify(token, 0L, claims));
+    }
+
+    @Test
+    void verify_Malformed() {
+        String token = tokens.sign(42L, 7L, Long.MAX_VALUE, 1L);
+
+        assertEquals(AdmissionTokens.Status.MALFORMED, tokens.verify(null, 0L, claims));
+        assertEquals(AdmissionTokens.Status.MALFORMED, tokens.verify("QUEUE_ABC", 0L, claims));
+        assertEquals(AdmissionTokens.Status.MALFORMED, tokens.verify("HOLD__" + token.substring(6), 0L, claims));
+        assertEquals(AdmissionTokens.Status.MALFORMED, tokens.verify(token.substring(0, 69) + "=", 0L, claims));
+        assertEquals(AdmissionTokens.Status.MALFORMED, tokens.verify(token.substring(0, 69) + "é", 0L, claims));
+    }
+
+    @Test
+    void newAdmissionTokens_ShortSecret_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionTokens("short"));
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionTokens(null));
+    }
+}
@@ -0,0 +1,141 @@
+package com.ticketing.booking.allocation;
+
+import com.ticketing.common.entity.Seat;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSeatMapTest {
+
+    private static final BigDecimal VIP = new BigDecimal("150.00");
+    private static final BigDecimal REGULAR = new BigDecimal("80.00");
+
+    @Test
+    void allocateTogether_PicksShortestFittingRunInBestBand() {
+        List<Seat> seats = new ArrayList<>();
+        seats.addAll(row(1, "VIP", "A", 1, 6, VIP));      // ids 1001..1006
+        seats.addAll(row(2, "VIP", "B", 1, 3, VIP));      // ids 2001..2003
+        seats.addAll(row(3, "Regular", "C", 1, 10, REGULAR));
+        EventSeatMap seatMap = new EventSeatMap(seats, seat -> true, 0L);
+
+        // Row B (3 seats) fits 3 more tightly than row A (6)
+        assertEquals(List.of(2001L, 2002L, 2003L), seatMap.allocateTogether(3, null, null));
+        // VIP band before Regular
+        assertEquals(List.of(1001L, 1002L, 1003L, 1004L), seatMap.allocateTogether(4, null, null));
+        // Only Regular is left with 4 together
+        assertEquals(List.of(3001L, 3002L, 3003L, 3004L), seatMap.allocateTogether(4, null, null));
+    }
+
+    @Test
+    void allocateTogether_AppliesSectionAndPriceFilters() {
+        List<Seat> seats = new ArrayList<>();
+        seats.addAll(row(1, "VIP", "A", 1, 4, VIP));
+        seats.addAll(row(2, "Regular", "B", 1, 4, REGULAR));
+        EventSeatMap seatMap = new EventSeatMap(seats, seat -> true, 0L);
+
+        assertEquals(List.of(2001L, 2002L), seatMap.allocateTogether(2, null, new BigDecimal("100.00")));
+        assertEquals(List.of(2003L, 2004L), seatMap.allocateTogether(2, "Regular", null));
+        assertTrue(seatMap.allocateTogether(1, "Regular", null).isEmpty());
+        assertTrue(seatMap.allocateTogether(1, "Balcony", null).isEmpty());
+    }
+
+    @Test
+    void runsDoNotSpanAislesOrTakenSeats() {
+        List<Seat> seats = new ArrayList<>();
+        seats.addAll(row(1, "VIP", "A", 1, 3, VIP));       // seats 1-3
+        seats.addAll(row(1, "VIP", "A", 5, 3, VIP));       // seats 5-7, aisle at 4
+        EventSeatMap seatMap = new EventSeatMap(seats, seat -> seat.getId() != 1002L, 0L);
+
+        assertTrue(seatMap.allocateTogether(4, null, null).isEmpty());
+        assertEquals(List.of(1005L, 1006L, 1007L), seatMap.allocateTogether(3, null, null));
+        assertEquals(1, seatMap.allocateTogether(1, null, null).size());
+    }
+
+    @Test
+    void markFree_MergesNeighbouringRuns() {
+        EventSeatMap seatMap = new EventSeatMap(row(1, "VIP", "A", 1, 5, VIP), seat -> true, 0L);
+
+        seatMap.markTaken(List.of(1003L));
+        assertTrue(seatMap.allocateTogether(3, null, null).isEmpty());
+
+        seatMap.markFree(List.of(1003L));
+        assertEquals(List.of(1001L, 1002L, 1003L, 1004L, 1005L), seatMap.allocateTogether(5, null, null));
+        assertEquals(0, seatMap.freeSeatCount());
+    }
+
+    @Test
+    void allocateAny_SplitsAcrossRunsWhenNoRunFits() {
+        List<Seat> seats = new ArrayList<>();
+        seats.addAll(row(1, "VIP", "A", 1, 2, VIP));
+        seats.addAll(row(2, "VIP", "B", 1, 2, VIP));
+        EventSeatMap seatMap = new EventSeatMap(seats, seat -> true, 0L);
+
+        List<Long> picked = seatMap.allocateAny(3, null, null);
+
+        assertEquals(3, picked.size());
+        assertEquals(3, new HashSet<>(picked).size());
+        assertEquals(1, seatMap.freeSeatCount());
+        assertTrue(seatMap.allocateAny(2, null, null).isEmpty());
+    }
+
+    /**
+     * 50k-seat venue: 100 rows of 500 seats. Allocates groups until the venue is
+     * sold out and checks every group is contiguous and no seat is handed out twice.
+     */
+    @Test
+    void fiftyThousandSeatVenue_AllocatesUntilSoldOutWithoutOverlap() {
+        List<Seat> seats = new ArrayList<>();
+        for (int r = 1; r <= 100; r++) {
+            seats.addAll(row(r, r <= 20 ? "VIP" : "Regular", "R" + r, 1, 500, r <= 20 ? VIP : REGULAR));
+        }
+
+        EventSeatMap seatMap = new EventSeatMap(seats, seat -> true, 0L);
+
+        Set<Long> handedOut = new HashSet<>();
+        int allocations = 0;
+        int[] groupSizes = {2, 4, 3, 1, 6};
+        while (true) {
+            int quantity = groupSizes[allocations % groupSizes.length];
+            List<Long> picked = seatMap.allocateTogether(quantity, null, null);
+            if (picked.isEmpty()) {
+                picked = seatMap.allocateAny(quantity, null, null);
+                if (picked.isEmpty()) {
+                    break;
+                }
+            } else {
+                for (int i = 1; i < picked.size(); i++) {
+                    assertEquals(picked.get(i - 1) + 1, picked.get(i), "group not contiguous: " + picked);
+                }
+            }
+            for (Long seatId : picked) {
+                assertTrue(handedOut.add(seatId), "seat allocated twice: " + seatId);
+            }
+            allocations++;
+        }
+        assertEquals(seats.size() - seatMap.freeSeatCount(), handedOut.size());
+        assertTrue(seatMap.freeSeatCount() < 6);
+    }
+
+    private static List<Seat> row(int rowNumber, String section, String rowLetter,
+                                  int firstSeat, int count, BigDecimal price) {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int seatNumber = firstSeat + i;
+            seats.add(Seat.builder()
+                .id(rowNumber * 1000L + seatNumber)
+                .section(section)
+                .rowLetter(rowLetter)
+                .seatNumber(seatNumber)
+                .price(price)
+                .status(Seat.SeatStatus.AVAILABLE)
+                .build());
+        }
+        return seats;
+    }
+}
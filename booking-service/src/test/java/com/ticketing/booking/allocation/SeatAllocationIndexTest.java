@@ -0,0 +1,87 @@
+package com.ticketing.booking.allocation;
+
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.common.entity.Seat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatAllocationIndexTest {
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    private SeatAllocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SeatAllocationIndex(seatRepository);
+        ReflectionTestUtils.setField(index, "refreshSeconds", 30L);
+    }
+
+    @Test
+    void allocate_BuildsIndexOnceFromAvailableSeats() {
+        when(seatRepository.findByEventIdOrderBySectionAndRow(1L)).thenReturn(List.of(
+            seat(1L, 1, Seat.SeatStatus.BOOKED),
+            seat(2L, 2, Seat.SeatStatus.AVAILABLE),
+            seat(3L, 3, Seat.SeatStatus.AVAILABLE)));
+
+        assertEquals(List.of(2L, 3L), index.allocate(1L, 2, null, null, true));
+        assertTrue(index.allocate(1L, 1, null, null, true).isEmpty());
+
+        verify(seatRepository, times(1)).findByEventIdOrderBySectionAndRow(1L);
+    }
+
+    @Test
+    void markFree_MakesReleasedSeatsAllocatable() {
+        when(seatRepository.findByEventIdOrderBySectionAndRow(1L)).thenReturn(List.of(
+            seat(1L, 1, Seat.SeatStatus.AVAILABLE),
+            seat(2L, 2, Seat.SeatStatus.HELD)));
+
+        assertTrue(index.allocate(1L, 2, null, null, true).isEmpty());
+        index.markFree(1L, List.of(2L));
+
+        assertEquals(List.of(1L, 2L), index.allocate(1L, 2, null, null, true));
+    }
+
+    @Test
+    void allocate_RebuildsStaleIndex() {
+        ReflectionTestUtils.setField(index, "refreshSeconds", -1L);
+        when(seatRepository.findByEventIdOrderBySectionAndRow(1L))
+            .thenReturn(List.of(seat(1L, 1, Seat.SeatStatus.AVAILABLE)));
+
+        assertEquals(List.of(1L), index.allocate(1L, 1, null, null, true));
+        // Rebuilt from the DB, where the seat is still AVAILABLE (the hold never happened)
+        assertEquals(List.of(1L), index.allocate(1L, 1, null, null, true));
+        verify(seatRepository, times(2)).findByEventIdOrderBySectionAndRow(1L);
+    }
+
+    @Test
+    void markTaken_UnindexedEvent_Ignored() {
+        index.markTaken(9L, List.of(1L));
+        index.markFree(9L, List.of(1L));
+
+        verifyNoInteractions(seatRepository);
+    }
+
+    private static Seat seat(Long id, int seatNumber, Seat.SeatStatus status) {
+        return Seat.builder()
+            .id(id)
+            .section("VIP")
+            .rowLetter("A")
+            .seatNumber(seatNumber)
+            .price(new BigDecimal("100.00"))
+            .status(status)
+            .build();
+    }
+}
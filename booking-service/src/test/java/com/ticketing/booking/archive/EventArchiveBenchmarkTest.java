@@ -0,0 +1,136 @@
+package com.ticketing.booking.archive;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Hot table size and the latency of the event listing / seat map queries with a long history
+ * of finished events (2000 past events of 1000 seats each by default, plus 50 upcoming ones),
+ * before and after EventArchiver moved the past events out. Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl booking-service test -Dtest=EventArchiveBenchmarkTest -Dbenchmark=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EventArchiveBenchmarkTest {
+
+    private static final int PAST_EVENTS = Integer.getInteger("benchmark.events", 2000);
+    private static final int UPCOMING_EVENTS = 50;
+    private static final int SEATS_PER_EVENT = 1000;
+    private static final int RUNS = 50;
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_USER", "ticketing_user")
+        .withEnv("POSTGRES_PASSWORD", "bench")
+        .withEnv("POSTGRES_DB", "ticketing")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/ticketing",
+            "ticketing_user", "bench", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(Files.readString(Path.of("../infrastructure/init-db.sql")));
+
+        jdbcTemplate.update("INSERT INTO events (title, description, category, city, venue, event_date, " +
+            "total_capacity, available_seats, base_price, status, organizer_id) " +
+            "SELECT 'Event ' || g, 'Benchmark event', (ARRAY['Music','Sports','Comedy','Theatre'])[g % 4 + 1], " +
+            "(ARRAY['New York','Berlin','London','Paris','Tokyo','Sydney','Toronto','Madrid'])[g % 8 + 1], " +
+            "'Venue ' || (g % 40), " +
+            "CASE WHEN g <= ? THEN now() - make_interval(days => 8 + g % 700) ELSE now() + make_interval(days => g % 90 + 1) END, " +
+            "?, 10, 50.00, 'PUBLISHED', g % 100 + 1 FROM generate_series(1, ?) g",
+            PAST_EVENTS, SEATS_PER_EVENT, PAST_EVENTS + UPCOMING_EVENTS);
+        jdbcTemplate.update("INSERT INTO seats (event_id, section, row_letter, seat_number, price, status) " +
+            "SELECT e.id, CASE WHEN s % 10 = 0 THEN 'VIP' ELSE 'Regular' END, chr(65 + s / 50), s % 50 + 1, 50.00, " +
+            "CASE WHEN s % 3 = 0 THEN 'AVAILABLE' ELSE 'BOOKED' END " +
+            "FROM events e, generate_series(0, ? - 1) s WHERE e.title LIKE 'Event %'", SEATS_PER_EVENT);
+        jdbcTemplate.update("INSERT INTO bookings (booking_reference, customer_id, event_id, seat_ids, total_amount, " +
+            "status, payment_id, hold_token, confirmed_at) " +
+            "SELECT 'BK-' || e.id || '-' || b, b, e.id, ARRAY[b::bigint], 50.00, 'CONFIRMED', 'PAY', 'HOLD', now() " +
+            "FROM events e, generate_series(1, 100) b WHERE e.title LIKE 'Event %'");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    @Test
+    void hotQueries_BeforeAndAfterArchival() {
+        EventArchiver archiver = new EventArchiver(jdbcTemplate, transactionTemplate, mock(ShardCoordinator.class));
+        ReflectionTestUtils.setField(archiver, "afterDays", 7);
+        ReflectionTestUtils.setField(archiver, "batchSize", 5000);
+        ReflectionTestUtils.setField(archiver, "maxEventsPerRun", Integer.MAX_VALUE);
+
+        Map<String, Long> before = archiver.hotTableSizes();
+        report("full history", before);
+
+        long start = System.nanoTime();
+        int archived = archiver.archive(LocalDateTime.now());
+        System.out.printf("Archived %d events in %d ms%n", archived, (System.nanoTime() - start) / 1_000_000);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+
+        Map<String, Long> after = archiver.hotTableSizes();
+        report("after archival", after);
+
+        assertThat(archived).isGreaterThanOrEqualTo(PAST_EVENTS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seats s JOIN events e ON e.id = s.event_id " +
+            "WHERE e.title LIKE 'Event %'", Long.class))
+            .isEqualTo((long) UPCOMING_EVENTS * SEATS_PER_EVENT);
+    }
+
+    private static void report(String label, Map<String, Long> sizes) {
+        Long upcomingEvent = jdbcTemplate.queryForObject("SELECT MAX(id) FROM events", Long.class);
+        long upcoming = median("SELECT * FROM events WHERE status = 'PUBLISHED' AND event_date > now() " +
+            "AND available_seats > 0 ORDER BY event_date LIMIT 20");
+        long cities = median("SELECT DISTINCT city FROM events WHERE status = 'PUBLISHED' " +
+            "AND event_date > now() ORDER BY city");
+        long seatMap = median("SELECT id, section, row_letter, seat_number, price, status FROM seats " +
+            "WHERE event_id = " + upcomingEvent + " ORDER BY section, row_letter, seat_number");
+        long available = median("SELECT COUNT(*) FROM seats WHERE event_id = " + upcomingEvent +
+            " AND status = 'AVAILABLE'");
+        System.out.printf("%s: hot table MB %s; p50 us: upcoming %d, active cities %d, seat map %d, available count %d%n",
+            label, megabytes(sizes), upcoming, cities, seatMap, available);
+    }
+
+    private static String megabytes(Map<String, Long> sizes) {
+        StringBuilder out = new StringBuilder();
+        sizes.forEach((table, bytes) -> out.append(table).append('=').append(bytes >> 20).append(' '));
+        return out.toString().trim();
+    }
+
+    private static long median(String sql) {
+        long[] micros = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList(sql);
+            micros[run] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+}
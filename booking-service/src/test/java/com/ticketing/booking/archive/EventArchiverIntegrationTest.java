@@ -0,0 +1,165 @@
+package com.ticketing.booking.archive;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.common.dto.BookingDto;
+import com.ticketing.common.dto.SeatHoldDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the archive moves against the real schema (infrastructure/init-db.sql, partitioned
+ * seat_holds and bookings included) and reads the moved rows back through BookingArchive.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class EventArchiverIntegrationTest {
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_USER", "ticketing_user")
+        .withEnv("POSTGRES_PASSWORD", "ticketing")
+        .withEnv("POSTGRES_DB", "ticketing")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private EventArchiver archiver;
+    private BookingArchive bookingArchive;
+    private long pastEventId;
+    private long upcomingEventId;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/ticketing",
+            "ticketing_user", "ticketing");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(Files.readString(Path.of("../infrastructure/init-db.sql")));
+    }
+
+    @BeforeEach
+    void setUp() {
+        archiver = new EventArchiver(jdbcTemplate, transactionTemplate, mock(ShardCoordinator.class));
+        ReflectionTestUtils.setField(archiver, "afterDays", 7);
+        ReflectionTestUtils.setField(archiver, "batchSize", 2);
+        ReflectionTestUtils.setField(archiver, "maxEventsPerRun", 100);
+        bookingArchive = new BookingArchive(jdbcTemplate);
+
+        pastEventId = insertEvent("Past Show", LocalDateTime.now().minusDays(30));
+        upcomingEventId = insertEvent("Upcoming Show", LocalDateTime.now().plusDays(30));
+        for (long eventId : new long[]{pastEventId, upcomingEventId}) {
+            for (int seat = 1; seat <= 5; seat++) {
+                jdbcTemplate.update("INSERT INTO seats (event_id, section, row_letter, seat_number, price, status) " +
+                    "VALUES (?, 'Regular', 'A', ?, 50.00, 'BOOKED')", eventId, seat);
+            }
+            jdbcTemplate.update("INSERT INTO pricing_tiers (event_id, name, price) VALUES (?, 'Regular', 50.00)", eventId);
+            long holdId = jdbcTemplate.queryForObject("INSERT INTO seat_holds (hold_token, customer_id, event_id, " +
+                "seat_ids, seat_count, expires_at, status) VALUES (?, 7, ?, ARRAY[1, 2]::bigint[], 2, ?, 'CONFIRMED') " +
+                "RETURNING id", Long.class, "HOLD-" + eventId, eventId, LocalDateTime.now());
+            jdbcTemplate.update("INSERT INTO hold_seats (hold_id, event_id, seat_id) VALUES (?, ?, 1), (?, ?, 2)",
+                holdId, eventId, holdId, eventId);
+            long bookingId = jdbcTemplate.queryForObject("INSERT INTO bookings (booking_reference, customer_id, " +
+                "event_id, seat_ids, total_amount, status, payment_id, hold_token, confirmed_at) " +
+                "VALUES (?, 7, ?, ARRAY[1, 2]::bigint[], 100.00, 'CONFIRMED', 'PAY-1', ?, ?) RETURNING id",
+                Long.class, "BK-" + eventId, eventId, "HOLD-" + eventId, LocalDateTime.now());
+            jdbcTemplate.update("INSERT INTO booking_seats (booking_id, event_id, seat_id) VALUES (?, ?, 1), (?, ?, 2)",
+                bookingId, eventId, bookingId, eventId);
+        }
+    }
+
+    private long insertEvent(String title, LocalDateTime eventDate) {
+        return jdbcTemplate.queryForObject("INSERT INTO events (title, description, category, city, venue, " +
+            "event_date, total_capacity, available_seats, base_price, status, organizer_id) " +
+            "VALUES (?, 'desc', 'Music', 'Berlin', 'Arena', ?, 5, 0, 50.00, 'PUBLISHED', 1) RETURNING id",
+            Long.class, title, eventDate);
+    }
+
+    private int count(String sql, long eventId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, eventId);
+    }
+
+    @Test
+    void archive_MovesFinishedEventOutOfHotTables() {
+        archiver.archive(LocalDateTime.now());
+
+        assertThat(count("SELECT COUNT(*) FROM events WHERE id = ?", pastEventId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM seats WHERE event_id = ?", pastEventId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM pricing_tiers WHERE event_id = ?", pastEventId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM seat_holds WHERE event_id = ?", pastEventId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM hold_seats WHERE event_id = ?", pastEventId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM bookings WHERE event_id = ?", pastEventId)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM booking_seats WHERE event_id = ?", pastEventId)).isZero();
+
+        assertThat(count("SELECT COUNT(*) FROM archived_seats WHERE event_id = ?", pastEventId)).isEqualTo(5);
+        assertThat(count("SELECT COUNT(*) FROM archived_seat_holds WHERE event_id = ?", pastEventId)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM archived_bookings WHERE event_id = ?", pastEventId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT pricing_tiers -> 0 ->> 'name' FROM archived_events WHERE id = ?",
+            String.class, pastEventId)).isEqualTo("Regular");
+    }
+
+    @Test
+    void archive_PackedEvent_ArchivesStatusFromStatusBlock() {
+        jdbcTemplate.update("UPDATE seats SET status_index = seat_number - 1 WHERE event_id = ?", pastEventId);
+        // Seat 2 (index 1) HELD, the rest AVAILABLE; the stale row statuses say BOOKED
+        jdbcTemplate.update("INSERT INTO packed_seat_statuses (event_id, block, statuses) VALUES (?, 0, ?)",
+            pastEventId, new byte[]{0b0100, 0});
+        jdbcTemplate.update("UPDATE events SET packed_seats = TRUE WHERE id = ?", pastEventId);
+
+        archiver.archive(LocalDateTime.now());
+
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM archived_seats WHERE event_id = ? ORDER BY seat_number",
+            String.class, pastEventId)).containsExactly("AVAILABLE", "HELD", "AVAILABLE", "AVAILABLE", "AVAILABLE");
+        assertThat(count("SELECT COUNT(*) FROM packed_seat_statuses WHERE event_id = ?", pastEventId)).isZero();
+    }
+
+    @Test
+    void archive_KeepsUpcomingEvent() {
+        archiver.archive(LocalDateTime.now());
+
+        assertThat(count("SELECT COUNT(*) FROM events WHERE id = ?", upcomingEventId)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM seats WHERE event_id = ?", upcomingEventId)).isEqualTo(5);
+        assertThat(count("SELECT COUNT(*) FROM bookings WHERE event_id = ?", upcomingEventId)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM archived_bookings WHERE event_id = ?", upcomingEventId)).isZero();
+    }
+
+    @Test
+    void bookingArchive_ReadsArchivedBookingAndHold() {
+        archiver.archive(LocalDateTime.now());
+
+        Optional<BookingDto> booking = bookingArchive.findBookingByReference("BK-" + pastEventId);
+        assertThat(booking).isPresent();
+        assertThat(booking.get().getEventId()).isEqualTo(pastEventId);
+        assertThat(booking.get().getSeatIds()).isEqualTo(List.of(1L, 2L));
+        assertThat(booking.get().getStatus()).isEqualTo("CONFIRMED");
+        assertThat(booking.get().getConfirmedAt()).isNotNull();
+        assertThat(booking.get().getCancelledAt()).isNull();
+
+        Optional<SeatHoldDto> hold = bookingArchive.findHoldByToken("HOLD-" + pastEventId);
+        assertThat(hold).isPresent();
+        assertThat(hold.get().getSeatIds()).isEqualTo(List.of(1L, 2L));
+
+        assertThat(bookingArchive.findBookingByReference("BK-" + upcomingEventId)).isEmpty();
+    }
+}
@@ -0,0 +1,117 @@
+package com.ticketing.booking.archive;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.booking.coordination.ShardLease;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventArchiverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 0);
+    private static final int BATCH = 2;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ShardCoordinator shardCoordinator;
+
+    private EventArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new EventArchiver(jdbcTemplate, TransactionOperations.withoutTransaction(), shardCoordinator);
+        ReflectionTestUtils.setField(archiver, "afterDays", 7);
+        ReflectionTestUtils.setField(archiver, "batchSize", BATCH);
+        ReflectionTestUtils.setField(archiver, "maxEventsPerRun", 10);
+    }
+
+    private void finishedEvents(Long... eventIds) {
+        when(jdbcTemplate.queryForList(contains("FROM events WHERE event_date <"), eq(Long.class),
+            eq(NOW.minusDays(7)), eq(10))).thenReturn(List.of(eventIds));
+    }
+
+    @Test
+    void archive_NoFinishedEvents_MovesNothing() {
+        finishedEvents();
+
+        assertThat(archiver.archive(NOW)).isZero();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void archive_MovesChildrenInBatchesBeforeTheEvent() {
+        finishedEvents(1L);
+        when(jdbcTemplate.update(contains("DELETE FROM seats "), eq(1L), eq(BATCH))).thenReturn(2, 2, 1);
+        when(jdbcTemplate.update(contains("DELETE FROM seat_holds "), eq(1L), eq(BATCH))).thenReturn(0);
+        when(jdbcTemplate.update(contains("DELETE FROM bookings "), eq(1L), eq(BATCH))).thenReturn(2, 0);
+
+        assertThat(archiver.archive(NOW)).isEqualTo(1);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate, times(3)).update(contains("DELETE FROM seats "), eq(1L), eq(BATCH));
+        order.verify(jdbcTemplate).update(contains("DELETE FROM seat_holds "), eq(1L), eq(BATCH));
+        order.verify(jdbcTemplate, times(2)).update(contains("DELETE FROM bookings "), eq(1L), eq(BATCH));
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO archived_events"), eq(1L));
+        order.verify(jdbcTemplate).update("DELETE FROM pricing_tiers WHERE event_id = ?", 1L);
+        order.verify(jdbcTemplate).update("DELETE FROM events WHERE id = ?", 1L);
+    }
+
+    @Test
+    void archive_FailedEvent_KeptForNextRun_OthersArchived() {
+        finishedEvents(1L, 2L);
+        when(jdbcTemplate.update(contains("DELETE FROM seats "), eq(1L), eq(BATCH)))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThat(archiver.archive(NOW)).isEqualTo(1);
+
+        verify(jdbcTemplate, never()).update("DELETE FROM events WHERE id = ?", 1L);
+        verify(jdbcTemplate).update("DELETE FROM events WHERE id = ?", 2L);
+    }
+
+    @Test
+    void archive_ReportsHotTableSizesAroundTheRun() {
+        finishedEvents(1L);
+
+        archiver.archive(NOW);
+
+        for (String table : EventArchiver.HOT_TABLES) {
+            verify(jdbcTemplate, times(2)).queryForObject(contains("pg_partition_tree"), eq(Long.class), eq(table));
+        }
+    }
+
+    @Test
+    void archive_LeaseNotHeld_DoesNothing() {
+        when(shardCoordinator.ownedShards(EventArchiver.JOB)).thenReturn(List.of());
+        when(shardCoordinator.stillHeld(List.of())).thenReturn(List.of());
+
+        archiver.archive();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void archive_LeaseHeld_Runs() {
+        List<ShardLease> lease = List.of(new ShardLease(EventArchiver.JOB, 0, 1));
+        when(shardCoordinator.ownedShards(EventArchiver.JOB)).thenReturn(lease);
+        when(shardCoordinator.stillHeld(lease)).thenReturn(lease);
+
+        archiver.archive();
+
+        verify(jdbcTemplate).queryForList(contains("FROM events WHERE event_date <"), eq(Long.class), any(), eq(10));
+    }
+}
@@ -1,9 +1,15 @@
 package com.ticketing.booking.controller;
 
+import com.ticketing.booking.admission.AdmissionRejectedException;
+import com.ticketing.booking.load.HoldLoadMonitor;
+import com.ticketing.booking.service.BestAvailableHoldService;
 import com.ticketing.booking.service.BookingException;
 import com.ticketing.booking.service.BookingNotFoundException;
 import com.ticketing.booking.service.BookingService;
+import com.ticketing.booking.service.HoldIdempotencyService;
+import com.ticketing.booking.service.SeatUnavailableException;
 import com.ticketing.common.dto.*;
+import com.ticketing.common.util.AdmissionTokens;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -19,7 +25,10 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +37,15 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private HoldIdempotencyService holdIdempotencyService;
+
+    @Mock
+    private BestAvailableHoldService bestAvailableHoldService;
+
+    @Mock
+    private HoldLoadMonitor holdLoadMonitor;
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -43,9 +61,9 @@ class BookingControllerTest {
         response.setCustomerId(1L);
         response.setSeatCount(2);
 
-        when(bookingService.holdSeats(any())).thenReturn(response);
+        when(holdIdempotencyService.holdSeats(any())).thenReturn(response);
 
-        ResponseEntity<SeatHoldResponse> result = bookingController.holdSeats(request, null);
+        ResponseEntity<SeatHoldResponse> result = bookingController.holdSeats(request, null, null);
 
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
         assertEquals("HOLD_ABC", result.getBody().getHoldToken());
@@ -59,12 +77,13 @@ class BookingControllerTest {
         SeatHoldResponse response = new SeatHoldResponse();
         response.setHoldToken("HOLD_XYZ");
 
-        when(bookingService.holdSeats(any())).thenReturn(response);
+        when(holdIdempotencyService.holdSeats(any())).thenReturn(response);
 
-        ResponseEntity<SeatHoldResponse> result = bookingController.holdSeats(request, "idem-123");
+        ResponseEntity<SeatHoldResponse> result = bookingController.holdSeats(request, "idem-123", null);
 
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
         assertEquals("idem-123", request.getIdempotencyKey());
+        verify(holdIdempotencyService).holdSeats(argThat(r -> "idem-123".equals(r.getIdempotencyKey())));
     }
 
     @Test
@@ -72,9 +91,72 @@ class BookingControllerTest {
         SeatHoldRequest request = SeatHoldRequest.builder()
             .customerId(1L).eventId(1L).seatIds(List.of(1L)).build();
 
-        when(bookingService.holdSeats(any())).thenThrow(new BookingException("Seats unavailable"));
+        when(holdIdempotencyService.holdSeats(any())).thenThrow(new BookingException("Seats unavailable"));
+
+        assertThrows(BookingException.class, () -> bookingController.holdSeats(request, null, null));
+    }
+
+    @Test
+    void holdSeats_Outcome_ReportedToLoadMonitor() {
+        SeatHoldRequest request = SeatHoldRequest.builder()
+            .customerId(1L).eventId(4L).seatIds(List.of(1L)).build();
+        SeatUnavailableException taken = new SeatUnavailableException("One or more selected seats are no longer available");
+        when(holdIdempotencyService.holdSeats(any())).thenReturn(new SeatHoldResponse()).thenThrow(taken);
+
+        bookingController.holdSeats(request, null, null);
+        assertThrows(SeatUnavailableException.class, () -> bookingController.holdSeats(request, null, null));
+
+        verify(holdLoadMonitor).holdFinished(eq(4L), anyLong(), isNull());
+        verify(holdLoadMonitor).holdFinished(eq(4L), anyLong(), eq(taken));
+    }
+
+    @Test
+    void holdSeats_AdmissionForAnotherCustomer_Rejected() {
+        SeatHoldRequest request = SeatHoldRequest.builder()
+            .customerId(1L).eventId(1L).seatIds(List.of(1L)).build();
+
+        assertThrows(AdmissionRejectedException.class,
+            () -> bookingController.holdSeats(request, null, admission(1L, 2L)));
+        verifyNoInteractions(holdIdempotencyService);
+    }
+
+    @Test
+    void holdSeats_AdmissionMatches_Holds() {
+        SeatHoldRequest request = SeatHoldRequest.builder()
+            .customerId(1L).eventId(1L).seatIds(List.of(1L)).build();
+        when(holdIdempotencyService.holdSeats(any())).thenReturn(new SeatHoldResponse());
 
-        assertThrows(BookingException.class, () -> bookingController.holdSeats(request, null));
+        ResponseEntity<SeatHoldResponse> result = bookingController.holdSeats(request, null, admission(1L, 1L));
+
+        assertEquals(HttpStatus.CREATED, result.getStatusCode());
+    }
+
+    private static AdmissionTokens.Claims admission(long eventId, long customerId) {
+        AdmissionTokens tokens = new AdmissionTokens("test-admission-token-secret-32-bytes!");
+        AdmissionTokens.Claims claims = new AdmissionTokens.Claims();
+        long now = System.currentTimeMillis();
+        tokens.verify(tokens.sign(eventId, customerId, now + 60_000, 1L), now, claims);
+        return claims;
+    }
+
+    // ─── holdBestAvailable ──────────────────────────────────────────────
+
+    @Test
+    void holdBestAvailable_Success_Returns201WithPickedSeats() {
+        BestAvailableHoldRequest request = BestAvailableHoldRequest.builder()
+            .customerId(1L).eventId(1L).quantity(2).build();
+
+        SeatHoldResponse response = new SeatHoldResponse();
+        response.setHoldToken("HOLD_BEST");
+        response.setSeatIds(List.of(7L, 8L));
+
+        when(bestAvailableHoldService.holdBestAvailable(request)).thenReturn(response);
+
+        ResponseEntity<SeatHoldResponse> result = bookingController.holdBestAvailable(request, null);
+
+        assertEquals(HttpStatus.CREATED, result.getStatusCode());
+        assertEquals(List.of(7L, 8L), result.getBody().getSeatIds());
+        assertTrue(request.isTogether());
     }
 
     // ─── confirmBooking ─────────────────────────────────────────────────
@@ -0,0 +1,176 @@
+package com.ticketing.booking.coordination;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several booking-service instances in one JVM, each with its own coordinator,
+ * heartbeating against one Redis with a simulated clock.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisShardCoordinatorIntegrationTest {
+
+    private static final String JOB = "hold-cleanup";
+    private static final int SHARDS = 12;
+    private static final long LEASE_MS = 15000;
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private long now;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeConnections() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        now = System.currentTimeMillis();
+    }
+
+    private RedisShardCoordinator instance(String id) {
+        RedisShardCoordinator coordinator = new RedisShardCoordinator(redisTemplate);
+        ReflectionTestUtils.setField(coordinator, "instanceId", id);
+        ReflectionTestUtils.setField(coordinator, "leaseMs", LEASE_MS);
+        // Heartbeats are driven by the test's clock, not the background thread
+        ReflectionTestUtils.setField(coordinator, "heartbeatMs", 3_600_000L);
+        coordinator.init();
+        coordinator.register(JOB, SHARDS);
+        return coordinator;
+    }
+
+    private void heartbeats(List<RedisShardCoordinator> instances, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            now += 1000;
+            for (RedisShardCoordinator instance : instances) {
+                instance.heartbeat(JOB, SHARDS, now);
+                assertNoShardHeldTwice(instances);
+            }
+        }
+    }
+
+    private static Set<Integer> shards(RedisShardCoordinator instance) {
+        Set<Integer> shards = new HashSet<>();
+        instance.ownedShards(JOB).forEach(lease -> shards.add(lease.getShard()));
+        return shards;
+    }
+
+    private static void assertNoShardHeldTwice(List<RedisShardCoordinator> instances) {
+        List<Integer> all = new ArrayList<>();
+        instances.forEach(instance -> all.addAll(shards(instance)));
+        assertThat(all).doesNotHaveDuplicates();
+    }
+
+    private static void assertEvenlyCovered(List<RedisShardCoordinator> instances) {
+        Set<Integer> covered = new HashSet<>();
+        for (RedisShardCoordinator instance : instances) {
+            assertThat(shards(instance)).hasSize(SHARDS / instances.size());
+            covered.addAll(shards(instance));
+        }
+        assertThat(covered).hasSize(SHARDS);
+    }
+
+    @Test
+    void instancesSplitTheShardSpace() {
+        List<RedisShardCoordinator> instances = List.of(instance("a"), instance("b"), instance("c"));
+
+        heartbeats(instances, 2);
+
+        assertEvenlyCovered(instances);
+    }
+
+    @Test
+    void joiningInstance_GetsHandedItsShare() {
+        List<RedisShardCoordinator> instances = new ArrayList<>(List.of(instance("a"), instance("b")));
+        heartbeats(instances, 2);
+        assertEvenlyCovered(instances);
+
+        instances.add(instance("c"));
+        heartbeats(instances, 2);
+
+        assertEvenlyCovered(instances);
+    }
+
+    @Test
+    void leavingInstance_ShardsTakenOverWithoutWaitingForLeases() {
+        RedisShardCoordinator a = instance("a");
+        RedisShardCoordinator b = instance("b");
+        RedisShardCoordinator c = instance("c");
+        heartbeats(List.of(a, b, c), 2);
+
+        c.leave();
+        heartbeats(List.of(a, b), 2);
+
+        assertEvenlyCovered(List.of(a, b));
+    }
+
+    @Test
+    void deadInstance_ShardsTakenOverAfterLease_WithNewFencingTokens() {
+        RedisShardCoordinator a = instance("a");
+        RedisShardCoordinator b = instance("b");
+        RedisShardCoordinator c = instance("c");
+        heartbeats(List.of(a, b, c), 2);
+        List<ShardLease> staleLeases = c.ownedShards(JOB);
+        assertThat(c.stillHeld(staleLeases)).isEqualTo(staleLeases);
+
+        // c stops heartbeating; the others keep going until its leases lapse
+        now += LEASE_MS;
+        heartbeats(List.of(a, b), 2);
+
+        assertEvenlyCovered(List.of(a, b));
+        for (ShardLease stale : staleLeases) {
+            ShardLease takenOver = List.of(a, b).stream()
+                .flatMap(instance -> instance.ownedShards(JOB).stream())
+                .filter(lease -> lease.getShard() == stale.getShard())
+                .findFirst().orElseThrow();
+            assertThat(takenOver.getFencingToken()).isGreaterThan(stale.getFencingToken());
+        }
+        // The paused instance learns before writing that its leases are gone
+        assertThat(c.stillHeld(staleLeases)).isEmpty();
+    }
+
+    @Test
+    void liveLease_NotTakenWhileHolderHeartbeats() {
+        RedisShardCoordinator a = instance("a");
+        heartbeats(List.of(a), 1);
+        assertThat(shards(a)).hasSize(SHARDS);
+
+        // b joins but a has not heartbeated since: a's leases are live, b gets nothing yet
+        RedisShardCoordinator b = instance("b");
+        b.heartbeat(JOB, SHARDS, now);
+
+        assertThat(shards(b)).isEmpty();
+        assertThat(a.stillHeld(a.ownedShards(JOB))).hasSize(SHARDS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ticketing.booking.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSeatInventoryTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final long HOLD_UNTIL = NOW + 600_000L;
+
+    private EventSeatInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new EventSeatInventory(
+            new long[]{10L, 20L, 30L, 40L},
+            new byte[]{EventSeatInventory.AVAILABLE, EventSeatInventory.AVAILABLE,
+                       EventSeatInventory.BOOKED, EventSeatInventory.AVAILABLE},
+            new long[4]);
+    }
+
+    @Test
+    void tryHold_FreeSeats_MarksThemHeld() {
+        assertTrue(inventory.tryHold(List.of(10L, 20L), HOLD_UNTIL, NOW).isEmpty());
+
+        assertEquals(EventSeatInventory.HELD, inventory.state(10L, NOW));
+        assertEquals(EventSeatInventory.HELD, inventory.state(20L, NOW));
+    }
+
+    @Test
+    void tryHold_AnySeatTaken_HoldsNothing() {
+        inventory.tryHold(List.of(20L), HOLD_UNTIL, NOW);
+
+        List<Long> conflicts = inventory.tryHold(List.of(10L, 20L, 30L), HOLD_UNTIL, NOW);
+
+        assertEquals(List.of(20L, 30L), conflicts);
+        assertEquals(EventSeatInventory.AVAILABLE, inventory.state(10L, NOW));
+    }
+
+    @Test
+    void tryHold_ExpiredHold_CountsAsFree() {
+        inventory.tryHold(List.of(10L), NOW + 1, NOW);
+
+        assertTrue(inventory.tryHold(List.of(10L), HOLD_UNTIL, NOW + 1).isEmpty());
+        assertEquals(EventSeatInventory.HELD, inventory.state(10L, NOW + 1));
+    }
+
+    @Test
+    void tryHold_UnknownSeat_NotReportedAsConflict() {
+        assertTrue(inventory.tryHold(List.of(10L, 99L), HOLD_UNTIL, NOW).isEmpty());
+        assertEquals(-1, inventory.state(99L, NOW));
+    }
+
+    @Test
+    void release_OnlyFreesHeldSeats() {
+        inventory.tryHold(List.of(10L), HOLD_UNTIL, NOW);
+
+        inventory.release(List.of(10L, 30L));
+
+        assertEquals(EventSeatInventory.AVAILABLE, inventory.state(10L, NOW));
+        assertEquals(EventSeatInventory.BOOKED, inventory.state(30L, NOW));
+    }
+
+    @Test
+    void confirm_BookedSeatNeverExpires() {
+        inventory.tryHold(List.of(40L), NOW + 1, NOW);
+        inventory.confirm(List.of(40L));
+
+        assertEquals(List.of(40L), inventory.tryHold(List.of(40L), HOLD_UNTIL, NOW + 10));
+        assertEquals(4, inventory.size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.ticketing.booking.inventory;
+
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.common.entity.Seat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hold throughput and latency of the sharded inventory: concurrent callers holding random
+ * 4-seat groups (and releasing what they got) on one hot 50k-seat event, then spread over
+ * 64 events, plus the first hold of a 200k-seat event, which waits for its load. The
+ * repositories are mocks, so the numbers are the engine's own. Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl booking-service test -Dtest=ShardedSeatInventoryBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShardedSeatInventoryBenchmarkTest {
+
+    private static final int SEATS = 50_000;
+    private static final int LARGE_VENUE_SEATS = 200_000;
+    private static final long LARGE_VENUE_EVENT = 1_000L;
+    private static final int CALLERS = Integer.getInteger("benchmark.callers", 16);
+    private static final int HOLDS_PER_CALLER = Integer.getInteger("benchmark.holds", 20_000);
+    private static final int SEATS_PER_HOLD = 4;
+
+    private ShardedSeatInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        SeatRepository seatRepository = mock(SeatRepository.class);
+        SeatHoldRepository seatHoldRepository = mock(SeatHoldRepository.class);
+        when(seatRepository.findSeatStatesByEventId(anyLong())).thenAnswer(inv ->
+            seatRows(inv.<Long>getArgument(0) == LARGE_VENUE_EVENT ? LARGE_VENUE_SEATS : SEATS));
+        when(seatHoldRepository.findActiveHoldsForEvent(anyLong(), any(LocalDateTime.class))).thenReturn(List.of());
+
+        inventory = new ShardedSeatInventory(seatRepository, seatHoldRepository);
+        ReflectionTestUtils.setField(inventory, "shardCount", 0);
+        ReflectionTestUtils.setField(inventory, "commandTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(inventory, "loadTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(inventory, "loaderCount", 2);
+        inventory.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventory.stop();
+    }
+
+    @Test
+    void holds() throws Exception {
+        long start = System.nanoTime();
+        assertThat(inventory.tryHold(LARGE_VENUE_EVENT, List.of(1L), LocalDateTime.now().plusMinutes(5))).isEmpty();
+        System.out.printf("first hold of a %,d-seat event (load included): %8.1f ms%n",
+            LARGE_VENUE_SEATS, (System.nanoTime() - start) / 1e6);
+
+        run("hot event", 1);
+        run("64 events", 64);
+    }
+
+    private void run(String name, int events) throws Exception {
+        // Load the events first, as after warm-up
+        for (long eventId = 1; eventId <= events; eventId++) {
+            inventory.release(eventId, List.of(1L));
+            inventory.tryHold(eventId, List.of(), LocalDateTime.now().plusMinutes(5));
+        }
+
+        long[][] latencies = new long[CALLERS][HOLDS_PER_CALLER];
+        AtomicLong conflicts = new AtomicLong();
+        CountDownLatch ready = new CountDownLatch(CALLERS);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<?>> done = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            long[] callerLatencies = latencies[c];
+            done.add(callers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                ready.countDown();
+                go.await();
+                for (int i = 0; i < HOLDS_PER_CALLER; i++) {
+                    long eventId = 1 + random.nextInt(events);
+                    long first = 1 + random.nextInt(SEATS - SEATS_PER_HOLD);
+                    List<Long> seatIds = List.of(first, first + 1, first + 2, first + 3);
+                    long t0 = System.nanoTime();
+                    List<Long> conflicting = inventory.tryHold(eventId, seatIds, LocalDateTime.now().plusMinutes(5));
+                    callerLatencies[i] = System.nanoTime() - t0;
+                    if (conflicting.isEmpty()) {
+                        inventory.release(eventId, seatIds);
+                    } else {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> future : done) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        callers.shutdown();
+        callers.awaitTermination(10, TimeUnit.SECONDS);
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%-10s %2d callers: %,10.0f holds/s  p50 %7.1f us  p99 %7.1f us  conflicts %5.2f%%%n",
+            name, CALLERS, all.length / (elapsed / 1e9),
+            all[all.length / 2] / 1e3, all[(int) (all.length * 0.99)] / 1e3,
+            100.0 * conflicts.get() / all.length);
+    }
+
+    private static List<Object[]> seatRows(int seats) {
+        List<Object[]> rows = new ArrayList<>(seats);
+        for (long seatId = 1; seatId <= seats; seatId++) {
+            rows.add(new Object[]{seatId, Seat.SeatStatus.AVAILABLE});
+        }
+        return rows;
+    }
+}
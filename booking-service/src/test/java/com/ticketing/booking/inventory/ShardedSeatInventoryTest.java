@@ -0,0 +1,193 @@
+package com.ticketing.booking.inventory;
+
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedSeatInventoryTest {
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @Mock
+    private SeatHoldRepository seatHoldRepository;
+
+    private ShardedSeatInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new ShardedSeatInventory(seatRepository, seatHoldRepository);
+        ReflectionTestUtils.setField(inventory, "shardCount", 2);
+        ReflectionTestUtils.setField(inventory, "commandTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(inventory, "loadTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(inventory, "loaderCount", 2);
+        inventory.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventory.stop();
+    }
+
+    @Test
+    void tryHold_RecoversStateFromDatabaseOnFirstCommand() {
+        when(seatRepository.findSeatStatesByEventId(1L)).thenReturn(List.of(
+            new Object[]{1L, Seat.SeatStatus.AVAILABLE},
+            new Object[]{2L, Seat.SeatStatus.HELD},
+            new Object[]{3L, Seat.SeatStatus.BOOKED},
+            new Object[]{4L, Seat.SeatStatus.HELD}));
+        // Seat 4 is still HELD in seats but its hold already expired: free
+        when(seatHoldRepository.findActiveHoldsForEvent(eq(1L), any(LocalDateTime.class)))
+            .thenReturn(List.of(hold(List.of(2L), LocalDateTime.now().plusMinutes(5))));
+
+        assertEquals(List.of(2L, 3L), inventory.tryHold(1L, List.of(1L, 2L, 3L, 4L), inFiveMinutes()));
+        assertEquals(List.of(), inventory.tryHold(1L, List.of(1L, 4L), inFiveMinutes()));
+        assertEquals(List.of(1L), inventory.tryHold(1L, List.of(1L), inFiveMinutes()));
+
+        verify(seatRepository, times(1)).findSeatStatesByEventId(1L);
+    }
+
+    @Test
+    void release_MakesSeatsHoldableAgain() {
+        givenAvailableSeats(1L, 1L, 2L);
+
+        assertTrue(inventory.tryHold(1L, List.of(1L, 2L), inFiveMinutes()).isEmpty());
+        inventory.release(1L, List.of(1L, 2L));
+
+        assertTrue(inventory.tryHold(1L, List.of(2L), inFiveMinutes()).isEmpty());
+    }
+
+    @Test
+    void confirm_KeepsSeatsTakenAfterHoldExpiry() {
+        givenAvailableSeats(1L, 1L);
+
+        inventory.tryHold(1L, List.of(1L), LocalDateTime.now().minusSeconds(1));
+        inventory.confirm(1L, List.of(1L));
+
+        assertEquals(List.of(1L), inventory.tryHold(1L, List.of(1L), inFiveMinutes()));
+    }
+
+    @Test
+    void tryHold_ConcurrentRequestsForSameSeat_OnlyOneWins() throws Exception {
+        givenAvailableSeats(1L, 1L);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                results.add(callers.submit(() -> inventory.tryHold(1L, List.of(1L), inFiveMinutes())));
+            }
+
+            long winners = 0;
+            for (Future<List<Long>> result : results) {
+                if (result.get().isEmpty()) {
+                    winners++;
+                }
+            }
+            assertEquals(1, winners);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void expire_FreesRunOutHoldsOnly() {
+        givenAvailableSeats(1L, 1L, 2L);
+
+        inventory.tryHold(1L, List.of(1L), LocalDateTime.now().minusSeconds(1));
+        inventory.tryHold(1L, List.of(2L), inFiveMinutes());
+        inventory.expire(1L, List.of(1L, 2L));
+
+        // Seat 2 was held again before the expiry of an earlier hold on it came through
+        assertEquals(List.of(2L), inventory.tryHold(1L, List.of(1L, 2L), inFiveMinutes()));
+    }
+
+    @Test
+    void load_SlowFirstLoad_NeitherTimesOutNorHoldsUpTheShardsOtherEvents() throws Exception {
+        ReflectionTestUtils.setField(inventory, "commandTimeoutMs", 100L);
+        CountDownLatch loadReleased = new CountDownLatch(1);
+        when(seatRepository.findSeatStatesByEventId(1L)).thenAnswer(inv -> {
+            loadReleased.await(5, TimeUnit.SECONDS);
+            return List.<Object[]>of(new Object[]{1L, Seat.SeatStatus.AVAILABLE});
+        });
+        when(seatHoldRepository.findActiveHoldsForEvent(eq(1L), any(LocalDateTime.class))).thenReturn(List.of());
+        // Events 1 and 3 share a shard of two
+        givenAvailableSeats(3L, 1L);
+
+        CompletableFuture<List<Long>> slow =
+            CompletableFuture.supplyAsync(() -> inventory.tryHold(1L, List.of(1L), inFiveMinutes()));
+        assertTrue(inventory.tryHold(3L, List.of(1L), inFiveMinutes()).isEmpty());
+        Thread.sleep(300);
+        assertFalse(slow.isDone());
+        loadReleased.countDown();
+
+        assertTrue(slow.get(5, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    void load_Failure_FailsTheCommandAndIsRetried() {
+        when(seatRepository.findSeatStatesByEventId(1L))
+            .thenThrow(new IllegalStateException("connection refused"))
+            .thenReturn(List.<Object[]>of(new Object[]{1L, Seat.SeatStatus.AVAILABLE}));
+        when(seatHoldRepository.findActiveHoldsForEvent(eq(1L), any(LocalDateTime.class))).thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> inventory.tryHold(1L, List.of(1L), inFiveMinutes()));
+        assertTrue(inventory.tryHold(1L, List.of(1L), inFiveMinutes()).isEmpty());
+    }
+
+    @Test
+    void evict_ReloadsEventOnNextCommand() {
+        givenAvailableSeats(1L, 1L);
+
+        inventory.tryHold(1L, List.of(1L), inFiveMinutes());
+        inventory.evict(1L);
+
+        assertTrue(inventory.tryHold(1L, List.of(1L), inFiveMinutes()).isEmpty());
+        verify(seatRepository, times(2)).findSeatStatesByEventId(1L);
+    }
+
+    private void givenAvailableSeats(Long eventId, Long... seatIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long seatId : seatIds) {
+            rows.add(new Object[]{seatId, Seat.SeatStatus.AVAILABLE});
+        }
+        when(seatRepository.findSeatStatesByEventId(eventId)).thenReturn(rows);
+        when(seatHoldRepository.findActiveHoldsForEvent(eq(eventId), any(LocalDateTime.class))).thenReturn(List.of());
+    }
+
+    private static SeatHold hold(List<Long> seatIds, LocalDateTime expiresAt) {
+        return SeatHold.builder()
+            .seatIds(seatIds)
+            .expiresAt(expiresAt)
+            .status(SeatHold.HoldStatus.ACTIVE)
+            .build();
+    }
+
+    private static LocalDateTime inFiveMinutes() {
+        return LocalDateTime.now().plusMinutes(5);
+    }
+}
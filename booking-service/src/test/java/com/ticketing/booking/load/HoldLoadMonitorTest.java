@@ -0,0 +1,50 @@
+package com.ticketing.booking.load;
+
+import com.ticketing.booking.service.BookingException;
+import com.ticketing.booking.service.SeatUnavailableException;
+import com.ticketing.common.dto.BookingLoadDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldLoadMonitorTest {
+
+    private HoldLoadMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new HoldLoadMonitor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(monitor, "latencyWindowMs", 10000L);
+        monitor.registerMetrics();
+    }
+
+    @Test
+    void drain_CountsByOutcomeAndEventThenResets() {
+        long started = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(40);
+        monitor.holdFinished(1L, started, null);
+        monitor.holdFinished(1L, started, new SeatUnavailableException("taken"));
+        monitor.holdFinished(2L, started, new BookingException("Cannot hold more than 10 seats at once"));
+        monitor.holdFinished(2L, started, new IllegalStateException(new RedisConnectionFailureException("down")));
+        monitor.redisUnavailable();
+
+        BookingLoadDto load = monitor.drain();
+
+        assertEquals(4, load.getHolds());
+        assertEquals(2, load.getRedisErrors());
+        assertEquals(Map.of(1L, 2L, 2L, 2L), load.getHoldsByEvent());
+        assertEquals(Map.of(1L, 1L), load.getUnavailableByEvent());
+        assertTrue(load.getHoldP99Millis() >= 40);
+
+        BookingLoadDto next = monitor.drain();
+        assertEquals(0, next.getHolds());
+        assertEquals(0, next.getRedisErrors());
+        assertTrue(next.getHoldsByEvent().isEmpty());
+    }
+}
@@ -0,0 +1,249 @@
+package com.ticketing.booking.partition;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.booking.coordination.ShardLease;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintainerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 15);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private ShardCoordinator shardCoordinator;
+
+    private PartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new PartitionMaintainer(jdbcTemplate, transactionTemplate, shardCoordinator);
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        ReflectionTestUtils.setField(maintainer, "holdDaysAhead", 2);
+        ReflectionTestUtils.setField(maintainer, "holdRetentionDays", 30);
+        ReflectionTestUtils.setField(maintainer, "bookingMonthsAhead", 1);
+        ReflectionTestUtils.setField(maintainer, "bookingRetentionMonths", 0);
+        ReflectionTestUtils.setField(maintainer, "retentionAction", "drop");
+        maintainer.start();
+    }
+
+    private void partitioned(String table, String... partitions) {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), eq(table))).thenReturn(true);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq(table))).thenReturn(List.of(partitions));
+        List<String> defaultPartition = List.of(partitions).contains(table + "_default")
+            ? List.of(table + "_default") : List.of();
+        when(jdbcTemplate.queryForList(contains("partdefid"), eq(String.class), eq(table))).thenReturn(defaultPartition);
+        // The default partition holds no rows unless a test says so
+        lenient().when(jdbcTemplate.queryForObject(contains("FROM " + table + "_default WHERE"), eq(Boolean.class)))
+            .thenReturn(false);
+    }
+
+    private void notPartitioned(String table) {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), eq(table))).thenReturn(false);
+    }
+
+    @Test
+    void maintain_CreatesMissingPartitionsAhead() {
+        partitioned("seat_holds", "seat_holds_default", "seat_holds_p20261015");
+        partitioned("bookings", "bookings_default");
+
+        maintainer.maintain(TODAY);
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS seat_holds_p20261016 PARTITION OF seat_holds " +
+            "FOR VALUES FROM ('2026-10-16') TO ('2026-10-17')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS seat_holds_p20261017 PARTITION OF seat_holds " +
+            "FOR VALUES FROM ('2026-10-17') TO ('2026-10-18')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS bookings_p202610 PARTITION OF bookings " +
+            "FOR VALUES FROM ('2026-10-01') TO ('2026-11-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS bookings_p202611 PARTITION OF bookings " +
+            "FOR VALUES FROM ('2026-11-01') TO ('2026-12-01')");
+        verify(jdbcTemplate, never()).execute(contains("seat_holds_p20261015 PARTITION OF"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    @Test
+    void maintain_RowsAlreadyInDefaultPartition_MovedIntoTheNewPartition() {
+        partitioned("seat_holds", "seat_holds_default", "seat_holds_p20261015", "seat_holds_p20261017");
+        notPartitioned("bookings");
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM seat_holds_default " +
+            "WHERE created_at >= '2026-10-16' AND created_at < '2026-10-17')", Boolean.class)).thenReturn(true);
+        lenient().when(jdbcTemplate.update(startsWith("WITH moved"))).thenReturn(1);
+
+        maintainer.maintain(TODAY);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE seat_holds DETACH PARTITION seat_holds_default");
+        order.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS seat_holds_p20261016 PARTITION OF seat_holds " +
+            "FOR VALUES FROM ('2026-10-16') TO ('2026-10-17')");
+        order.verify(jdbcTemplate).update("DELETE FROM hold_tokens WHERE hold_token IN (SELECT hold_token " +
+            "FROM seat_holds_default WHERE created_at >= '2026-10-16' AND created_at < '2026-10-17')");
+        order.verify(jdbcTemplate).update("WITH moved AS (DELETE FROM seat_holds_default " +
+            "WHERE created_at >= '2026-10-16' AND created_at < '2026-10-17' RETURNING *) " +
+            "INSERT INTO seat_holds_p20261016 SELECT * FROM moved");
+        order.verify(jdbcTemplate).execute("ALTER TABLE seat_holds ATTACH PARTITION seat_holds_default DEFAULT");
+        // All of it in one transaction
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(jdbcTemplate, never()).execute(contains("seat_holds_p20261015 PARTITION OF"));
+        verify(jdbcTemplate, never()).execute(contains("seat_holds_p20261017 PARTITION OF"));
+    }
+
+    @Test
+    void maintain_DropsHoldPartitionsPastRetention_AfterDeletingTheirSeatLinksAndKeys() {
+        // Retention of 30 days: the 2026-09-14 partition ends on the cutoff, 2026-09-15 does not
+        partitioned("seat_holds", "seat_holds_default", "seat_holds_legacy",
+            "seat_holds_p20260914", "seat_holds_p20260915",
+            "seat_holds_p20261015", "seat_holds_p20261016", "seat_holds_p20261017");
+        notPartitioned("bookings");
+        when(jdbcTemplate.queryForObject(contains("FROM seat_holds_p20260914 WHERE status = 'ACTIVE'"), eq(Boolean.class)))
+            .thenReturn(false);
+
+        maintainer.maintain(TODAY);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update("DELETE FROM hold_seats l USING seat_holds_p20260914 o WHERE l.hold_id = o.id");
+        order.verify(jdbcTemplate).update(
+            "DELETE FROM hold_tokens k USING seat_holds_p20260914 o WHERE k.hold_token = o.hold_token");
+        order.verify(jdbcTemplate).execute("ALTER TABLE seat_holds DETACH PARTITION seat_holds_p20260914");
+        order.verify(jdbcTemplate).execute("DROP TABLE seat_holds_p20260914");
+        // All of it in one transaction
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(jdbcTemplate, never()).execute(contains("DETACH PARTITION seat_holds_p20260915"));
+        verify(jdbcTemplate, never()).execute(contains("seat_holds_default"));
+        verify(jdbcTemplate, never()).execute(contains("seat_holds_legacy"));
+    }
+
+    @Test
+    void maintain_DetachMode_KeepsRetiredPartitionAsTable() {
+        ReflectionTestUtils.setField(maintainer, "retentionAction", "detach");
+        partitioned("seat_holds", "seat_holds_p20260901", "seat_holds_p20261015", "seat_holds_p20261016", "seat_holds_p20261017");
+        notPartitioned("bookings");
+        when(jdbcTemplate.queryForObject(contains("WHERE status = 'ACTIVE'"), eq(Boolean.class))).thenReturn(false);
+
+        maintainer.maintain(TODAY);
+
+        verify(jdbcTemplate).execute("ALTER TABLE seat_holds DETACH PARTITION seat_holds_p20260901");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    @Test
+    void maintain_PartitionWithActiveHolds_Kept() {
+        partitioned("seat_holds", "seat_holds_p20260901", "seat_holds_p20261015", "seat_holds_p20261016", "seat_holds_p20261017");
+        notPartitioned("bookings");
+        when(jdbcTemplate.queryForObject(contains("FROM seat_holds_p20260901 WHERE status = 'ACTIVE'"), eq(Boolean.class)))
+            .thenReturn(true);
+
+        maintainer.maintain(TODAY);
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void maintain_DetachFails_LinkDeletesRolledBackWithIt() {
+        partitioned("seat_holds", "seat_holds_p20260901", "seat_holds_p20261015", "seat_holds_p20261016", "seat_holds_p20261017");
+        notPartitioned("bookings");
+        when(jdbcTemplate.queryForObject(contains("WHERE status = 'ACTIVE'"), eq(Boolean.class))).thenReturn(false);
+        doThrow(new DataAccessResourceFailureException("lock timeout"))
+            .when(jdbcTemplate).execute("ALTER TABLE seat_holds DETACH PARTITION seat_holds_p20260901");
+
+        maintainer.maintain(TODAY);
+
+        // The deletes ran inside the transaction the failure escaped from, so they are undone
+        verify(transactionTemplate).execute(any());
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+    }
+
+    @Test
+    void maintain_BookingsKeptWithoutRetention() {
+        notPartitioned("seat_holds");
+        partitioned("bookings", "bookings_p202301", "bookings_p202610", "bookings_p202611");
+
+        maintainer.maintain(TODAY);
+
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verify(jdbcTemplate, never()).execute(contains("CREATE TABLE"));
+    }
+
+    @Test
+    void maintain_UnpartitionedTables_Skipped() {
+        notPartitioned("seat_holds");
+        notPartitioned("bookings");
+
+        maintainer.maintain(TODAY);
+
+        verify(jdbcTemplate, times(2)).queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), anyString());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void maintain_FailureOnOneTable_OtherTableStillMaintained() {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), eq("seat_holds")))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+        partitioned("bookings", "bookings_p202610");
+
+        maintainer.maintain(TODAY);
+
+        verify(jdbcTemplate).execute(contains("bookings_p202611 PARTITION OF bookings"));
+    }
+
+    @Test
+    void maintain_LeaseNotHeld_DoesNothing() {
+        when(shardCoordinator.ownedShards(PartitionMaintainer.JOB)).thenReturn(List.of());
+        when(shardCoordinator.stillHeld(List.of())).thenReturn(List.of());
+
+        maintainer.maintain();
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(shardCoordinator).register(PartitionMaintainer.JOB, 1);
+    }
+
+    @Test
+    void maintain_LeaseHeld_Runs() {
+        List<ShardLease> lease = List.of(new ShardLease(PartitionMaintainer.JOB, 0, 3));
+        when(shardCoordinator.ownedShards(PartitionMaintainer.JOB)).thenReturn(lease);
+        when(shardCoordinator.stillHeld(lease)).thenReturn(lease);
+        notPartitioned("seat_holds");
+        notPartitioned("bookings");
+
+        maintainer.maintain();
+
+        verify(jdbcTemplate, times(2)).queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), anyString());
+    }
+
+    @Test
+    void periodOf_OnlyParsesMaintainerNames() {
+        PartitionMaintainer.PartitionedTable holds = new PartitionMaintainer.PartitionedTable(
+            "seat_holds", ChronoUnit.DAYS, 7, 30, "hold_seats", "hold_id", "hold_tokens", "hold_token", true);
+        PartitionMaintainer.PartitionedTable bookings = new PartitionMaintainer.PartitionedTable(
+            "bookings", ChronoUnit.MONTHS, 3, 0, "booking_seats", "booking_id", "booking_references",
+            "booking_reference", false);
+
+        assertThat(holds.periodOf("seat_holds_p20261015")).isEqualTo(TODAY);
+        assertThat(holds.periodOf("seat_holds_default")).isNull();
+        assertThat(holds.periodOf("seat_holds_legacy")).isNull();
+        assertThat(holds.periodOf("seat_holds_p202610")).isNull();
+        assertThat(bookings.periodOf("bookings_p202610")).isEqualTo(LocalDate.of(2026, 10, 1));
+        assertThat(bookings.periodOf("bookings_p20261015")).isNull();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ticketing.booking.partition;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hot seat_holds queries on a synthetic history (100M holds over a year by default),
+ * unpartitioned against daily partitions before and after dropping everything past the
+ * 30-day retention. Seeding takes a long time and tens of GB of disk, so it only runs with
+ * -Dbenchmark=true; -Dbenchmark.rows=10000000 runs a smaller history:
+ *
+ *   mvn -pl booking-service test -Dtest=PartitionedHoldsBenchmarkTest -Dbenchmark=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PartitionedHoldsBenchmarkTest {
+
+    private static final long ROWS = Long.getLong("benchmark.rows", 100_000_000L);
+    private static final int DAYS = 365;
+    private static final int RETENTION_DAYS = 30;
+    private static final int RUNS = 50;
+
+    private static final String COLUMNS = "id BIGINT NOT NULL, hold_token VARCHAR(255) NOT NULL, " +
+        "event_id BIGINT NOT NULL, seat_ids BIGINT[] NOT NULL, expires_at TIMESTAMP NOT NULL, " +
+        "status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL";
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_PASSWORD", "bench")
+        .withCommand("postgres", "-c", "max_locks_per_transaction=1024", "-c", "shared_buffers=1GB")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        connection = DriverManager.getConnection(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/postgres",
+            "postgres", "bench");
+        LocalDate today = LocalDate.now();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE holds_flat (" + COLUMNS + ", PRIMARY KEY (id))");
+            statement.execute("CREATE TABLE holds_part (" + COLUMNS + ", PRIMARY KEY (id, created_at)) " +
+                "PARTITION BY RANGE (created_at)");
+            for (int day = -DAYS; day <= 1; day++) {
+                LocalDate from = today.plusDays(day);
+                statement.execute("CREATE TABLE holds_part_p" + from.toString().replace("-", "") +
+                    " PARTITION OF holds_part FOR VALUES FROM ('" + from + "') TO ('" + from.plusDays(1) + "')");
+            }
+            // Oldest holds first, like a real history; only holds of the last hour are still active
+            statement.execute("INSERT INTO holds_flat SELECT g, md5(g::text), g % 500 + 1, ARRAY[g % 20000 + 1], " +
+                "created_at + interval '10 minutes', " +
+                "CASE WHEN created_at > now() - interval '1 hour' AND g % 10 = 0 THEN 'ACTIVE' " +
+                "WHEN g % 3 = 0 THEN 'CONFIRMED' ELSE 'EXPIRED' END, created_at " +
+                "FROM (SELECT g, now() - make_interval(secs => (" + ROWS + " - g) * " +
+                (DAYS * 86400.0 / ROWS) + ")) AS created_at FROM generate_series(1, " + ROWS + ") g) s");
+            statement.execute("INSERT INTO holds_part SELECT * FROM holds_flat");
+            for (String table : new String[]{"holds_flat", "holds_part"}) {
+                statement.execute("CREATE INDEX ON " + table + " (hold_token)");
+                statement.execute("CREATE INDEX ON " + table + " (event_id)");
+                statement.execute("CREATE INDEX ON " + table + " (expires_at)");
+                statement.execute("CREATE INDEX ON " + table + " (status)");
+                statement.execute("CREATE INDEX ON " + table + " (id) WHERE status = 'ACTIVE'");
+            }
+            statement.execute("VACUUM ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    void hotQueries_UnpartitionedVsPartitionedWithRetention() throws Exception {
+        report("unpartitioned, full history", "holds_flat");
+        report("partitioned, full history", "holds_part");
+
+        long dropStart = System.nanoTime();
+        int dropped = 0;
+        try (Statement statement = connection.createStatement()) {
+            // Same rule as PartitionMaintainer: partitions ending on or before today - retention
+            for (int day = -DAYS; day < -RETENTION_DAYS; day++) {
+                LocalDate from = LocalDate.now().plusDays(day);
+                String partition = "holds_part_p" + from.toString().replace("-", "");
+                statement.execute("ALTER TABLE holds_part DETACH PARTITION " + partition);
+                statement.execute("DROP TABLE " + partition);
+                dropped++;
+            }
+        }
+        System.out.printf("Retention: dropped %d daily partitions in %d ms%n",
+            dropped, (System.nanoTime() - dropStart) / 1_000_000);
+
+        report("partitioned, " + RETENTION_DAYS + "-day retention", "holds_part");
+        report("unpartitioned, full history (again)", "holds_flat");
+        assertThat(totalBytes("holds_part")).isLessThan(totalBytes("holds_flat") / 4);
+    }
+
+    /**
+     * Prints size and median latency of each hot query
+     */
+    private static void report(String label, String table) throws Exception {
+        long[] medians = {
+            median("SELECT id FROM " + table + " WHERE status = 'ACTIVE' AND expires_at <= now() " +
+                "AND id > 0 ORDER BY id LIMIT 500", false),
+            median("UPDATE " + table + " SET status = 'EXPIRED' WHERE status = 'ACTIVE' " +
+                "AND expires_at <= now()", true),
+            median("SELECT count(*) FROM " + table + " WHERE event_id = 17 AND status = 'ACTIVE' " +
+                "AND expires_at > now()", false),
+            median("SELECT * FROM " + table + " WHERE hold_token = md5('" + (ROWS - 12345) + "')", false)
+        };
+        System.out.printf("%s: %,d MB; p50 us: expired page %d, bulk expire %d, active count %d, token lookup %d%n",
+            label, totalBytes(table) >> 20, medians[0], medians[1], medians[2], medians[3]);
+    }
+
+    private static long totalBytes(String table) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT sum(pg_total_relation_size(relid)) FROM " +
+                 "pg_partition_tree('" + table + "')")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private static long median(String sql, boolean rollback) throws Exception {
+        long[] micros = new long[RUNS];
+        connection.setAutoCommit(!rollback);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                statement.execute();
+                micros[run] = (System.nanoTime() - start) / 1000;
+                if (rollback) {
+                    connection.rollback();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+}
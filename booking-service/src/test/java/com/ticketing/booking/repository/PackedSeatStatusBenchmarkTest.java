@@ -0,0 +1,180 @@
+package com.ticketing.booking.repository;
+
+import com.ticketing.common.entity.Seat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hold + confirm write cost of row-per-seat statuses against packed status blocks, at 10k,
+ * 50k and 100k seats: the same 4-seat holds are applied to a row event and a packed event,
+ * each step in its own transaction, with the statements SeatStatusTransitionsImpl runs.
+ * Reports throughput, WAL written and status storage size. Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl booking-service test -Dtest=PackedSeatStatusBenchmarkTest -Dbenchmark=true
+ *
+ * The read side (seat map) is PackedSeatMapBenchmarkTest in event-service.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PackedSeatStatusBenchmarkTest {
+
+    private static final int[] SIZES = {10_000, 50_000, 100_000};
+    private static final int HOLDS = Integer.getInteger("benchmark.holds", 2000);
+    private static final int SEATS_PER_HOLD = 4;
+
+    private static final String ROW_HOLD_SQL = "UPDATE seats SET status = 'HELD' WHERE id = ANY(?) " +
+        "AND status <> 'BOOKED' AND status_index IS NULL";
+    private static final String ROW_BOOK_SQL = "UPDATE seats SET status = 'BOOKED' WHERE id = ANY(?) " +
+        "AND status = 'HELD' AND status_index IS NULL";
+    private static final String POSITIONS_SQL = "SELECT event_id, status_index FROM seats WHERE id = ANY(?) " +
+        "AND status_index IS NOT NULL";
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_USER", "ticketing_user")
+        .withEnv("POSTGRES_PASSWORD", "bench")
+        .withEnv("POSTGRES_DB", "ticketing")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static PackedSeatStatusStore store;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/ticketing",
+            "ticketing_user", "bench", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        store = new PackedSeatStatusStore(jdbcTemplate);
+        jdbcTemplate.execute(Files.readString(Path.of("../infrastructure/init-db.sql")));
+    }
+
+    @Test
+    void holdAndConfirm_RowsVersusPacked() {
+        for (int seats : SIZES) {
+            long rowEvent = seedEvent(seats, false);
+            long packedEvent = seedEvent(seats, true);
+            jdbcTemplate.execute("VACUUM ANALYZE");
+
+            List<int[]> holds = holds(seats);
+            Result rows = run(rowEvent, holds, false);
+            Result packed = run(packedEvent, holds, true);
+
+            System.out.printf("%,d seats, %d holds of %d: rows %,.0f holds/s, %,d KB WAL, seats %,d KB | " +
+                    "packed %,.0f holds/s, %,d KB WAL, statuses %,d KB%n",
+                seats, HOLDS, SEATS_PER_HOLD,
+                rows.holdsPerSecond(), rows.walBytes >> 10,
+                jdbcTemplate.queryForObject("SELECT pg_total_relation_size('seats')", Long.class) >> 10,
+                packed.holdsPerSecond(), packed.walBytes >> 10,
+                jdbcTemplate.queryForObject("SELECT pg_total_relation_size('packed_seat_statuses')", Long.class) >> 10);
+
+            // Same holds, same outcome in both storage modes
+            assertThat(packed.booked).isEqualTo(rows.booked);
+        }
+    }
+
+    private long seedEvent(int seats, boolean packedSeats) {
+        long eventId = jdbcTemplate.queryForObject("INSERT INTO events (title, description, category, city, venue, " +
+            "event_date, total_capacity, available_seats, base_price, status, organizer_id, packed_seats) " +
+            "VALUES ('Stadium', 'Benchmark', 'Sports', 'Berlin', 'Stadium', now() + interval '30 days', ?, ?, 50.00, " +
+            "'PUBLISHED', 1, ?) RETURNING id", Long.class, seats, seats, packedSeats);
+        jdbcTemplate.update("INSERT INTO seats (event_id, section, row_letter, seat_number, price, status, status_index) " +
+            "SELECT ?, 'S' || (s / 1000), chr(65 + s / 50 % 20) || (s / 1000), s % 50 + 1, 50.00, 'AVAILABLE', " +
+            "CASE WHEN ? THEN s END FROM generate_series(0, ? - 1) s ORDER BY s", eventId, packedSeats, seats);
+        if (packedSeats) {
+            jdbcTemplate.update("INSERT INTO packed_seat_statuses (event_id, block, statuses) " +
+                "SELECT ?, b, decode(repeat('00', LEAST(1024, (? - b * 4096 + 3) / 4)), 'hex') " +
+                "FROM generate_series(0, (? - 1) / 4096) b", eventId, seats, seats);
+        }
+        return eventId;
+    }
+
+    private static List<int[]> holds(int seats) {
+        Random random = new Random(seats);
+        List<int[]> holds = new ArrayList<>(HOLDS);
+        for (int i = 0; i < HOLDS; i++) {
+            int first = random.nextInt(seats - SEATS_PER_HOLD);
+            int[] hold = new int[SEATS_PER_HOLD];
+            for (int seat = 0; seat < SEATS_PER_HOLD; seat++) {
+                hold[seat] = first + seat;
+            }
+            holds.add(hold);
+        }
+        return holds;
+    }
+
+    private Result run(long eventId, List<int[]> holds, boolean packed) {
+        long firstSeatId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM seats WHERE event_id = ?", Long.class, eventId);
+        String walStart = jdbcTemplate.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+
+        Result result = new Result();
+        long start = System.nanoTime();
+        for (int[] hold : holds) {
+            Long[] seatIds = new Long[hold.length];
+            for (int i = 0; i < hold.length; i++) {
+                seatIds[i] = firstSeatId + hold[i];
+            }
+            int held = transactionTemplate.execute(status -> packed
+                ? transitionPacked(ROW_HOLD_SQL, seatIds, EnumSet.of(Seat.SeatStatus.AVAILABLE, Seat.SeatStatus.HELD),
+                    Seat.SeatStatus.HELD)
+                : jdbcTemplate.update(ROW_HOLD_SQL, (Object) seatIds));
+            if (held == hold.length) {
+                result.booked += transactionTemplate.execute(status -> packed
+                    ? transitionPacked(ROW_BOOK_SQL, seatIds, EnumSet.of(Seat.SeatStatus.HELD), Seat.SeatStatus.BOOKED)
+                    : jdbcTemplate.update(ROW_BOOK_SQL, (Object) seatIds));
+            }
+        }
+        result.nanos = System.nanoTime() - start;
+        result.walBytes = jdbcTemplate.queryForObject("SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)::bigint",
+            Long.class, walStart);
+        return result;
+    }
+
+    // The statements SeatStatusTransitionsImpl runs for packed seats
+    private int transitionPacked(String rowSql, Long[] seatIds, Set<Seat.SeatStatus> from, Seat.SeatStatus to) {
+        int updated = jdbcTemplate.update(rowSql, (Object) seatIds);
+        Map<Long, List<Integer>> indexesByEvent = jdbcTemplate.queryForList(POSITIONS_SQL, (Object) seatIds).stream()
+            .collect(Collectors.groupingBy(row -> ((Number) row.get("event_id")).longValue(), TreeMap::new,
+                Collectors.mapping(row -> ((Number) row.get("status_index")).intValue(), Collectors.toList())));
+        for (Map.Entry<Long, List<Integer>> entry : indexesByEvent.entrySet()) {
+            updated += store.transition(entry.getKey(), entry.getValue(), from, to);
+        }
+        return updated;
+    }
+
+    private static final class Result {
+        private long nanos;
+        private long walBytes;
+        private int booked;
+
+        double holdsPerSecond() {
+            return HOLDS * 1e9 / nanos;
+        }
+    }
+}
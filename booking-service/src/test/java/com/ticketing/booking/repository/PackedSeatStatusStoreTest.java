@@ -0,0 +1,109 @@
+package com.ticketing.booking.repository;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PackedSeatStatusStoreTest {
+
+    private static final Set<Seat.SeatStatus> NOT_BOOKED = EnumSet.of(Seat.SeatStatus.AVAILABLE, Seat.SeatStatus.HELD);
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private PackedSeatStatusStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new PackedSeatStatusStore(jdbcTemplate);
+    }
+
+    private byte[] block(Seat.SeatStatus... statuses) {
+        byte[] block = new byte[PackedSeatStatuses.byteLength(statuses.length)];
+        for (int i = 0; i < statuses.length; i++) {
+            PackedSeatStatuses.set(block, i, statuses[i]);
+        }
+        return block;
+    }
+
+    private void lockedBlock(int block, byte[] statuses) {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq(byte[].class), eq(1L), eq(block)))
+            .thenReturn(List.of(statuses));
+    }
+
+    @Test
+    void transition_GuardedSeatsMoved_OthersLeftAlone() {
+        byte[] statuses = block(Seat.SeatStatus.AVAILABLE, Seat.SeatStatus.BOOKED, Seat.SeatStatus.HELD);
+        lockedBlock(0, statuses);
+
+        int moved = store.transition(1L, List.of(0, 1, 2), NOT_BOOKED, Seat.SeatStatus.HELD);
+
+        assertThat(moved).isEqualTo(2);
+        ArgumentCaptor<byte[]> written = ArgumentCaptor.forClass(byte[].class);
+        verify(jdbcTemplate).update(startsWith("UPDATE packed_seat_statuses"), written.capture(), eq(1L), eq(0));
+        assertThat(PackedSeatStatuses.get(written.getValue(), 0)).isEqualTo(Seat.SeatStatus.HELD);
+        assertThat(PackedSeatStatuses.get(written.getValue(), 1)).isEqualTo(Seat.SeatStatus.BOOKED);
+        assertThat(PackedSeatStatuses.get(written.getValue(), 2)).isEqualTo(Seat.SeatStatus.HELD);
+    }
+
+    @Test
+    void transition_NothingMoved_BlockNotRewritten() {
+        lockedBlock(0, block(Seat.SeatStatus.BOOKED));
+
+        assertThat(store.transition(1L, List.of(0), NOT_BOOKED, Seat.SeatStatus.HELD)).isZero();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void transition_LocksBlocksInOrder() {
+        int secondBlockSeat = PackedSeatStatuses.BLOCK_SEATS + 5;
+        lockedBlock(0, block(Seat.SeatStatus.HELD));
+        lockedBlock(1, new byte[PackedSeatStatuses.BLOCK_SEATS / 4]);
+
+        int moved = store.transition(1L, List.of(secondBlockSeat, 0), EnumSet.of(Seat.SeatStatus.HELD),
+            Seat.SeatStatus.AVAILABLE);
+
+        assertThat(moved).isEqualTo(1);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(byte[].class), eq(1L), eq(0));
+        order.verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(byte[].class), eq(1L), eq(1));
+    }
+
+    @Test
+    void lockBlocks_LocksInBlockOrder() {
+        byte[] first = block(Seat.SeatStatus.HELD);
+        byte[] second = block(Seat.SeatStatus.BOOKED);
+        lockedBlock(0, first);
+        lockedBlock(1, second);
+
+        assertThat(store.lockBlocks(1L, Set.of(1, 0))).containsEntry(0, first).containsEntry(1, second);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(byte[].class), eq(1L), eq(0));
+        order.verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(byte[].class), eq(1L), eq(1));
+    }
+
+    @Test
+    void statuses_ConcatenatesBlocks() {
+        when(jdbcTemplate.queryForList(contains("ORDER BY block"), eq(byte[].class), eq(1L)))
+            .thenReturn(List.of(new byte[]{1, 2}, new byte[]{3}));
+
+        assertThat(store.statuses(1L)).containsExactly(1, 2, 3);
+    }
+}
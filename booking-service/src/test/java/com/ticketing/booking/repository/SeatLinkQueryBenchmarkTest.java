@@ -0,0 +1,148 @@
+package com.ticketing.booking.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans and latency of the seat lookups at 1M holds: searching seat_ids arrays
+ * against probing the hold_seats link table. Takes a few minutes to seed, so it only
+ * runs with -Dbenchmark=true:
+ *
+ *   mvn -pl booking-service test -Dtest=SeatLinkQueryBenchmarkTest -Dbenchmark=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SeatLinkQueryBenchmarkTest {
+
+    private static final int HOLDS = 1_000_000;
+    private static final int EVENTS = 200;
+    private static final int SEATS_PER_EVENT = 20_000;
+    private static final int RUNS = 500;
+
+    // The queries before and after the link tables, same parameters: event id, seat ids
+    private static final String ARRAY_SEATS =
+        "SELECT * FROM seat_holds sh WHERE sh.event_id = ? AND sh.status = 'ACTIVE' " +
+        "AND sh.expires_at > now() AND sh.seat_ids && ?";
+    private static final String LINK_SEATS =
+        "SELECT * FROM seat_holds sh WHERE sh.id IN (" +
+        "SELECT hs.hold_id FROM hold_seats hs WHERE hs.event_id = ? AND hs.seat_id = ANY(?)) " +
+        "AND sh.status = 'ACTIVE' AND sh.expires_at > now()";
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_PASSWORD", "bench")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        connection = DriverManager.getConnection(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/postgres",
+            "postgres", "bench");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE seat_holds (id BIGSERIAL PRIMARY KEY, event_id BIGINT NOT NULL, " +
+                "seat_ids BIGINT[] NOT NULL, expires_at TIMESTAMP NOT NULL, status VARCHAR(20) NOT NULL)");
+            statement.execute("CREATE TABLE hold_seats (hold_id BIGINT NOT NULL, event_id BIGINT NOT NULL, " +
+                "seat_id BIGINT NOT NULL, PRIMARY KEY (hold_id, seat_id))");
+            // 1M holds of 1-4 seats spread over the events; one in ten still active
+            statement.execute("INSERT INTO seat_holds (event_id, seat_ids, expires_at, status) " +
+                "SELECT g % " + EVENTS + " + 1, " +
+                "ARRAY(SELECT DISTINCT (g::bigint * 7919 + s * 104729) % " + SEATS_PER_EVENT + " + 1 FROM generate_series(0, g % 4) s), " +
+                "now() + interval '5 minutes', CASE WHEN g % 10 = 0 THEN 'ACTIVE' ELSE 'EXPIRED' END " +
+                "FROM generate_series(1, " + HOLDS + ") g");
+            statement.execute("INSERT INTO hold_seats (hold_id, event_id, seat_id) " +
+                "SELECT sh.id, sh.event_id, seat.id FROM seat_holds sh, unnest(sh.seat_ids) AS seat(id)");
+            statement.execute("CREATE INDEX idx_seat_hold_event ON seat_holds(event_id)");
+            statement.execute("CREATE INDEX idx_seat_hold_status ON seat_holds(status)");
+            statement.execute("CREATE INDEX idx_hold_seats_event_seat ON hold_seats(event_id, seat_id)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void close() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    void linkTableLookup_UsesSeatIndex_AndBeatsArraySearch() throws Exception {
+        String arrayPlan = plan(ARRAY_SEATS, 17, 1L, 2L);
+        String linkPlan = plan(LINK_SEATS, 17, 1L, 2L);
+        System.out.printf("Seat lookup plan, seat_ids array:%n%s%nSeat lookup plan, hold_seats:%n%s%n", arrayPlan, linkPlan);
+
+        assertThat(linkPlan).contains("idx_hold_seats_event_seat");
+
+        long[] arrayMicros = latencies(ARRAY_SEATS);
+        long[] linkMicros = latencies(LINK_SEATS);
+        System.out.printf("Seat lookup at %,d holds (%d runs): seat_ids array p50 %d us p99 %d us, " +
+                "hold_seats p50 %d us p99 %d us%n",
+            HOLDS, RUNS, percentile(arrayMicros, 50), percentile(arrayMicros, 99),
+            percentile(linkMicros, 50), percentile(linkMicros, 99));
+
+        assertThat(percentile(linkMicros, 50)).isLessThan(percentile(arrayMicros, 50));
+    }
+
+    private static String plan(String query, long eventId, Long... seatIds) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + query)) {
+            bind(statement, eventId, seatIds);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private static long[] latencies(String query) throws Exception {
+        Random random = new Random(42);
+        long[] micros = new long[RUNS];
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int run = 0; run < RUNS; run++) {
+                bind(statement, random.nextInt(EVENTS) + 1,
+                    (long) random.nextInt(SEATS_PER_EVENT) + 1, (long) random.nextInt(SEATS_PER_EVENT) + 1);
+                long start = System.nanoTime();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        rows.getLong("id");
+                    }
+                }
+                micros[run] = (System.nanoTime() - start) / 1000;
+            }
+        }
+        return micros;
+    }
+
+    private static void bind(PreparedStatement statement, long eventId, Long... seatIds) throws Exception {
+        statement.setLong(1, eventId);
+        statement.setArray(2, connection.createArrayOf("bigint", seatIds));
+    }
+
+    private static long percentile(long[] values, int percentile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
@@ -0,0 +1,137 @@
+package com.ticketing.booking.repository;
+
+import com.ticketing.common.entity.Event;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatStatusTransitionsImplTest {
+
+    @Mock private EntityManager entityManager;
+    @Mock private PackedSeatStatusStore packedSeatStatusStore;
+    @Mock(answer = Answers.RETURNS_SELF) private Query rowUpdate;
+    @Mock(answer = Answers.RETURNS_SELF) private TypedQuery<Object[]> resultQuery;
+
+    private SeatStatusTransitionsImpl transitions;
+
+    @BeforeEach
+    void setUp() {
+        transitions = new SeatStatusTransitionsImpl(entityManager, packedSeatStatusStore);
+    }
+
+    private void rowsUpdated(int count) {
+        when(entityManager.createQuery(contains("s.statusIndex IS NULL"))).thenReturn(rowUpdate);
+        when(rowUpdate.executeUpdate()).thenReturn(count);
+    }
+
+    private void results(String jpql, Object[]... rows) {
+        when(entityManager.createQuery(contains(jpql), eq(Object[].class))).thenReturn(resultQuery);
+        when(resultQuery.getResultList()).thenReturn(new ArrayList<>(List.of(rows)));
+    }
+
+    @Test
+    void holdSeatsGuarded_AllRowSeats_SkipsPackedLookup() {
+        rowsUpdated(2);
+
+        assertThat(transitions.holdSeatsGuarded(List.of(1L, 2L))).isEqualTo(2);
+
+        verify(entityManager, never()).createQuery(anyString(), eq(Object[].class));
+        verifyNoInteractions(packedSeatStatusStore);
+    }
+
+    @Test
+    void bookSeats_PackedSeats_TransitionedPerEvent() {
+        rowsUpdated(1);
+        results("s.statusIndex IS NOT NULL", new Object[]{20L, 7}, new Object[]{10L, 3}, new Object[]{20L, 8});
+        Set<Seat.SeatStatus> held = EnumSet.of(Seat.SeatStatus.HELD);
+        when(packedSeatStatusStore.transition(10L, List.of(3), held, Seat.SeatStatus.BOOKED)).thenReturn(1);
+        when(packedSeatStatusStore.transition(20L, List.of(7, 8), held, Seat.SeatStatus.BOOKED)).thenReturn(2);
+
+        assertThat(transitions.bookSeats(List.of(1L, 2L, 3L, 4L))).isEqualTo(4);
+
+        InOrder order = inOrder(packedSeatStatusStore);
+        order.verify(packedSeatStatusStore).transition(eq(10L), any(), any(), any());
+        order.verify(packedSeatStatusStore).transition(eq(20L), any(), any(), any());
+    }
+
+    @Test
+    void findSeatStatesByEventId_OverlaysPackedStatuses() {
+        results("s.event.id = :eventId",
+            new Object[]{1L, Seat.SeatStatus.BOOKED, null},
+            new Object[]{2L, Seat.SeatStatus.AVAILABLE, 1});
+        byte[] packed = new byte[1];
+        PackedSeatStatuses.set(packed, 1, Seat.SeatStatus.HELD);
+        when(packedSeatStatusStore.statuses(5L)).thenReturn(packed);
+
+        List<Object[]> states = transitions.findSeatStatesByEventId(5L);
+
+        assertThat(states).hasSize(2);
+        assertThat(states.get(0)).containsExactly(1L, Seat.SeatStatus.BOOKED);
+        assertThat(states.get(1)).containsExactly(2L, Seat.SeatStatus.HELD);
+    }
+
+    @Test
+    void packedStatuses_ReadsOnlyBlocksOfPackedSeats() {
+        Event event = Event.builder().id(5L).build();
+        int index = PackedSeatStatuses.BLOCK_SEATS + 2;
+        Seat packedSeat = Seat.builder().id(1L).event(event).status(Seat.SeatStatus.AVAILABLE).statusIndex(index).build();
+        Seat rowSeat = Seat.builder().id(2L).event(event).status(Seat.SeatStatus.AVAILABLE).build();
+        byte[] block = new byte[PackedSeatStatuses.BLOCK_SEATS / 4];
+        PackedSeatStatuses.set(block, 2, Seat.SeatStatus.BOOKED);
+        when(packedSeatStatusStore.blocks(5L, Set.of(1))).thenReturn(Map.of(1, block));
+
+        Map<Long, Seat.SeatStatus> statuses = transitions.packedStatuses(List.of(packedSeat, rowSeat));
+
+        assertThat(statuses).containsExactly(Map.entry(1L, Seat.SeatStatus.BOOKED));
+    }
+
+    @Test
+    void lockPackedStatuses_LocksBlocksEventByEvent() {
+        Event first = Event.builder().id(5L).build();
+        Event second = Event.builder().id(9L).build();
+        Seat secondSeat = Seat.builder().id(1L).event(second).status(Seat.SeatStatus.AVAILABLE).statusIndex(0).build();
+        Seat firstSeat = Seat.builder().id(2L).event(first).status(Seat.SeatStatus.AVAILABLE).statusIndex(1).build();
+        byte[] block = new byte[PackedSeatStatuses.BLOCK_SEATS / 4];
+        PackedSeatStatuses.set(block, 1, Seat.SeatStatus.HELD);
+        when(packedSeatStatusStore.lockBlocks(5L, Set.of(0))).thenReturn(Map.of(0, block));
+        when(packedSeatStatusStore.lockBlocks(9L, Set.of(0))).thenReturn(Map.of(0, block));
+
+        Map<Long, Seat.SeatStatus> statuses = transitions.lockPackedStatuses(List.of(secondSeat, firstSeat));
+
+        assertThat(statuses).containsEntry(1L, Seat.SeatStatus.AVAILABLE).containsEntry(2L, Seat.SeatStatus.HELD);
+        // Events in id order, as transition locks them
+        InOrder order = inOrder(packedSeatStatusStore);
+        order.verify(packedSeatStatusStore).lockBlocks(eq(5L), any());
+        order.verify(packedSeatStatusStore).lockBlocks(eq(9L), any());
+        verify(packedSeatStatusStore, never()).blocks(anyLong(), any());
+    }
+
+    @Test
+    void packedStatuses_NoPackedSeats_NoQuery() {
+        Seat rowSeat = Seat.builder().id(2L).status(Seat.SeatStatus.HELD).build();
+
+        assertThat(transitions.packedStatuses(List.of(rowSeat))).isEmpty();
+
+        verifyNoInteractions(packedSeatStatusStore);
+    }
+}
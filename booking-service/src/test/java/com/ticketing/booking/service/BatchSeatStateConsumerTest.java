@@ -0,0 +1,242 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.common.entity.Event;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import com.ticketing.common.service.SeatStatusCacheService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchSeatStateConsumerTest {
+
+    @Mock private SeatRepository seatRepository;
+    @Mock private SeatHoldRepository seatHoldRepository;
+    @Mock private EventMessagingService messagingService;
+    @Mock private SeatStatusCacheService seatStatusCacheService;
+    @Mock private SeatViewExpiryListener seatViewExpiryListener;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BatchSeatStateConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+        consumer = new BatchSeatStateConsumer(
+            seatRepository, seatHoldRepository, messagingService, objectMapper, seatStatusCacheService, seatViewExpiryListener
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ConsumerRecord<String, String> expiry(long offset, long eventId, long seatId) {
+        String json = "{\"eventType\":\"SEAT_HOLD_EXPIRED\",\"eventId\":" + eventId + ",\"seatId\":" + seatId + "}";
+        return new ConsumerRecord<>("topic", 0, offset, eventId + ":" + seatId, json);
+    }
+
+    private static ConsumerRecord<String, String> holdExpiry(long offset, SeatHold hold) {
+        long eventId = hold.getEvent().getId();
+        String json = "{\"eventType\":\"SEAT_HOLD_EXPIRED\",\"eventId\":" + eventId
+            + ",\"customerId\":" + hold.getCustomerId() + ",\"holdToken\":\"" + hold.getHoldToken()
+            + "\",\"seatIds\":" + hold.getSeatIds().toString().replace(" ", "") + "}";
+        return new ConsumerRecord<>("topic", 0, offset, eventId + ":" + hold.getHoldToken(), json);
+    }
+
+    private static Seat seat(long id, Seat.SeatStatus status) {
+        return Seat.builder().id(id).status(status).build();
+    }
+
+    private static SeatHold hold(long id, long eventId, List<Long> seatIds) {
+        return SeatHold.builder()
+            .id(id).holdToken("HOLD_" + id).customerId(10L + id)
+            .event(Event.builder().id(eventId).build()).seatIds(seatIds)
+            .expiresAt(LocalDateTime.now().minusMinutes(1))
+            .status(SeatHold.HoldStatus.ACTIVE)
+            .build();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    void batch_ReleasesSetBasedAndPublishesOneEventPerHold() {
+        SeatHold hold = hold(1L, 1L, List.of(41L, 42L));
+        when(seatRepository.findByIdInForUpdate(List.of(41L, 42L)))
+            .thenReturn(List.of(seat(41L, Seat.SeatStatus.HELD), seat(42L, Seat.SeatStatus.HELD)));
+        when(seatRepository.releaseSeats(List.of(41L, 42L))).thenReturn(2);
+        when(seatHoldRepository.findExpiredHoldsForSeats(eq(1L), eq(new Long[]{41L, 42L}), any()))
+            .thenReturn(List.of(hold));
+
+        consumer.onSeatStateTransitions(List.of(expiry(0, 1L, 42L), expiry(1, 1L, 41L)));
+        commit();
+
+        verify(seatRepository).releaseSeats(List.of(41L, 42L));
+        verify(seatHoldRepository).expireHolds(List.of(1L));
+        verify(messagingService, times(1)).publishSeatHoldExpired("HOLD_1", 11L, 1L, List.of(41L, 42L));
+        verify(seatStatusCacheService).transitionSeatStatuses(1L, List.of(41L, 42L), "HELD", "AVAILABLE");
+        verify(seatViewExpiryListener).expiredAfterCommit(1L, List.of(41L, 42L));
+    }
+
+    @Test
+    void batch_HoldRecords_ExpireByTokenWithoutSeatLookups() {
+        SeatHold first = hold(1L, 1L, List.of(41L, 42L));
+        SeatHold second = hold(2L, 2L, List.of(7L));
+        when(seatHoldRepository.findExpiredHoldsByTokenForUpdate(eq(new TreeSet<>(List.of("HOLD_1", "HOLD_2", "HOLD_3"))), any()))
+            .thenReturn(List.of(first, second));
+        when(seatRepository.releaseSeats(List.of(41L, 42L, 7L))).thenReturn(3);
+
+        consumer.onSeatStateTransitions(List.of(
+            holdExpiry(0, first), holdExpiry(1, second), holdExpiry(2, hold(3L, 1L, List.of(43L)))));
+        commit();
+
+        verify(seatHoldRepository).expireHolds(List.of(1L, 2L));
+        verify(seatRepository).releaseSeats(List.of(41L, 42L, 7L));
+        verify(seatRepository, never()).findByIdInForUpdate(any());
+        verify(seatHoldRepository, never()).findExpiredHoldsForSeats(anyLong(), any(Long[].class), any());
+        verify(messagingService).publishSeatHoldExpired("HOLD_1", 11L, 1L, List.of(41L, 42L));
+        verify(messagingService).publishSeatHoldExpired("HOLD_2", 12L, 2L, List.of(7L));
+        verify(seatStatusCacheService).transitionSeatStatuses(1L, List.of(41L, 42L), "HELD", "AVAILABLE");
+        verify(seatStatusCacheService).transitionSeatStatuses(2L, List.of(7L), "HELD", "AVAILABLE");
+        verify(seatViewExpiryListener).expiredAfterCommit(2L, List.of(7L));
+    }
+
+    @Test
+    void batch_OnlyHeldSeatsAreReleased() {
+        when(seatRepository.findByIdInForUpdate(anyList()))
+            .thenReturn(List.of(seat(1L, Seat.SeatStatus.BOOKED), seat(2L, Seat.SeatStatus.HELD),
+                seat(3L, Seat.SeatStatus.AVAILABLE)));
+        when(seatRepository.releaseSeats(List.of(2L))).thenReturn(1);
+
+        consumer.onSeatStateTransitions(List.of(expiry(0, 1L, 1L), expiry(1, 1L, 2L), expiry(2, 1L, 3L)));
+        commit();
+
+        verify(seatRepository).releaseSeats(List.of(2L));
+        verify(seatHoldRepository).findExpiredHoldsForSeats(eq(1L), eq(new Long[]{2L}), any());
+        verify(seatHoldRepository, never()).expireHolds(any());
+        verify(seatStatusCacheService).transitionSeatStatuses(1L, List.of(2L), "HELD", "AVAILABLE");
+    }
+
+    @Test
+    void batch_AllSeatsAlreadyReleased_Skips() {
+        when(seatRepository.findByIdInForUpdate(anyList())).thenReturn(List.of(seat(42L, Seat.SeatStatus.AVAILABLE)));
+
+        consumer.onSeatStateTransitions(List.of(expiry(0, 1L, 42L)));
+
+        verify(seatRepository, never()).releaseSeats(any());
+        verifyNoInteractions(seatHoldRepository, messagingService);
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    void batch_PackedSeats_StatusFromTheBlocks() {
+        Seat packed = Seat.builder().id(42L).status(Seat.SeatStatus.AVAILABLE).statusIndex(7).build();
+        when(seatRepository.findByIdInForUpdate(anyList())).thenReturn(List.of(packed, seat(43L, Seat.SeatStatus.HELD)));
+        when(seatRepository.packedStatuses(List.of(packed, seat(43L, Seat.SeatStatus.HELD))))
+            .thenReturn(Map.of(42L, Seat.SeatStatus.HELD));
+        when(seatRepository.releaseSeats(List.of(42L, 43L))).thenReturn(2);
+
+        consumer.onSeatStateTransitions(List.of(expiry(0, 1L, 42L), expiry(1, 1L, 43L)));
+
+        verify(seatRepository).releaseSeats(List.of(42L, 43L));
+    }
+
+    @Test
+    void batch_RolledBack_LeavesCacheAlone() {
+        when(seatRepository.findByIdInForUpdate(anyList())).thenReturn(List.of(seat(42L, Seat.SeatStatus.HELD)));
+        when(seatRepository.releaseSeats(List.of(42L))).thenReturn(1);
+
+        consumer.onSeatStateTransitions(List.of(expiry(0, 1L, 42L)));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(seatStatusCacheService);
+    }
+
+    @Test
+    void batch_SkipsInvalidAndUnknownRecords() {
+        consumer.onSeatStateTransitions(List.of(
+            new ConsumerRecord<>("topic", 0, 0, "key", "invalid-json{"),
+            new ConsumerRecord<>("topic", 0, 1, "key", "{\"eventType\":\"UNKNOWN_TYPE\",\"eventId\":1,\"seatId\":42}")));
+
+        verifyNoInteractions(seatRepository, seatHoldRepository, messagingService);
+    }
+
+    /**
+     * Mass expiry of 200 holds x 5 seats over two events: compares database round trips
+     * of the batch consumer with the per-record consumer on the same records.
+     */
+    @Test
+    void massExpiry_BatchNeedsFarFewerRoundTripsThanPerRecord() {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        List<SeatHold> holds = new ArrayList<>();
+        for (long holdId = 1; holdId <= 200; holdId++) {
+            long eventId = holdId % 2 + 1;
+            List<Long> seatIds = LongStream.range(holdId * 5, holdId * 5 + 5).boxed().toList();
+            holds.add(hold(holdId, eventId, seatIds));
+            seatIds.forEach(seatId -> records.add(expiry(records.size(), eventId, seatId)));
+        }
+
+        // Per-record consumer
+        SeatRepository perRecordSeats = mock(SeatRepository.class);
+        SeatHoldRepository perRecordHolds = mock(SeatHoldRepository.class);
+        when(perRecordSeats.releaseSeats(anyList())).thenReturn(1);
+        when(perRecordHolds.findExpiredHoldsForSeat(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            long seatId = inv.getArgument(1);
+            // Each hold is found (and expired) with its first seat only
+            return seatId % 5 == 0 ? List.of(holds.get((int) (seatId / 5) - 1)) : List.of();
+        });
+        SeatStateConsumer perRecord = new SeatStateConsumer(
+            perRecordSeats, perRecordHolds, mock(EventMessagingService.class), objectMapper,
+            mock(SeatStatusCacheService.class), mock(SeatViewExpiryListener.class));
+        records.forEach(perRecord::onSeatStateTransition);
+        int perRecordRoundTrips = mockingDetails(perRecordSeats).getInvocations().size()
+            + mockingDetails(perRecordHolds).getInvocations().size();
+
+        // Batch consumer
+        when(seatRepository.findByIdInForUpdate(anyList())).thenAnswer(inv -> ((List<Long>) inv.getArgument(0))
+            .stream().map(id -> seat(id, Seat.SeatStatus.HELD)).toList());
+        when(seatRepository.releaseSeats(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(seatHoldRepository.findExpiredHoldsForSeats(anyLong(), any(Long[].class), any())).thenAnswer(inv -> {
+            List<Long> seatIds = Arrays.asList((Long[]) inv.getArgument(1));
+            return holds.stream().filter(h -> seatIds.containsAll(h.getSeatIds())).toList();
+        });
+        consumer.onSeatStateTransitions(records);
+        int batchRoundTrips = mockingDetails(seatRepository).getInvocations().size()
+            + mockingDetails(seatHoldRepository).getInvocations().size();
+
+        // 1000 releases + 1000 lookups + 200 saves vs lock + release + one lookup per event + one expire
+        assertEquals(2200, perRecordRoundTrips);
+        assertEquals(5, batchRoundTrips);
+        verify(seatHoldRepository).expireHolds(argThat(ids -> ids.size() == 200));
+        verify(messagingService, times(200)).publishSeatHoldExpired(anyString(), anyLong(), anyLong(), anyList());
+    }
+}
@@ -0,0 +1,133 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.booking.allocation.SeatAllocationIndex;
+import com.ticketing.common.dto.BestAvailableHoldRequest;
+import com.ticketing.common.dto.SeatHoldRequest;
+import com.ticketing.common.dto.SeatHoldResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BestAvailableHoldServiceTest {
+
+    @Mock
+    private SeatAllocationIndex seatAllocationIndex;
+
+    @Mock
+    private BookingService bookingService;
+
+    private BestAvailableHoldService bestAvailableHoldService;
+
+    @BeforeEach
+    void setUp() {
+        bestAvailableHoldService = new BestAvailableHoldService(seatAllocationIndex, bookingService);
+        ReflectionTestUtils.setField(bestAvailableHoldService, "maxAttempts", 3);
+    }
+
+    @Test
+    void holdBestAvailable_HoldsPickedSeats() {
+        BestAvailableHoldRequest request = request(true);
+        when(seatAllocationIndex.allocate(1L, 2, "VIP", new BigDecimal("200.00"), true))
+            .thenReturn(List.of(5L, 6L));
+        when(bookingService.holdSeats(any())).thenReturn(response("HOLD_A"));
+
+        SeatHoldResponse result = bestAvailableHoldService.holdBestAvailable(request);
+
+        assertEquals("HOLD_A", result.getHoldToken());
+        verify(bookingService).holdSeats(argThat((SeatHoldRequest r) ->
+            r.getCustomerId().equals(1L) && r.getSeatIds().equals(List.of(5L, 6L))));
+    }
+
+    @Test
+    void holdBestAvailable_PickedSeatsTakenElsewhere_PicksAgain() {
+        when(seatAllocationIndex.allocate(anyLong(), anyInt(), any(), any(), anyBoolean()))
+            .thenReturn(List.of(5L, 6L), List.of(7L, 8L));
+        when(bookingService.holdSeats(any()))
+            .thenThrow(new SeatUnavailableException("One or more seats are currently held by another customer: [5]"))
+            .thenReturn(response("HOLD_B"));
+
+        SeatHoldResponse result = bestAvailableHoldService.holdBestAvailable(request(true));
+
+        assertEquals("HOLD_B", result.getHoldToken());
+        verify(seatAllocationIndex, never()).markFree(any(), any());
+    }
+
+    @Test
+    void holdBestAvailable_NothingFits_Rejected() {
+        when(seatAllocationIndex.allocate(anyLong(), anyInt(), any(), any(), anyBoolean())).thenReturn(List.of());
+
+        BookingException exception = assertThrows(BookingException.class,
+            () -> bestAvailableHoldService.holdBestAvailable(request(true)));
+
+        assertTrue(exception.getMessage().contains("together"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void holdBestAvailable_GivesUpAfterMaxAttempts() {
+        when(seatAllocationIndex.allocate(anyLong(), anyInt(), any(), any(), anyBoolean()))
+            .thenReturn(List.of(5L, 6L));
+        when(bookingService.holdSeats(any())).thenThrow(new SeatUnavailableException("held by another customer"));
+
+        assertThrows(BookingException.class, () -> bestAvailableHoldService.holdBestAvailable(request(false)));
+
+        verify(bookingService, times(3)).holdSeats(any());
+    }
+
+    @Test
+    void holdBestAvailable_UnexpectedFailure_FreesPickedSeats() {
+        when(seatAllocationIndex.allocate(anyLong(), anyInt(), any(), any(), anyBoolean()))
+            .thenReturn(List.of(5L, 6L));
+        when(bookingService.holdSeats(any())).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> bestAvailableHoldService.holdBestAvailable(request(true)));
+
+        verify(seatAllocationIndex).markFree(1L, List.of(5L, 6L));
+    }
+
+    @Test
+    void holdBestAvailable_OtherBookingFailure_FreesPickedSeatsWithoutRetrying() {
+        when(seatAllocationIndex.allocate(anyLong(), anyInt(), any(), any(), anyBoolean()))
+            .thenReturn(List.of(5L, 6L));
+        when(bookingService.holdSeats(any())).thenThrow(new BookingException("Seat inventory is busy, please retry"));
+
+        BookingException exception = assertThrows(BookingException.class,
+            () -> bestAvailableHoldService.holdBestAvailable(request(true)));
+
+        assertEquals("Seat inventory is busy, please retry", exception.getMessage());
+        verify(bookingService, times(1)).holdSeats(any());
+        verify(seatAllocationIndex).markFree(1L, List.of(5L, 6L));
+    }
+
+    private static BestAvailableHoldRequest request(boolean together) {
+        return BestAvailableHoldRequest.builder()
+            .customerId(1L)
+            .eventId(1L)
+            .quantity(2)
+            .section("VIP")
+            .maxPrice(new BigDecimal("200.00"))
+            .together(together)
+            .build();
+    }
+
+    private static SeatHoldResponse response(String holdToken) {
+        return SeatHoldResponse.builder()
+            .holdToken(holdToken)
+            .customerId(1L)
+            .eventId(1L)
+            .seatCount(2)
+            .status("ACTIVE")
+            .build();
+    }
+}
@@ -5,16 +5,17 @@ import com.ticketing.booking.repository.SeatRepository;
 import com.ticketing.common.dto.SeatHoldRequest;
 import com.ticketing.common.dto.SeatHoldResponse;
 import com.ticketing.common.entity.Event;
+import com.ticketing.common.entity.EventSeat;
 import com.ticketing.common.entity.Seat;
 import com.ticketing.common.entity.SeatHold;
 import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.PackedSeatStatuses;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +24,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,7 +39,8 @@ import static org.mockito.Mockito.*;
     "spring.jpa.hibernate.ddl-auto=none",
     "spring.sql.init.mode=always",
     "spring.jpa.defer-datasource-initialization=true",
-    "booking.hold.cleanup.enabled=false"
+    "booking.hold.cleanup.enabled=false",
+    "booking.redis.legacy-key-migration.enabled=false"
 })
 @ActiveProfiles("test")
 @Transactional
@@ -66,6 +69,9 @@ class BookingServiceIntegrationTest {
     @MockBean
     private StringRedisTemplate redisTemplate;
 
+    @MockBean
+    private SeatLockService seatLockService;
+
     @MockBean
     private SeatStatusCacheService seatStatusCacheService;
 
@@ -74,19 +80,11 @@ class BookingServiceIntegrationTest {
     @Autowired
     private jakarta.persistence.EntityManager entityManager;
 
-    @SuppressWarnings("unchecked")
-    private ValueOperations<String, String> valueOps;
-
-    @SuppressWarnings("unchecked")
     @BeforeEach
     void setUp() {
-        // Configure Redis mock
-        valueOps = mock(ValueOperations.class);
-        when(redisTemplate.opsForValue()).thenReturn(valueOps);
-
-        // Default: Redis SET NX always succeeds (normal path, no degraded mode)
-        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenReturn(true);
+        // Default: all seat locks acquired (normal path, no degraded mode)
+        when(seatLockService.acquireAll(anyLong(), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(List.of());
 
         // Prepare Database Data
         testEvent = Event.builder()
@@ -159,12 +157,71 @@ class BookingServiceIntegrationTest {
         assertEquals("ACTIVE", holdOpt.get().getStatus().name());
     }
 
+    @Test
+    void holdSeats_Integration_WritesSeatLinkRows() {
+        List<Long> seatIds = seatRepository.findAvailableSeatsByEvent(testEvent.getId()).stream()
+            .map(Seat::getId).limit(2).toList();
+
+        SeatHoldResponse response = bookingService.holdSeats(SeatHoldRequest.builder()
+            .customerId(100L)
+            .eventId(testEvent.getId())
+            .seatIds(seatIds)
+            .build());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        SeatHold hold = seatHoldRepository.findByHoldToken(response.getHoldToken()).orElseThrow();
+        assertEquals(
+            seatIds.stream().map(seatId -> new EventSeat(testEvent.getId(), seatId)).collect(Collectors.toSet()),
+            hold.getSeats());
+    }
+
+    @Test
+    void holdSeats_Integration_PackedEvent_UpdatesStatusBlock() {
+        List<Long> seatIds = seatRepository.findAvailableSeatsByEvent(testEvent.getId()).stream()
+            .map(Seat::getId).limit(2).toList();
+        entityManager.createNativeQuery("UPDATE seats SET status_index = CASE WHEN id = ?1 THEN 0 ELSE 1 END " +
+                "WHERE event_id = ?2")
+            .setParameter(1, seatIds.get(0)).setParameter(2, testEvent.getId()).executeUpdate();
+        entityManager.createNativeQuery("INSERT INTO packed_seat_statuses (event_id, block, statuses) VALUES (?1, 0, ?2)")
+            .setParameter(1, testEvent.getId()).setParameter(2, new byte[1]).executeUpdate();
+        entityManager.createNativeQuery("UPDATE events SET packed_seats = TRUE WHERE id = ?1")
+            .setParameter(1, testEvent.getId()).executeUpdate();
+        entityManager.clear();
+
+        SeatHoldResponse response = bookingService.holdSeats(SeatHoldRequest.builder()
+            .customerId(100L)
+            .eventId(testEvent.getId())
+            .seatIds(seatIds)
+            .build());
+        assertEquals(2, response.getSeatCount());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // Statuses live in the block; the layout rows are not rewritten
+        byte[] statuses = (byte[]) entityManager.createNativeQuery(
+                "SELECT statuses FROM packed_seat_statuses WHERE event_id = ?1 AND block = 0")
+            .setParameter(1, testEvent.getId()).getSingleResult();
+        assertEquals(Seat.SeatStatus.HELD, PackedSeatStatuses.get(statuses, 0));
+        assertEquals(Seat.SeatStatus.HELD, PackedSeatStatuses.get(statuses, 1));
+        assertTrue(seatRepository.findAllById(seatIds).stream().allMatch(s -> s.getStatus() == Seat.SeatStatus.AVAILABLE));
+        assertTrue(seatRepository.findSeatStatesByEventId(testEvent.getId()).stream()
+            .allMatch(row -> row[1] == Seat.SeatStatus.HELD));
+
+        assertEquals(2, seatRepository.bookSeats(seatIds));
+        assertEquals(0, seatRepository.releaseSeats(seatIds));
+        assertEquals(Seat.SeatStatus.BOOKED,
+            seatRepository.packedStatuses(seatRepository.findAllById(seatIds)).get(seatIds.get(1)));
+    }
+
     @Test
     void holdSeats_Integration_ConcurrentHoldRejectedByRedis() {
         List<Seat> availableSeats = seatRepository.findAvailableSeatsByEvent(testEvent.getId());
         List<Long> seatIds = availableSeats.stream().map(Seat::getId).limit(2).toList();
 
-        // First hold succeeds (Redis returns true for both seats)
+        // First hold succeeds (Redis acquires both seats)
         SeatHoldRequest request1 = SeatHoldRequest.builder()
             .customerId(100L)
             .eventId(testEvent.getId())
@@ -174,9 +231,9 @@ class BookingServiceIntegrationTest {
         SeatHoldResponse firstResponse = bookingService.holdSeats(request1);
         assertNotNull(firstResponse.getHoldToken());
 
-        // Reconfigure mock: Redis SET NX now returns false (seats are locked)
-        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenReturn(false);
+        // Reconfigure mock: Redis now reports the seats as locked
+        when(seatLockService.acquireAll(anyLong(), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(seatIds);
 
         // Second hold for same seats — Redis rejects
         SeatHoldRequest request2 = SeatHoldRequest.builder()
@@ -1,8 +1,14 @@
 package com.ticketing.booking.service;
 
+import com.ticketing.booking.allocation.SeatAllocationIndex;
+import com.ticketing.booking.archive.BookingArchive;
+import com.ticketing.booking.inventory.SeatInventory;
+import com.ticketing.booking.load.HoldLoadMonitor;
 import com.ticketing.booking.repository.BookingRepository;
 import com.ticketing.booking.repository.SeatHoldRepository;
 import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.booking.write.DirectSeatWriteStage;
+import com.ticketing.booking.write.SeatWriteStage;
 import com.ticketing.common.dto.*;
 import com.ticketing.common.entity.Booking;
 import com.ticketing.common.entity.Event;
@@ -15,9 +21,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.RedisConnectionFailureException;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
@@ -25,6 +33,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,13 +55,22 @@ class BookingServiceTest {
     private EventMessagingService messagingService;
 
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private SeatLockService seatLockService;
 
     @Mock
     private com.ticketing.common.service.SeatStatusCacheService seatStatusCacheService;
 
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private SeatInventory seatInventory;
+
+    @Mock
+    private SeatAllocationIndex seatAllocationIndex;
+
+    @Mock
+    private BookingArchive bookingArchive;
+
+    @Mock
+    private HoldLoadMonitor holdLoadMonitor;
 
     private BookingService bookingService;
 
@@ -68,8 +86,14 @@ class BookingServiceTest {
             seatHoldRepository,
             bookingRepository,
             messagingService,
-            redisTemplate,
-            seatStatusCacheService
+            seatLockService,
+            seatStatusCacheService,
+            seatInventory,
+            new DirectSeatWriteStage(seatRepository, seatHoldRepository, bookingRepository),
+            TransactionOperations.withoutTransaction(),
+            seatAllocationIndex,
+            bookingArchive,
+            holdLoadMonitor
         );
 
         try {
@@ -129,9 +153,8 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenReturn(true);
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(List.of());
 
         when(seatRepository.holdSeatsGuarded(request.getSeatIds()))
             .thenReturn(2);
@@ -165,6 +188,32 @@ class BookingServiceTest {
 
         verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L, 2L)), eq("HELD"));
         verify(messagingService).publishSeatHoldCreated(any(), any());
+        verify(seatInventory).tryHold(eq(1L), eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(seatInventory, never()).release(any(), any());
+        verify(seatAllocationIndex).markTaken(1L, List.of(1L, 2L));
+        assertEquals(List.of(1L, 2L), response.getSeatIds());
+    }
+
+    @Test
+    void holdSeats_SeatHeldInInventory_RejectedBeforeRedis() {
+        SeatHoldRequest request = SeatHoldRequest.builder()
+            .customerId(1L)
+            .eventId(1L)
+            .seatIds(List.of(1L, 2L))
+            .build();
+
+        when(seatInventory.tryHold(eq(1L), eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+            .thenReturn(List.of(1L));
+
+        BookingException exception = assertThrows(
+            BookingException.class,
+            () -> bookingService.holdSeats(request)
+        );
+
+        assertTrue(exception.getMessage().contains("[1]"));
+        verifyNoInteractions(seatLockService);
+        verify(seatRepository, never()).holdSeatsGuarded(any());
+        verify(seatInventory, never()).release(any(), any());
     }
 
     @Test
@@ -175,11 +224,8 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(eq("seat:1:1:HELD"), anyString(), any(Duration.class)))
-            .thenReturn(true);
-        when(valueOperations.setIfAbsent(eq("seat:1:2:HELD"), anyString(), any(Duration.class)))
-            .thenReturn(false);
+        when(seatLockService.acquireAll(eq(1L), eq(List.of(1L, 2L)), anyString(), any(Duration.class)))
+            .thenReturn(List.of(2L));
 
         BookingException exception = assertThrows(
             BookingException.class,
@@ -187,6 +233,10 @@ class BookingServiceTest {
         );
 
         assertTrue(exception.getMessage().contains("held by another customer"));
+        assertTrue(exception.getMessage().contains("[2]"));
+        verify(seatLockService, never()).releaseAll(any(), any(), any());
+        verify(seatInventory).release(1L, List.of(1L, 2L));
+        verify(seatAllocationIndex).markTaken(1L, List.of(2L));
         verify(seatRepository, never()).holdSeatsGuarded(any());
         verify(seatHoldRepository, never()).save(any());
     }
@@ -199,9 +249,8 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenReturn(true);
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(List.of());
 
         when(seatRepository.holdSeatsGuarded(request.getSeatIds()))
             .thenReturn(1);
@@ -213,6 +262,7 @@ class BookingServiceTest {
 
         assertTrue(exception.getMessage().contains("no longer available"));
         verify(seatHoldRepository, never()).save(any());
+        verify(seatLockService).releaseAll(eq(1L), eq(List.of(1L, 2L)), anyString());
     }
 
     @Test
@@ -223,8 +273,7 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
             .thenThrow(new RedisConnectionFailureException("Connection refused"));
 
         when(seatRepository.findByIdInForUpdate(request.getSeatIds()))
@@ -250,6 +299,7 @@ class BookingServiceTest {
         verify(seatRepository).findByIdInForUpdate(request.getSeatIds());
         verify(seatRepository).holdSeats(request.getSeatIds());
         verify(seatRepository, never()).holdSeatsGuarded(any());
+        verify(holdLoadMonitor).redisUnavailable();
 
         TransactionSynchronizationManager.getSynchronizations()
             .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
@@ -266,8 +316,7 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
             .thenThrow(new RedisConnectionFailureException("Connection refused"));
 
         when(seatRepository.findByIdInForUpdate(request.getSeatIds()))
@@ -286,9 +335,8 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         // Wrapped RedisConnectionFailureException
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
             .thenThrow(new RuntimeException("Wrapped", new RedisConnectionFailureException("refused")));
 
         when(seatRepository.findByIdInForUpdate(request.getSeatIds())).thenReturn(testSeats);
@@ -313,11 +361,11 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
             .thenThrow(new IllegalStateException("Some other error"));
 
         assertThrows(IllegalStateException.class, () -> bookingService.holdSeats(request));
+        verify(seatLockService, never()).releaseAll(any(), any(), any());
     }
 
     @Test
@@ -350,9 +398,8 @@ class BookingServiceTest {
             .seatIds(List.of(1L, 2L))
             .build();
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
-            .thenReturn(true);
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(List.of());
         when(seatRepository.holdSeatsGuarded(request.getSeatIds())).thenReturn(2);
         when(seatRepository.findByIdIn(request.getSeatIds())).thenReturn(testSeats);
         when(seatHoldRepository.save(any(SeatHold.class))).thenAnswer(inv -> {
@@ -369,6 +416,92 @@ class BookingServiceTest {
             .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
 
         verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L, 2L)), eq("AVAILABLE"));
+        // The inventory hold is given back by holdSeats itself, which sees the failure
+        verify(seatInventory, never()).release(any(), any());
+    }
+
+    @Test
+    void holdSeats_CommitFails_ReleasesInventoryOnce() {
+        // Runs the write, then fails the commit the way a real transaction would
+        TransactionOperations failingCommit = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                action.doInTransaction(null);
+                TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+                throw new TransactionSystemException("commit failed");
+            }
+        };
+        BookingService failingBookingService = new BookingService(
+            seatRepository, seatHoldRepository, bookingRepository, messagingService,
+            seatLockService, seatStatusCacheService, seatInventory,
+            new DirectSeatWriteStage(seatRepository, seatHoldRepository, bookingRepository), failingCommit,
+            seatAllocationIndex, bookingArchive, holdLoadMonitor);
+        ReflectionTestUtils.setField(failingBookingService, "defaultHoldDurationMinutes", 10);
+        ReflectionTestUtils.setField(failingBookingService, "maxSeatsPerBooking", 10);
+        SeatHoldRequest request = SeatHoldRequest.builder()
+            .customerId(1L)
+            .eventId(1L)
+            .seatIds(List.of(1L, 2L))
+            .build();
+
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(List.of());
+        when(seatRepository.holdSeatsGuarded(request.getSeatIds())).thenReturn(2);
+        when(seatRepository.findByIdIn(request.getSeatIds())).thenReturn(testSeats);
+        when(seatHoldRepository.save(any(SeatHold.class))).thenAnswer(inv -> {
+            SeatHold h = inv.getArgument(0);
+            h.setId(1L);
+            h.setCreatedAt(LocalDateTime.now());
+            return h;
+        });
+
+        assertThrows(TransactionSystemException.class, () -> failingBookingService.holdSeats(request));
+
+        verify(seatInventory, times(1)).release(1L, List.of(1L, 2L));
+        verify(seatLockService).releaseAll(eq(1L), eq(List.of(1L, 2L)), anyString());
+    }
+
+    @Test
+    void holdSeats_GroupCommit_RunsSideEffectsOnceBatchCommitted() {
+        SeatWriteStage groupCommit = mock(SeatWriteStage.class);
+        TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        BookingService groupCommitBookingService = new BookingService(
+            seatRepository, seatHoldRepository, bookingRepository, messagingService,
+            seatLockService, seatStatusCacheService, seatInventory, groupCommit, transactionOperations,
+            seatAllocationIndex, bookingArchive, holdLoadMonitor);
+        ReflectionTestUtils.setField(groupCommitBookingService, "defaultHoldDurationMinutes", 10);
+        ReflectionTestUtils.setField(groupCommitBookingService, "maxSeatsPerBooking", 10);
+        // No caller transaction: the batch has already committed when writeHold returns
+        TransactionSynchronizationManager.clearSynchronization();
+
+        SeatHoldRequest request = SeatHoldRequest.builder()
+            .customerId(1L)
+            .eventId(1L)
+            .seatIds(List.of(1L, 2L))
+            .build();
+
+        when(seatLockService.acquireAll(eq(1L), anyList(), anyString(), any(Duration.class)))
+            .thenReturn(List.of());
+        when(groupCommit.commitsIndependently()).thenReturn(true);
+        when(groupCommit.writeHold(any(SeatHold.class), any())).thenAnswer(inv -> {
+            SeatHold hold = inv.getArgument(0);
+            hold.setId(1L);
+            hold.setEvent(testEvent);
+            hold.setCreatedAt(LocalDateTime.now());
+            SeatWriteStage.HeldSeats held = new SeatWriteStage.HeldSeats(hold, testSeats);
+            // The batch's transaction, before it commits
+            verifyNoInteractions(messagingService);
+            inv.<Consumer<SeatWriteStage.HeldSeats>>getArgument(1).accept(held);
+            return held;
+        });
+
+        SeatHoldResponse response = groupCommitBookingService.holdSeats(request);
+
+        assertEquals(new BigDecimal("200.00"), response.getTotalAmount());
+        verifyNoInteractions(transactionOperations);
+        verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L, 2L)), eq("HELD"));
+        verify(messagingService).publishSeatHoldCreated(any(), any());
     }
 
     // ─── confirmBooking tests ───────────────────────────────────────────
@@ -415,6 +548,8 @@ class BookingServiceTest {
             .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
 
         verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L, 2L)), eq("BOOKED"));
+        verify(seatLockService).releaseAll(1L, List.of(1L, 2L), "1:HOLD_ABC");
+        verify(seatInventory).confirm(1L, List.of(1L, 2L));
         verify(messagingService).publishBookingConfirmed(any());
         verify(messagingService).publishSeatHoldConfirmed(any());
     }
@@ -616,6 +751,9 @@ class BookingServiceTest {
             .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
 
         verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L, 2L)), eq("AVAILABLE"));
+        verify(seatLockService).releaseAll(1L, List.of(1L, 2L), "1:HOLD_CANCEL");
+        verify(seatInventory).release(1L, List.of(1L, 2L));
+        verify(seatAllocationIndex).markFree(1L, List.of(1L, 2L));
         verify(messagingService).publishSeatHoldCancelled(any());
     }
 
@@ -713,6 +851,7 @@ class BookingServiceTest {
         assertTrue(result.isPresent());
         assertEquals("BK-ABC123", result.get().getBookingReference());
         assertEquals("CONFIRMED", result.get().getStatus());
+        verifyNoInteractions(bookingArchive);
     }
 
     @Test
@@ -723,6 +862,22 @@ class BookingServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void getBookingByReference_ArchivedEvent_ReadFromArchive() {
+        BookingDto archived = BookingDto.builder()
+            .bookingReference("BK-OLD")
+            .eventId(1L)
+            .status("CONFIRMED")
+            .build();
+        when(bookingRepository.findByBookingReference("BK-OLD")).thenReturn(Optional.empty());
+        when(bookingArchive.findBookingByReference("BK-OLD")).thenReturn(Optional.of(archived));
+
+        Optional<BookingDto> result = bookingService.getBookingByReference("BK-OLD");
+
+        assertTrue(result.isPresent());
+        assertSame(archived, result.get());
+    }
+
     // ─── getSeatHold tests ──────────────────────────────────────────────
 
     @Test
@@ -756,13 +911,14 @@ class BookingServiceTest {
 
         Optional<SeatHoldDto> result = bookingService.getSeatHold("MISSING");
         assertTrue(result.isEmpty());
+        verify(bookingArchive).findHoldByToken("MISSING");
     }
 
     // ─── seatHoldKey tests ──────────────────────────────────────────────
 
     @Test
     void seatHoldKey_Format() {
-        assertEquals("seat:1:2:HELD", BookingService.seatHoldKey(1L, 2L));
-        assertEquals("seat:100:999:HELD", BookingService.seatHoldKey(100L, 999L));
+        assertEquals("seat:{evt:1}:2:HELD", BookingService.seatHoldKey(1L, 2L));
+        assertEquals("seat:{evt:100}:999:HELD", BookingService.seatHoldKey(100L, 999L));
     }
 }
@@ -11,6 +11,8 @@ import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,25 +24,63 @@ class DefaultSeatHoldExpiryServiceTest {
 
     @Mock private RedisMessageListenerContainer listenerContainer;
     @Mock private KafkaTemplate<String, String> kafkaTemplate;
+    @Mock private SeatLockService seatLockService;
 
     private ObjectMapper objectMapper = new ObjectMapper();
     private DefaultSeatHoldExpiryService expiryService;
 
     @BeforeEach
     void setUp() {
-        expiryService = new DefaultSeatHoldExpiryService(listenerContainer, kafkaTemplate, objectMapper);
+        expiryService = new DefaultSeatHoldExpiryService(
+            listenerContainer, kafkaTemplate, objectMapper, seatLockService);
     }
 
     @Test
-    void onMessage_ValidSeatKey_PublishesKafkaEvent() {
-        Message message = mockMessage("seat:1:42:HELD");
-
+    void onMessage_HoldExpiry_PublishesOneEventForAllSeats() throws Exception {
+        Message message = mockMessage("hold:{evt:1}:5:HOLD_X:EXPIRES");
+        List<Long> seatIds = List.of(40L, 41L, 42L);
+        when(seatLockService.claimExpiredHold(1L, "5:HOLD_X"))
+            .thenReturn(new SeatLockService.ExpiredHold(seatIds, true));
         when(kafkaTemplate.send(any(), anyString(), anyString()))
             .thenReturn(CompletableFuture.completedFuture(null));
 
         expiryService.onMessage(message, null);
 
-        verify(kafkaTemplate).send(any(), eq("1:42"), anyString());
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate, times(1)).send(any(), eq("1:HOLD_X"), json.capture());
+        Map<?, ?> event = objectMapper.readValue(json.getValue(), Map.class);
+        assertEquals("SEAT_HOLD_EXPIRED", event.get("eventType"));
+        assertEquals("HOLD_X", event.get("holdToken"));
+        assertEquals(5, event.get("customerId"));
+        assertEquals(List.of(40, 41, 42), event.get("seatIds"));
+    }
+
+    @Test
+    void onMessage_HoldExpiryClaimedElsewhere_NotPublishedAgain() {
+        Message message = mockMessage("hold:{evt:1}:5:HOLD_X:EXPIRES");
+        when(seatLockService.claimExpiredHold(1L, "5:HOLD_X"))
+            .thenReturn(new SeatLockService.ExpiredHold(List.of(42L), false));
+
+        expiryService.onMessage(message, null);
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void onMessage_HoldReleasedBeforeExpiry_Ignored() {
+        Message message = mockMessage("hold:{evt:1}:5:HOLD_X:EXPIRES");
+
+        expiryService.onMessage(message, null);
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void onMessage_SeatKey_IgnoredAsContentionOnly() {
+        expiryService.onMessage(mockMessage("seat:{evt:1}:42:HELD"), null);
+        expiryService.onMessage(mockMessage("seat:1:42:HELD"), null);
+
+        verifyNoInteractions(kafkaTemplate, seatLockService);
     }
 
     @Test
@@ -54,7 +94,7 @@ class DefaultSeatHoldExpiryServiceTest {
 
     @Test
     void onMessage_InvalidFormat_Ignored() {
-        Message message = mockMessage("seat:not:valid:format:extra:HELD");
+        Message message = mockMessage("hold:not:valid:format:extra:EXPIRES");
 
         expiryService.onMessage(message, null);
 
@@ -63,7 +103,7 @@ class DefaultSeatHoldExpiryServiceTest {
 
     @Test
     void onMessage_NonNumericId_LogsWarning() {
-        Message message = mockMessage("seat:abc:def:HELD");
+        Message message = mockMessage("hold:{evt:abc}:def:HOLD_X:EXPIRES");
 
         expiryService.onMessage(message, null);
 
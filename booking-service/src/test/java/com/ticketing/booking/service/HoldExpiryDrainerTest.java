@@ -0,0 +1,131 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpiryDrainerTest {
+
+    @Mock private HoldExpiryScheduler holdExpiryScheduler;
+    @Mock private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private HoldExpiryDrainer drainer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        drainer = new HoldExpiryDrainer(holdExpiryScheduler, kafkaTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(drainer, "seatStateTransitionsTopic", "seat-state-transitions");
+        ReflectionTestUtils.setField(drainer, "batchSize", 2);
+        ReflectionTestUtils.setField(drainer, "leaseMs", 30000L);
+        ReflectionTestUtils.setField(drainer, "sendTimeoutMs", 1000L);
+        drainer.registerMetrics();
+    }
+
+    private static HoldExpiryScheduler.DueHold due(long eventId, String holdToken, List<Long> seatIds, long lateMillis) {
+        return new HoldExpiryScheduler.DueHold(eventId, 5L, holdToken, seatIds, System.currentTimeMillis() - lateMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, String>> acked() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    @Test
+    void drainBatch_PublishesOneRecordPerHoldThenCompletes() throws Exception {
+        HoldExpiryScheduler.DueHold hold = due(1L, "HOLD_X", List.of(40L, 41L), 50);
+        when(holdExpiryScheduler.claimDue(eq(3), anyLong(), eq(2), eq(Duration.ofSeconds(30)))).thenReturn(List.of(hold));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(inv -> acked());
+
+        assertEquals(1, drainer.drainBatch(3));
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        InOrder inOrder = inOrder(kafkaTemplate, holdExpiryScheduler);
+        inOrder.verify(kafkaTemplate).send(eq("seat-state-transitions"), eq("1:HOLD_X"), json.capture());
+        inOrder.verify(holdExpiryScheduler).complete(3, List.of(hold));
+
+        Map<?, ?> event = objectMapper.readValue(json.getValue(), Map.class);
+        assertEquals("SEAT_HOLD_EXPIRED", event.get("eventType"));
+        assertEquals("HOLD_X", event.get("holdToken"));
+        assertEquals(5, event.get("customerId"));
+        assertEquals(List.of(40, 41), event.get("seatIds"));
+        assertEquals(1.0, meterRegistry.get(HoldExpiryDrainer.EXPIRED_METRIC).counter().count());
+    }
+
+    @Test
+    void drainBatch_SendFails_LeavesHoldsClaimed() {
+        when(holdExpiryScheduler.claimDue(anyInt(), anyLong(), anyInt(), any()))
+            .thenReturn(List.of(due(1L, "HOLD_X", List.of(40L), 0)));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> drainer.drainBatch(0));
+
+        verify(holdExpiryScheduler, never()).complete(anyInt(), any());
+    }
+
+    @Test
+    void drain_WalksEveryPartitionAndRepeatsFullBatches() {
+        when(holdExpiryScheduler.partitions()).thenReturn(3);
+        when(holdExpiryScheduler.claimDue(anyInt(), anyLong(), anyInt(), any())).thenReturn(List.of());
+        when(holdExpiryScheduler.claimDue(eq(1), anyLong(), anyInt(), any()))
+            .thenReturn(List.of(due(1L, "HOLD_A", List.of(1L), 0), due(1L, "HOLD_B", List.of(2L), 0)))
+            .thenReturn(List.of(due(1L, "HOLD_C", List.of(3L), 0)));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(inv -> acked());
+
+        drainer.drain();
+
+        verify(holdExpiryScheduler).claimDue(eq(0), anyLong(), anyInt(), any());
+        verify(holdExpiryScheduler, times(2)).claimDue(eq(1), anyLong(), anyInt(), any());
+        verify(holdExpiryScheduler).claimDue(eq(2), anyLong(), anyInt(), any());
+        verify(kafkaTemplate, times(3)).send(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void drain_OnePartitionFailing_OthersStillDrained() {
+        when(holdExpiryScheduler.partitions()).thenReturn(2);
+        when(holdExpiryScheduler.claimDue(anyInt(), anyLong(), anyInt(), any()))
+            .thenThrow(new RuntimeException("node down"))
+            .thenReturn(List.of());
+
+        drainer.drain();
+
+        verify(holdExpiryScheduler, times(2)).claimDue(anyInt(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void delayMetric_RecordsTimeSinceDue() {
+        when(holdExpiryScheduler.claimDue(anyInt(), anyLong(), anyInt(), any()))
+            .thenReturn(List.of(due(1L, "HOLD_X", List.of(40L), 2_000)));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(inv -> acked());
+
+        drainer.drainBatch(0);
+
+        Timer delay = meterRegistry.get(HoldExpiryDrainer.DELAY_METRIC).timer();
+        assertEquals(1, delay.count());
+        assertTrue(delay.max(TimeUnit.MILLISECONDS) >= 2_000);
+    }
+}
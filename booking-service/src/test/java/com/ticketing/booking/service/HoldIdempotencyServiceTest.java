@@ -0,0 +1,260 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ticketing.common.dto.SeatHoldRequest;
+import com.ticketing.common.dto.SeatHoldResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldIdempotencyServiceTest {
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SimpleMeterRegistry meterRegistry;
+    private HoldIdempotencyService idempotencyService;
+
+    private static final String KEY = "idem:hold:1:idem-123";
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new HoldIdempotencyService(bookingService, redisTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 10);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(idempotencyService, "pendingTtlMs", 30000L);
+        ReflectionTestUtils.setField(idempotencyService, "nearCacheMaxEntries", 100);
+        idempotencyService.init();
+    }
+
+    @Test
+    void holdSeats_NoIdempotencyKey_DelegatesWithoutRedis() {
+        SeatHoldRequest request = request(null, List.of(1L, 2L));
+        when(bookingService.holdSeats(request)).thenReturn(response("HOLD_A"));
+
+        SeatHoldResponse result = idempotencyService.holdSeats(request);
+
+        assertEquals("HOLD_A", result.getHoldToken());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void holdSeats_FirstRequest_RunsHoldAndRecordsResponse() {
+        SeatHoldRequest request = request("idem-123", List.of(1L, 2L));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(true);
+        when(bookingService.holdSeats(request)).thenReturn(response("HOLD_A"));
+
+        SeatHoldResponse result = idempotencyService.holdSeats(request);
+
+        assertEquals("HOLD_A", result.getHoldToken());
+        // The marker outlives a slow hold rather than the caller's wait
+        verify(valueOperations).setIfAbsent(KEY, "PENDING", Duration.ofMillis(30000));
+        verify(valueOperations).set(eq(KEY), contains("HOLD_A"), eq(Duration.ofMinutes(10)));
+        assertEquals(1.0, count("miss"));
+    }
+
+    @Test
+    void holdSeats_Retry_ReplaysFromNearCacheWithoutHolding() {
+        SeatHoldRequest request = request("idem-123", List.of(1L, 2L));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(true);
+        when(bookingService.holdSeats(request)).thenReturn(response("HOLD_A"));
+
+        idempotencyService.holdSeats(request);
+        SeatHoldResponse retry = idempotencyService.holdSeats(request("idem-123", List.of(2L, 1L)));
+
+        assertEquals("HOLD_A", retry.getHoldToken());
+        verify(bookingService, times(1)).holdSeats(any());
+        verify(valueOperations, times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        assertEquals(1.0, count("hit"));
+    }
+
+    @Test
+    void holdSeats_RecordedByOtherInstance_ReplaysFromRedis() throws Exception {
+        HoldIdempotencyService.StoredHold stored = new HoldIdempotencyService.StoredHold("1:[1, 2]", response("HOLD_B"));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn(objectMapper.writeValueAsString(stored));
+
+        SeatHoldResponse result = idempotencyService.holdSeats(request("idem-123", List.of(1L, 2L)));
+
+        assertEquals("HOLD_B", result.getHoldToken());
+        assertTrue(result.getTimeRemainingSeconds() > 0);
+        verifyNoInteractions(bookingService);
+        assertEquals(1.0, count("hit"));
+    }
+
+    @Test
+    void holdSeats_SameKeyDifferentSeats_Rejected() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(true);
+        when(bookingService.holdSeats(any())).thenReturn(response("HOLD_A"));
+
+        idempotencyService.holdSeats(request("idem-123", List.of(1L, 2L)));
+
+        BookingException exception = assertThrows(BookingException.class,
+            () -> idempotencyService.holdSeats(request("idem-123", List.of(3L))));
+        assertTrue(exception.getMessage().contains("different hold request"));
+        verify(bookingService, times(1)).holdSeats(any());
+    }
+
+    @Test
+    void holdSeats_ConcurrentDuplicate_WaitsForInFlightResult() throws Exception {
+        CountDownLatch holdStarted = new CountDownLatch(1);
+        CountDownLatch releaseHold = new CountDownLatch(1);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(true);
+        when(bookingService.holdSeats(any())).thenAnswer(invocation -> {
+            holdStarted.countDown();
+            releaseHold.await(2, TimeUnit.SECONDS);
+            return response("HOLD_A");
+        });
+
+        CompletableFuture<SeatHoldResponse> first = CompletableFuture.supplyAsync(
+            () -> idempotencyService.holdSeats(request("idem-123", List.of(1L, 2L))));
+        assertTrue(holdStarted.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<SeatHoldResponse> duplicate = CompletableFuture.supplyAsync(
+            () -> idempotencyService.holdSeats(request("idem-123", List.of(1L, 2L))));
+        while (count("wait") == 0) {
+            Thread.sleep(5);
+        }
+        releaseHold.countDown();
+
+        assertEquals("HOLD_A", first.get(2, TimeUnit.SECONDS).getHoldToken());
+        assertEquals("HOLD_A", duplicate.get(2, TimeUnit.SECONDS).getHoldToken());
+        verify(bookingService, times(1)).holdSeats(any());
+        assertEquals(1.0, count("wait"));
+    }
+
+    @Test
+    void holdSeats_ConcurrentDuplicateWithDifferentSeats_RejectedWhileWaiting() throws Exception {
+        // Nothing kept in the near-cache: the waiter has only the in-flight result to check
+        ReflectionTestUtils.setField(idempotencyService, "nearCacheMaxEntries", 0);
+        idempotencyService.init();
+        CountDownLatch holdStarted = new CountDownLatch(1);
+        CountDownLatch releaseHold = new CountDownLatch(1);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(true);
+        when(bookingService.holdSeats(any())).thenAnswer(invocation -> {
+            holdStarted.countDown();
+            releaseHold.await(2, TimeUnit.SECONDS);
+            return response("HOLD_A");
+        });
+
+        CompletableFuture<SeatHoldResponse> first = CompletableFuture.supplyAsync(
+            () -> idempotencyService.holdSeats(request("idem-123", List.of(1L, 2L))));
+        assertTrue(holdStarted.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<SeatHoldResponse> reused = CompletableFuture.supplyAsync(
+            () -> idempotencyService.holdSeats(request("idem-123", List.of(3L))));
+        while (count("wait") == 0) {
+            Thread.sleep(5);
+        }
+        releaseHold.countDown();
+
+        assertEquals("HOLD_A", first.get(2, TimeUnit.SECONDS).getHoldToken());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> reused.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(BookingException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().contains("different hold request"));
+        verify(bookingService, times(1)).holdSeats(any());
+    }
+
+    @Test
+    void holdSeats_PendingOnOtherInstance_TimesOutAsConflict() {
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 100L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn("PENDING");
+
+        BookingException exception = assertThrows(BookingException.class,
+            () -> idempotencyService.holdSeats(request("idem-123", List.of(1L, 2L))));
+
+        assertTrue(exception.getMessage().contains("conflict"));
+        verifyNoInteractions(bookingService);
+        assertEquals(1.0, count("wait"));
+    }
+
+    @Test
+    void holdSeats_HoldFails_MarkerReleasedAndNothingRecorded() {
+        SeatHoldRequest request = request("idem-123", List.of(1L, 2L));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), eq("PENDING"), any(Duration.class))).thenReturn(true);
+        when(valueOperations.get(KEY)).thenReturn("PENDING");
+        when(bookingService.holdSeats(request)).thenThrow(new BookingException("Seats unavailable"));
+
+        assertThrows(BookingException.class, () -> idempotencyService.holdSeats(request));
+
+        verify(redisTemplate).delete(KEY);
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void holdSeats_RedisDown_HoldsWithoutRedis() {
+        SeatHoldRequest request = request("idem-123", List.of(1L, 2L));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        when(bookingService.holdSeats(request)).thenReturn(response("HOLD_A"));
+
+        assertEquals("HOLD_A", idempotencyService.holdSeats(request).getHoldToken());
+        // Retry on the same instance is still served from the near-cache
+        assertEquals("HOLD_A", idempotencyService.holdSeats(request).getHoldToken());
+        verify(bookingService, times(1)).holdSeats(any());
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter(HoldIdempotencyService.METRIC_NAME, "outcome", outcome).count();
+    }
+
+    private static SeatHoldRequest request(String idempotencyKey, List<Long> seatIds) {
+        return SeatHoldRequest.builder()
+            .customerId(1L)
+            .eventId(1L)
+            .seatIds(seatIds)
+            .idempotencyKey(idempotencyKey)
+            .build();
+    }
+
+    private static SeatHoldResponse response(String holdToken) {
+        return SeatHoldResponse.builder()
+            .holdToken(holdToken)
+            .customerId(1L)
+            .eventId(1L)
+            .seatCount(2)
+            .expiresAt(LocalDateTime.now().plusMinutes(10))
+            .timeRemainingSeconds(600)
+            .status("ACTIVE")
+            .build();
+    }
+}
@@ -14,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -292,4 +294,36 @@ class KafkaEventMessagingServiceTest {
 
         assertDoesNotThrow(() -> brokenService.publishBookingConfirmed(sampleBookingDto()));
     }
+
+    // ─── transaction handling ────────────────────────────────────────────
+
+    @Test
+    void publishInsideTransaction_SendsOnlyAfterCommit() {
+        when(kafkaTemplate.send(eq("seat-hold-cancelled"), eq("HOLD_ABC"), anyString()))
+            .thenReturn(successFuture());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            messagingService.publishSeatHoldCancelled(sampleHoldDto());
+            verifyNoInteractions(kafkaTemplate);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(kafkaTemplate).send(eq("seat-hold-cancelled"), eq("HOLD_ABC"), anyString());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publishInsideTransaction_RolledBack_SendsNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            messagingService.publishSeatHoldCancelled(sampleHoldDto());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            verifyNoInteractions(kafkaTemplate);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 }
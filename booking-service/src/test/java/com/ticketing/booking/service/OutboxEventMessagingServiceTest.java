@@ -0,0 +1,143 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ticketing.booking.entity.OutboxEvent;
+import com.ticketing.common.dto.BookingDto;
+import com.ticketing.common.dto.SeatHoldDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventMessagingServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private OutboxEventMessagingService messagingService;
+
+    @BeforeEach
+    void setUp() {
+        messagingService = new OutboxEventMessagingService(jdbcTemplate,
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(messagingService, "seatHoldCreatedTopic", "seat-hold-created");
+        ReflectionTestUtils.setField(messagingService, "seatHoldConfirmedTopic", "seat-hold-confirmed");
+        ReflectionTestUtils.setField(messagingService, "seatHoldCancelledTopic", "seat-hold-cancelled");
+        ReflectionTestUtils.setField(messagingService, "seatHoldExpiredTopic", "seat-hold-expired");
+        ReflectionTestUtils.setField(messagingService, "bookingConfirmedTopic", "booking-confirmed");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(messagingService);
+    }
+
+    private SeatHoldDto sampleHoldDto() {
+        return SeatHoldDto.builder()
+            .id(1L)
+            .holdToken("HOLD_ABC")
+            .customerId(100L)
+            .eventId(7L)
+            .seatIds(List.of(10L, 11L))
+            .status("CONFIRMED")
+            .expiresAt(LocalDateTime.now().plusMinutes(10))
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    private BookingDto sampleBookingDto() {
+        return BookingDto.builder()
+            .id(1L)
+            .bookingReference("BK-001")
+            .customerId(100L)
+            .eventId(7L)
+            .seatIds(List.of(10L, 11L))
+            .totalAmount(new BigDecimal("100.00"))
+            .status("CONFIRMED")
+            .holdToken("HOLD_ABC")
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> capturedRows(int times) {
+        ArgumentCaptor<List<OutboxEvent>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(times)).batchUpdate(eq(OutboxEventMessagingService.INSERT_SQL), rows.capture(),
+            anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        return rows.getValue();
+    }
+
+    @Test
+    void eventsOfOneTransaction_AreInsertedInOneBatchBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        messagingService.publishBookingConfirmed(sampleBookingDto());
+        messagingService.publishSeatHoldConfirmed(sampleHoldDto());
+        verifyNoInteractions(jdbcTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        List<OutboxEvent> rows = capturedRows(1);
+        assertEquals(2, rows.size());
+        assertEquals("booking-confirmed", rows.get(0).getTopic());
+        assertEquals("seat-hold-confirmed", rows.get(1).getTopic());
+        // Keyed by event so every event of one event lands on one partition, in order
+        assertTrue(rows.stream().allMatch(row -> row.getMessageKey().equals("7")));
+        assertTrue(rows.get(0).getPayload().contains("BOOKING_CONFIRMED"));
+        assertTrue(rows.get(1).getPayload().contains("SEAT_HOLD_CONFIRMED"));
+    }
+
+    @Test
+    void rolledBackTransaction_InsertsNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        messagingService.publishSeatHoldCancelled(sampleHoldDto());
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(jdbcTemplate);
+        assertNull(TransactionSynchronizationManager.getResource(messagingService));
+    }
+
+    @Test
+    void withoutTransaction_InsertsImmediately() {
+        messagingService.publishSeatHoldExpired("HOLD_EXP", 100L, 7L, List.of(1L, 2L));
+
+        List<OutboxEvent> rows = capturedRows(1);
+        assertEquals(1, rows.size());
+        assertEquals("seat-hold-expired", rows.get(0).getTopic());
+        assertEquals("7", rows.get(0).getMessageKey());
+        assertTrue(rows.get(0).getPayload().contains("HOLD_EXP"));
+    }
+
+    @Test
+    void serializationError_FailsTheWrite() throws Exception {
+        ObjectMapper brokenMapper = mock(ObjectMapper.class);
+        when(brokenMapper.writeValueAsString(any()))
+            .thenThrow(new com.fasterxml.jackson.core.JsonProcessingException("Broken") {});
+        OutboxEventMessagingService brokenService = new OutboxEventMessagingService(jdbcTemplate, brokenMapper);
+
+        assertThrows(IllegalStateException.class, () -> brokenService.publishSeatHoldCancelled(sampleHoldDto()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
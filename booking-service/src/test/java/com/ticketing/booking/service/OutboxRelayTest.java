@@ -0,0 +1,146 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.booking.coordination.ShardLease;
+import com.ticketing.booking.entity.OutboxEvent;
+import com.ticketing.booking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private ShardCoordinator shardCoordinator;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate,
+            TransactionOperations.withoutTransaction(), meterRegistry, shardCoordinator);
+        List<ShardLease> lease = List.of(new ShardLease(OutboxRelay.JOB, 0, 1));
+        lenient().when(shardCoordinator.ownedShards(OutboxRelay.JOB)).thenReturn(lease);
+        lenient().when(shardCoordinator.stillHeld(lease)).thenReturn(lease);
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        relay.registerMetrics();
+    }
+
+    private static OutboxEvent row(long id, String key) {
+        return OutboxEvent.builder()
+            .id(id)
+            .topic("seat-hold-created")
+            .messageKey(key)
+            .payload("{\"n\":" + id + "}")
+            .createdAt(LocalDateTime.now().minusSeconds(5))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, String>> acked() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    @Test
+    void relay_SendsInIdOrderThenDeletesBatch() {
+        when(outboxEventRepository.lockNextBatch(2))
+            .thenReturn(List.of(row(1, "7"), row(2, "7")))
+            .thenReturn(List.of(row(3, "8")));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(inv -> acked());
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(kafkaTemplate, outboxEventRepository);
+        inOrder.verify(kafkaTemplate).send("seat-hold-created", "7", "{\"n\":1}");
+        inOrder.verify(kafkaTemplate).send("seat-hold-created", "7", "{\"n\":2}");
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        inOrder.verify(kafkaTemplate).send("seat-hold-created", "8", "{\"n\":3}");
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        // The short second batch ends the run
+        verify(outboxEventRepository, times(2)).lockNextBatch(2);
+        assertEquals(3.0, meterRegistry.get(OutboxRelay.RELAYED_METRIC).counter().count());
+    }
+
+    @Test
+    void relay_SendFailure_KeepsRowsForRetry() {
+        CompletableFuture<SendResult<String, String>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("broker down"));
+        when(outboxEventRepository.lockNextBatch(2)).thenReturn(List.of(row(1, "7"), row(2, "7")));
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+            .thenAnswer(inv -> acked())
+            .thenReturn(failed);
+
+        assertDoesNotThrow(() -> relay.relay());
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(0.0, meterRegistry.get(OutboxRelay.RELAYED_METRIC).counter().count());
+        // Lag keeps reporting the stuck batch
+        assertTrue(meterRegistry.get(OutboxRelay.LAG_METRIC).gauge().value() >= 5000);
+    }
+
+    @Test
+    void relay_EmptyOutbox_ResetsLag() {
+        when(outboxEventRepository.lockNextBatch(2)).thenReturn(List.of(row(1, "7")), List.of());
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(inv -> acked());
+
+        relay.relay();
+        assertTrue(meterRegistry.get(OutboxRelay.LAG_METRIC).gauge().value() >= 5000);
+
+        relay.relay();
+        assertEquals(0.0, meterRegistry.get(OutboxRelay.LAG_METRIC).gauge().value());
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void relay_LargeBacklog_DrainsInFullBatches() {
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        List<OutboxEvent> full = LongStream.rangeClosed(1, 500).mapToObj(id -> row(id, "7")).toList();
+        when(outboxEventRepository.lockNextBatch(500)).thenReturn(full, full, List.of());
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenAnswer(inv -> acked());
+
+        relay.relay();
+
+        verify(kafkaTemplate, times(1000)).send(anyString(), anyString(), anyString());
+        verify(outboxEventRepository, times(2)).deleteAllByIdInBatch(anyList());
+        assertEquals(1000.0, meterRegistry.get(OutboxRelay.RELAYED_METRIC).counter().count());
+    }
+
+    @Test
+    void relay_LeaseHeldElsewhere_LeavesOutboxAlone() {
+        when(shardCoordinator.ownedShards(OutboxRelay.JOB)).thenReturn(List.of());
+        when(shardCoordinator.stillHeld(List.of())).thenReturn(List.of());
+
+        relay.relay();
+
+        // No transaction, so no pooled connection waiting on the lease holder's row locks
+        verifyNoInteractions(outboxEventRepository, kafkaTemplate);
+        verify(shardCoordinator).register(OutboxRelay.JOB, 1);
+    }
+}
@@ -0,0 +1,224 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.RedisKeys;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the seat lock scripts, status overlay and legacy migration against a
+ * cluster-mode Redis node that owns all 16384 slots. A cluster-enabled server
+ * rejects multi-key commands spanning several slots with CROSSSLOT, exactly as
+ * a multi-node cluster does, without needing node address translation.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisClusterKeyLayoutIntegrationTest {
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withCommand("redis-server", "--cluster-enabled", "yes")
+        .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void assignAllSlots() throws Exception {
+        redis.execInContainer("redis-cli", "CLUSTER", "ADDSLOTSRANGE", "0", "16383");
+        for (int i = 0; i < 50; i++) {
+            if (redis.execInContainer("redis-cli", "CLUSTER", "INFO").getStdout().contains("cluster_state:ok")) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeConnections() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+    }
+
+    private RedisHoldExpiryScheduler scheduler() {
+        RedisHoldExpiryScheduler scheduler = new RedisHoldExpiryScheduler(redisTemplate);
+        ReflectionTestUtils.setField(scheduler, "partitions", 4);
+        return scheduler;
+    }
+
+    @Test
+    void seatLocks_TaggedKeys_AcquireAndReleaseInOneScript() {
+        RedisSeatLockService seatLockService = new RedisSeatLockService(redisTemplate, scheduler());
+        List<Long> seatIds = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+
+        assertThat(seatLockService.acquireAll(42L, seatIds, "7:HOLD_A", Duration.ofMinutes(1))).isEmpty();
+        assertThat(redisTemplate.opsForValue().get(RedisKeys.seatHoldKey(42L, 10L))).isEqualTo("7:HOLD_A");
+
+        // Seat 5 is taken, so seat 11 must not be locked either
+        assertThat(seatLockService.acquireAll(42L, List.of(5L, 11L), "8:HOLD_B", Duration.ofMinutes(1)))
+            .containsExactly(5L);
+        assertThat(redisTemplate.hasKey(RedisKeys.seatHoldKey(42L, 11L))).isFalse();
+
+        assertThat(seatLockService.releaseAll(42L, seatIds, "8:HOLD_B")).isZero();
+        assertThat(seatLockService.releaseAll(42L, seatIds, "7:HOLD_A")).isEqualTo(10);
+        assertThat(redisTemplate.hasKey(RedisKeys.holdExpiryKey(42L, "7:HOLD_A"))).isFalse();
+        assertThat(seatLockService.claimExpiredHold(42L, "7:HOLD_A")).isNull();
+    }
+
+    @Test
+    void holdExpiry_OneTriggerPerHold_ClaimedOnce() {
+        RedisSeatLockService seatLockService = new RedisSeatLockService(redisTemplate, scheduler());
+        List<Long> seatIds = List.of(1L, 2L, 3L);
+
+        seatLockService.acquireAll(42L, seatIds, "7:HOLD_A", Duration.ofMinutes(1));
+
+        assertThat(redisTemplate.opsForValue().get(RedisKeys.holdExpiryKey(42L, "7:HOLD_A"))).isEqualTo("7:HOLD_A");
+        assertThat(redisTemplate.getExpire(RedisKeys.holdSeatsKey(42L, "7:HOLD_A"), TimeUnit.SECONDS))
+            .isGreaterThan(redisTemplate.getExpire(RedisKeys.holdExpiryKey(42L, "7:HOLD_A"), TimeUnit.SECONDS));
+
+        SeatLockService.ExpiredHold first = seatLockService.claimExpiredHold(42L, "7:HOLD_A");
+        SeatLockService.ExpiredHold second = seatLockService.claimExpiredHold(42L, "7:HOLD_A");
+        assertThat(first.getSeatIds()).containsExactly(1L, 2L, 3L);
+        assertThat(first.isFirstClaim()).isTrue();
+        assertThat(second.getSeatIds()).containsExactly(1L, 2L, 3L);
+        assertThat(second.isFirstClaim()).isFalse();
+    }
+
+    @Test
+    void expirySchedule_DueHoldsClaimedOnceAndRedeliveredAfterLease() {
+        RedisHoldExpiryScheduler scheduler = scheduler();
+        RedisSeatLockService seatLockService = new RedisSeatLockService(redisTemplate, scheduler);
+        seatLockService.acquireAll(42L, List.of(1L, 2L), "7:HOLD_A", Duration.ofMillis(100));
+        seatLockService.acquireAll(43L, List.of(3L), "8:HOLD_B", Duration.ofMillis(100));
+        seatLockService.acquireAll(44L, List.of(4L), "9:HOLD_C", Duration.ofMillis(100));
+        seatLockService.releaseAll(44L, List.of(4L), "9:HOLD_C");
+
+        long now = System.currentTimeMillis() + 1_000;
+        List<HoldExpiryScheduler.DueHold> first = new ArrayList<>();
+        List<HoldExpiryScheduler.DueHold> second = new ArrayList<>();
+        for (int partition = 0; partition < scheduler.partitions(); partition++) {
+            first.addAll(scheduler.claimDue(partition, now, 10, Duration.ofSeconds(30)));
+            second.addAll(scheduler.claimDue(partition, now, 10, Duration.ofSeconds(30)));
+        }
+
+        // Released hold C is gone; A and B go to the first drainer only
+        assertThat(first).extracting(HoldExpiryScheduler.DueHold::getHoldToken)
+            .containsExactlyInAnyOrder("HOLD_A", "HOLD_B");
+        assertThat(second).isEmpty();
+        HoldExpiryScheduler.DueHold holdA = first.stream()
+            .filter(hold -> hold.getHoldToken().equals("HOLD_A")).findFirst().orElseThrow();
+        assertThat(holdA.getEventId()).isEqualTo(42L);
+        assertThat(holdA.getCustomerId()).isEqualTo(7L);
+        assertThat(holdA.getSeatIds()).containsExactly(1L, 2L);
+
+        // A is completed; B's drainer "dies", so B comes back once its lease ran out
+        int partitionA = scheduler.partitionOf(holdA.member());
+        scheduler.complete(partitionA, List.of(holdA));
+        List<HoldExpiryScheduler.DueHold> redelivered = new ArrayList<>();
+        for (int partition = 0; partition < scheduler.partitions(); partition++) {
+            redelivered.addAll(scheduler.claimDue(partition, now + 31_000, 10, Duration.ofSeconds(30)));
+        }
+        assertThat(redelivered).extracting(HoldExpiryScheduler.DueHold::getHoldToken).containsExactly("HOLD_B");
+    }
+
+    @Test
+    void expirySchedule_PartitionKeysShareOneSlot() {
+        assertThat(SlotHash.getSlot(RedisKeys.holdExpiryClaimedKey(3)))
+            .isEqualTo(SlotHash.getSlot(RedisKeys.holdExpiryDueKey(3)))
+            .isEqualTo(SlotHash.getSlot(RedisKeys.holdExpiryHoldsKey(3)));
+    }
+
+    @Test
+    void legacyKeys_MultiKeyScript_RejectedAsCrossSlot() {
+        String first = RedisKeys.legacySeatHoldKey(42L, 1L);
+        String second = RedisKeys.legacySeatHoldKey(42L, 2L);
+        assumeTrue(SlotHash.getSlot(first) != SlotHash.getSlot(second));
+
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>("return #KEYS", Long.class);
+
+        assertThatThrownBy(() -> redisTemplate.execute(script, List.of(first, second)))
+            .hasStackTraceContaining("CROSSSLOT");
+    }
+
+    @Test
+    void seatStatusOverlay_TaggedKey_SameSlotAsHoldKeys() {
+        SeatStatusCacheService cacheService = new SeatStatusCacheService(redisTemplate);
+
+        cacheService.cacheSeatStatusChanges(42L, List.of(1L, 2L), "HELD");
+
+        assertThat(cacheService.getRecentChanges(42L)).containsEntry(1L, "HELD").containsEntry(2L, "HELD");
+        assertThat(SlotHash.getSlot(RedisKeys.seatStatusKey(42L)))
+            .isEqualTo(SlotHash.getSlot(RedisKeys.seatHoldKey(42L, 1L)));
+    }
+
+    @Test
+    void migrator_MovesLegacyKeysAndKeepsTtl() {
+        redisTemplate.opsForValue().set(RedisKeys.legacySeatHoldKey(42L, 1L), "7:HOLD_OLD", Duration.ofSeconds(60));
+        redisTemplate.opsForHash().putAll(RedisKeys.legacySeatStatusKey(42L), Map.of("1", "HELD", "2", "BOOKED"));
+        redisTemplate.expire(RedisKeys.legacySeatStatusKey(42L), Duration.ofSeconds(600));
+        // Written after the switch: must not be overwritten by the legacy value
+        redisTemplate.opsForHash().put(RedisKeys.seatStatusKey(42L), "2", "AVAILABLE");
+
+        int moved = new LegacyRedisKeyMigrator(redisTemplate, new SeatStatusCacheService(redisTemplate))
+            .migrateLegacyKeys();
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(redisTemplate.hasKey(RedisKeys.legacySeatHoldKey(42L, 1L))).isFalse();
+        assertThat(redisTemplate.hasKey(RedisKeys.legacySeatStatusKey(42L))).isFalse();
+
+        String newHoldKey = RedisKeys.seatHoldKey(42L, 1L);
+        assertThat(redisTemplate.opsForValue().get(newHoldKey)).isEqualTo("7:HOLD_OLD");
+        assertThat(redisTemplate.getExpire(newHoldKey, TimeUnit.SECONDS)).isBetween(1L, 60L);
+
+        assertThat(redisTemplate.opsForHash().entries(RedisKeys.seatStatusKey(42L)))
+            .containsEntry("1", "HELD")
+            .containsEntry("2", "AVAILABLE");
+    }
+
+    @Test
+    void migrator_CursorsFromBeforeTheMigrationResync() {
+        SeatStatusCacheService cacheService = new SeatStatusCacheService(redisTemplate);
+        cacheService.cacheSeatStatusChanges(43L, List.of(5L), "HELD");
+        long cursor = cacheService.getSeatVersion(43L);
+        redisTemplate.opsForHash().putAll(RedisKeys.legacySeatStatusKey(43L), Map.of("1", "BOOKED"));
+
+        new LegacyRedisKeyMigrator(redisTemplate, cacheService).migrateLegacyKeys();
+        // A write after the migration must not make the old cursor look complete again
+        cacheService.cacheSeatStatusChanges(43L, List.of(6L), "HELD");
+
+        assertThat(cacheService.getChangesSince(43L, cursor, 100).isResyncRequired()).isTrue();
+        assertThat(cacheService.getChangesSince(43L, cacheService.getSeatVersion(43L), 100).isResyncRequired())
+            .isFalse();
+    }
+}
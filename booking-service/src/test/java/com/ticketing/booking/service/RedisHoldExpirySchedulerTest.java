@@ -0,0 +1,122 @@
+package com.ticketing.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisHoldExpirySchedulerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private RedisHoldExpiryScheduler scheduler;
+
+    private static final List<String> PARTITION_2 =
+        List.of("{hold_expiry:2}:due", "{hold_expiry:2}:claimed", "{hold_expiry:2}:holds");
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new RedisHoldExpiryScheduler(redisTemplate);
+        ReflectionTestUtils.setField(scheduler, "partitions", 4);
+    }
+
+    @Test
+    void schedule_AddsMemberScoredByDueTimeWithSeats() {
+        int partition = scheduler.partitionOf("1:5:HOLD_X");
+
+        scheduler.schedule(1L, "5:HOLD_X", List.of(10L, 11L), 1_000L);
+
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of("{hold_expiry:" + partition + "}:due", "{hold_expiry:" + partition + "}:holds")),
+            eq("1:5:HOLD_X"), eq("1000"), eq("1000,10,11"));
+    }
+
+    @Test
+    void cancel_UsesTheSamePartitionAsSchedule() {
+        int partition = scheduler.partitionOf("1:5:HOLD_X");
+
+        scheduler.cancel(1L, "5:HOLD_X");
+
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of("{hold_expiry:" + partition + "}:due", "{hold_expiry:" + partition + "}:claimed",
+                "{hold_expiry:" + partition + "}:holds")),
+            eq("1:5:HOLD_X"));
+    }
+
+    @Test
+    void partitionOf_StableAndInRange() {
+        for (int i = 0; i < 100; i++) {
+            int partition = scheduler.partitionOf(i + ":5:HOLD_" + i);
+            assertTrue(partition >= 0 && partition < 4);
+            assertEquals(partition, scheduler.partitionOf(i + ":5:HOLD_" + i));
+        }
+    }
+
+    @Test
+    void claimDue_ParsesClaimedHolds() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), eq(PARTITION_2), eq("5000"), eq("100"), eq("35000")))
+            .thenReturn(List.of("1:5:HOLD_X", "4000,10,11", "2:6:HOLD_Y", "4500,20"));
+
+        List<HoldExpiryScheduler.DueHold> holds = scheduler.claimDue(2, 5_000L, 100, Duration.ofSeconds(30));
+
+        assertEquals(2, holds.size());
+        HoldExpiryScheduler.DueHold first = holds.get(0);
+        assertEquals(1L, first.getEventId());
+        assertEquals(5L, first.getCustomerId());
+        assertEquals("HOLD_X", first.getHoldToken());
+        assertEquals(List.of(10L, 11L), first.getSeatIds());
+        assertEquals(4_000L, first.getDueAtMillis());
+        assertEquals("1:5:HOLD_X", first.member());
+        assertEquals(List.of(20L), holds.get(1).getSeatIds());
+    }
+
+    @Test
+    void claimDue_NothingDue_ReturnsEmpty() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), anyString(), anyString(), anyString()))
+            .thenReturn(List.of());
+
+        assertTrue(scheduler.claimDue(2, 5_000L, 100, Duration.ofSeconds(30)).isEmpty());
+    }
+
+    @Test
+    void claimDue_UnreadableEntry_DroppedFromSchedule() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), anyString(), anyString(), anyString()))
+            .thenReturn(List.of("garbage", "x", "1:5:HOLD_X", "4000,10"));
+
+        List<HoldExpiryScheduler.DueHold> holds = scheduler.claimDue(2, 5_000L, 100, Duration.ofSeconds(30));
+
+        assertEquals(1, holds.size());
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of("{hold_expiry:2}:claimed", "{hold_expiry:2}:holds")), eq("garbage"));
+    }
+
+    @Test
+    void complete_RemovesAllMembersInOneScript() {
+        scheduler.complete(2, List.of(
+            new HoldExpiryScheduler.DueHold(1L, 5L, "HOLD_X", List.of(10L), 1L),
+            new HoldExpiryScheduler.DueHold(2L, 6L, "HOLD_Y", List.of(20L), 1L)));
+
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of("{hold_expiry:2}:claimed", "{hold_expiry:2}:holds")), eq("1:5:HOLD_X"), eq("2:6:HOLD_Y"));
+    }
+
+    @Test
+    void complete_Empty_NoRedisCall() {
+        scheduler.complete(2, List.of());
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.util.RedisKeys;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisKeysTest {
+
+    @Test
+    void keyFormats() {
+        assertEquals("seat:{evt:42}:7:HELD", RedisKeys.seatHoldKey(42L, 7L));
+        assertEquals("{evt:42}:seat_status", RedisKeys.seatStatusKey(42L));
+        assertEquals("seat:42:7:HELD", RedisKeys.legacySeatHoldKey(42L, 7L));
+        assertEquals("42:seat_status", RedisKeys.legacySeatStatusKey(42L));
+        assertEquals("hold:{evt:42}:5:HOLD_X:EXPIRES", RedisKeys.holdExpiryKey(42L, "5:HOLD_X"));
+        assertEquals("hold:{evt:42}:5:HOLD_X:SEATS", RedisKeys.holdSeatsKey(42L, "5:HOLD_X"));
+    }
+
+    @Test
+    void holdKeys_ShareTheEventSlot() {
+        int slot = SlotHash.getSlot(RedisKeys.seatHoldKey(42L, 1L));
+
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.holdExpiryKey(42L, "5:HOLD_X")));
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.holdSeatsKey(42L, "5:HOLD_X")));
+    }
+
+    @Test
+    void queueKeys_ShareTheQueueSlot_ApartFromTheEventSlot() {
+        int slot = SlotHash.getSlot(RedisKeys.queueWaitingKey(42L));
+
+        assertEquals("{queue:42}:waiting", RedisKeys.queueWaitingKey(42L));
+        assertEquals("{queue:42}:admissions", RedisKeys.queueAdmissionsKey(42L));
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.queueJoinedKey(42L)));
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.queueStateKey(42L)));
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.queueAdmissionsKey(42L)));
+        assertEquals(slot, SlotHash.getSlot(RedisKeys.queueAdmissionExpiryKey(42L)));
+        assertNotEquals(slot, SlotHash.getSlot(RedisKeys.seatStatusKey(42L)));
+    }
+
+    @Test
+    void parseHoldExpiryKey() {
+        assertArrayEquals(new String[] {"42", "5", "HOLD_X"},
+            RedisKeys.parseHoldExpiryKey("hold:{evt:42}:5:HOLD_X:EXPIRES"));
+        assertNull(RedisKeys.parseHoldExpiryKey("hold:{evt:42}:5:HOLD_X:SEATS"));
+        assertNull(RedisKeys.parseHoldExpiryKey("seat:{evt:42}:7:HELD"));
+        assertNull(RedisKeys.parseHoldExpiryKey("hold:42:5:HOLD_X:EXPIRES"));
+    }
+
+    @Test
+    void allKeysOfOneEvent_ShareOneClusterSlot() {
+        int slot = SlotHash.getSlot(RedisKeys.seatStatusKey(42L));
+
+        for (long seatId = 1; seatId <= 500; seatId++) {
+            assertEquals(slot, SlotHash.getSlot(RedisKeys.seatHoldKey(42L, seatId)));
+        }
+    }
+
+    @Test
+    void legacyKeysOfOneEvent_SpreadAcrossSlots() {
+        assertNotEquals(
+            SlotHash.getSlot(RedisKeys.legacySeatHoldKey(42L, 1L)),
+            SlotHash.getSlot(RedisKeys.legacySeatHoldKey(42L, 2L)));
+    }
+
+    @Test
+    void parseSeatHoldKey_BothFormats() {
+        assertArrayEquals(new long[] {42L, 7L}, RedisKeys.parseSeatHoldKey("seat:{evt:42}:7:HELD"));
+        assertArrayEquals(new long[] {42L, 7L}, RedisKeys.parseSeatHoldKey("seat:42:7:HELD"));
+    }
+
+    @Test
+    void parseSeatHoldKey_OtherKeys_ReturnsNull() {
+        assertNull(RedisKeys.parseSeatHoldKey("lock:resource"));
+        assertNull(RedisKeys.parseSeatHoldKey("seat:1:2:3:4:HELD"));
+        assertNull(RedisKeys.parseSeatHoldKey(null));
+    }
+
+    @Test
+    void parseSeatHoldKey_NonNumericIds_Throws() {
+        assertThrows(NumberFormatException.class, () -> RedisKeys.parseSeatHoldKey("seat:abc:def:HELD"));
+    }
+
+    @Test
+    void parseLegacySeatStatusKey() {
+        assertEquals(42L, RedisKeys.parseLegacySeatStatusKey("42:seat_status"));
+        assertNull(RedisKeys.parseLegacySeatStatusKey("{evt:42}:seat_status"));
+        assertNull(RedisKeys.parseLegacySeatStatusKey("lock:resource"));
+    }
+}
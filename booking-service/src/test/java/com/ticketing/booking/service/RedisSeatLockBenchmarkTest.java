@@ -0,0 +1,115 @@
+package com.ticketing.booking.service;
+
+import com.ticketing.common.util.RedisKeys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Latency of holding and releasing 1, 4 and 10 seats: the single-script acquireAll /
+ * releaseAll of {@link RedisSeatLockService} against the per-seat loop it replaced (one
+ * SET NX per seat, one DEL per key). Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl booking-service test -Dtest=RedisSeatLockBenchmarkTest -Dbenchmark=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RedisSeatLockBenchmarkTest {
+
+    private static final int HOLDS = Integer.getInteger("benchmark.holds", 10_000);
+    private static final long EVENT_ID = 1L;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeConnections() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void holdAndRelease() {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        RedisSeatLockService lockService = new RedisSeatLockService(redisTemplate, mock(HoldExpiryScheduler.class));
+
+        for (int seats : new int[]{1, 4, 10}) {
+            // Warm-up, also loads the scripts
+            measure(redisTemplate, lockService, seats, HOLDS / 10, true);
+            measure(redisTemplate, lockService, seats, HOLDS / 10, false);
+
+            long[] script = measure(redisTemplate, lockService, seats, HOLDS, true);
+            long[] loop = measure(redisTemplate, lockService, seats, HOLDS, false);
+            System.out.printf("%2d seats: script p50 %6.1f us  p99 %6.1f us | loop p50 %6.1f us  p99 %6.1f us%n",
+                seats, percentile(script, 0.50), percentile(script, 0.99),
+                percentile(loop, 0.50), percentile(loop, 0.99));
+        }
+    }
+
+    // Nanoseconds per hold + release, sorted
+    private static long[] measure(StringRedisTemplate redisTemplate, RedisSeatLockService lockService,
+                                  int seats, int holds, boolean script) {
+        long[] latencies = new long[holds];
+        for (int i = 0; i < holds; i++) {
+            List<Long> seatIds = new ArrayList<>(seats);
+            for (int s = 0; s < seats; s++) {
+                seatIds.add((long) i * seats + s);
+            }
+            String holder = "holder-" + i;
+            long start = System.nanoTime();
+            if (script) {
+                assertThat(lockService.acquireAll(EVENT_ID, seatIds, holder, TTL)).isEmpty();
+                lockService.releaseAll(EVENT_ID, seatIds, holder);
+            } else {
+                loopAcquireAndRelease(redisTemplate, seatIds, holder);
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    // The per-seat round trips holdSeats used to make
+    private static void loopAcquireAndRelease(StringRedisTemplate redisTemplate, List<Long> seatIds, String holder) {
+        List<String> acquired = new ArrayList<>(seatIds.size());
+        for (Long seatId : seatIds) {
+            String key = RedisKeys.seatHoldKey(EVENT_ID, seatId);
+            assertThat(redisTemplate.opsForValue().setIfAbsent(key, holder, TTL)).isTrue();
+            acquired.add(key);
+        }
+        for (String key : acquired) {
+            redisTemplate.delete(key);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e3;
+    }
+}
@@ -0,0 +1,162 @@
+package com.ticketing.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisSeatLockServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    private RedisSeatLockService seatLockService;
+
+    private static final List<String> KEYS = List.of("seat:{evt:1}:10:HELD", "seat:{evt:1}:11:HELD", "seat:{evt:1}:12:HELD",
+        "hold:{evt:1}:5:HOLD_X:EXPIRES", "hold:{evt:1}:5:HOLD_X:SEATS");
+
+    @BeforeEach
+    void setUp() {
+        seatLockService = new RedisSeatLockService(redisTemplate, holdExpiryScheduler);
+    }
+
+    // ─── acquireAll ──────────────────────────────────────────────────────
+
+    @Test
+    void acquireAll_AllFree_SingleScriptCallReturnsNoConflicts() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), eq(KEYS), eq("5:HOLD_X"), eq("600000"),
+                eq("10,11,12"), eq("300000")))
+            .thenReturn(List.of());
+
+        List<Long> conflicts = seatLockService.acquireAll(
+            1L, List.of(10L, 11L, 12L), "5:HOLD_X", Duration.ofMinutes(10));
+
+        assertTrue(conflicts.isEmpty());
+        verify(redisTemplate, times(1)).execute(any(DefaultRedisScript.class), anyList(), any(), any(), any(), any());
+        verifyNoMoreInteractions(redisTemplate);
+        verify(holdExpiryScheduler).schedule(eq(1L), eq("5:HOLD_X"), eq(List.of(10L, 11L, 12L)), anyLong());
+    }
+
+    @Test
+    void acquireAll_SchedulingFails_HoldStillAcquired() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), anyString(), anyString(),
+                anyString(), anyString()))
+            .thenReturn(List.of());
+        doThrow(new RedisConnectionFailureException("Connection reset"))
+            .when(holdExpiryScheduler).schedule(any(), any(), any(), anyLong());
+
+        assertTrue(seatLockService.acquireAll(1L, List.of(10L), "5:HOLD_X", Duration.ofMinutes(10)).isEmpty());
+    }
+
+    @Test
+    void acquireAll_SomeHeld_MapsPositionsToSeatIds() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), eq(KEYS), anyString(), anyString(),
+                anyString(), anyString()))
+            .thenReturn(List.of(1L, 3L));
+
+        List<Long> conflicts = seatLockService.acquireAll(
+            1L, List.of(10L, 11L, 12L), "5:HOLD_X", Duration.ofMinutes(10));
+
+        assertEquals(List.of(10L, 12L), conflicts);
+        verifyNoInteractions(holdExpiryScheduler);
+    }
+
+    @Test
+    void acquireAll_EmptySeatList_NoRedisCall() {
+        List<Long> conflicts = seatLockService.acquireAll(1L, List.of(), "5:HOLD_X", Duration.ofMinutes(10));
+
+        assertTrue(conflicts.isEmpty());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void acquireAll_NullScriptResult_ThrowsIllegalState() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), anyString(), anyString(),
+                anyString(), anyString()))
+            .thenReturn(null);
+
+        assertThrows(IllegalStateException.class,
+            () -> seatLockService.acquireAll(1L, List.of(10L), "5:HOLD_X", Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void acquireAll_RedisDown_PropagatesConnectionFailure() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), anyString(), anyString(),
+                anyString(), anyString()))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        assertThrows(RedisConnectionFailureException.class,
+            () -> seatLockService.acquireAll(1L, List.of(10L), "5:HOLD_X", Duration.ofMinutes(10)));
+    }
+
+    // ─── releaseAll ──────────────────────────────────────────────────────
+
+    @Test
+    void releaseAll_SingleScriptCallReturnsDeletedCount() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), eq(KEYS), eq("5:HOLD_X")))
+            .thenReturn(2L);
+
+        int released = seatLockService.releaseAll(1L, List.of(10L, 11L, 12L), "5:HOLD_X");
+
+        assertEquals(2, released);
+        verify(redisTemplate, times(1)).execute(any(DefaultRedisScript.class), anyList(), any());
+        verify(holdExpiryScheduler).cancel(1L, "5:HOLD_X");
+    }
+
+    @Test
+    void releaseAll_NullResult_ReturnsZero() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), anyString()))
+            .thenReturn(null);
+
+        assertEquals(0, seatLockService.releaseAll(1L, List.of(10L), "5:HOLD_X"));
+    }
+
+    @Test
+    void releaseAll_EmptySeatList_NoRedisCall() {
+        assertEquals(0, seatLockService.releaseAll(1L, List.of(), "5:HOLD_X"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    // ─── claimExpiredHold ────────────────────────────────────────────────
+
+    @Test
+    void claimExpiredHold_ParsesSeatsAndClaim() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), eq(List.of("hold:{evt:1}:5:HOLD_X:SEATS"))))
+            .thenReturn(List.of("10,11,12", 1L));
+
+        SeatLockService.ExpiredHold expired = seatLockService.claimExpiredHold(1L, "5:HOLD_X");
+
+        assertEquals(List.of(10L, 11L, 12L), expired.getSeatIds());
+        assertTrue(expired.isFirstClaim());
+    }
+
+    @Test
+    void claimExpiredHold_AlreadyClaimed_NotFirst() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList()))
+            .thenReturn(List.of("10", 0L));
+
+        assertFalse(seatLockService.claimExpiredHold(1L, "5:HOLD_X").isFirstClaim());
+    }
+
+    @Test
+    void claimExpiredHold_SeatListGone_ReturnsNull() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList())).thenReturn(null);
+
+        assertNull(seatLockService.claimExpiredHold(1L, "5:HOLD_X"));
+    }
+}
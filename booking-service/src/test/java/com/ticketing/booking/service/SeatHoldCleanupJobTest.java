@@ -1,5 +1,7 @@
 package com.ticketing.booking.service;
 
+import com.ticketing.booking.coordination.ShardCoordinator;
+import com.ticketing.booking.coordination.ShardLease;
 import com.ticketing.booking.repository.SeatHoldRepository;
 import com.ticketing.booking.repository.SeatRepository;
 import com.ticketing.common.entity.Event;
@@ -11,13 +13,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +41,12 @@ class SeatHoldCleanupJobTest {
     @Mock private StringRedisTemplate redisTemplate;
     @Mock private SeatStatusCacheService seatStatusCacheService;
     @Mock private ValueOperations<String, String> valueOperations;
+    @Mock private ShardCoordinator shardCoordinator;
+
+    private static final int SHARDS = 4;
+    private static final List<ShardLease> ALL_SHARDS =
+        IntStream.range(0, SHARDS).mapToObj(shard -> new ShardLease(SeatHoldCleanupJob.JOB, shard, 1)).toList();
+    private static final List<Long> ALL_SHARD_IDS = List.of(0L, 1L, 2L, 3L);
 
     private SeatHoldCleanupJob cleanupJob;
     private Event testEvent;
@@ -39,116 +55,152 @@ class SeatHoldCleanupJobTest {
     void setUp() {
         TransactionSynchronizationManager.initSynchronization();
         cleanupJob = new SeatHoldCleanupJob(
-            seatHoldRepository, seatRepository, messagingService, redisTemplate, seatStatusCacheService
+            seatHoldRepository, seatRepository, messagingService, redisTemplate, seatStatusCacheService,
+            TransactionOperations.withoutTransaction(), shardCoordinator
         );
+        ReflectionTestUtils.setField(cleanupJob, "shardCount", SHARDS);
+        ReflectionTestUtils.setField(cleanupJob, "chunkSize", 2);
+        ReflectionTestUtils.setField(cleanupJob, "parallelism", 1);
+        ReflectionTestUtils.setField(cleanupJob, "timeBudgetMs", 60000L);
         testEvent = Event.builder().id(1L).title("Test Event").build();
+        lenient().when(shardCoordinator.ownedShards(SeatHoldCleanupJob.JOB)).thenReturn(ALL_SHARDS);
+        lenient().when(shardCoordinator.stillHeld(anyList())).thenAnswer(inv -> inv.getArgument(0));
     }
 
     @AfterEach
     void tearDown() {
+        cleanupJob.stop();
         if (TransactionSynchronizationManager.isSynchronizationActive()) {
             TransactionSynchronizationManager.clearSynchronization();
         }
     }
 
+    private SeatHold hold(long id, List<Long> seatIds) {
+        return SeatHold.builder()
+            .id(id).holdToken("HOLD_" + id).customerId(10L)
+            .event(testEvent).seatIds(seatIds)
+            .expiresAt(LocalDateTime.now().minusMinutes(1))
+            .status(SeatHold.HoldStatus.ACTIVE)
+            .build();
+    }
+
+    private void lockReturnsRequested(SeatHold... holds) {
+        List<SeatHold> all = Arrays.asList(holds);
+        when(seatHoldRepository.findExpiredHoldsByIdForUpdate(anyCollection(), any())).thenAnswer(inv -> {
+            Collection<?> ids = inv.getArgument(0);
+            return all.stream().filter(hold -> ids.contains(hold.getId())).toList();
+        });
+    }
+
     @Test
     void reconcileExpiredHolds_NoExpiredHolds() {
-        when(seatHoldRepository.findExpiredHolds(any(LocalDateTime.class))).thenReturn(List.of());
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(LocalDateTime.class), any())).thenReturn(List.of());
 
         cleanupJob.reconcileExpiredHolds();
 
         verify(seatRepository, never()).releaseSeats(any());
+        verifyNoInteractions(redisTemplate);
     }
 
     @Test
     void reconcileExpiredHolds_RedisKeysGone_CleansUp() {
-        SeatHold hold = SeatHold.builder()
-            .id(1L).holdToken("HOLD_EXP").customerId(10L)
-            .event(testEvent).seatIds(List.of(1L, 2L))
-            .expiresAt(LocalDateTime.now().minusMinutes(1))
-            .status(SeatHold.HoldStatus.ACTIVE)
-            .build();
-        hold.setCreatedAt(LocalDateTime.now().minusMinutes(11));
-
-        when(seatHoldRepository.findExpiredHolds(any())).thenReturn(List.of(hold));
+        SeatHold hold = hold(1L, List.of(1L, 2L));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), eq(PageRequest.ofSize(2)))).thenReturn(List.of(hold));
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn(null); // keys gone
+        when(valueOperations.multiGet(List.of("seat:{evt:1}:1:HELD", "seat:{evt:1}:2:HELD")))
+            .thenReturn(Arrays.asList(null, null)); // keys gone
+        lockReturnsRequested(hold);
         when(seatRepository.releaseSeats(List.of(1L, 2L))).thenReturn(2);
-        when(seatHoldRepository.save(any())).thenReturn(hold);
 
         cleanupJob.reconcileExpiredHolds();
 
         verify(seatRepository).releaseSeats(List.of(1L, 2L));
-        verify(seatHoldRepository).save(hold);
+        verify(seatHoldRepository).expireHolds(List.of(1L));
+        verify(messagingService).publishSeatHoldExpired(eq("HOLD_1"), eq(10L), eq(1L), eq(List.of(1L, 2L)));
 
         TransactionSynchronizationManager.getSynchronizations()
             .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
 
         verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L, 2L)), eq("AVAILABLE"));
-        verify(messagingService).publishSeatHoldExpired(eq("HOLD_EXP"), eq(10L), eq(1L), eq(List.of(1L, 2L)));
     }
 
     @Test
     void reconcileExpiredHolds_RedisKeyStillExists_Skips() {
-        SeatHold hold = SeatHold.builder()
-            .id(1L).holdToken("HOLD_EXP").customerId(10L)
-            .event(testEvent).seatIds(List.of(1L))
-            .expiresAt(LocalDateTime.now().minusMinutes(1))
-            .status(SeatHold.HoldStatus.ACTIVE)
-            .build();
-
-        when(seatHoldRepository.findExpiredHolds(any())).thenReturn(List.of(hold));
+        SeatHold hold = hold(1L, List.of(1L));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold));
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get("seat:1:1:HELD")).thenReturn("10:HOLD_EXP"); // key still exists
+        when(valueOperations.multiGet(List.of("seat:{evt:1}:1:HELD"))).thenReturn(List.of("10:HOLD_1")); // key still exists
 
         cleanupJob.reconcileExpiredHolds();
 
         verify(seatRepository, never()).releaseSeats(any());
+        verify(seatHoldRepository, never()).findExpiredHoldsByIdForUpdate(any(), any());
     }
 
     @Test
-    void reconcileExpiredHolds_ExceptionInReconcile_ContinuesWithOthers() {
-        SeatHold hold1 = SeatHold.builder()
-            .id(1L).holdToken("H1").customerId(10L)
-            .event(testEvent).seatIds(List.of(1L))
-            .expiresAt(LocalDateTime.now().minusMinutes(1))
-            .status(SeatHold.HoldStatus.ACTIVE)
-            .build();
-        SeatHold hold2 = SeatHold.builder()
-            .id(2L).holdToken("H2").customerId(20L)
-            .event(testEvent).seatIds(List.of(2L))
-            .expiresAt(LocalDateTime.now().minusMinutes(1))
-            .status(SeatHold.HoldStatus.ACTIVE)
-            .build();
+    void reconcileExpiredHolds_PagesByIdAndChecksEachChunkInOneMget() {
+        SeatHold hold1 = hold(1L, List.of(1L));
+        SeatHold hold2 = hold(2L, List.of(2L, 3L));
+        SeatHold hold3 = hold(3L, List.of(4L));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold1, hold2));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(2L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold3));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenAnswer(inv -> Arrays.asList(new String[inv.<List<?>>getArgument(0).size()]));
+        lockReturnsRequested(hold1, hold2, hold3);
+
+        cleanupJob.reconcileExpiredHolds();
 
-        when(seatHoldRepository.findExpiredHolds(any())).thenReturn(List.of(hold1, hold2));
+        verify(valueOperations).multiGet(List.of("seat:{evt:1}:1:HELD", "seat:{evt:1}:2:HELD", "seat:{evt:1}:3:HELD"));
+        verify(valueOperations).multiGet(List.of("seat:{evt:1}:4:HELD"));
+        verify(seatRepository).releaseSeats(List.of(1L, 2L, 3L));
+        verify(seatRepository).releaseSeats(List.of(4L));
+        verify(seatHoldRepository).expireHolds(List.of(1L, 2L));
+        verify(seatHoldRepository).expireHolds(List.of(3L));
+        // The short second page ends the run
+        verify(seatHoldRepository, times(2)).findExpiredHoldsInShardsAfter(anyLong(), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any());
+    }
+
+    @Test
+    void reconcileExpiredHolds_HoldConfirmedSincePageWasRead_Skipped() {
+        SeatHold hold = hold(1L, List.of(1L));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold));
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        // hold1 throws, hold2 succeeds
-        when(valueOperations.get("seat:1:1:HELD")).thenThrow(new RuntimeException("err"));
-        when(valueOperations.get("seat:1:2:HELD")).thenReturn(null);
-        when(seatRepository.releaseSeats(List.of(2L))).thenReturn(1);
-        when(seatHoldRepository.save(any())).thenReturn(hold2);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList((String) null));
+        when(seatHoldRepository.findExpiredHoldsByIdForUpdate(anyCollection(), any())).thenReturn(List.of());
 
         cleanupJob.reconcileExpiredHolds();
 
-        // hold2 should still be cleaned
-        verify(seatRepository).releaseSeats(List.of(2L));
+        verify(seatRepository, never()).releaseSeats(any());
+        verify(seatHoldRepository, never()).expireHolds(any());
     }
 
     @Test
-    void reconcileExpiredHolds_Rollback_ReAffirmsHeld() {
-        SeatHold hold = SeatHold.builder()
-            .id(1L).holdToken("HOLD_EXP").customerId(10L)
-            .event(testEvent).seatIds(List.of(1L))
-            .expiresAt(LocalDateTime.now().minusMinutes(1))
-            .status(SeatHold.HoldStatus.ACTIVE)
-            .build();
+    void reconcileExpiredHolds_FailingChunk_ContinuesWithNextChunk() {
+        SeatHold hold1 = hold(1L, List.of(1L));
+        SeatHold hold2 = hold(2L, List.of(2L));
+        SeatHold hold3 = hold(3L, List.of(3L));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold1, hold2));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(2L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold3));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("seat:{evt:1}:1:HELD", "seat:{evt:1}:2:HELD")))
+            .thenThrow(new RuntimeException("err"));
+        when(valueOperations.multiGet(List.of("seat:{evt:1}:3:HELD"))).thenReturn(Arrays.asList((String) null));
+        lockReturnsRequested(hold3);
 
-        when(seatHoldRepository.findExpiredHolds(any())).thenReturn(List.of(hold));
+        cleanupJob.reconcileExpiredHolds();
+
+        // The second chunk is still cleaned
+        verify(seatRepository).releaseSeats(List.of(3L));
+    }
+
+    @Test
+    void reconcileExpiredHolds_Rollback_ReAffirmsHeld() {
+        SeatHold hold = hold(1L, List.of(1L));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenReturn(List.of(hold));
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString())).thenReturn(null);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList((String) null));
+        lockReturnsRequested(hold);
         when(seatRepository.releaseSeats(any())).thenReturn(1);
-        when(seatHoldRepository.save(any())).thenReturn(hold);
 
         cleanupJob.reconcileExpiredHolds();
 
@@ -157,4 +209,83 @@ class SeatHoldCleanupJobTest {
 
         verify(seatStatusCacheService).cacheSeatStatusChanges(eq(1L), eq(List.of(1L)), eq("HELD"));
     }
+
+    @Test
+    void reconcileExpiredHolds_TimeBudgetUsedUp_StopsPaging() {
+        ReflectionTestUtils.setField(cleanupJob, "timeBudgetMs", 0L);
+
+        cleanupJob.reconcileExpiredHolds();
+
+        verifyNoInteractions(seatHoldRepository, redisTemplate);
+    }
+
+    @Test
+    void reconcileExpiredHolds_Parallel_ReconcilesEveryChunk() {
+        ReflectionTestUtils.setField(cleanupJob, "parallelism", 3);
+        cleanupJob.start();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        List<SeatHold> holds = new ArrayList<>();
+        LongStream.rangeClosed(1, 10).forEach(id -> holds.add(hold(id, List.of(100 + id))));
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(anyLong(), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any())).thenAnswer(inv -> {
+            long afterId = inv.getArgument(0);
+            return holds.stream().filter(hold -> hold.getId() > afterId).limit(2).toList();
+        });
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenAnswer(inv -> Arrays.asList(new String[inv.<List<?>>getArgument(0).size()]));
+        lockReturnsRequested(holds.toArray(SeatHold[]::new));
+
+        cleanupJob.reconcileExpiredHolds();
+
+        verify(seatHoldRepository, times(5)).expireHolds(anyList());
+        verify(messagingService, times(10)).publishSeatHoldExpired(anyString(), anyLong(), eq(1L), anyList());
+        verify(seatStatusCacheService, times(5)).cacheSeatStatusChanges(eq(1L), anyList(), eq("AVAILABLE"));
+    }
+
+    @Test
+    void reconcileExpiredHolds_NoShardsHeld_DoesNothing() {
+        when(shardCoordinator.ownedShards(SeatHoldCleanupJob.JOB)).thenReturn(List.of());
+
+        cleanupJob.reconcileExpiredHolds();
+
+        verifyNoInteractions(seatHoldRepository, redisTemplate);
+    }
+
+    @Test
+    void reconcileExpiredHolds_OnlyPagesOwnShards() {
+        List<ShardLease> owned = List.of(new ShardLease(SeatHoldCleanupJob.JOB, 1, 7), new ShardLease(SeatHoldCleanupJob.JOB, 3, 2));
+        when(shardCoordinator.ownedShards(SeatHoldCleanupJob.JOB)).thenReturn(owned);
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(List.of(1L, 3L)), any(), any()))
+            .thenReturn(List.of());
+
+        cleanupJob.reconcileExpiredHolds();
+
+        verify(seatHoldRepository).findExpiredHoldsInShardsAfter(eq(0L), eq((long) SHARDS), eq(List.of(1L, 3L)), any(), any());
+    }
+
+    @Test
+    void reconcileExpiredHolds_ShardLostBeforeWrite_LeavesItsHolds() {
+        SeatHold hold1 = hold(1L, List.of(1L)); // shard 1, lost
+        SeatHold hold2 = hold(2L, List.of(2L)); // shard 2, still held
+        when(seatHoldRepository.findExpiredHoldsInShardsAfter(anyLong(), eq((long) SHARDS), eq(ALL_SHARD_IDS), any(), any()))
+            .thenReturn(List.of(hold1, hold2), List.of());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        when(shardCoordinator.stillHeld(List.of(ALL_SHARDS.get(1), ALL_SHARDS.get(2)))).thenReturn(List.of(ALL_SHARDS.get(2)));
+        lockReturnsRequested(hold1, hold2);
+
+        cleanupJob.reconcileExpiredHolds();
+
+        verify(seatHoldRepository).findExpiredHoldsByIdForUpdate(eq(List.of(2L)), any());
+        verify(seatRepository).releaseSeats(List.of(2L));
+        verify(seatHoldRepository).expireHolds(List.of(2L));
+        verify(messagingService, never()).publishSeatHoldExpired(eq("HOLD_1"), anyLong(), anyLong(), anyList());
+    }
+
+    @Test
+    void start_RegistersShardSpace() {
+        cleanupJob.start();
+
+        verify(shardCoordinator).register(SeatHoldCleanupJob.JOB, SHARDS);
+    }
 }
@@ -27,6 +27,7 @@ class SeatStateConsumerTest {
     @Mock private SeatHoldRepository seatHoldRepository;
     @Mock private EventMessagingService messagingService;
     @Mock private SeatStatusCacheService seatStatusCacheService;
+    @Mock private SeatViewExpiryListener seatViewExpiryListener;
 
     private ObjectMapper objectMapper = new ObjectMapper();
     private SeatStateConsumer consumer;
@@ -34,7 +35,7 @@ class SeatStateConsumerTest {
     @BeforeEach
     void setUp() {
         consumer = new SeatStateConsumer(
-            seatRepository, seatHoldRepository, messagingService, objectMapper, seatStatusCacheService
+            seatRepository, seatHoldRepository, messagingService, objectMapper, seatStatusCacheService, seatViewExpiryListener
         );
     }
 
@@ -59,6 +60,7 @@ class SeatStateConsumerTest {
 
         verify(seatRepository).releaseSeats(Collections.singletonList(42L));
         verify(seatStatusCacheService).transitionSeatStatus(1L, 42L, "HELD", "AVAILABLE");
+        verify(seatViewExpiryListener).expiredAfterCommit(1L, List.of(42L));
         verify(seatHoldRepository).save(hold);
         verify(messagingService).publishSeatHoldExpired("HOLD_X", 10L, 1L, List.of(42L));
     }
@@ -76,6 +78,71 @@ class SeatStateConsumerTest {
         verify(seatHoldRepository, never()).findExpiredHoldsForSeat(any(), any(), any());
     }
 
+    @Test
+    void onSeatStateTransition_HoldExpired_ExpiresHoldAndReleasesAllSeats() {
+        List<Long> seatIds = List.of(40L, 41L, 42L);
+        when(seatHoldRepository.expireHoldByToken(eq("HOLD_X"), any())).thenReturn(1);
+        when(seatRepository.releaseSeats(seatIds)).thenReturn(3);
+
+        consumer.onSeatStateTransition(holdRecord("HOLD_X", seatIds));
+
+        verify(seatRepository).releaseSeats(seatIds);
+        verify(seatStatusCacheService).transitionSeatStatuses(1L, seatIds, "HELD", "AVAILABLE");
+        verify(seatViewExpiryListener).expiredAfterCommit(1L, seatIds);
+        verify(messagingService).publishSeatHoldExpired("HOLD_X", 10L, 1L, seatIds);
+        verify(seatHoldRepository, never()).findExpiredHoldsForSeat(any(), any(), any());
+    }
+
+    @Test
+    void onSeatStateTransition_HoldNoLongerActive_Skips() {
+        when(seatHoldRepository.expireHoldByToken(eq("HOLD_X"), any())).thenReturn(0);
+
+        consumer.onSeatStateTransition(holdRecord("HOLD_X", List.of(42L)));
+
+        verify(seatRepository, never()).releaseSeats(any());
+        verifyNoInteractions(messagingService, seatStatusCacheService);
+    }
+
+    @Test
+    void holdExpiry_TenSeatHold_OneRecordAndNoLookups() {
+        List<Long> seatIds = java.util.stream.LongStream.rangeClosed(101, 110).boxed().toList();
+        Event event = Event.builder().id(1L).build();
+        SeatHold hold = SeatHold.builder()
+            .id(1L).holdToken("HOLD_X").customerId(10L)
+            .event(event).seatIds(seatIds)
+            .expiresAt(LocalDateTime.now().minusMinutes(1))
+            .status(SeatHold.HoldStatus.ACTIVE)
+            .build();
+
+        // Per-seat tracking: one record per seat, each releasing one seat and looking up its hold
+        when(seatRepository.releaseSeats(anyList())).thenReturn(1);
+        when(seatHoldRepository.findExpiredHoldsForSeat(eq(1L), anyLong(), any()))
+            .thenReturn(List.of(hold)).thenReturn(List.of());
+        for (Long seatId : seatIds) {
+            String json = "{\"eventType\":\"SEAT_HOLD_EXPIRED\",\"eventId\":1,\"seatId\":" + seatId + "}";
+            consumer.onSeatStateTransition(new ConsumerRecord<>("topic", 0, 0, "1:" + seatId, json));
+        }
+        verify(seatRepository, times(10)).releaseSeats(anyList());
+        verify(seatHoldRepository, times(10)).findExpiredHoldsForSeat(eq(1L), anyLong(), any());
+
+        // Per-hold tracking: one record, one hold update, one seat release, no lookups
+        clearInvocations(seatRepository, seatHoldRepository, messagingService);
+        when(seatHoldRepository.expireHoldByToken(eq("HOLD_X"), any())).thenReturn(1);
+
+        consumer.onSeatStateTransition(holdRecord("HOLD_X", seatIds));
+
+        verify(seatHoldRepository).expireHoldByToken(eq("HOLD_X"), any());
+        verify(seatRepository).releaseSeats(seatIds);
+        verify(seatHoldRepository, never()).findExpiredHoldsForSeat(any(), any(), any());
+        verify(messagingService).publishSeatHoldExpired("HOLD_X", 10L, 1L, seatIds);
+    }
+
+    private ConsumerRecord<String, String> holdRecord(String holdToken, List<Long> seatIds) {
+        String json = "{\"eventType\":\"SEAT_HOLD_EXPIRED\",\"eventId\":1,\"customerId\":10,"
+            + "\"holdToken\":\"" + holdToken + "\",\"seatIds\":" + seatIds.toString().replace(" ", "") + "}";
+        return new ConsumerRecord<>("topic", 0, 0, "1:" + holdToken, json);
+    }
+
     @Test
     void onSeatStateTransition_UnknownEventType_Ignored() {
         String json = "{\"eventType\":\"UNKNOWN_TYPE\",\"eventId\":1,\"seatId\":42}";
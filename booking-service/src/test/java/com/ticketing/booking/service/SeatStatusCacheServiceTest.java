@@ -1,23 +1,25 @@
 package com.ticketing.booking.service;
 
+import com.ticketing.common.dto.SeatChangesDto;
 import com.ticketing.common.service.SeatStatusCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
-import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -25,12 +27,19 @@ import static org.mockito.Mockito.*;
 @org.mockito.junit.jupiter.MockitoSettings(strictness = org.mockito.quality.Strictness.LENIENT)
 class SeatStatusCacheServiceTest {
 
+    private static final List<String> VERSIONED_KEYS =
+        List.of("{evt:1}:seat_status", "{evt:1}:seat_changes", "{evt:1}:seat_version");
+    private static final String CHANNEL = "{evt:1}:seat_events";
+
     @Mock
     private StringRedisTemplate redisTemplate;
 
     @Mock
     private HashOperations<String, Object, Object> hashOperations;
 
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
     @InjectMocks
     private SeatStatusCacheService seatStatusCacheService;
 
@@ -40,85 +49,74 @@ class SeatStatusCacheServiceTest {
     }
 
     @Test
-    void cacheSeatStatusChange_shouldSetFieldInHash() {
+    void cacheSeatStatusChange_shouldRecordVersionedChange() {
         seatStatusCacheService.cacheSeatStatusChange(1L, 123L, "HELD");
 
-        verify(hashOperations).put("1:seat_status", "123", "HELD");
-        verify(redisTemplate).expire("1:seat_status", Duration.ofSeconds(600));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(VERSIONED_KEYS),
+            eq("HELD"), eq("600"), eq(CHANNEL), eq("123"));
     }
 
     @Test
     void cacheSeatStatusChange_shouldOverwritePreviousStatus() {
         // First call: seat is AVAILABLE
         seatStatusCacheService.cacheSeatStatusChange(1L, 5L, "AVAILABLE");
-        verify(hashOperations).put("1:seat_status", "5", "AVAILABLE");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(VERSIONED_KEYS),
+            eq("AVAILABLE"), eq("600"), eq(CHANNEL), eq("5"));
 
-        // Second call: same seat now HELD -- overwrites atomically
+        // Second call: same seat now HELD -- overwrites atomically under a new version
         seatStatusCacheService.cacheSeatStatusChange(1L, 5L, "HELD");
-        verify(hashOperations).put("1:seat_status", "5", "HELD");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(VERSIONED_KEYS),
+            eq("HELD"), eq("600"), eq(CHANNEL), eq("5"));
     }
 
     @Test
-    @SuppressWarnings("unchecked")
     void cacheSeatStatusChanges_shouldBatchSetFields() {
         List<Long> seatIds = Arrays.asList(101L, 102L, 103L);
 
         seatStatusCacheService.cacheSeatStatusChanges(1L, seatIds, "BOOKED");
 
-        ArgumentCaptor<Map<String, String>> captor = ArgumentCaptor.forClass(Map.class);
-        verify(hashOperations).putAll(eq("1:seat_status"), captor.capture());
-
-        Map<String, String> captured = captor.getValue();
-        assertThat(captured).hasSize(3);
-        assertThat(captured.get("101")).isEqualTo("BOOKED");
-        assertThat(captured.get("102")).isEqualTo("BOOKED");
-        assertThat(captured.get("103")).isEqualTo("BOOKED");
-        verify(redisTemplate).expire("1:seat_status", Duration.ofSeconds(600));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(VERSIONED_KEYS),
+            eq("BOOKED"), eq("600"), eq(CHANNEL), eq("101"), eq("102"), eq("103"));
     }
 
     @Test
     void cacheSeatStatusChanges_withEmptyList_shouldSkip() {
         seatStatusCacheService.cacheSeatStatusChanges(1L, List.of(), "HELD");
 
-        verify(hashOperations, never()).putAll(anyString(), anyMap());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
     }
 
     @Test
     void cacheSeatStatusChanges_withNullList_shouldSkip() {
         seatStatusCacheService.cacheSeatStatusChanges(1L, null, "HELD");
 
-        verify(hashOperations, never()).putAll(anyString(), anyMap());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
     }
 
     @Test
     void removeSeatFromStatus_shouldDeleteField() {
         seatStatusCacheService.removeSeatFromStatus(1L, 123L, "HELD");
 
-        verify(hashOperations).delete("1:seat_status", "123");
+        verify(hashOperations).delete("{evt:1}:seat_status", "123");
     }
 
     @Test
     void transitionSeatStatus_shouldOverwriteWithNewStatus() {
-        // transition is just a put (HASH naturally overwrites)
+        // transition is just a versioned write (HASH naturally overwrites)
         seatStatusCacheService.transitionSeatStatus(1L, 123L, "HELD", "BOOKED");
 
-        verify(hashOperations).put("1:seat_status", "123", "BOOKED");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(VERSIONED_KEYS),
+            eq("BOOKED"), eq("600"), eq(CHANNEL), eq("123"));
     }
 
     @Test
-    @SuppressWarnings("unchecked")
     void transitionSeatStatuses_shouldBatchOverwrite() {
         List<Long> seatIds = Arrays.asList(101L, 102L, 103L);
 
         seatStatusCacheService.transitionSeatStatuses(1L, seatIds, "HELD", "AVAILABLE");
 
-        ArgumentCaptor<Map<String, String>> captor = ArgumentCaptor.forClass(Map.class);
-        verify(hashOperations).putAll(eq("1:seat_status"), captor.capture());
-
-        Map<String, String> captured = captor.getValue();
-        assertThat(captured.get("101")).isEqualTo("AVAILABLE");
-        assertThat(captured.get("102")).isEqualTo("AVAILABLE");
-        assertThat(captured.get("103")).isEqualTo("AVAILABLE");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(VERSIONED_KEYS),
+            eq("AVAILABLE"), eq("600"), eq(CHANNEL), eq("101"), eq("102"), eq("103"));
     }
 
     @Test
@@ -128,7 +126,7 @@ class SeatStatusCacheServiceTest {
         entries.put("102", "HELD");
         entries.put("103", "BOOKED");
         entries.put("104", "AVAILABLE");
-        when(hashOperations.entries("1:seat_status")).thenReturn(entries);
+        when(hashOperations.entries("{evt:1}:seat_status")).thenReturn(entries);
 
         Map<Long, String> changes = seatStatusCacheService.getRecentChanges(1L);
 
@@ -146,7 +144,7 @@ class SeatStatusCacheServiceTest {
         Map<Object, Object> entries = new HashMap<>();
         entries.put("5", "HELD");  // only one entry per seat in a HASH
         entries.put("6", "AVAILABLE");
-        when(hashOperations.entries("1:seat_status")).thenReturn(entries);
+        when(hashOperations.entries("{evt:1}:seat_status")).thenReturn(entries);
 
         Map<Long, String> changes = seatStatusCacheService.getRecentChanges(1L);
 
@@ -157,13 +155,25 @@ class SeatStatusCacheServiceTest {
 
     @Test
     void getRecentChanges_withEmptyHash_shouldReturnEmpty() {
-        when(hashOperations.entries("1:seat_status")).thenReturn(new HashMap<>());
+        when(hashOperations.entries("{evt:1}:seat_status")).thenReturn(new HashMap<>());
 
         Map<Long, String> changes = seatStatusCacheService.getRecentChanges(1L);
 
         assertThat(changes).isEmpty();
     }
 
+    @Test
+    void getRecentChanges_withOnlyLegacyKey_shouldFallBackToLegacyHash() {
+        Map<Object, Object> legacyEntries = new HashMap<>();
+        legacyEntries.put("7", "HELD");
+        when(hashOperations.entries("{evt:1}:seat_status")).thenReturn(new HashMap<>());
+        when(hashOperations.entries("1:seat_status")).thenReturn(legacyEntries);
+
+        Map<Long, String> changes = seatStatusCacheService.getRecentChanges(1L);
+
+        assertThat(changes).containsEntry(7L, "HELD");
+    }
+
     @Test
     void getRecentStatusCounts_shouldAggregate() {
         Map<Object, Object> entries = new HashMap<>();
@@ -172,7 +182,7 @@ class SeatStatusCacheServiceTest {
         entries.put("3", "BOOKED");
         entries.put("4", "AVAILABLE");
         entries.put("5", "AVAILABLE");
-        when(hashOperations.entries("1:seat_status")).thenReturn(entries);
+        when(hashOperations.entries("{evt:1}:seat_status")).thenReturn(entries);
 
         Map<String, Long> counts = seatStatusCacheService.getRecentStatusCounts(1L);
 
@@ -181,21 +191,87 @@ class SeatStatusCacheServiceTest {
         assertThat(counts.get("AVAILABLE")).isEqualTo(2L);
     }
 
+    @Test
+    void getSeatVersion_shouldReadCounter() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("{evt:1}:seat_version")).thenReturn("42");
+
+        assertThat(seatStatusCacheService.getSeatVersion(1L)).isEqualTo(42L);
+    }
+
+    @Test
+    void getSeatVersion_withoutChanges_shouldBeZero() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        assertThat(seatStatusCacheService.getSeatVersion(1L)).isZero();
+    }
+
+    @Test
+    void getChangesSince_shouldReturnChangedSeatsAndNewVersion() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(VERSIONED_KEYS), eq("40"), eq("100")))
+            .thenReturn(List.of("42", "OK", "101", "HELD", "102", "AVAILABLE"));
+
+        SeatChangesDto changes = seatStatusCacheService.getChangesSince(1L, 40L, 100);
+
+        assertThat(changes.isResyncRequired()).isFalse();
+        assertThat(changes.getVersion()).isEqualTo(42L);
+        assertThat(changes.getChanges()).containsExactly(entry(101L, "HELD"), entry(102L, "AVAILABLE"));
+    }
+
+    @Test
+    void getChangesSince_upToDate_shouldReturnNoChanges() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(VERSIONED_KEYS), eq("42"), eq("100")))
+            .thenReturn(List.of("42", "OK"));
+
+        SeatChangesDto changes = seatStatusCacheService.getChangesSince(1L, 42L, 100);
+
+        assertThat(changes.isResyncRequired()).isFalse();
+        assertThat(changes.getChanges()).isEmpty();
+    }
+
+    @Test
+    void getChangesSince_cursorTooOld_shouldRequireResync() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(VERSIONED_KEYS), eq("3"), eq("100")))
+            .thenReturn(List.of("42", "RESYNC"));
+
+        SeatChangesDto changes = seatStatusCacheService.getChangesSince(1L, 3L, 100);
+
+        assertThat(changes.isResyncRequired()).isTrue();
+        assertThat(changes.getVersion()).isEqualTo(42L);
+    }
+
+    @Test
+    void getChangesSince_redisFailure_shouldRequireResync() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenThrow(new RuntimeException("Redis connection error"));
+
+        assertThat(seatStatusCacheService.getChangesSince(1L, 3L, 100).isResyncRequired()).isTrue();
+    }
+
     @Test
     void clearRecentChanges_shouldDeleteKey() {
         seatStatusCacheService.clearRecentChanges(1L);
 
+        verify(redisTemplate).delete("{evt:1}:seat_status");
         verify(redisTemplate).delete("1:seat_status");
+        verify(redisTemplate).delete("{evt:1}:seat_changes");
+    }
+
+    @Test
+    void resetChanges_shouldDropChangeLogAndBumpVersionInOneScript() {
+        seatStatusCacheService.resetChanges(1L);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("{evt:1}:seat_changes", "{evt:1}:seat_version")));
     }
 
     @Test
     void cacheSeatStatusChange_withException_shouldLogAndContinue() {
-        doThrow(new RuntimeException("Redis connection error"))
-            .when(hashOperations).put(anyString(), any(), any());
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+            .thenThrow(new RuntimeException("Redis connection error"));
 
         // Should not throw
         seatStatusCacheService.cacheSeatStatusChange(1L, 123L, "HELD");
 
-        verify(hashOperations).put(anyString(), any(), any());
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
     }
 }
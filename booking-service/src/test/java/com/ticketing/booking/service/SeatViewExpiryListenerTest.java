@@ -0,0 +1,91 @@
+package com.ticketing.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.booking.allocation.SeatAllocationIndex;
+import com.ticketing.booking.inventory.SeatInventory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatViewExpiryListenerTest {
+
+    @Mock private SeatAllocationIndex seatAllocationIndex;
+    @Mock private SeatInventory seatInventory;
+
+    private SeatViewExpiryListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new SeatViewExpiryListener(seatAllocationIndex, seatInventory, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ConsumerRecord<String, String> record(String json) {
+        return new ConsumerRecord<>("seat-hold-expired", 0, 0, "1", json);
+    }
+
+    @Test
+    void expiredAfterCommit_FreesSeatsOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.expiredAfterCommit(1L, List.of(40L, 41L));
+
+        verifyNoInteractions(seatAllocationIndex, seatInventory);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(seatAllocationIndex).markFree(1L, List.of(40L, 41L));
+        verify(seatInventory).expire(1L, List.of(40L, 41L));
+    }
+
+    @Test
+    void expiredAfterCommit_RolledBack_SeatsStayTaken() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.expiredAfterCommit(1L, List.of(40L));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(seatAllocationIndex, seatInventory);
+    }
+
+    @Test
+    void expiredAfterCommit_NoTransaction_FreesRightAway() {
+        listener.expiredAfterCommit(1L, List.of(40L));
+
+        verify(seatAllocationIndex).markFree(1L, List.of(40L));
+        verify(seatInventory).expire(1L, List.of(40L));
+    }
+
+    @Test
+    void onSeatHoldExpired_ExpiryFromAnotherInstance_FreesSeats() {
+        listener.onSeatHoldExpired(record("{\"eventType\":\"SEAT_HOLD_EXPIRED\",\"holdToken\":\"HOLD_X\","
+            + "\"customerId\":5,\"eventId\":1,\"seatIds\":[40,41]}"));
+
+        verify(seatAllocationIndex).markFree(1L, List.of(40L, 41L));
+        verify(seatInventory).expire(1L, List.of(40L, 41L));
+    }
+
+    @Test
+    void onSeatHoldExpired_UnreadableOrOtherRecords_Ignored() {
+        listener.onSeatHoldExpired(record("{\"eventType\":\"SEAT_HOLD_CREATED\",\"eventId\":1,\"seatIds\":[40]}"));
+        listener.onSeatHoldExpired(record("not json"));
+
+        verifyNoInteractions(seatAllocationIndex, seatInventory);
+    }
+}
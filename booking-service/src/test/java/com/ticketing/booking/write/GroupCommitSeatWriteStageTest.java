@@ -0,0 +1,257 @@
+package com.ticketing.booking.write;
+
+import com.ticketing.booking.repository.BookingRepository;
+import com.ticketing.booking.repository.SeatHoldRepository;
+import com.ticketing.booking.repository.SeatRepository;
+import com.ticketing.booking.service.BookingException;
+import com.ticketing.common.entity.Booking;
+import com.ticketing.common.entity.Event;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.entity.SeatHold;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitSeatWriteStageTest {
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @Mock
+    private SeatHoldRepository seatHoldRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final Event event = Event.builder().id(1L).title("Test Event").build();
+    private final Map<Long, Seat.SeatStatus> seatStatuses = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    // What the writes' in-transaction callbacks were called with
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private GroupCommitSeatWriteStage stage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stage = new GroupCommitSeatWriteStage(seatRepository, seatHoldRepository, bookingRepository,
+                TransactionOperations.withoutTransaction(), meterRegistry);
+        // Wide window: a batch is cut when it is full, so concurrent submissions land in one batch
+        ReflectionTestUtils.setField(stage, "windowMicros", 2_000_000L);
+        ReflectionTestUtils.setField(stage, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(stage, "flusherCount", 1);
+        stage.start();
+
+        lenient().when(seatRepository.findByIdInForUpdate(anyList())).thenAnswer(inv -> {
+            List<Long> seatIds = inv.getArgument(0);
+            return seatIds.stream()
+                .filter(seatStatuses::containsKey)
+                .map(seatId -> Seat.builder()
+                    .id(seatId)
+                    .event(event)
+                    .price(new BigDecimal("100.00"))
+                    .status(seatStatuses.get(seatId))
+                    .build())
+                .toList();
+        });
+        lenient().when(seatRepository.holdSeatsGuarded(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        lenient().when(seatRepository.bookSeats(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        lenient().when(seatHoldRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<SeatHold> holds = inv.getArgument(0);
+            holds.forEach(hold -> hold.setId(ids.incrementAndGet()));
+            return holds;
+        });
+        lenient().when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stage.stop();
+    }
+
+    @Test
+    void concurrentWrites_CommittedInOneBatch() {
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+        seatStatuses.put(2L, Seat.SeatStatus.AVAILABLE);
+        seatStatuses.put(3L, Seat.SeatStatus.HELD);
+
+        CompletableFuture<SeatWriteStage.HeldSeats> first = holdAsync(List.of(1L));
+        CompletableFuture<SeatWriteStage.HeldSeats> second = holdAsync(List.of(2L));
+        CompletableFuture<Booking> confirm = CompletableFuture.supplyAsync(
+            () -> stage.writeConfirmation(hold(List.of(3L)), Booking.builder().seatIds(List.of(3L)).build(), published::add));
+
+        assertEquals(List.of(1L), seatIdsOf(first.join()));
+        assertEquals(List.of(2L), seatIdsOf(second.join()));
+        assertNotNull(confirm.join());
+
+        verify(seatRepository, times(1)).findByIdInForUpdate(List.of(1L, 2L, 3L));
+        verify(seatRepository, times(1)).holdSeatsGuarded(List.of(1L, 2L));
+        verify(seatRepository, times(1)).bookSeats(List.of(3L));
+        verify(seatHoldRepository, times(1)).saveAll(anyList());
+        assertEquals(1, meterRegistry.summary(GroupCommitSeatWriteStage.BATCH_SIZE_METRIC).count());
+        assertEquals(3.0, meterRegistry.summary(GroupCommitSeatWriteStage.BATCH_SIZE_METRIC).max());
+        assertEquals(3, meterRegistry.timer(GroupCommitSeatWriteStage.WAIT_METRIC).count());
+        assertEquals(3, published.size());
+    }
+
+    @Test
+    void conflictingWrite_FailsOnlyItsOwnCaller() {
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+        seatStatuses.put(2L, Seat.SeatStatus.BOOKED);
+        seatStatuses.put(3L, Seat.SeatStatus.AVAILABLE);
+
+        CompletableFuture<SeatWriteStage.HeldSeats> first = holdAsync(List.of(1L));
+        CompletableFuture<SeatWriteStage.HeldSeats> booked = holdAsync(List.of(2L, 3L));
+        CompletableFuture<SeatWriteStage.HeldSeats> third = holdAsync(List.of(3L));
+
+        assertNotNull(first.join().getSeatHold().getId());
+        assertNotNull(third.join().getSeatHold().getId());
+        CompletionException failure = assertThrows(CompletionException.class, booked::join);
+        assertInstanceOf(BookingException.class, failure.getCause());
+        assertTrue(failure.getCause().getMessage().contains("no longer available"));
+
+        verify(seatRepository).holdSeatsGuarded(List.of(1L, 3L));
+        // Only the applied writes publish
+        assertEquals(2, published.size());
+    }
+
+    @Test
+    void confirm_SeatNoLongerHeld_Rejected() {
+        ReflectionTestUtils.setField(stage, "windowMicros", 0L);
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+
+        BookingException exception = assertThrows(BookingException.class,
+            () -> stage.writeConfirmation(hold(List.of(1L)), Booking.builder().seatIds(List.of(1L)).build(), published::add));
+
+        assertTrue(exception.getMessage().contains("Failed to confirm all seats"));
+        verify(seatRepository, never()).bookSeats(anyList());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void hold_PackedSeatBooked_RejectedDespiteStaleRowStatus() {
+        ReflectionTestUtils.setField(stage, "windowMicros", 0L);
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+        when(seatRepository.lockPackedStatuses(anyCollection())).thenReturn(Map.of(1L, Seat.SeatStatus.BOOKED));
+
+        BookingException exception = assertThrows(BookingException.class, () -> stage.writeHold(hold(List.of(1L)), published::add));
+
+        assertTrue(exception.getMessage().contains("no longer available"));
+        verify(seatRepository, never()).holdSeatsGuarded(anyList());
+    }
+
+    @Test
+    void holdAfterConfirmInSameBatch_SeesSeatBooked() {
+        seatStatuses.put(1L, Seat.SeatStatus.HELD);
+        seatStatuses.put(2L, Seat.SeatStatus.AVAILABLE);
+
+        GroupCommitSeatWriteStage.SeatWrite confirm = new GroupCommitSeatWriteStage.SeatWrite(
+            Seat.SeatStatus.BOOKED, hold(List.of(1L)), Booking.builder().seatIds(List.of(1L)).build(), published::add);
+        GroupCommitSeatWriteStage.SeatWrite lateHold = new GroupCommitSeatWriteStage.SeatWrite(
+            Seat.SeatStatus.HELD, hold(List.of(1L)), null, published::add);
+        GroupCommitSeatWriteStage.SeatWrite duplicateSeats = new GroupCommitSeatWriteStage.SeatWrite(
+            Seat.SeatStatus.HELD, hold(List.of(2L, 2L)), null, published::add);
+
+        stage.flush(List.of(confirm, lateHold, duplicateSeats));
+
+        assertNotNull(confirm.result.join());
+        // Seat 1 is BOOKED by the confirmation ahead of it, as if the writes ran one by one
+        assertTrue(lateHold.result.isCompletedExceptionally());
+        // Duplicate seat IDs would never match the guarded update count
+        assertTrue(duplicateSeats.result.isCompletedExceptionally());
+        verify(seatRepository, never()).holdSeatsGuarded(anyList());
+        verify(seatRepository).bookSeats(List.of(1L));
+    }
+
+    @Test
+    void transactionFailure_FailsWholeBatch() {
+        ReflectionTestUtils.setField(stage, "windowMicros", 0L);
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+        when(seatHoldRepository.saveAll(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> stage.writeHold(hold(List.of(1L)), published::add));
+    }
+
+    @Test
+    void inTransactionCallback_RunsInsideTheBatchTransaction() {
+        ReflectionTestUtils.setField(stage, "windowMicros", 0L);
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+        List<String> steps = new CopyOnWriteArrayList<>();
+        stage.stop();
+        stage = new GroupCommitSeatWriteStage(seatRepository, seatHoldRepository, bookingRepository,
+            new TransactionOperations() {
+                @Override
+                public <T> T execute(TransactionCallback<T> action) {
+                    steps.add("begin");
+                    T result = action.doInTransaction(null);
+                    steps.add("commit");
+                    return result;
+                }
+            }, meterRegistry);
+        ReflectionTestUtils.setField(stage, "windowMicros", 0L);
+        ReflectionTestUtils.setField(stage, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(stage, "flusherCount", 1);
+        stage.start();
+
+        SeatWriteStage.HeldSeats held = stage.writeHold(hold(List.of(1L)), written -> {
+            assertNotNull(written.getSeatHold().getId());
+            steps.add("publish");
+        });
+
+        assertEquals(List.of("begin", "publish", "commit"), steps);
+        assertEquals(List.of(1L), seatIdsOf(held));
+    }
+
+    @Test
+    void inTransactionCallbackFailure_FailsWholeBatch() {
+        ReflectionTestUtils.setField(stage, "windowMicros", 0L);
+        seatStatuses.put(1L, Seat.SeatStatus.AVAILABLE);
+
+        assertThrows(IllegalStateException.class, () -> stage.writeHold(hold(List.of(1L)), written -> {
+            throw new IllegalStateException("Could not serialize SEAT_HOLD_CREATED event");
+        }));
+    }
+
+    private CompletableFuture<SeatWriteStage.HeldSeats> holdAsync(List<Long> seatIds) {
+        return CompletableFuture.supplyAsync(() -> stage.writeHold(hold(seatIds), published::add));
+    }
+
+    private static List<Long> seatIdsOf(SeatWriteStage.HeldSeats held) {
+        return held.getSeats().stream().map(Seat::getId).toList();
+    }
+
+    private static SeatHold hold(List<Long> seatIds) {
+        return SeatHold.builder()
+            .holdToken("HOLD_" + seatIds)
+            .customerId(1L)
+            .seatIds(seatIds)
+            .seatCount(seatIds.size())
+            .expiresAt(LocalDateTime.now().plusMinutes(10))
+            .status(SeatHold.HoldStatus.ACTIVE)
+            .build();
+    }
+}
@@ -14,6 +14,8 @@ CREATE TABLE IF NOT EXISTS events (
     base_price NUMERIC(10,2) NOT NULL,
     status VARCHAR(255) NOT NULL CHECK (status IN ('DRAFT','PUBLISHED','CANCELLED','COMPLETED')),
     organizer_id BIGINT NOT NULL,
+    packed_seats BOOLEAN DEFAULT FALSE NOT NULL,
+    venue_layout_id BIGINT,
     created_at TIMESTAMP(6) NOT NULL,
     updated_at TIMESTAMP(6) NOT NULL,
     version BIGINT
@@ -27,12 +29,29 @@ CREATE TABLE IF NOT EXISTS seats (
     seat_number INTEGER NOT NULL,
     price NUMERIC(10,2) NOT NULL,
     status VARCHAR(255) NOT NULL CHECK (status IN ('AVAILABLE','HELD','BOOKED')),
+    status_index INTEGER,
     created_at TIMESTAMP(6) NOT NULL,
     updated_at TIMESTAMP(6) NOT NULL,
     version BIGINT,
     CONSTRAINT fk_seat_event FOREIGN KEY (event_id) REFERENCES events(id)
 );
 
+CREATE TABLE IF NOT EXISTS packed_seat_layouts (
+    event_id BIGINT PRIMARY KEY,
+    seat_count INTEGER NOT NULL,
+    layout VARBINARY NOT NULL,
+    CONSTRAINT fk_packed_layout_event FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS packed_seat_statuses (
+    event_id BIGINT NOT NULL,
+    block INTEGER NOT NULL,
+    statuses VARBINARY NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (event_id, block),
+    CONSTRAINT fk_packed_statuses_event FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
 CREATE TABLE IF NOT EXISTS pricing_tiers (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     event_id BIGINT NOT NULL,
@@ -75,6 +94,83 @@ CREATE TABLE IF NOT EXISTS seat_holds (
     CONSTRAINT fk_hold_event FOREIGN KEY (event_id) REFERENCES events(id)
 );
 
+CREATE TABLE IF NOT EXISTS hold_seats (
+    hold_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_id BIGINT NOT NULL,
+    PRIMARY KEY (hold_id, seat_id),
+    CONSTRAINT fk_hold_seats_hold FOREIGN KEY (hold_id) REFERENCES seat_holds(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS booking_seats (
+    booking_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_id BIGINT NOT NULL,
+    PRIMARY KEY (booking_id, seat_id),
+    CONSTRAINT fk_booking_seats_booking FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS archived_events (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    city VARCHAR(100) NOT NULL,
+    venue VARCHAR(200) NOT NULL,
+    event_date TIMESTAMP(6) NOT NULL,
+    total_capacity INTEGER NOT NULL,
+    available_seats INTEGER NOT NULL,
+    base_price NUMERIC(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    organizer_id BIGINT NOT NULL,
+    pricing_tiers JSON,
+    created_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS archived_seats (
+    id BIGINT PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    section VARCHAR(50) NOT NULL,
+    row_letter VARCHAR(10) NOT NULL,
+    seat_number INTEGER NOT NULL,
+    price NUMERIC(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS archived_seat_holds (
+    id BIGINT PRIMARY KEY,
+    hold_token VARCHAR(255) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_ids BIGINT ARRAY NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS archived_bookings (
+    id BIGINT PRIMARY KEY,
+    booking_reference VARCHAR(100) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_ids BIGINT ARRAY NOT NULL,
+    total_amount NUMERIC(12,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_id VARCHAR(100),
+    hold_token VARCHAR(100),
+    created_at TIMESTAMP(6) NOT NULL,
+    confirmed_at TIMESTAMP(6),
+    cancelled_at TIMESTAMP(6)
+);
+
 -- Indexes
 CREATE INDEX IF NOT EXISTS idx_event_city_date ON events(city, event_date);
 CREATE INDEX IF NOT EXISTS idx_event_category ON events(category);
@@ -89,4 +185,8 @@ CREATE INDEX IF NOT EXISTS idx_booking_date ON bookings(created_at);
 CREATE INDEX IF NOT EXISTS idx_hold_customer ON seat_holds(customer_id);
 CREATE INDEX IF NOT EXISTS idx_hold_expiry ON seat_holds(expires_at);
 CREATE INDEX IF NOT EXISTS idx_hold_status ON seat_holds(status);
+CREATE INDEX IF NOT EXISTS idx_hold_seats_event_seat ON hold_seats(event_id, seat_id);
+CREATE INDEX IF NOT EXISTS idx_booking_seats_event_seat ON booking_seats(event_id, seat_id);
 CREATE INDEX IF NOT EXISTS idx_pricing_event ON pricing_tiers(event_id);
+CREATE INDEX IF NOT EXISTS idx_archived_hold_token ON archived_seat_holds(hold_token);
+CREATE INDEX IF NOT EXISTS idx_archived_booking_reference ON archived_bookings(booking_reference);
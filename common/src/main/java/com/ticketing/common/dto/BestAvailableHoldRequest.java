@@ -0,0 +1,35 @@
+package com.ticketing.common.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BestAvailableHoldRequest {
+
+    @NotNull(message = "Customer ID is required")
+    private Long customerId;
+
+    @NotNull(message = "Event ID is required")
+    private Long eventId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Can hold between 1 and 10 seats at a time")
+    @Max(value = 10, message = "Can hold between 1 and 10 seats at a time")
+    private Integer quantity;
+
+    // Optional: only pick seats in this section
+    private String section;
+
+    // Optional: only pick seats priced at or below this
+    @DecimalMin("0.00")
+    private BigDecimal maxPrice;
+
+    // Seats side by side in one row
+    @Builder.Default
+    private boolean together = true;
+}
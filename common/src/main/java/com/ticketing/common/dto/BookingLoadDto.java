@@ -0,0 +1,46 @@
+package com.ticketing.common.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * One booking-service instance's hold load over its last report interval, published for
+ * queue-service to adapt waiting room admission rates to.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingLoadDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String instanceId;
+
+    private long reportedAtMillis;
+
+    private long intervalMillis;
+
+    // Hold requests finished in the interval, and those that failed on a Redis error
+    // or fell back to DB locking because Redis was unavailable
+    private long holds;
+
+    private long redisErrors;
+
+    // Over the recent latency window, 0 without holds in it
+    private double holdP99Millis;
+
+    // Hikari pool, -1 when unknown
+    private int dbActiveConnections;
+
+    private int dbPendingThreads;
+
+    private int dbMaxConnections;
+
+    // Per event: hold requests, and those rejected because the seats were no longer available
+    private Map<Long, Long> holdsByEvent;
+
+    private Map<Long, Long> unavailableByEvent;
+}
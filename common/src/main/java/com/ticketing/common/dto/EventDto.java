@@ -8,6 +8,7 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -63,6 +64,15 @@ public class EventDto implements Serializable {
 
     private List<SeatDto> seats;
 
+    // Create the seats from this venue layout template; capacity then comes from the layout
+    private Long venueLayoutId;
+
+    // Section -> price over the venue layout's default prices
+    private Map<String, BigDecimal> sectionPrices;
+
+    // Seat status version the seats reflect; cursor for /seats/changes
+    private Long seatVersion;
+
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime createdAt;
 
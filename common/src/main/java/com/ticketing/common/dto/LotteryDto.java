@@ -0,0 +1,46 @@
+package com.ticketing.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Audit record of an event's pre-sale lottery. The commitment (SHA-256 of the seed) is
+ * published when the lottery is scheduled, the seed once it is drawn, so the drawn order
+ * can be recomputed from the entrants and checked against the digest.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LotteryDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SCHEDULED = "SCHEDULED";
+    public static final String DRAWING = "DRAWING";
+    public static final String DRAWN = "DRAWN";
+
+    private Long eventId;
+
+    private String state; // SCHEDULED, DRAWING, DRAWN
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime opensAt;
+
+    // Hex SHA-256 of the seed as 8 big-endian bytes
+    private String commitment;
+
+    private Long entrants;
+
+    // Join sequence of the first drawn place, once the draw has started
+    private Long firstSeq;
+
+    // Revealed once drawn
+    private Long seed;
+
+    // Hex SHA-256 of the drawn order, customer IDs as 8 big-endian bytes, once drawn
+    private String digest;
+}
@@ -0,0 +1,43 @@
+package com.ticketing.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueueStatusDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String WAITING = "WAITING";
+    public static final String ADMITTED = "ADMITTED";
+    public static final String NOT_IN_QUEUE = "NOT_IN_QUEUE";
+    public static final String LOTTERY = "LOTTERY";
+
+    private Long eventId;
+
+    private Long customerId;
+
+    private String status; // WAITING, ADMITTED, NOT_IN_QUEUE, LOTTERY
+
+    // Customers ahead + 1, while waiting
+    private Long position;
+
+    // Seconds until admission at the measured admission throughput, while waiting (streamed updates only)
+    private Long estimatedWaitSeconds;
+
+    // Sent with POST /api/bookings/hold once admitted
+    private String admissionToken;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime admissionExpiresAt;
+
+    // When the pre-sale lottery is drawn, while in it
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lotteryDrawAt;
+}
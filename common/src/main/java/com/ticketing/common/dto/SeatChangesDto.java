@@ -0,0 +1,30 @@
+package com.ticketing.common.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Seat status changes of an event since a version cursor.
+ *
+ * When resyncRequired is set the cursor is too old (or unknown) and the client
+ * must reload the full seat map; otherwise it applies changes and continues
+ * from version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SeatChangesDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long eventId;
+
+    private long version;
+
+    private boolean resyncRequired;
+
+    private Map<Long, String> changes; // seatId -> status
+}
@@ -5,17 +5,19 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class SeatHoldResponse {
 
     private String holdToken;
     private Long customerId;
     private Long eventId;
     private String eventTitle;
+    private List<Long> seatIds;
     private int seatCount;
     private BigDecimal totalAmount;
 
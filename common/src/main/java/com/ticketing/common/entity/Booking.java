@@ -10,6 +10,7 @@ import io.hypersistence.utils.hibernate.type.array.ListArrayType;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "bookings", indexes = {
@@ -45,6 +46,14 @@ public class Booking {
     @Column(name = "seat_ids", nullable = false, columnDefinition = "bigint[]")
     private List<Long> seatIds;
 
+    // booking_seats rows, see EventSeat
+    @ElementCollection
+    @CollectionTable(name = "booking_seats", joinColumns = @JoinColumn(name = "booking_id"),
+        indexes = @Index(name = "idx_booking_seats_event_seat", columnList = "event_id, seat_id"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<EventSeat> seats;
+
     @NotNull
     @DecimalMin("0.00")
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
@@ -77,6 +86,13 @@ public class Booking {
         CONFIRMED, CANCELLED, REFUNDED
     }
 
+    @PrePersist
+    private void linkSeats() {
+        if (seatIds != null && event != null) {
+            seats = EventSeat.linkRows(event, seatIds);
+        }
+    }
+
     // Helper methods
     public int getTicketCount() {
         return seatIds != null ? seatIds.size() : 0;
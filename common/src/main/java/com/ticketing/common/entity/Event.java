@@ -81,6 +81,14 @@ public class Event {
     @Column(name = "organizer_id", nullable = false)
     private Long organizerId;
 
+    // Seat statuses kept in packed_seat_statuses instead of the seats rows (large venues)
+    @Column(name = "packed_seats", nullable = false)
+    private boolean packedSeats;
+
+    // Venue layout template the seats were created from (venue_layouts), if any
+    @Column(name = "venue_layout_id")
+    private Long venueLayoutId;
+
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Seat> seats;
 
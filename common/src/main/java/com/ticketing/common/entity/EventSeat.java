@@ -0,0 +1,44 @@
+package com.ticketing.common.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One seat of a hold or booking, as a row of its seat link table (hold_seats, booking_seats).
+ * The event id is repeated per row so seat lookups can use the (event_id, seat_id) index
+ * without going through the owning hold or booking.
+ *
+ * The rows are filled from the owner's seat_ids array when it is first saved (its seat ids
+ * never change afterwards), see {@link #linkRows}. Queries by seat join the link table
+ * instead of searching seat_ids.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSeat {
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "seat_id", nullable = false)
+    private Long seatId;
+
+    /**
+     * Link rows for the seats of a hold or booking about to be saved
+     */
+    public static Set<EventSeat> linkRows(Event event, List<Long> seatIds) {
+        Set<EventSeat> rows = new HashSet<>(seatIds.size());
+        for (Long seatId : seatIds) {
+            rows.add(new EventSeat(event.getId(), seatId));
+        }
+        return rows;
+    }
+}
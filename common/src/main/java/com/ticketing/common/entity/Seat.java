@@ -54,6 +54,11 @@ public class Seat {
     @Enumerated(EnumType.STRING)
     private SeatStatus status;
 
+    // Position in the event's packed status array (see PackedSeatStatuses), set when the
+    // event's seats are packed; status is then no longer written and this row is layout only
+    @Column(name = "status_index")
+    private Integer statusIndex;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
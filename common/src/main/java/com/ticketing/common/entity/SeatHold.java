@@ -9,6 +9,7 @@ import io.hypersistence.utils.hibernate.type.array.ListArrayType;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "seat_holds", indexes = {
@@ -43,6 +44,14 @@ public class SeatHold {
     @Column(name = "seat_ids", nullable = false, columnDefinition = "bigint[]")
     private List<Long> seatIds; // List of held seat IDs
 
+    // hold_seats rows, see EventSeat
+    @ElementCollection
+    @CollectionTable(name = "hold_seats", joinColumns = @JoinColumn(name = "hold_id"),
+        indexes = @Index(name = "idx_hold_seats_event_seat", columnList = "event_id, seat_id"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<EventSeat> seats;
+
     @NotNull
     @Column(name = "seat_count", nullable = false)
     private Integer seatCount;
@@ -67,6 +76,13 @@ public class SeatHold {
         ACTIVE, EXPIRED, CONFIRMED, CANCELLED
     }
 
+    @PrePersist
+    private void linkSeats() {
+        if (seatIds != null && event != null) {
+            seats = EventSeat.linkRows(event, seatIds);
+        }
+    }
+
     // Helper methods
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiresAt);
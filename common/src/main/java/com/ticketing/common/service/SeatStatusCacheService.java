@@ -1,8 +1,11 @@
 package com.ticketing.common.service;
 
+import com.ticketing.common.dto.SeatChangesDto;
+import com.ticketing.common.util.RedisKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -16,10 +19,18 @@ import java.util.*;
  * groups (e.g. both AVAILABLE and HELD) when statuses cycled within the
  * sliding window.
  *
- * Key:   {eventId}:seat_status   (HASH)
+ * Key:   {evt:<eventId>}:seat_status   (HASH, hash-tagged - see RedisKeys)
  * Field: seatId (string)
  * Value: status (HELD | BOOKED | AVAILABLE)
  * TTL:   refreshed on every write (configurable, default 10 min)
+ *
+ * Every write also bumps a per-event version ({evt:<eventId>}:seat_version) and
+ * records it per seat in a change log ({evt:<eventId>}:seat_changes, ZSET scored
+ * by version), in the same script. Pollers then fetch only the seats changed
+ * since their cursor. The log holds one entry per seat, so it never outgrows the
+ * venue; its "floor" member marks the version from which it is complete (it
+ * expires with the overlay, while the counter itself never expires). The same
+ * script publishes each change on {evt:<eventId>}:seat_events for live streams.
  */
 @Service
 @Slf4j
@@ -28,28 +39,75 @@ public class SeatStatusCacheService {
 
     private final StringRedisTemplate redisTemplate;
 
-    private static final String SEAT_STATUS_KEY = "%d:seat_status";
     private static final Duration CACHE_TTL = Duration.ofSeconds(600);
 
+    private static final String FLOOR_MEMBER = "floor";
+    private static final String RESYNC = "RESYNC";
+
+    // ARGV: status, ttl seconds, channel, seatIds...; returns the new version.
+    // Publishes "<version> <status> <seatId>,<seatId>..." so listeners see changes in version order.
+    private static final String RECORD_CHANGES_LUA =
+        "local version = redis.call('INCR', KEYS[3]) " +
+        "if not redis.call('ZSCORE', KEYS[2], '" + FLOOR_MEMBER + "') then " +
+        "  redis.call('ZADD', KEYS[2], version - 1, '" + FLOOR_MEMBER + "') " +
+        "end " +
+        "local seats = {} " +
+        "for i = 4, #ARGV do " +
+        "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[1]) " +
+        "  redis.call('ZADD', KEYS[2], version, ARGV[i]) " +
+        "  seats[#seats + 1] = ARGV[i] " +
+        "end " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+        "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+        "redis.call('PUBLISH', ARGV[3], version .. ' ' .. ARGV[1] .. ' ' .. table.concat(seats, ',')) " +
+        "return version";
+
+    // ARGV: since, max changes; returns {version, "OK" | "RESYNC", seatId, status, ...}
+    private static final String CHANGES_SINCE_LUA =
+        "local version = tonumber(redis.call('GET', KEYS[3]) or '0') " +
+        "local since = tonumber(ARGV[1]) " +
+        "if since == version then return {tostring(version), 'OK'} end " +
+        "local floor = redis.call('ZSCORE', KEYS[2], '" + FLOOR_MEMBER + "') " +
+        "if since > version or not floor or since < tonumber(floor) then " +
+        "  return {tostring(version), '" + RESYNC + "'} " +
+        "end " +
+        "local seats = redis.call('ZRANGEBYSCORE', KEYS[2], '(' .. since, '+inf', 'LIMIT', 0, tonumber(ARGV[2]) + 1) " +
+        "if #seats > tonumber(ARGV[2]) then return {tostring(version), '" + RESYNC + "'} end " +
+        "local result = {tostring(version), 'OK'} " +
+        "for i = 1, #seats do " +
+        "  local status = redis.call('HGET', KEYS[1], seats[i]) " +
+        "  if not status then return {tostring(version), '" + RESYNC + "'} end " +
+        "  result[#result + 1] = seats[i] " +
+        "  result[#result + 1] = status " +
+        "end " +
+        "return result";
+
+    // KEYS: change log, version. Drops the log with its floor and bumps the version in one step,
+    // so the floor a racing write starts lies above every cursor handed out before
+    private static final String RESET_CHANGES_LUA =
+        "redis.call('DEL', KEYS[1]) " +
+        "return redis.call('INCR', KEYS[2])";
+
+    private static final DefaultRedisScript<Long> RESET_CHANGES_SCRIPT =
+        new DefaultRedisScript<>(RESET_CHANGES_LUA, Long.class);
+
+    private static final DefaultRedisScript<Long> RECORD_CHANGES_SCRIPT =
+        new DefaultRedisScript<>(RECORD_CHANGES_LUA, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CHANGES_SINCE_SCRIPT =
+        new DefaultRedisScript<>(CHANGES_SINCE_LUA, List.class);
+
     /**
      * Set the current status of a single seat.
      * Overwrites any previous status for this seat atomically.
      */
     public void cacheSeatStatusChange(Long eventId, Long seatId, String newStatus) {
-        try {
-            String key = String.format(SEAT_STATUS_KEY, eventId);
-            redisTemplate.opsForHash().put(key, seatId.toString(), newStatus);
-            redisTemplate.expire(key, CACHE_TTL);
-
-            log.debug("Cached seat status: eventId={} seatId={} status={}", eventId, seatId, newStatus);
-        } catch (Exception e) {
-            log.error("Failed to cache seat status: eventId={} seatId={} status={}",
-                     eventId, seatId, newStatus, e);
-        }
+        cacheSeatStatusChanges(eventId, List.of(seatId), newStatus);
     }
 
     /**
-     * Set the current status of multiple seats in one batch.
+     * Set the current status of multiple seats in one batch, under one new version.
      */
     public void cacheSeatStatusChanges(Long eventId, List<Long> seatIds, String newStatus) {
         if (seatIds == null || seatIds.isEmpty()) {
@@ -57,16 +115,17 @@ public class SeatStatusCacheService {
         }
 
         try {
-            String key = String.format(SEAT_STATUS_KEY, eventId);
-            Map<String, String> entries = new HashMap<>();
-            for (Long seatId : seatIds) {
-                entries.put(seatId.toString(), newStatus);
+            String[] args = new String[seatIds.size() + 3];
+            args[0] = newStatus;
+            args[1] = String.valueOf(CACHE_TTL.toSeconds());
+            args[2] = RedisKeys.seatEventsChannel(eventId);
+            for (int i = 0; i < seatIds.size(); i++) {
+                args[i + 3] = seatIds.get(i).toString();
             }
-            redisTemplate.opsForHash().putAll(key, entries);
-            redisTemplate.expire(key, CACHE_TTL);
+            Long version = redisTemplate.execute(RECORD_CHANGES_SCRIPT, versionedKeys(eventId), (Object[]) args);
 
-            log.debug("Cached {} seat status changes: eventId={} status={}",
-                     seatIds.size(), eventId, newStatus);
+            log.debug("Cached {} seat status changes: eventId={} status={} version={}",
+                     seatIds.size(), eventId, newStatus, version);
         } catch (Exception e) {
             log.error("Failed to batch cache seat status: eventId={} seatIds={} status={}",
                      eventId, seatIds, newStatus, e);
@@ -94,7 +153,7 @@ public class SeatStatusCacheService {
      */
     public void removeSeatFromStatus(Long eventId, Long seatId, String oldStatus) {
         try {
-            String key = String.format(SEAT_STATUS_KEY, eventId);
+            String key = RedisKeys.seatStatusKey(eventId);
             redisTemplate.opsForHash().delete(key, seatId.toString());
 
             log.debug("Removed seat from status cache: eventId={} seatId={}", eventId, seatId);
@@ -112,8 +171,11 @@ public class SeatStatusCacheService {
         Map<Long, String> changes = new HashMap<>();
 
         try {
-            String key = String.format(SEAT_STATUS_KEY, eventId);
-            Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(RedisKeys.seatStatusKey(eventId));
+            if (entries.isEmpty()) {
+                // Overlay written before the hash-tagged layout and not migrated yet
+                entries = redisTemplate.opsForHash().entries(RedisKeys.legacySeatStatusKey(eventId));
+            }
             for (Map.Entry<Object, Object> entry : entries.entrySet()) {
                 changes.put(Long.parseLong(entry.getKey().toString()),
                            entry.getValue().toString());
@@ -127,6 +189,73 @@ public class SeatStatusCacheService {
         return changes;
     }
 
+    /**
+     * Current seat status version of an event (0 if nothing has changed yet).
+     * Read it before the seat snapshot it is handed out with: changes racing the
+     * snapshot are then re-sent by the next delta instead of being lost.
+     */
+    public long getSeatVersion(Long eventId) {
+        try {
+            String version = redisTemplate.opsForValue().get(RedisKeys.seatVersionKey(eventId));
+            return version != null ? Long.parseLong(version) : 0L;
+        } catch (Exception e) {
+            log.error("Failed to get seat version for eventId={}", eventId, e);
+            return 0L;
+        }
+    }
+
+    /**
+     * Seats whose status changed after version {@code since}, with their current status.
+     * Resync is required when the cursor is ahead of the counter, older than the change
+     * log, or more than {@code maxChanges} seats changed (a full reload is cheaper then).
+     */
+    public SeatChangesDto getChangesSince(Long eventId, long since, int maxChanges) {
+        List<?> result;
+        try {
+            result = redisTemplate.execute(CHANGES_SINCE_SCRIPT, versionedKeys(eventId),
+                String.valueOf(since), String.valueOf(maxChanges));
+        } catch (Exception e) {
+            log.error("Failed to get seat changes for eventId={} since={}", eventId, since, e);
+            result = null;
+        }
+        if (result == null || result.size() < 2) {
+            return resync(eventId, since);
+        }
+
+        long version = Long.parseLong(result.get(0).toString());
+        if (RESYNC.equals(result.get(1).toString())) {
+            log.debug("Seat changes for eventId={} since={} need a resync (version={})", eventId, since, version);
+            return resync(eventId, version);
+        }
+
+        Map<Long, String> changes = new LinkedHashMap<>();
+        for (int i = 2; i + 1 < result.size(); i += 2) {
+            changes.put(Long.parseLong(result.get(i).toString()), result.get(i + 1).toString());
+        }
+        log.debug("Retrieved {} seat changes for eventId={} since={} (version={})",
+                 changes.size(), eventId, since, version);
+        return SeatChangesDto.builder()
+            .eventId(eventId)
+            .version(version)
+            .changes(changes)
+            .build();
+    }
+
+    /**
+     * Make every outstanding cursor of an event resync, for statuses written to the overlay
+     * without a version (e.g. moved there by a key migration): bumps the version and drops
+     * the change log, so {@link #getChangesSince} answers with a resync.
+     */
+    public void resetChanges(Long eventId) {
+        try {
+            Long version = redisTemplate.execute(RESET_CHANGES_SCRIPT,
+                List.of(RedisKeys.seatChangesKey(eventId), RedisKeys.seatVersionKey(eventId)));
+            log.info("Reset seat changes for eventId={}, cursors resync from version {}", eventId, version);
+        } catch (Exception e) {
+            log.error("Failed to reset seat changes for eventId={}", eventId, e);
+        }
+    }
+
     /**
      * Get count of seats in each status from the cache.
      */
@@ -153,10 +282,27 @@ public class SeatStatusCacheService {
      */
     public void clearRecentChanges(Long eventId) {
         try {
-            redisTemplate.delete(String.format(SEAT_STATUS_KEY, eventId));
+            redisTemplate.delete(RedisKeys.seatStatusKey(eventId));
+            redisTemplate.delete(RedisKeys.legacySeatStatusKey(eventId));
+            // Without the log (and its floor) every outstanding cursor resyncs
+            redisTemplate.delete(RedisKeys.seatChangesKey(eventId));
             log.info("Cleared recent changes for eventId={}", eventId);
         } catch (Exception e) {
             log.error("Failed to clear recent changes for eventId={}", eventId, e);
         }
     }
+
+    private static SeatChangesDto resync(Long eventId, long version) {
+        return SeatChangesDto.builder()
+            .eventId(eventId)
+            .version(version)
+            .resyncRequired(true)
+            .changes(Map.of())
+            .build();
+    }
+
+    private static List<String> versionedKeys(Long eventId) {
+        return List.of(RedisKeys.seatStatusKey(eventId), RedisKeys.seatChangesKey(eventId),
+            RedisKeys.seatVersionKey(eventId));
+    }
 }
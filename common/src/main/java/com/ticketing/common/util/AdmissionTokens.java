@@ -0,0 +1,206 @@
+package com.ticketing.common.util;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Self-verifying waiting room admission tokens, signed by queue-service and checked by
+ * booking-service with the shared secret and no lookup.
+ *
+ * A token is "QUEUE_" followed by 64 base64url characters: 48 bytes holding eventId,
+ * customerId, expiry (epoch ms) and nonce as big-endian longs, then the first 16 bytes
+ * of their HMAC-SHA256. Verification decodes into per-thread buffers, signs with a
+ * per-thread Mac keyed once, and compares the signature in constant time.
+ */
+public final class AdmissionTokens {
+
+    public static final String PREFIX = "QUEUE_";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final int CLAIMS_LENGTH = 32;
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final int TOKEN_BYTES = CLAIMS_LENGTH + SIGNATURE_LENGTH;
+    private static final int TOKEN_LENGTH = PREFIX.length() + TOKEN_BYTES / 3 * 4;
+
+    private static final char[] ALPHABET =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    public enum Status {
+        VALID, MALFORMED, BAD_SIGNATURE, EXPIRED
+    }
+
+    /**
+     * What a valid token says; filled in by {@link #verify} so callers can reuse one
+     */
+    public static final class Claims {
+        private long eventId;
+        private long customerId;
+        private long expiresAtMillis;
+        private long nonce;
+
+        public long getEventId() {
+            return eventId;
+        }
+
+        public long getCustomerId() {
+            return customerId;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        public long getNonce() {
+            return nonce;
+        }
+    }
+
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * @param secret shared signing secret, at least 32 bytes
+     */
+    public AdmissionTokens(String secret) {
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalArgumentException("Admission token secret must be at least 32 bytes");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac(key)));
+    }
+
+    public String sign(long eventId, long customerId, long expiresAtMillis, long nonce) {
+        Scratch s = scratch.get();
+        byte[] bytes = new byte[TOKEN_BYTES];
+        putLong(bytes, 0, eventId);
+        putLong(bytes, 8, customerId);
+        putLong(bytes, 16, expiresAtMillis);
+        putLong(bytes, 24, nonce);
+        s.sign(bytes);
+        System.arraycopy(s.signature, 0, bytes, CLAIMS_LENGTH, SIGNATURE_LENGTH);
+
+        char[] token = new char[TOKEN_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), token, 0);
+        int out = PREFIX.length();
+        for (int i = 0; i < TOKEN_BYTES; i += 3) {
+            int group = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | bytes[i + 2] & 0xff;
+            token[out++] = ALPHABET[group >>> 18];
+            token[out++] = ALPHABET[group >>> 12 & 0x3f];
+            token[out++] = ALPHABET[group >>> 6 & 0x3f];
+            token[out++] = ALPHABET[group & 0x3f];
+        }
+        return new String(token);
+    }
+
+    /**
+     * Check a token's signature and expiry; on VALID its claims are copied into claims.
+     * Whether it is for the right event and customer is the caller's check.
+     */
+    public Status verify(CharSequence token, long nowMillis, Claims claims) {
+        if (token == null || token.length() != TOKEN_LENGTH || !startsWithPrefix(token)) {
+            return Status.MALFORMED;
+        }
+        Scratch s = scratch.get();
+        byte[] bytes = s.token;
+        int out = 0;
+        for (int i = PREFIX.length(); i < TOKEN_LENGTH; i += 4) {
+            int group = 0;
+            for (int j = 0; j < 4; j++) {
+                char c = token.charAt(i + j);
+                int value = c < 128 ? DECODE[c] : -1;
+                if (value < 0) {
+                    return Status.MALFORMED;
+                }
+                group = group << 6 | value;
+            }
+            bytes[out++] = (byte) (group >>> 16);
+            bytes[out++] = (byte) (group >>> 8);
+            bytes[out++] = (byte) group;
+        }
+
+        s.sign(bytes);
+        int diff = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            diff |= s.signature[i] ^ bytes[CLAIMS_LENGTH + i];
+        }
+        if (diff != 0) {
+            return Status.BAD_SIGNATURE;
+        }
+
+        long expiresAtMillis = getLong(bytes, 16);
+        if (expiresAtMillis <= nowMillis) {
+            return Status.EXPIRED;
+        }
+        claims.eventId = getLong(bytes, 0);
+        claims.customerId = getLong(bytes, 8);
+        claims.expiresAtMillis = expiresAtMillis;
+        claims.nonce = getLong(bytes, 24);
+        return Status.VALID;
+    }
+
+    private static boolean startsWithPrefix(CharSequence token) {
+        for (int i = 0; i < PREFIX.length(); i++) {
+            if (token.charAt(i) != PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | bytes[offset + i] & 0xff;
+        }
+        return value;
+    }
+
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] token = new byte[TOKEN_BYTES];
+        private final byte[] signature = new byte[MAC_LENGTH];
+
+        private Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        // HMAC-SHA256 of the claims (first 32 bytes) into signature
+        private void sign(byte[] bytes) {
+            mac.update(bytes, 0, CLAIMS_LENGTH);
+            try {
+                mac.doFinal(signature, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
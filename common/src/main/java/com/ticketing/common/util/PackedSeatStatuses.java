@@ -0,0 +1,62 @@
+package com.ticketing.common.util;
+
+import com.ticketing.common.entity.Seat;
+
+/**
+ * 2-bit seat statuses packed four to a byte, the status encoding of packed-seat events
+ * (packed_seat_statuses) and of the binary seat map.
+ *
+ * Seat i uses bits (i % 4) * 2 of byte i / 4: 0 = AVAILABLE, 1 = HELD, 2 = BOOKED.
+ * A packed event stores its statuses in blocks of {@value #BLOCK_SEATS} seats, one row
+ * per block, so concurrent writes to different parts of a venue lock different rows.
+ * The block size is a multiple of 4, so the blocks concatenated in order are the status
+ * array of the whole event. A seat's index is seats.status_index.
+ */
+public final class PackedSeatStatuses {
+
+    public static final int BLOCK_SEATS = 4096;
+
+    private PackedSeatStatuses() {
+    }
+
+    public static int block(int statusIndex) {
+        return statusIndex / BLOCK_SEATS;
+    }
+
+    public static int offset(int statusIndex) {
+        return statusIndex % BLOCK_SEATS;
+    }
+
+    /**
+     * Bytes needed for the statuses of seatCount seats
+     */
+    public static int byteLength(int seatCount) {
+        return (seatCount + 3) / 4;
+    }
+
+    public static Seat.SeatStatus get(byte[] statuses, int index) {
+        return status((statuses[index / 4] >> ((index % 4) * 2)) & 3);
+    }
+
+    public static void set(byte[] statuses, int index, Seat.SeatStatus status) {
+        int shift = (index % 4) * 2;
+        statuses[index / 4] = (byte) ((statuses[index / 4] & ~(3 << shift)) | (code(status) << shift));
+    }
+
+    public static int code(Seat.SeatStatus status) {
+        return switch (status) {
+            case AVAILABLE -> 0;
+            case HELD -> 1;
+            case BOOKED -> 2;
+        };
+    }
+
+    public static Seat.SeatStatus status(int code) {
+        return switch (code) {
+            case 0 -> Seat.SeatStatus.AVAILABLE;
+            case 1 -> Seat.SeatStatus.HELD;
+            case 2 -> Seat.SeatStatus.BOOKED;
+            default -> throw new IllegalArgumentException("Invalid packed seat status: " + code);
+        };
+    }
+}
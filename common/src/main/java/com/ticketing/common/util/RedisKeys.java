@@ -0,0 +1,334 @@
+package com.ticketing.common.util;
+
+/**
+ * Redis key layout shared by all services.
+ *
+ * Every per-event key embeds the hash tag {evt:<eventId>}, so Redis Cluster
+ * hashes only that part and all keys of one event land in the same slot.
+ * Multi-key scripts and pipelines (hold, confirm, status overlay) can then
+ * run against a single node.
+ *
+ *   seat:{evt:42}:7:HELD      seat hold lock (STRING, TTL = hold duration)
+ *   {evt:42}:seat_status      real-time status overlay (HASH)
+ *   {evt:42}:seat_version     per-event seat status version (STRING counter)
+ *   {evt:42}:seat_changes     latest change version per seat (ZSET)
+ *   {evt:42}:seat_events      seat status change notifications (pub/sub channel)
+ *   hold:{evt:42}:5:HOLD_X:EXPIRES  hold expiry trigger (STRING, TTL = hold duration)
+ *   hold:{evt:42}:5:HOLD_X:SEATS    seats of that hold (HASH, outlives the trigger)
+ *
+ * Hold expiry schedule partitions are tagged {hold_expiry:<partition>} instead,
+ * so the partitions spread over the cluster while each one stays in a single slot:
+ *
+ *   {hold_expiry:3}:due       holds by expiry time (ZSET, member <eventId>:<customerId>:<holdToken>)
+ *   {hold_expiry:3}:claimed   holds being expired by a drainer (ZSET, score = lease deadline)
+ *   {hold_expiry:3}:holds     due time and seats per hold (HASH, "<dueMs>,<seatId>,<seatId>...")
+ *
+ * Background job shard leases are tagged {job:<name>}:
+ *
+ *   {job:hold-cleanup}:members  live instances (ZSET, score = last heartbeat)
+ *   {job:hold-cleanup}:leases   shard -> "<instance>|<fencing token>|<expires ms>" (HASH)
+ *   {job:hold-cleanup}:fences   last fencing token per shard (HASH counters)
+ *
+ * Waiting room keys are tagged {queue:<eventId>}, apart from the event's seat keys, so an
+ * on-sale's join traffic does not land on the node serving that event's holds:
+ *
+ *   {queue:42}:waiting          waiting customers by join sequence (ZSET, member customerId)
+ *   {queue:42}:joined           join time per waiting customer (HASH, ms)
+ *   {queue:42}:seen             waiting customers by when an instance last had their
+ *                               position stream open (ZSET, ms)
+ *   {queue:42}:state            "seq" last join sequence, "head" last admitted sequence,
+ *                               "credit" / "credit_ms" admission token bucket,
+ *                               "rate" / "rate_ms" adaptive admission rate,
+ *                               "opens_ms" / "lottery_*" pre-sale lottery (HASH)
+ *   {queue:42}:pool             pre-sale lottery entrants until the draw (SET, member customerId)
+ *   {queue:42}:admissions       customerId -> "<token nonce>:<expires ms>" (HASH)
+ *   {queue:42}:admission_expiry admitted customers by expiry, for pruning (ZSET)
+ *   queue:active_events         events with a waiting room in use, by last join (ZSET, ms)
+ *   booking:load                booking-service instance -> its latest load report (HASH, JSON)
+ *
+ * The legacy untagged keys (seat:42:7:HELD, 42:seat_status) are still
+ * understood so keys written before the switch can be migrated.
+ */
+public class RedisKeys {
+
+    private static final String SEAT_HOLD_KEY = "seat:%s:%d:HELD";
+    private static final String SEAT_STATUS_KEY = "%s:seat_status";
+    private static final String SEAT_VERSION_KEY = "%s:seat_version";
+    private static final String SEAT_CHANGES_KEY = "%s:seat_changes";
+    private static final String SEAT_EVENTS_CHANNEL = "%s:seat_events";
+
+    private static final String HOLD_EXPIRY_KEY = "hold:%s:%s:EXPIRES";
+    private static final String HOLD_SEATS_KEY = "hold:%s:%s:SEATS";
+
+    private static final String HOLD_EXPIRY_DUE_KEY = "{hold_expiry:%d}:due";
+    private static final String HOLD_EXPIRY_CLAIMED_KEY = "{hold_expiry:%d}:claimed";
+    private static final String HOLD_EXPIRY_HOLDS_KEY = "{hold_expiry:%d}:holds";
+
+    private static final String JOB_MEMBERS_KEY = "{job:%s}:members";
+    private static final String JOB_LEASES_KEY = "{job:%s}:leases";
+    private static final String JOB_FENCES_KEY = "{job:%s}:fences";
+
+    private static final String QUEUE_WAITING_KEY = "%s:waiting";
+    private static final String QUEUE_JOINED_KEY = "%s:joined";
+    private static final String QUEUE_SEEN_KEY = "%s:seen";
+    private static final String QUEUE_STATE_KEY = "%s:state";
+    private static final String QUEUE_ADMISSIONS_KEY = "%s:admissions";
+    private static final String QUEUE_ADMISSION_EXPIRY_KEY = "%s:admission_expiry";
+    private static final String QUEUE_POOL_KEY = "%s:pool";
+
+    /**
+     * Events with a waiting room in use, scored by their last join (ms)
+     */
+    public static final String QUEUE_ACTIVE_EVENTS_KEY = "queue:active_events";
+
+    /**
+     * Latest load report per booking-service instance, read by the admission rate controller
+     */
+    public static final String BOOKING_LOAD_KEY = "booking:load";
+
+    private static final String SEAT_KEY_PREFIX = "seat:";
+    private static final String HELD_SUFFIX = ":HELD";
+    private static final String HOLD_KEY_PREFIX = "hold:";
+    private static final String EXPIRES_SUFFIX = ":EXPIRES";
+
+    /**
+     * Glob patterns matching only the legacy (untagged) keys, for SCAN-based migration.
+     */
+    public static final String LEGACY_SEAT_HOLD_PATTERN = "seat:[0-9]*:HELD";
+    public static final String LEGACY_SEAT_STATUS_PATTERN = "[0-9]*:seat_status";
+
+    private RedisKeys() {
+    }
+
+    /**
+     * Hash tag shared by all keys of an event: {evt:<eventId>}
+     */
+    public static String eventTag(Long eventId) {
+        return "{evt:" + eventId + "}";
+    }
+
+    /**
+     * Seat hold lock key: seat:{evt:<eventId>}:<seatId>:HELD
+     */
+    public static String seatHoldKey(Long eventId, Long seatId) {
+        return String.format(SEAT_HOLD_KEY, eventTag(eventId), seatId);
+    }
+
+    /**
+     * Seat status overlay key: {evt:<eventId>}:seat_status
+     */
+    public static String seatStatusKey(Long eventId) {
+        return String.format(SEAT_STATUS_KEY, eventTag(eventId));
+    }
+
+    /**
+     * Seat status version counter: {evt:<eventId>}:seat_version
+     */
+    public static String seatVersionKey(Long eventId) {
+        return String.format(SEAT_VERSION_KEY, eventTag(eventId));
+    }
+
+    /**
+     * Seat change log: {evt:<eventId>}:seat_changes
+     */
+    public static String seatChangesKey(Long eventId) {
+        return String.format(SEAT_CHANGES_KEY, eventTag(eventId));
+    }
+
+    /**
+     * Seat status change channel: {evt:<eventId>}:seat_events
+     */
+    public static String seatEventsChannel(Long eventId) {
+        return String.format(SEAT_EVENTS_CHANNEL, eventTag(eventId));
+    }
+
+    /**
+     * Hold expiry trigger: hold:{evt:<eventId>}:<customerId>:<holdToken>:EXPIRES
+     *
+     * @param holderValue {customerId}:{holdToken}, the value of the hold's seat keys
+     */
+    public static String holdExpiryKey(Long eventId, String holderValue) {
+        return String.format(HOLD_EXPIRY_KEY, eventTag(eventId), holderValue);
+    }
+
+    /**
+     * Seat list of a hold: hold:{evt:<eventId>}:<customerId>:<holdToken>:SEATS
+     */
+    public static String holdSeatsKey(Long eventId, String holderValue) {
+        return String.format(HOLD_SEATS_KEY, eventTag(eventId), holderValue);
+    }
+
+    /**
+     * Holds of an expiry schedule partition by due time: {hold_expiry:<partition>}:due
+     */
+    public static String holdExpiryDueKey(int partition) {
+        return String.format(HOLD_EXPIRY_DUE_KEY, partition);
+    }
+
+    /**
+     * Holds of an expiry schedule partition claimed by a drainer: {hold_expiry:<partition>}:claimed
+     */
+    public static String holdExpiryClaimedKey(int partition) {
+        return String.format(HOLD_EXPIRY_CLAIMED_KEY, partition);
+    }
+
+    /**
+     * Due time and seats of the scheduled holds of a partition: {hold_expiry:<partition>}:holds
+     */
+    public static String holdExpiryHoldsKey(int partition) {
+        return String.format(HOLD_EXPIRY_HOLDS_KEY, partition);
+    }
+
+    /**
+     * Live instances of a sharded background job: {job:<name>}:members
+     */
+    public static String jobMembersKey(String job) {
+        return String.format(JOB_MEMBERS_KEY, job);
+    }
+
+    /**
+     * Shard leases of a background job: {job:<name>}:leases
+     */
+    public static String jobLeasesKey(String job) {
+        return String.format(JOB_LEASES_KEY, job);
+    }
+
+    /**
+     * Fencing token counters of a background job's shards: {job:<name>}:fences
+     */
+    public static String jobFencesKey(String job) {
+        return String.format(JOB_FENCES_KEY, job);
+    }
+
+    /**
+     * Hash tag shared by the waiting room keys of an event: {queue:<eventId>}
+     */
+    public static String queueTag(Long eventId) {
+        return "{queue:" + eventId + "}";
+    }
+
+    /**
+     * Waiting customers by join sequence: {queue:<eventId>}:waiting
+     */
+    public static String queueWaitingKey(Long eventId) {
+        return String.format(QUEUE_WAITING_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Join times of waiting customers: {queue:<eventId>}:joined
+     */
+    public static String queueJoinedKey(Long eventId) {
+        return String.format(QUEUE_JOINED_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Last time any instance had a customer's position stream open: {queue:<eventId>}:seen
+     */
+    public static String queueSeenKey(Long eventId) {
+        return String.format(QUEUE_SEEN_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Join sequence, admitted head, admission rate and lottery state: {queue:<eventId>}:state
+     */
+    public static String queueStateKey(Long eventId) {
+        return String.format(QUEUE_STATE_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Admission token nonce and expiry by customer: {queue:<eventId>}:admissions
+     */
+    public static String queueAdmissionsKey(Long eventId) {
+        return String.format(QUEUE_ADMISSIONS_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Admitted customers by admission expiry: {queue:<eventId>}:admission_expiry
+     */
+    public static String queueAdmissionExpiryKey(Long eventId) {
+        return String.format(QUEUE_ADMISSION_EXPIRY_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Pre-sale lottery entrants: {queue:<eventId>}:pool
+     */
+    public static String queuePoolKey(Long eventId) {
+        return String.format(QUEUE_POOL_KEY, queueTag(eventId));
+    }
+
+    /**
+     * Pre-cluster seat hold key: seat:<eventId>:<seatId>:HELD
+     */
+    public static String legacySeatHoldKey(Long eventId, Long seatId) {
+        return String.format(SEAT_HOLD_KEY, eventId, seatId);
+    }
+
+    /**
+     * Pre-cluster seat status key: <eventId>:seat_status
+     */
+    public static String legacySeatStatusKey(Long eventId) {
+        return String.format(SEAT_STATUS_KEY, eventId);
+    }
+
+    /**
+     * Parse a seat hold key in either the tagged or the legacy format.
+     *
+     * @return {eventId, seatId}, or null if the key is not a seat hold key
+     * @throws NumberFormatException if the key has the right shape but non-numeric IDs
+     */
+    public static long[] parseSeatHoldKey(String key) {
+        if (key == null || !key.startsWith(SEAT_KEY_PREFIX) || !key.endsWith(HELD_SUFFIX)) {
+            return null;
+        }
+
+        String body = key.substring(SEAT_KEY_PREFIX.length(), key.length() - HELD_SUFFIX.length());
+        String[] parts = body.split(":");
+
+        if (parts.length == 3 && parts[0].equals("{evt") && parts[1].endsWith("}")) {
+            // {evt:<eventId>}:<seatId>
+            String eventId = parts[1].substring(0, parts[1].length() - 1);
+            return new long[] { Long.parseLong(eventId), Long.parseLong(parts[2]) };
+        }
+        if (parts.length == 2) {
+            // <eventId>:<seatId>
+            return new long[] { Long.parseLong(parts[0]), Long.parseLong(parts[1]) };
+        }
+        return null;
+    }
+
+    /**
+     * Parse a hold expiry trigger key.
+     *
+     * @return {eventId, customerId, holdToken} as found in the key, or null if it is not a hold expiry key
+     */
+    public static String[] parseHoldExpiryKey(String key) {
+        if (key == null || !key.startsWith(HOLD_KEY_PREFIX) || !key.endsWith(EXPIRES_SUFFIX)) {
+            return null;
+        }
+
+        String body = key.substring(HOLD_KEY_PREFIX.length(), key.length() - EXPIRES_SUFFIX.length());
+        String[] parts = body.split(":");
+
+        if (parts.length == 4 && parts[0].equals("{evt") && parts[1].endsWith("}")) {
+            // {evt:<eventId>}:<customerId>:<holdToken>
+            String eventId = parts[1].substring(0, parts[1].length() - 1);
+            return new String[] { eventId, parts[2], parts[3] };
+        }
+        return null;
+    }
+
+    /**
+     * Event ID of a legacy status key (<eventId>:seat_status), or null if it is not one.
+     */
+    public static Long parseLegacySeatStatusKey(String key) {
+        if (key == null || !key.endsWith(":seat_status")) {
+            return null;
+        }
+        String eventId = key.substring(0, key.length() - ":seat_status".length());
+        try {
+            return Long.parseLong(eventId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
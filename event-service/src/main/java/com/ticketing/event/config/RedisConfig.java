@@ -0,0 +1,28 @@
+package com.ticketing.event.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Slf4j
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Listener container for seat status channels (one subscription per streamed event).
+     * Messages are dispatched on the subscription thread, in publish order; listeners
+     * only buffer them.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(new SyncTaskExecutor());
+        container.setErrorHandler(e -> log.error("Redis listener container error", e));
+        return container;
+    }
+}
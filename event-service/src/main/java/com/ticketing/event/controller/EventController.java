@@ -1,7 +1,10 @@
 package com.ticketing.event.controller;
 
 import com.ticketing.common.dto.EventDto;
+import com.ticketing.common.dto.SeatChangesDto;
+import com.ticketing.event.seatmap.SeatMapEncoder;
 import com.ticketing.event.service.EventService;
+import com.ticketing.event.stream.SeatStatusStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,8 +16,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +33,7 @@ import java.util.Optional;
 public class EventController {
 
     private final EventService eventService;
+    private final SeatStatusStreamService seatStatusStreamService;
 
     @GetMapping
     @Operation(
@@ -128,6 +134,76 @@ public class EventController {
         }
     }
 
+    @GetMapping("/{id}/seats/changes")
+    @Operation(
+        summary = "Get seat status changes",
+        description = "Seats whose status changed since a version cursor (seatVersion of the seat layout " +
+                     "or version of the previous call). When resyncRequired is set, reload the full layout."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Changes (or resync signal) returned"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    public ResponseEntity<SeatChangesDto> getSeatChanges(
+            @Parameter(description = "Event ID") @PathVariable Long id,
+            @Parameter(description = "Version cursor") @RequestParam long since) {
+
+        log.debug("Fetching seat changes for ID: {} since version {}", id, since);
+
+        if (since < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(eventService.getSeatChanges(id, since));
+    }
+
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream live seat status",
+        description = "Server-Sent Events stream of seat status changes, batched per short window. " +
+                     "Each seat-changes event has the seat version as id; pass seatVersion of the seat " +
+                     "layout as since (or reconnect with Last-Event-ID) to get missed changes first. " +
+                     "A resync event means the client must reload the full layout."
+    )
+    public SseEmitter streamSeatStatus(
+            @Parameter(description = "Event ID") @PathVariable Long id,
+            @Parameter(description = "Seat version the client already has")
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        log.debug("Opening seat status stream for ID: {} since={} lastEventId={}", id, since, lastEventId);
+
+        return seatStatusStreamService.subscribe(id, lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping(value = "/{id}/seats", produces = SeatMapEncoder.MEDIA_TYPE)
+    @Operation(
+        summary = "Get event seat map (binary)",
+        description = "Same seat layout and real-time status as the JSON seat list, in the compact " +
+                     "dictionary-encoded format. Selected with Accept: " + SeatMapEncoder.MEDIA_TYPE + "."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Seat map found"),
+        @ApiResponse(responseCode = "404", description = "Event not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<byte[]> getSeatMap(
+            @Parameter(description = "Event ID") @PathVariable Long id) {
+
+        log.debug("Fetching binary seat map for ID: {}", id);
+
+        Optional<byte[]> seatMap = eventService.getSeatMap(id);
+
+        if (seatMap.isPresent()) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(SeatMapEncoder.MEDIA_TYPE))
+                .body(seatMap.get());
+        } else {
+            log.debug("Event not found: {}", id);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/upcoming")
     @Operation(
         summary = "Get upcoming events",
@@ -227,6 +303,9 @@ public class EventController {
 
             return ResponseEntity.status(HttpStatus.CREATED).body(createdEvent);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid event for organizer {}: {}", organizerId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error creating event for organizer: {}", organizerId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -280,6 +359,52 @@ public class EventController {
         }
     }
 
+    @PostMapping("/{id}/seats/pack")
+    @Operation(
+        summary = "Pack seat statuses",
+        description = "Move the event's seat statuses into packed 2-bit storage (large venues). " +
+                      "The seat map is then served from one stored row. One-way."
+    )
+    public ResponseEntity<Void> packSeats(
+            @Parameter(description = "Event ID") @PathVariable Long id,
+            @RequestHeader("X-Organizer-Id") Long organizerId) {
+
+        log.info("Packing seats of event: {} for organizer: {}", id, organizerId);
+
+        boolean packed = eventService.packSeats(id);
+
+        if (packed) {
+            log.info("Seats packed successfully: {}", id);
+            return ResponseEntity.ok().build();
+        } else {
+            log.warn("Failed to pack seats of event: {}", id);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{id}/layout")
+    @Operation(
+        summary = "Save venue layout",
+        description = "Save the event's seat layout as a template for its venue. Events created with " +
+                      "the returned venueLayoutId share it instead of copying it, and start with packed seats."
+    )
+    public ResponseEntity<Long> createVenueLayout(
+            @Parameter(description = "Event ID") @PathVariable Long id,
+            @Parameter(description = "Layout name, e.g. the stage configuration") @RequestParam String name,
+            @RequestHeader("X-Organizer-Id") Long organizerId) {
+
+        log.info("Saving venue layout of event: {} for organizer: {}", id, organizerId);
+
+        Optional<Long> layoutId = eventService.createVenueLayout(id, name);
+
+        if (layoutId.isPresent()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(layoutId.get());
+        } else {
+            log.warn("Failed to save venue layout of event: {}", id);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check endpoint")
     public ResponseEntity<String> health() {
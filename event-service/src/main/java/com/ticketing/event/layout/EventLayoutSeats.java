@@ -0,0 +1,60 @@
+package com.ticketing.event.layout;
+
+import com.ticketing.common.dto.SeatDto;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Seats of one event created from a venue layout: the shared layout plus what is the
+ * event's own, its seat IDs and packed statuses by seat index and its section prices.
+ * About 8.25 bytes per seat on top of the layout, where the seat entities of the same
+ * event take a few hundred.
+ */
+public final class EventLayoutSeats {
+
+    private final long eventId;
+    private final VenueLayout layout;
+    private final long[] seatIds;
+    private final byte[] statuses;
+    private final Map<String, BigDecimal> sectionPrices;
+
+    public EventLayoutSeats(long eventId, VenueLayout layout, long[] seatIds, byte[] statuses,
+                            Map<String, BigDecimal> sectionPrices) {
+        this.eventId = eventId;
+        this.layout = layout;
+        this.seatIds = seatIds;
+        this.statuses = statuses;
+        this.sectionPrices = sectionPrices;
+    }
+
+    public VenueLayout getLayout() {
+        return layout;
+    }
+
+    public int getSeatCount() {
+        return seatIds.length;
+    }
+
+    public long seatId(int seatIndex) {
+        return seatIds[seatIndex];
+    }
+
+    public Seat.SeatStatus status(int seatIndex) {
+        return PackedSeatStatuses.get(statuses, seatIndex);
+    }
+
+    public SeatDto toSeatDto(int seatIndex) {
+        return SeatDto.builder()
+            .id(seatIds[seatIndex])
+            .eventId(eventId)
+            .section(layout.section(seatIndex))
+            .rowLetter(layout.rowLetter(seatIndex))
+            .seatNumber(layout.seatNumber(seatIndex))
+            .price(layout.price(seatIndex, sectionPrices))
+            .status(status(seatIndex).name())
+            .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.ticketing.event.layout;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.event.seatmap.SeatMapEncoder;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable seat layout of a venue (venue_layouts), shared by every event created from it.
+ *
+ * Seats are addressed by seat index, their position in seat map order (section, row, seat
+ * number). Sections, rows and prices repeat across thousands of seats, so each distinct
+ * value is held once and seats store small indexes into those tables; an event adds only
+ * its seat IDs, statuses and section price overrides (see EventLayoutSeats).
+ */
+public final class VenueLayout {
+
+    private final long id;
+    private final String venue;
+    private final String name;
+    private final String[] sections;
+    private final String[] rowLetters;
+    private final BigDecimal[] prices;
+    // Per seat, by seat index
+    private final short[] sectionOf;
+    private final int[] rowOf;
+    private final int[] seatNumbers;
+    private final short[] priceOf;
+
+    VenueLayout(long id, String venue, String name, String[] sections, String[] rowLetters, BigDecimal[] prices,
+                short[] sectionOf, int[] rowOf, int[] seatNumbers, short[] priceOf) {
+        this.id = id;
+        this.venue = venue;
+        this.name = name;
+        this.sections = sections;
+        this.rowLetters = rowLetters;
+        this.prices = prices;
+        this.sectionOf = sectionOf;
+        this.rowOf = rowOf;
+        this.seatNumbers = seatNumbers;
+        this.priceOf = priceOf;
+    }
+
+    /**
+     * @param seats expected seat count, to size the arrays
+     */
+    public static Builder builder(long id, String venue, String name, int seats) {
+        return new Builder(id, venue, name, seats);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSeatCount() {
+        return seatNumbers.length;
+    }
+
+    public String section(int seatIndex) {
+        return sections[sectionOf[seatIndex]];
+    }
+
+    public String rowLetter(int seatIndex) {
+        return rowLetters[rowOf[seatIndex]];
+    }
+
+    public int seatNumber(int seatIndex) {
+        return seatNumbers[seatIndex];
+    }
+
+    /**
+     * Price of a seat for an event: the event's price for the seat's section, or the layout's
+     */
+    public BigDecimal price(int seatIndex, Map<String, BigDecimal> sectionPrices) {
+        BigDecimal price = sectionPrices.get(section(seatIndex));
+        return price != null ? price : prices[priceOf[seatIndex]];
+    }
+
+    /**
+     * Seat map of a new event created from this layout, all seats available
+     *
+     * @param seatIds the event's seat IDs by seat index
+     */
+    public SeatMapEncoder encode(long eventId, long[] seatIds, Map<String, BigDecimal> sectionPrices) {
+        SeatMapEncoder encoder = new SeatMapEncoder(eventId);
+        for (int seatIndex = 0; seatIndex < seatIds.length; seatIndex++) {
+            encoder.addSeat(seatIds[seatIndex], section(seatIndex), rowLetter(seatIndex), seatNumber(seatIndex),
+                price(seatIndex, sectionPrices), Seat.SeatStatus.AVAILABLE);
+        }
+        return encoder;
+    }
+
+    /**
+     * Collects seats in seat index order, interning repeated sections, rows and prices
+     */
+    public static final class Builder {
+        private final long id;
+        private final String venue;
+        private final String name;
+        private final Map<String, Integer> sections = new LinkedHashMap<>();
+        private final Map<String, Integer> rowLetters = new LinkedHashMap<>();
+        private final Map<BigDecimal, Integer> prices = new LinkedHashMap<>();
+        private short[] sectionOf;
+        private int[] rowOf;
+        private int[] seatNumbers;
+        private short[] priceOf;
+        private int seatCount;
+
+        private Builder(long id, String venue, String name, int seats) {
+            this.id = id;
+            this.venue = venue;
+            this.name = name;
+            int capacity = Math.max(seats, 16);
+            this.sectionOf = new short[capacity];
+            this.rowOf = new int[capacity];
+            this.seatNumbers = new int[capacity];
+            this.priceOf = new short[capacity];
+        }
+
+        public Builder addSeat(String section, String rowLetter, int seatNumber, BigDecimal price) {
+            if (seatCount == seatNumbers.length) {
+                int capacity = seatCount * 2;
+                sectionOf = Arrays.copyOf(sectionOf, capacity);
+                rowOf = Arrays.copyOf(rowOf, capacity);
+                seatNumbers = Arrays.copyOf(seatNumbers, capacity);
+                priceOf = Arrays.copyOf(priceOf, capacity);
+            }
+            sectionOf[seatCount] = (short) (int) sections.computeIfAbsent(section, key -> sections.size());
+            rowOf[seatCount] = rowLetters.computeIfAbsent(rowLetter, key -> rowLetters.size());
+            seatNumbers[seatCount] = seatNumber;
+            // compareTo-equal prices (50.0 / 50.00) are kept apart, as in the seat map
+            priceOf[seatCount] = (short) (int) prices.computeIfAbsent(price, key -> prices.size());
+            seatCount++;
+            return this;
+        }
+
+        public VenueLayout build() {
+            if (sections.size() > Short.MAX_VALUE || prices.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many sections or prices in venue layout " + id);
+            }
+            return new VenueLayout(id, venue, name,
+                sections.keySet().toArray(new String[0]),
+                rowLetters.keySet().toArray(new String[0]),
+                prices.keySet().toArray(new BigDecimal[0]),
+                Arrays.copyOf(sectionOf, seatCount), Arrays.copyOf(rowOf, seatCount),
+                Arrays.copyOf(seatNumbers, seatCount), Arrays.copyOf(priceOf, seatCount));
+        }
+    }
+}
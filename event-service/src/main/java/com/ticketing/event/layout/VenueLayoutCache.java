@@ -0,0 +1,37 @@
+package com.ticketing.event.layout;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Venue layouts loaded once per instance and shared by all events using them. Layouts are
+ * never updated (a changed venue gets a new layout), so entries are never invalidated;
+ * there are as many as venues in use, not events.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VenueLayoutCache {
+
+    private final VenueLayoutRepository venueLayoutRepository;
+
+    private final Map<Long, VenueLayout> layouts = new ConcurrentHashMap<>();
+
+    public Optional<VenueLayout> get(Long layoutId) {
+        VenueLayout layout = layouts.get(layoutId);
+        if (layout != null) {
+            return Optional.of(layout);
+        }
+        // Loaded outside the map so a slow load does not block other layouts; concurrent
+        // loads of one layout are equal and the first stored wins
+        Optional<VenueLayout> loaded = venueLayoutRepository.findById(layoutId);
+        loaded.ifPresent(found -> log.info("Loaded venue layout {} ({}, {}): {} seats",
+            layoutId, found.getVenue(), found.getName(), found.getSeatCount()));
+        return loaded.map(found -> layouts.computeIfAbsent(layoutId, id -> found));
+    }
+}
@@ -0,0 +1,133 @@
+package com.ticketing.event.layout;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Venue layout templates (venue_layouts, venue_layout_seats) and the seat rows of events
+ * created from them. Every seat statement here is set-based: a 50k-seat layout is copied
+ * in one INSERT ... SELECT, never row by row from the JVM.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VenueLayoutRepository {
+
+    private static final String INSERT_LAYOUT_SQL =
+        "INSERT INTO venue_layouts (venue, name, seat_count) " +
+        "SELECT e.venue, :name, (SELECT COUNT(*) FROM seats s WHERE s.event_id = e.id) FROM events e " +
+        "WHERE e.id = :eventId AND EXISTS (SELECT 1 FROM seats s WHERE s.event_id = e.id) RETURNING id";
+
+    // Seat index = position in seat map order (EventRepository.streamSeatRowsByEventId)
+    private static final String COPY_EVENT_SEATS_SQL =
+        "INSERT INTO venue_layout_seats (layout_id, seat_index, section, row_letter, seat_number, price) " +
+        "SELECT :layoutId, row_number() OVER (ORDER BY section, row_letter, seat_number) - 1, " +
+        "section, row_letter, seat_number, price FROM seats WHERE event_id = :eventId";
+
+    private static final String LAYOUT_SQL =
+        "SELECT venue, name, seat_count FROM venue_layouts WHERE id = :layoutId";
+
+    private static final String LAYOUT_SEATS_SQL =
+        "SELECT section, row_letter, seat_number, price FROM venue_layout_seats WHERE layout_id = :layoutId " +
+        "ORDER BY seat_index";
+
+    // status_index = seat_index: the event is packed from the start
+    private static final String CREATE_SEATS_SQL =
+        "INSERT INTO seats (event_id, section, row_letter, seat_number, price, status, status_index, seat_identifier) " +
+        "SELECT :eventId, l.section, l.row_letter, l.seat_number, COALESCE(p.price, l.price), 'AVAILABLE', " +
+        "l.seat_index, l.section || '-' || l.row_letter || l.seat_number " +
+        "FROM venue_layout_seats l LEFT JOIN event_section_prices p ON p.event_id = :eventId AND p.section = l.section " +
+        "WHERE l.layout_id = :layoutId ORDER BY l.seat_index RETURNING id, status_index";
+
+    private static final String SEAT_IDS_SQL =
+        "SELECT id, status_index FROM seats WHERE event_id = :eventId AND status_index IS NOT NULL";
+
+    private static final String INSERT_SECTION_PRICE_SQL =
+        "INSERT INTO event_section_prices (event_id, section, price) VALUES (:eventId, :section, :price)";
+
+    private static final String SECTION_PRICES_SQL =
+        "SELECT section, price FROM event_section_prices WHERE event_id = :eventId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Save the seat layout of an existing event as a template for its venue
+     *
+     * @return the new layout's ID, empty if the event does not exist or has no seats
+     */
+    public Optional<Long> createFromEvent(Long eventId, String name) {
+        MapSqlParameterSource params = new MapSqlParameterSource("eventId", eventId).addValue("name", name);
+        List<Long> ids = jdbcTemplate.queryForList(INSERT_LAYOUT_SQL, params, Long.class);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        jdbcTemplate.update(COPY_EVENT_SEATS_SQL, params.addValue("layoutId", ids.get(0)));
+        return Optional.of(ids.get(0));
+    }
+
+    public Optional<VenueLayout> findById(Long layoutId) {
+        Map<String, Long> params = Map.of("layoutId", layoutId);
+        List<VenueLayout.Builder> builders = jdbcTemplate.query(LAYOUT_SQL, params, (rs, rowNum) ->
+            VenueLayout.builder(layoutId, rs.getString("venue"), rs.getString("name"), rs.getInt("seat_count")));
+        if (builders.isEmpty()) {
+            return Optional.empty();
+        }
+        VenueLayout.Builder builder = builders.get(0);
+        jdbcTemplate.query(LAYOUT_SEATS_SQL, params, rs -> {
+            builder.addSeat(rs.getString("section"), rs.getString("row_letter"), rs.getInt("seat_number"),
+                rs.getBigDecimal("price"));
+        });
+        return Optional.of(builder.build());
+    }
+
+    /**
+     * Create an event's seat rows from its layout, priced by its section prices (save those first)
+     *
+     * @return the new seat IDs by seat index
+     */
+    public long[] createSeats(Long eventId, VenueLayout layout) {
+        long[] seatIds = new long[layout.getSeatCount()];
+        MapSqlParameterSource params = new MapSqlParameterSource("eventId", eventId)
+            .addValue("layoutId", layout.getId());
+        jdbcTemplate.query(CREATE_SEATS_SQL, params, rs -> {
+            seatIds[rs.getInt("status_index")] = rs.getLong("id");
+        });
+        return seatIds;
+    }
+
+    /**
+     * Seat IDs of an event created from a layout, by seat index
+     */
+    public long[] findSeatIds(Long eventId, int seatCount) {
+        long[] seatIds = new long[seatCount];
+        jdbcTemplate.query(SEAT_IDS_SQL, Map.of("eventId", eventId), rs -> {
+            seatIds[rs.getInt("status_index")] = rs.getLong("id");
+        });
+        return seatIds;
+    }
+
+    public void saveSectionPrices(Long eventId, Map<String, BigDecimal> sectionPrices) {
+        SqlParameterSource[] rows = sectionPrices.entrySet().stream()
+            .map(entry -> new MapSqlParameterSource("eventId", eventId)
+                .addValue("section", entry.getKey())
+                .addValue("price", entry.getValue()))
+            .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_SECTION_PRICE_SQL, rows);
+    }
+
+    public Map<String, BigDecimal> findSectionPrices(Long eventId) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        jdbcTemplate.query(SECTION_PRICES_SQL, Map.of("eventId", eventId), rs -> {
+            prices.put(rs.getString("section"), rs.getBigDecimal("price"));
+        });
+        return prices;
+    }
+}
@@ -2,16 +2,20 @@ package com.ticketing.event.repository;
 
 import com.ticketing.common.entity.Event;
 import com.ticketing.common.enums.EventStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
@@ -116,6 +120,21 @@ public interface EventRepository extends JpaRepository<Event, Long> {
            "WHERE e.id = :eventId")
     Optional<Event> findByIdWithSeats(@Param("eventId") Long eventId);
 
+    /**
+     * Venue layout the event's seats were created from, if any
+     */
+    @Query("SELECT e.venueLayoutId FROM Event e WHERE e.id = :eventId")
+    Optional<Long> findVenueLayoutIdById(@Param("eventId") Long eventId);
+
+    /**
+     * Stream seat layout and status rows (id, section, rowLetter, seatNumber, price, status)
+     * in row order, without loading Seat entities. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id, s.section, s.rowLetter, s.seatNumber, s.price, s.status FROM Seat s " +
+           "WHERE s.event.id = :eventId ORDER BY s.section, s.rowLetter, s.seatNumber")
+    Stream<Object[]> streamSeatRowsByEventId(@Param("eventId") Long eventId);
+
     /**
      * Count events by status for admin dashboard
      */
@@ -0,0 +1,173 @@
+package com.ticketing.event.seatmap;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Seat storage of events with packed seats (events.packed_seats), for very large venues.
+ *
+ * The static layout is written once, as the binary seat map without its status block
+ * (packed_seat_layouts); statuses are 2-bit arrays split into blocks of
+ * {@value PackedSeatStatuses#BLOCK_SEATS} seats (packed_seat_statuses), kept current by the
+ * booking-service hold, confirm and release paths. A seat's status_index is its position in
+ * the seat map, so the seat map of a packed event is the layout followed by the blocks,
+ * read in one row.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class PackedSeatStorage {
+
+    private static final String SEAT_MAP_SQL =
+        "SELECT l.seat_count, l.layout, " +
+        "(SELECT array_agg(p.statuses ORDER BY p.block) FROM packed_seat_statuses p WHERE p.event_id = l.event_id) " +
+        "AS statuses FROM packed_seat_layouts l WHERE l.event_id = :eventId";
+
+    private static final String STATUSES_SQL =
+        "SELECT statuses FROM packed_seat_statuses WHERE event_id = :eventId ORDER BY block";
+
+    private static final String STATUS_INDEXES_SQL =
+        "SELECT id, status_index FROM seats WHERE event_id = :eventId AND id IN (:seatIds) " +
+        "AND status_index IS NOT NULL";
+
+    // Same order as the seat map rows (EventRepository.streamSeatRowsByEventId)
+    private static final String LOCK_SEATS_SQL =
+        "SELECT id, section, row_letter, seat_number, price, status FROM seats WHERE event_id = :eventId " +
+        "ORDER BY section, row_letter, seat_number FOR UPDATE";
+
+    private static final String SET_STATUS_INDEX_SQL =
+        "UPDATE seats SET status_index = :statusIndex WHERE id = :id";
+
+    private static final String INSERT_LAYOUT_SQL =
+        "INSERT INTO packed_seat_layouts (event_id, seat_count, layout) VALUES (:eventId, :seatCount, :layout)";
+
+    private static final String INSERT_BLOCK_SQL =
+        "INSERT INTO packed_seat_statuses (event_id, block, statuses) VALUES (:eventId, :block, :statuses)";
+
+    private static final int BLOCK_BYTES = PackedSeatStatuses.byteLength(PackedSeatStatuses.BLOCK_SEATS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Binary seat map of a packed event, with the given statuses applied over the stored ones
+     */
+    public Optional<byte[]> findSeatMap(Long eventId, Map<Long, Seat.SeatStatus> overrides) {
+        Map<Long, Integer> overrideIndexes = overrides.isEmpty() ? Map.of() : statusIndexes(eventId, overrides.keySet());
+
+        List<byte[]> seatMaps = jdbcTemplate.query(SEAT_MAP_SQL, Map.of("eventId", eventId), (rs, rowNum) -> {
+            byte[] layout = rs.getBytes("layout");
+            byte[] statuses = new byte[PackedSeatStatuses.byteLength(rs.getInt("seat_count"))];
+            int offset = 0;
+            for (byte[] block : blocks(rs.getArray("statuses"))) {
+                int length = Math.min(block.length, statuses.length - offset);
+                System.arraycopy(block, 0, statuses, offset, length);
+                offset += length;
+            }
+            overrideIndexes.forEach((seatId, statusIndex) ->
+                PackedSeatStatuses.set(statuses, statusIndex, overrides.get(seatId)));
+
+            byte[] seatMap = Arrays.copyOf(layout, layout.length + statuses.length);
+            System.arraycopy(statuses, 0, seatMap, layout.length, statuses.length);
+            return seatMap;
+        });
+        return seatMaps.stream().findFirst();
+    }
+
+    /**
+     * Status array of a packed event (its blocks concatenated), empty when not packed
+     */
+    public byte[] findStatuses(Long eventId) {
+        ByteArrayOutputStream statuses = new ByteArrayOutputStream();
+        for (byte[] block : jdbcTemplate.queryForList(STATUSES_SQL, Map.of("eventId", eventId), byte[].class)) {
+            statuses.writeBytes(block);
+        }
+        return statuses.toByteArray();
+    }
+
+    /**
+     * Move an event's seat statuses from its seat rows into the packed tables. The seat rows
+     * are locked for the rest of the transaction, so no row status write is lost; the caller
+     * then marks the event as packed in the same transaction.
+     *
+     * @return number of seats packed
+     */
+    public int pack(Long eventId) {
+        SeatMapEncoder encoder = new SeatMapEncoder(eventId);
+        List<Long> seatIds = jdbcTemplate.query(LOCK_SEATS_SQL, Map.of("eventId", eventId), (rs, rowNum) -> {
+            long seatId = rs.getLong("id");
+            encoder.addSeat(seatId, rs.getString("section"), rs.getString("row_letter"), rs.getInt("seat_number"),
+                rs.getBigDecimal("price"), Seat.SeatStatus.valueOf(rs.getString("status")));
+            return seatId;
+        });
+
+        SqlParameterSource[] indexes = new SqlParameterSource[seatIds.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = new MapSqlParameterSource("id", seatIds.get(i)).addValue("statusIndex", i);
+        }
+        jdbcTemplate.batchUpdate(SET_STATUS_INDEX_SQL, indexes);
+
+        store(eventId, encoder);
+        return seatIds.size();
+    }
+
+    /**
+     * Write the layout and status blocks of an event whose seat rows already carry their
+     * status_index (position in the encoder), e.g. seats just created from a venue layout
+     */
+    public void store(Long eventId, SeatMapEncoder encoder) {
+        ByteArrayOutputStream layout = new ByteArrayOutputStream();
+        try {
+            encoder.writeLayoutTo(layout);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        jdbcTemplate.update(INSERT_LAYOUT_SQL, new MapSqlParameterSource("eventId", eventId)
+            .addValue("seatCount", encoder.getSeatCount())
+            .addValue("layout", layout.toByteArray()));
+
+        byte[] statuses = encoder.getStatuses();
+        for (int from = 0; from < statuses.length; from += BLOCK_BYTES) {
+            jdbcTemplate.update(INSERT_BLOCK_SQL, new MapSqlParameterSource("eventId", eventId)
+                .addValue("block", from / BLOCK_BYTES)
+                .addValue("statuses", Arrays.copyOfRange(statuses, from, Math.min(from + BLOCK_BYTES, statuses.length))));
+        }
+
+        log.info("Stored packed seats of event {}: {} seats, layout {} bytes, statuses {} bytes",
+            eventId, encoder.getSeatCount(), layout.size(), statuses.length);
+    }
+
+    private Map<Long, Integer> statusIndexes(Long eventId, Collection<Long> seatIds) {
+        Map<Long, Integer> indexes = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("eventId", eventId).addValue("seatIds", seatIds);
+        jdbcTemplate.query(STATUS_INDEXES_SQL, params, rs -> {
+            indexes.put(rs.getLong("id"), rs.getInt("status_index"));
+        });
+        return indexes;
+    }
+
+    private static List<byte[]> blocks(Array array) throws SQLException {
+        if (array == null) {
+            return List.of();
+        }
+        Object[] values = (Object[]) array.getArray();
+        return Arrays.stream(values).map(value -> (byte[]) value).toList();
+    }
+}
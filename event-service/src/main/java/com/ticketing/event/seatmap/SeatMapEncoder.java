@@ -0,0 +1,188 @@
+package com.ticketing.event.seatmap;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary seat map ({@value #MEDIA_TYPE}).
+ *
+ * The JSON seat list repeats event ID, section, row, price and a status string
+ * for every seat. Here the static layout is dictionary-encoded (each section,
+ * row and price is written once) and statuses are packed at 2 bits per seat,
+ * so a seat costs about 3 bytes of layout plus a quarter byte of status.
+ *
+ * Layout, big-endian; "varint" is an unsigned LEB128 int, "zigzag" a signed varint,
+ * "string" a varint byte length followed by UTF-8 bytes:
+ * <pre>
+ * int     magic "SMAP"
+ * byte    version (1)
+ * long    eventId
+ * varint  seatCount
+ * varint  sectionCount, then sectionCount x string
+ * varint  priceCount,   then priceCount x string (plain decimal)
+ * varint  rowCount,     then rowCount x (varint sectionIndex, string rowLetter, varint seatCount)
+ * seats, row after row: zigzag (seatId - previous seatId), zigzag (seatNumber - previous
+ *         seatNumber in the row, the first one from 0), varint priceIndex
+ * statuses: ceil(seatCount / 4) bytes; seat i uses bits (i % 4) * 2 of byte i / 4,
+ *         0 = AVAILABLE, 1 = HELD, 2 = BOOKED (the PackedSeatStatuses encoding)
+ * </pre>
+ *
+ * Seats must be added grouped by section and row. Not thread-safe.
+ */
+public class SeatMapEncoder {
+
+    public static final String MEDIA_TYPE = "application/vnd.ticketing.seatmap";
+
+    static final int MAGIC = 0x534D4150;
+    static final byte VERSION = 1;
+
+    private final long eventId;
+    private final Map<String, Integer> sections = new LinkedHashMap<>();
+    private final Map<BigDecimal, Integer> prices = new LinkedHashMap<>();
+    private final List<Row> rows = new ArrayList<>();
+    private final ByteArrayOutputStream seatBlock = new ByteArrayOutputStream();
+    private byte[] statuses = new byte[256];
+    private int seatCount;
+    private long previousSeatId;
+    private int previousSeatNumber;
+
+    public SeatMapEncoder(long eventId) {
+        this.eventId = eventId;
+    }
+
+    public void addSeat(long seatId, String section, String rowLetter, int seatNumber,
+                        BigDecimal price, Seat.SeatStatus status) {
+        Row row = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        if (row == null || !Objects.equals(row.section, section) || !Objects.equals(row.rowLetter, rowLetter)) {
+            int sectionIndex = sections.computeIfAbsent(section, key -> sections.size());
+            row = new Row(section, sectionIndex, rowLetter);
+            rows.add(row);
+            previousSeatNumber = 0;
+        }
+        row.seatCount++;
+
+        int priceIndex = prices.computeIfAbsent(price, key -> prices.size());
+        writeZigzag(seatBlock, seatId - previousSeatId);
+        writeZigzag(seatBlock, seatNumber - previousSeatNumber);
+        writeVarint(seatBlock, priceIndex);
+        previousSeatId = seatId;
+        previousSeatNumber = seatNumber;
+
+        if (seatCount / 4 == statuses.length) {
+            statuses = Arrays.copyOf(statuses, statuses.length * 2);
+        }
+        statuses[seatCount / 4] |= (byte) (statusCode(status) << ((seatCount % 4) * 2));
+        seatCount++;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        writeLayoutTo(out);
+        out.write(statuses, 0, PackedSeatStatuses.byteLength(seatCount));
+    }
+
+    /**
+     * Everything but the trailing statuses; stored once per packed event (see PackedSeatStorage)
+     */
+    public void writeLayoutTo(OutputStream out) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(64 + rows.size() * 8);
+        writeInt(header, MAGIC);
+        header.write(VERSION);
+        writeInt(header, (int) (eventId >>> 32));
+        writeInt(header, (int) eventId);
+        writeVarint(header, seatCount);
+
+        writeVarint(header, sections.size());
+        for (String section : sections.keySet()) {
+            writeString(header, section);
+        }
+        writeVarint(header, prices.size());
+        for (BigDecimal price : prices.keySet()) {
+            writeString(header, price.toPlainString());
+        }
+        writeVarint(header, rows.size());
+        for (Row row : rows) {
+            writeVarint(header, row.sectionIndex);
+            writeString(header, row.rowLetter);
+            writeVarint(header, row.seatCount);
+        }
+
+        header.writeTo(out);
+        seatBlock.writeTo(out);
+    }
+
+    /**
+     * Packed statuses of the seats added so far, in seat order
+     */
+    public byte[] getStatuses() {
+        return Arrays.copyOf(statuses, PackedSeatStatuses.byteLength(seatCount));
+    }
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(seatBlock.size() + seatCount / 4 + 1024);
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static int statusCode(Seat.SeatStatus status) {
+        return PackedSeatStatuses.code(status);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeZigzag(ByteArrayOutputStream out, long value) {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static final class Row {
+        private final String section;
+        private final int sectionIndex;
+        private final String rowLetter;
+        private int seatCount;
+
+        Row(String section, int sectionIndex, String rowLetter) {
+            this.section = section;
+            this.sectionIndex = sectionIndex;
+            this.rowLetter = rowLetter;
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.ticketing.event.service;
 
 import com.ticketing.common.dto.EventDto;
+import com.ticketing.common.dto.SeatChangesDto;
 import com.ticketing.common.dto.SeatDto;
 import com.ticketing.common.entity.Event;
 import com.ticketing.common.entity.Seat;
 import com.ticketing.common.enums.EventStatus;
 import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.PackedSeatStatuses;
+import com.ticketing.event.layout.EventLayoutSeats;
+import com.ticketing.event.layout.VenueLayout;
+import com.ticketing.event.layout.VenueLayoutCache;
+import com.ticketing.event.layout.VenueLayoutRepository;
 import com.ticketing.event.repository.EventRepository;
+import com.ticketing.event.seatmap.PackedSeatStorage;
+import com.ticketing.event.seatmap.SeatMapEncoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -17,10 +26,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +43,12 @@ public class EventService {
 
     private final EventRepository eventRepository;
     private final SeatStatusCacheService seatStatusCacheService;
+    private final PackedSeatStorage packedSeatStorage;
+    private final VenueLayoutRepository venueLayoutRepository;
+    private final VenueLayoutCache venueLayoutCache;
+
+    @Value("${event.seats.changes.max:1000}")
+    private int maxSeatChanges;
 
     /**
      * Search events with multiple filters - core read scenario
@@ -74,7 +94,14 @@ public class EventService {
     public Optional<EventDto> getEventWithSeats(Long eventId) {
         log.debug("Fetching event with seats for ID: {}", eventId);
 
-        Optional<Event> eventOpt = eventRepository.findByIdWithSeats(eventId);
+        // Read before the snapshot so changes racing it are re-sent by the next delta
+        long seatVersion = seatStatusCacheService.getSeatVersion(eventId);
+
+        // Seats created from a venue layout are served from the shared layout, not entities
+        Optional<Long> venueLayoutId = eventRepository.findVenueLayoutIdById(eventId);
+        Optional<Event> eventOpt = venueLayoutId.isPresent()
+            ? eventRepository.findById(eventId)
+            : eventRepository.findByIdWithSeats(eventId);
         if (eventOpt.isEmpty()) {
             log.debug("Event not found: {}", eventId);
             return Optional.empty();
@@ -88,17 +115,36 @@ public class EventService {
 
         EventDto eventDto = convertToDto(event);
 
-        // Add seat information with real-time Redis overlay
-        if (event.getSeats() != null && !event.getSeats().isEmpty()) {
+        if (venueLayoutId.isPresent()) {
+            Map<Long, String> recentChanges = seatStatusCacheService.getRecentChanges(eventId);
+            EventLayoutSeats seats = loadLayoutSeats(eventId, venueLayoutId.get());
+            List<SeatDto> seatDtos = new ArrayList<>(seats.getSeatCount());
+            for (int seatIndex = 0; seatIndex < seats.getSeatCount(); seatIndex++) {
+                SeatDto dto = seats.toSeatDto(seatIndex);
+                String recentStatus = recentChanges.get(dto.getId());
+                if (recentStatus != null) {
+                    dto.setStatus(recentStatus);
+                }
+                seatDtos.add(dto);
+            }
+            eventDto.setSeats(seatDtos);
+        } else if (event.getSeats() != null && !event.getSeats().isEmpty()) {
+            // Add seat information with real-time Redis overlay
             log.debug("Converting {} seats to DTOs for event: {}", event.getSeats().size(), eventId);
             
             // Get recent status changes from Redis (sliding window: last 2 minutes)
             Map<Long, String> recentChanges = seatStatusCacheService.getRecentChanges(eventId);
             log.debug("Found {} recent seat status changes in Redis for event: {}", recentChanges.size(), eventId);
-            
+
+            // Seat rows of packed events are layout only; their statuses are in the status blocks
+            byte[] packedStatuses = event.isPackedSeats() ? packedSeatStorage.findStatuses(eventId) : null;
+
             List<SeatDto> seatDtos = event.getSeats().stream()
                 .map(seat -> {
                     SeatDto dto = convertSeatToDto(seat);
+                    if (packedStatuses != null && seat.getStatusIndex() != null) {
+                        dto.setStatus(PackedSeatStatuses.get(packedStatuses, seat.getStatusIndex()).name());
+                    }
                     // Override DB status with Redis if available (real-time)
                     String recentStatus = recentChanges.get(seat.getId());
                     if (recentStatus != null) {
@@ -111,11 +157,63 @@ public class EventService {
             eventDto.setSeats(seatDtos);
         }
         
+        eventDto.setSeatVersion(seatVersion);
         eventDto.setPricingTiers(null); // Will be set separately
 
         return Optional.of(eventDto);
     }
 
+    /**
+     * Get seat status changes since a version cursor (from getEventWithSeats or the
+     * previous delta). Served from Redis alone, O(changed seats).
+     */
+    public SeatChangesDto getSeatChanges(Long eventId, long since) {
+        return seatStatusCacheService.getChangesSince(eventId, since, maxSeatChanges);
+    }
+
+    /**
+     * Get the seat map of a published event in the compact binary format.
+     * Encoded straight from scalar seat rows (no entities or SeatDto list), with
+     * the same Redis overlay as getEventWithSeats. The result is a few bytes per
+     * seat, so it is returned whole and the DB connection is released before it
+     * is written to a possibly slow client. A packed event's seat map is stored
+     * nearly as is and read in one row.
+     */
+    @Transactional(readOnly = true)
+    public Optional<byte[]> getSeatMap(Long eventId) {
+        log.debug("Encoding seat map for event: {}", eventId);
+
+        Optional<Event> eventOpt = eventRepository.findById(eventId)
+            .filter(event -> event.getStatus() == EventStatus.PUBLISHED);
+        if (eventOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<Long, String> recentChanges = seatStatusCacheService.getRecentChanges(eventId);
+        if (eventOpt.get().isPackedSeats()) {
+            Map<Long, Seat.SeatStatus> overrides = new HashMap<>();
+            recentChanges.forEach((seatId, status) -> overrides.put(seatId, Seat.SeatStatus.valueOf(status)));
+            return packedSeatStorage.findSeatMap(eventId, overrides);
+        }
+
+        SeatMapEncoder encoder = new SeatMapEncoder(eventId);
+        try (Stream<Object[]> rows = eventRepository.streamSeatRowsByEventId(eventId)) {
+            rows.forEach(row -> {
+                Long seatId = (Long) row[0];
+                String recentStatus = recentChanges.get(seatId);
+                Seat.SeatStatus status = recentStatus != null
+                    ? Seat.SeatStatus.valueOf(recentStatus)
+                    : (Seat.SeatStatus) row[5];
+                encoder.addSeat(seatId, (String) row[1], (String) row[2], (Integer) row[3],
+                    (BigDecimal) row[4], status);
+            });
+        }
+
+        byte[] seatMap = encoder.toByteArray();
+        log.debug("Encoded {} seats for event {} into {} bytes", encoder.getSeatCount(), eventId, seatMap.length);
+        return Optional.of(seatMap);
+    }
+
     /**
      * Get popular events by city - homepage feature
      */
@@ -196,8 +294,22 @@ public class EventService {
         event.setCreatedAt(LocalDateTime.now());
         event.setUpdatedAt(LocalDateTime.now());
 
+        VenueLayout layout = null;
+        if (eventDto.getVenueLayoutId() != null) {
+            layout = venueLayoutCache.get(eventDto.getVenueLayoutId())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown venue layout: " + eventDto.getVenueLayoutId()));
+            event.setVenueLayoutId(layout.getId());
+            event.setTotalCapacity(layout.getSeatCount());
+            event.setAvailableSeats(layout.getSeatCount());
+            event.setPackedSeats(true);
+        }
+
         Event savedEvent = eventRepository.save(event);
 
+        if (layout != null) {
+            createLayoutSeats(savedEvent.getId(), layout, eventDto.getSectionPrices());
+        }
+
         log.info("Event created successfully: ID={}, Title={}", savedEvent.getId(), savedEvent.getTitle());
 
         return convertToDto(savedEvent);
@@ -268,6 +380,76 @@ public class EventService {
         return true;
     }
 
+    /**
+     * Switch an event to packed seat storage (large venues): seat statuses move from the
+     * seat rows into packed status blocks. One-way; the seat rows stay as the layout.
+     */
+    @Transactional
+    public boolean packSeats(Long eventId) {
+        log.info("Packing seats of event: {}", eventId);
+
+        Optional<Event> eventOpt = eventRepository.findById(eventId);
+        if (eventOpt.isEmpty()) {
+            return false;
+        }
+
+        Event event = eventOpt.get();
+        if (event.isPackedSeats()) {
+            log.warn("Seats of event {} are already packed", eventId);
+            return false;
+        }
+
+        int seats = packedSeatStorage.pack(eventId);
+        event.setPackedSeats(true);
+        event.setUpdatedAt(LocalDateTime.now());
+        eventRepository.save(event);
+
+        log.info("Packed {} seats of event {}", seats, eventId);
+        return true;
+    }
+
+    /**
+     * Save an event's seat layout as a template for its venue, so later events there can be
+     * created from it (EventDto.venueLayoutId) without copying the layout per event.
+     *
+     * @return the new venue layout ID, empty if the event does not exist or has no seats
+     */
+    @Transactional
+    public Optional<Long> createVenueLayout(Long eventId, String name) {
+        log.info("Creating venue layout '{}' from event: {}", name, eventId);
+
+        Optional<Long> layoutId = venueLayoutRepository.createFromEvent(eventId, name);
+        layoutId.ifPresent(id -> log.info("Venue layout {} created from event {}", id, eventId));
+        return layoutId;
+    }
+
+    /**
+     * Seat rows, status blocks and seat map layout of a new event created from a venue layout:
+     * one INSERT ... SELECT for the seats, and the stored seat map encoded from the shared
+     * layout, so nothing is read back per seat. The event starts packed, statuses by seat index.
+     */
+    private void createLayoutSeats(Long eventId, VenueLayout layout, Map<String, BigDecimal> sectionPrices) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        if (sectionPrices != null) {
+            // Same scale as the seats.price column, so the seat map matches the seat rows
+            sectionPrices.forEach((section, price) -> prices.put(section, price.setScale(2, RoundingMode.HALF_UP)));
+            venueLayoutRepository.saveSectionPrices(eventId, prices);
+        }
+        long[] seatIds = venueLayoutRepository.createSeats(eventId, layout);
+        packedSeatStorage.store(eventId, layout.encode(eventId, seatIds, prices));
+
+        log.info("Created {} seats for event {} from venue layout {}", seatIds.length, eventId, layout.getId());
+    }
+
+    private EventLayoutSeats loadLayoutSeats(Long eventId, Long venueLayoutId) {
+        VenueLayout layout = venueLayoutCache.get(venueLayoutId)
+            .orElseThrow(() -> new IllegalStateException("Venue layout " + venueLayoutId + " of event " + eventId + " not found"));
+        return new EventLayoutSeats(eventId, layout,
+            venueLayoutRepository.findSeatIds(eventId, layout.getSeatCount()),
+            packedSeatStorage.findStatuses(eventId),
+            venueLayoutRepository.findSectionPrices(eventId));
+    }
+
     // DTO Conversion Methods
     private EventDto convertToDto(Event event) {
         return EventDto.builder()
@@ -283,6 +465,7 @@ public class EventService {
             .basePrice(event.getBasePrice())
             .status(event.getStatus().name())
             .organizerId(event.getOrganizerId())
+            .venueLayoutId(event.getVenueLayoutId())
             .createdAt(event.getCreatedAt())
             .updatedAt(event.getUpdatedAt())
             .build();
@@ -0,0 +1,292 @@
+package com.ticketing.event.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.SeatChangesDto;
+import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live seat status push over Server-Sent Events.
+ *
+ * A node holds one Redis subscription per event with at least one connected
+ * client ({evt:<eventId>}:seat_events, published by the overlay write script).
+ * Changes are coalesced per event for a short window (latest status per seat
+ * wins), serialised once per batch and written to every client of the event.
+ * Writes are spread over virtual threads in chunks, so a slow client only
+ * delays its own chunk; the next batch of an event waits for the previous one
+ * and meanwhile keeps coalescing.
+ *
+ * Idle connections hold no thread (servlet async), only a socket and an emitter.
+ * Each batch carries the seat version as SSE id. A reconnecting EventSource sends
+ * it back as Last-Event-ID and first gets what it missed, or a resync event.
+ * Clients skip events whose id is lower than the last one applied.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SeatStatusStreamService {
+
+    static final String CONNECTIONS_METRIC = "seat.stream.connections";
+    static final String STREAMED_EVENTS_METRIC = "seat.stream.events";
+    static final String FANOUT_LATENCY_METRIC = "seat.stream.fanout.latency";
+    static final String CHANGES_EVENT = "seat-changes";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final int FANOUT_CHUNK_SIZE = 500;
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SeatStatusCacheService seatStatusCacheService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${event.seats.stream.window.ms:100}")
+    private long windowMs;
+
+    @Value("${event.seats.stream.timeout.ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${event.seats.stream.heartbeat.seconds:20}")
+    private long heartbeatSeconds;
+
+    @Value("${event.seats.changes.max:1000}")
+    private int maxReplayChanges;
+
+    private final Map<Long, EventStream> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService fanOutExecutor;
+    private Timer fanOutLatency;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder(CONNECTIONS_METRIC, connections, AtomicInteger::get)
+            .description("Open seat status streams on this node")
+            .register(meterRegistry);
+        Gauge.builder(STREAMED_EVENTS_METRIC, streams, Map::size)
+            .description("Events with at least one open seat status stream on this node")
+            .register(meterRegistry);
+        fanOutLatency = Timer.builder(FANOUT_LATENCY_METRIC)
+            .description("Time from receiving a seat change to writing it to every client of the event")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-stream-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushAll, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::heartbeatAll, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        log.info("Seat status streaming started: window={}ms heartbeat={}s", windowMs, heartbeatSeconds);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        streams.values().forEach(stream -> stream.emitters.forEach(SseEmitter::complete));
+        fanOutExecutor.shutdown();
+    }
+
+    /**
+     * Open a stream of seat status changes for an event.
+     *
+     * @param since seat version the client already has (Last-Event-ID, or seatVersion of
+     *              the seat layout); changes after it are sent first. Null to start from now.
+     */
+    public SseEmitter subscribe(Long eventId, Long since) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> unregister(eventId, emitter));
+        emitter.onTimeout(() -> unregister(eventId, emitter));
+        emitter.onError(error -> unregister(eventId, emitter));
+
+        // Register before reading the backlog: nothing published in between is lost
+        register(eventId, emitter);
+        if (since != null) {
+            replay(eventId, since, emitter);
+        }
+        return emitter;
+    }
+
+    void flushAll() {
+        try {
+            streams.values().forEach(EventStream::flush);
+        } catch (Exception e) {
+            log.error("Seat status stream flush failed", e);
+        }
+    }
+
+    private void heartbeatAll() {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("keepalive").build();
+            streams.values().forEach(stream -> fanOut(List.copyOf(stream.emitters), heartbeat));
+        } catch (Exception e) {
+            log.error("Seat status stream heartbeat failed", e);
+        }
+    }
+
+    private void register(Long eventId, SseEmitter emitter) {
+        streams.compute(eventId, (id, stream) -> {
+            if (stream == null) {
+                stream = new EventStream(id);
+                listenerContainer.addMessageListener(stream, new ChannelTopic(RedisKeys.seatEventsChannel(id)));
+                log.debug("Subscribed to seat events of event {}", id);
+            }
+            stream.emitters.add(emitter);
+            return stream;
+        });
+        connections.incrementAndGet();
+    }
+
+    void unregister(Long eventId, SseEmitter emitter) {
+        streams.computeIfPresent(eventId, (id, stream) -> {
+            if (stream.emitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            if (stream.emitters.isEmpty()) {
+                listenerContainer.removeMessageListener(stream);
+                log.debug("Unsubscribed from seat events of event {}", id);
+                return null;
+            }
+            return stream;
+        });
+    }
+
+    private void replay(Long eventId, long since, SseEmitter emitter) {
+        SeatChangesDto missed = seatStatusCacheService.getChangesSince(eventId, since, maxReplayChanges);
+        if (missed.isResyncRequired()) {
+            send(emitter, event(RESYNC_EVENT, missed));
+        } else if (!missed.getChanges().isEmpty()) {
+            send(emitter, event(CHANGES_EVENT, missed));
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, SeatChangesDto changes) {
+        try {
+            return SseEmitter.event()
+                .id(String.valueOf(changes.getVersion()))
+                .name(name)
+                .data(objectMapper.writeValueAsString(changes))
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise seat changes of event " + changes.getEventId(), e);
+        }
+    }
+
+    private CompletableFuture<Void> fanOut(List<SseEmitter> targets, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < targets.size(); from += FANOUT_CHUNK_SIZE) {
+            List<SseEmitter> chunk = targets.subList(from, Math.min(from + FANOUT_CHUNK_SIZE, targets.size()));
+            chunks.add(CompletableFuture.runAsync(() -> chunk.forEach(emitter -> send(emitter, event)), fanOutExecutor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+    }
+
+    private static void send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; completing the emitter unregisters it
+            emitter.completeWithError(e);
+        }
+    }
+
+    private class EventStream implements MessageListener {
+        private final Long eventId;
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+
+        // Coalesced since the last batch; guarded by this
+        private Map<Long, String> pending = new LinkedHashMap<>();
+        private long pendingVersion;
+        private long firstPendingNanos;
+
+        // Only touched by the flusher thread
+        private CompletableFuture<Void> lastFanOut = CompletableFuture.completedFuture(null);
+
+        EventStream(Long eventId) {
+            this.eventId = eventId;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            // "<version> <status> <seatId>,<seatId>..."
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            String[] parts = body.split(" ", 3);
+            if (parts.length < 3) {
+                log.warn("Malformed seat event for event {}: {}", eventId, body);
+                return;
+            }
+            long version = Long.parseLong(parts[0]);
+            String status = parts[1];
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    firstPendingNanos = System.nanoTime();
+                }
+                for (String seatId : parts[2].split(",")) {
+                    pending.put(Long.parseLong(seatId), status);
+                }
+                pendingVersion = Math.max(pendingVersion, version);
+            }
+        }
+
+        void flush() {
+            if (!lastFanOut.isDone()) {
+                // Previous batch still being written: keep coalescing
+                return;
+            }
+
+            Map<Long, String> changes;
+            long version;
+            long receivedNanos;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                changes = pending;
+                version = pendingVersion;
+                receivedNanos = firstPendingNanos;
+                pending = new LinkedHashMap<>();
+            }
+
+            SeatChangesDto batch = SeatChangesDto.builder()
+                .eventId(eventId)
+                .version(version)
+                .changes(changes)
+                .build();
+            lastFanOut = fanOut(List.copyOf(emitters), event(CHANGES_EVENT, batch))
+                .whenComplete((ignored, error) ->
+                    fanOutLatency.record(System.nanoTime() - receivedNanos, TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.ticketing.event.controller;
 
 import com.ticketing.common.dto.EventDto;
+import com.ticketing.common.dto.SeatChangesDto;
 import com.ticketing.event.service.EventService;
+import com.ticketing.event.stream.SeatStatusStreamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,10 +14,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +32,9 @@ class EventControllerTest {
     @Mock
     private EventService eventService;
 
+    @Mock
+    private SeatStatusStreamService seatStatusStreamService;
+
     @InjectMocks
     private EventController eventController;
 
@@ -106,6 +113,62 @@ class EventControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void getSeatChanges_ReturnsDelta() {
+        SeatChangesDto changes = SeatChangesDto.builder()
+            .eventId(1L).version(8L).changes(Map.of(10L, "HELD")).build();
+        when(eventService.getSeatChanges(1L, 5L)).thenReturn(changes);
+
+        ResponseEntity<SeatChangesDto> response = eventController.getSeatChanges(1L, 5L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(8L, response.getBody().getVersion());
+    }
+
+    @Test
+    void getSeatChanges_NegativeCursor_Returns400() {
+        ResponseEntity<SeatChangesDto> response = eventController.getSeatChanges(1L, -1L);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(eventService);
+    }
+
+    @Test
+    void streamSeatStatus_LastEventIdTakesPrecedence() {
+        SseEmitter emitter = new SseEmitter();
+        when(seatStatusStreamService.subscribe(1L, 9L)).thenReturn(emitter);
+
+        assertSame(emitter, eventController.streamSeatStatus(1L, 5L, 9L));
+    }
+
+    @Test
+    void streamSeatStatus_FromSeatVersion() {
+        SseEmitter emitter = new SseEmitter();
+        when(seatStatusStreamService.subscribe(1L, 5L)).thenReturn(emitter);
+
+        assertSame(emitter, eventController.streamSeatStatus(1L, 5L, null));
+    }
+
+    @Test
+    void getSeatMap_Found() {
+        byte[] seatMap = {1, 2, 3};
+        when(eventService.getSeatMap(1L)).thenReturn(Optional.of(seatMap));
+
+        ResponseEntity<byte[]> response = eventController.getSeatMap(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/vnd.ticketing.seatmap", response.getHeaders().getContentType().toString());
+        assertArrayEquals(seatMap, response.getBody());
+    }
+
+    @Test
+    void getSeatMap_NotFound() {
+        when(eventService.getSeatMap(99L)).thenReturn(Optional.empty());
+
+        ResponseEntity<byte[]> response = eventController.getSeatMap(99L);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
     // ─── upcoming events ────────────────────────────────────────────────
 
     @Test
@@ -226,6 +289,16 @@ class EventControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
 
+    @Test
+    void createEvent_UnknownVenueLayout_BadRequest() {
+        EventDto inputDto = EventDto.builder().title("New").venueLayoutId(7L).build();
+        when(eventService.createEvent(any())).thenThrow(new IllegalArgumentException("Unknown venue layout: 7"));
+
+        ResponseEntity<EventDto> response = eventController.createEvent(inputDto, 1L);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     // ─── updateEvent ────────────────────────────────────────────────────
 
     @Test
@@ -267,6 +340,43 @@ class EventControllerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    // ─── packSeats ──────────────────────────────────────────────────────
+
+    @Test
+    void packSeats_Success() {
+        when(eventService.packSeats(1L)).thenReturn(true);
+
+        ResponseEntity<Void> response = eventController.packSeats(1L, 1L);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void packSeats_Failure() {
+        when(eventService.packSeats(1L)).thenReturn(false);
+
+        ResponseEntity<Void> response = eventController.packSeats(1L, 1L);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    // ─── createVenueLayout ──────────────────────────────────────────────
+
+    @Test
+    void createVenueLayout_Success() {
+        when(eventService.createVenueLayout(1L, "Concert")).thenReturn(Optional.of(7L));
+
+        ResponseEntity<Long> response = eventController.createVenueLayout(1L, "Concert", 1L);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(7L, response.getBody());
+    }
+
+    @Test
+    void createVenueLayout_NoSeats_BadRequest() {
+        when(eventService.createVenueLayout(1L, "Concert")).thenReturn(Optional.empty());
+
+        ResponseEntity<Long> response = eventController.createVenueLayout(1L, "Concert", 1L);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     // ─── health ─────────────────────────────────────────────────────────
 
     @Test
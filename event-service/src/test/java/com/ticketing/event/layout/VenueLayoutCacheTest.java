@@ -0,0 +1,47 @@
+package com.ticketing.event.layout;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VenueLayoutCacheTest {
+
+    @Mock
+    private VenueLayoutRepository venueLayoutRepository;
+
+    @InjectMocks
+    private VenueLayoutCache venueLayoutCache;
+
+    @Test
+    void get_LoadsOnceAndSharesTheLayout() {
+        VenueLayout layout = VenueLayout.builder(7L, "Arena", "Concert", 1)
+            .addSeat("Floor", "A", 1, new BigDecimal("80.00"))
+            .build();
+        when(venueLayoutRepository.findById(7L)).thenReturn(Optional.of(layout));
+
+        VenueLayout first = venueLayoutCache.get(7L).orElseThrow();
+        VenueLayout second = venueLayoutCache.get(7L).orElseThrow();
+
+        assertSame(first, second);
+        verify(venueLayoutRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void get_UnknownLayout_NotCached() {
+        when(venueLayoutRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertTrue(venueLayoutCache.get(7L).isEmpty());
+        assertTrue(venueLayoutCache.get(7L).isEmpty());
+
+        verify(venueLayoutRepository, times(2)).findById(7L);
+    }
+}
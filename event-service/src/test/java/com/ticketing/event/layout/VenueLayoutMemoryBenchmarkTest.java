@@ -0,0 +1,113 @@
+package com.ticketing.event.layout;
+
+import com.ticketing.common.entity.Event;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retained heap per loaded event at one venue: the Seat entities of
+ * EventRepository.findByIdWithSeats (each row with its own strings and price, as the JDBC
+ * driver returns them) against EventLayoutSeats over one shared VenueLayout. Only runs
+ * with -Dbenchmark=true:
+ *
+ *   mvn -pl event-service test -Dtest=VenueLayoutMemoryBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VenueLayoutMemoryBenchmarkTest {
+
+    private static final int SEATS = 50_000;
+    private static final int EVENTS = 20;
+
+    @Test
+    void retainedHeapPerEvent_EntitiesVersusSharedLayout() {
+        VenueLayout.Builder builder = VenueLayout.builder(1L, "Stadium", "Concert", SEATS);
+        for (int s = 0; s < SEATS; s++) {
+            builder.addSeat(section(s), rowLetter(s), seatNumber(s), price(s));
+        }
+
+        long layoutBytes = retained(count -> List.of(builder.build()), 1);
+        VenueLayout layout = builder.build();
+        long entityBytes = retained(count -> entities(count), EVENTS);
+        long layoutSeatBytes = retained(count -> layoutSeats(layout, count), EVENTS);
+
+        System.out.printf("%,d seats, %d events: entities %,d KB/event | shared layout %,d KB once + %,d KB/event%n",
+            SEATS, EVENTS, entityBytes / EVENTS >> 10, layoutBytes >> 10, layoutSeatBytes / EVENTS >> 10);
+
+        assertThat(layoutSeatBytes).isLessThan(entityBytes);
+    }
+
+    private static List<Object> entities(int events) {
+        List<Object> loaded = new ArrayList<>(events);
+        for (int e = 0; e < events; e++) {
+            Event event = Event.builder().id((long) e).build();
+            List<Seat> seats = new ArrayList<>(SEATS);
+            for (int s = 0; s < SEATS; s++) {
+                seats.add(Seat.builder()
+                    .id((long) e * SEATS + s).event(event)
+                    .section(new String(section(s))).rowLetter(new String(rowLetter(s)))
+                    .seatNumber(seatNumber(s)).price(new BigDecimal(price(s).toPlainString()))
+                    .status(Seat.SeatStatus.AVAILABLE).statusIndex(s)
+                    .build());
+            }
+            event.setSeats(seats);
+            loaded.add(event);
+        }
+        return loaded;
+    }
+
+    private static List<Object> layoutSeats(VenueLayout layout, int events) {
+        List<Object> loaded = new ArrayList<>(events);
+        for (int e = 0; e < events; e++) {
+            long[] seatIds = new long[SEATS];
+            for (int s = 0; s < SEATS; s++) {
+                seatIds[s] = (long) e * SEATS + s;
+            }
+            loaded.add(new EventLayoutSeats(e, layout, seatIds, new byte[PackedSeatStatuses.byteLength(SEATS)],
+                Map.of("S0", new BigDecimal("120.00"))));
+        }
+        return loaded;
+    }
+
+    // Used heap held by what load returns, after full collections either side
+    private static long retained(IntFunction<List<Object>> load, int count) {
+        long before = usedHeapAfterGc();
+        List<Object> loaded = load.apply(count);
+        long after = usedHeapAfterGc();
+        assertThat(loaded).hasSize(count);
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String section(int seat) {
+        return "S" + seat / 1000;
+    }
+
+    private static String rowLetter(int seat) {
+        return (char) ('A' + seat / 50 % 20) + String.valueOf(seat / 1000);
+    }
+
+    private static int seatNumber(int seat) {
+        return seat % 50 + 1;
+    }
+
+    private static BigDecimal price(int seat) {
+        return seat % 1000 < 100 ? new BigDecimal("120.00") : new BigDecimal("60.00");
+    }
+}
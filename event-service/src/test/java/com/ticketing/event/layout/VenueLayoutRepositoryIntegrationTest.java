@@ -0,0 +1,113 @@
+package com.ticketing.event.layout;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.event.seatmap.PackedSeatStorage;
+import com.ticketing.event.seatmap.SeatMapEncoder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saves an event's seats as a venue layout and creates a second event from it against the
+ * real schema (infrastructure/init-db.sql); the new event's stored seat map must match one
+ * encoded from its seat rows.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class VenueLayoutRepositoryIntegrationTest {
+
+    private static final int SEATS = 5000;
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_USER", "ticketing_user")
+        .withEnv("POSTGRES_PASSWORD", "ticketing")
+        .withEnv("POSTGRES_DB", "ticketing")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private VenueLayoutRepository repository;
+    private PackedSeatStorage storage;
+    private long sourceEventId;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/ticketing",
+            "ticketing_user", "ticketing");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(Files.readString(Path.of("../infrastructure/init-db.sql")));
+    }
+
+    @BeforeEach
+    void setUp() {
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        repository = new VenueLayoutRepository(namedJdbcTemplate);
+        storage = new PackedSeatStorage(namedJdbcTemplate);
+        sourceEventId = insertEvent(SEATS);
+        jdbcTemplate.update("INSERT INTO seats (event_id, section, row_letter, seat_number, price, status) " +
+            "SELECT ?, 'S' || (s / 1000), chr(65 + s / 50 % 20) || (s / 1000), s % 50 + 1, " +
+            "CASE WHEN s < 1000 THEN 90.00 ELSE 50.00 END, 'BOOKED' FROM generate_series(0, ? - 1) s",
+            sourceEventId, SEATS);
+    }
+
+    private long insertEvent(int seats) {
+        return jdbcTemplate.queryForObject("INSERT INTO events (title, description, category, city, venue, " +
+            "event_date, total_capacity, available_seats, base_price, status, organizer_id) " +
+            "VALUES ('Stadium', 'desc', 'Sports', 'Berlin', 'Stadium', now() + interval '30 days', ?, ?, 50.00, " +
+            "'PUBLISHED', 1) RETURNING id", Long.class, seats, seats);
+    }
+
+    private byte[] encodeRows(long eventId) {
+        SeatMapEncoder encoder = new SeatMapEncoder(eventId);
+        jdbcTemplate.query("SELECT id, section, row_letter, seat_number, price, status FROM seats " +
+            "WHERE event_id = ? ORDER BY section, row_letter, seat_number", rs -> {
+                encoder.addSeat(rs.getLong("id"), rs.getString("section"), rs.getString("row_letter"),
+                    rs.getInt("seat_number"), rs.getBigDecimal("price"), Seat.SeatStatus.valueOf(rs.getString("status")));
+            }, eventId);
+        return encoder.toByteArray();
+    }
+
+    @Test
+    void createSeats_FromLayoutOfAnotherEvent_StoredSeatMapMatchesRows() {
+        long layoutId = repository.createFromEvent(sourceEventId, "Concert").orElseThrow();
+        VenueLayout layout = repository.findById(layoutId).orElseThrow();
+        assertThat(layout.getSeatCount()).isEqualTo(SEATS);
+        assertThat(layout.getVenue()).isEqualTo("Stadium");
+
+        long eventId = insertEvent(SEATS);
+        Map<String, BigDecimal> sectionPrices = Map.of("S0", new BigDecimal("120.00"));
+        repository.saveSectionPrices(eventId, sectionPrices);
+        long[] seatIds = repository.createSeats(eventId, layout);
+        storage.store(eventId, layout.encode(eventId, seatIds, sectionPrices));
+
+        assertThat(seatIds).doesNotContain(0L);
+        assertThat(repository.findSeatIds(eventId, SEATS)).isEqualTo(seatIds);
+        assertThat(repository.findSectionPrices(eventId)).isEqualTo(sectionPrices);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seats WHERE event_id = ? AND price = 120.00 " +
+            "AND status_index IS NOT NULL", Integer.class, eventId)).isEqualTo(1000);
+        assertThat(storage.findSeatMap(eventId, Map.of()).orElseThrow()).isEqualTo(encodeRows(eventId));
+    }
+
+    @Test
+    void createFromEvent_NoSeats_Empty() {
+        assertThat(repository.createFromEvent(insertEvent(1), "Empty")).isEmpty();
+        assertThat(repository.findById(Long.MAX_VALUE)).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ticketing.event.layout;
+
+import com.ticketing.common.dto.SeatDto;
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import com.ticketing.event.seatmap.SeatMapEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VenueLayoutTest {
+
+    private final VenueLayout layout = VenueLayout.builder(7L, "Arena", "Concert", 2)
+        .addSeat("Floor", "A", 1, new BigDecimal("80.00"))
+        .addSeat("Floor", "A", 2, new BigDecimal("80.00"))
+        .addSeat("Floor", "B", 1, new BigDecimal("80.00"))
+        .addSeat("VIP", "A", 1, new BigDecimal("150.00"))
+        .build();
+
+    @Test
+    void builder_GrowsPastExpectedSizeAndInternsRepeatedValues() {
+        assertEquals(4, layout.getSeatCount());
+        assertSame(layout.section(0), layout.section(2));
+        assertSame(layout.rowLetter(0), layout.rowLetter(3));
+        assertEquals("B", layout.rowLetter(2));
+        assertEquals(2, layout.seatNumber(1));
+    }
+
+    @Test
+    void price_SectionPriceOverridesLayoutPrice() {
+        Map<String, BigDecimal> sectionPrices = Map.of("VIP", new BigDecimal("200.00"));
+
+        assertEquals(new BigDecimal("80.00"), layout.price(0, sectionPrices));
+        assertEquals(new BigDecimal("200.00"), layout.price(3, sectionPrices));
+    }
+
+    @Test
+    void encode_SameSeatMapAsEncodingTheSeats() {
+        long[] seatIds = {100L, 101L, 102L, 103L};
+        SeatMapEncoder expected = new SeatMapEncoder(5L);
+        expected.addSeat(100L, "Floor", "A", 1, new BigDecimal("80.00"), Seat.SeatStatus.AVAILABLE);
+        expected.addSeat(101L, "Floor", "A", 2, new BigDecimal("80.00"), Seat.SeatStatus.AVAILABLE);
+        expected.addSeat(102L, "Floor", "B", 1, new BigDecimal("80.00"), Seat.SeatStatus.AVAILABLE);
+        expected.addSeat(103L, "VIP", "A", 1, new BigDecimal("99.00"), Seat.SeatStatus.AVAILABLE);
+
+        SeatMapEncoder encoded = layout.encode(5L, seatIds, Map.of("VIP", new BigDecimal("99.00")));
+
+        assertArrayEquals(expected.toByteArray(), encoded.toByteArray());
+    }
+
+    @Test
+    void eventLayoutSeats_CombinesLayoutWithEventSeats() {
+        byte[] statuses = new byte[1];
+        PackedSeatStatuses.set(statuses, 3, Seat.SeatStatus.HELD);
+        EventLayoutSeats seats = new EventLayoutSeats(5L, layout, new long[]{100L, 101L, 102L, 103L}, statuses,
+            Map.of("VIP", new BigDecimal("99.00")));
+
+        SeatDto dto = seats.toSeatDto(3);
+
+        assertEquals(103L, dto.getId());
+        assertEquals(5L, dto.getEventId());
+        assertEquals("VIP", dto.getSection());
+        assertEquals(new BigDecimal("99.00"), dto.getPrice());
+        assertEquals("HELD", dto.getStatus());
+        assertEquals(Seat.SeatStatus.AVAILABLE, seats.status(0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.ticketing.event.seatmap;
+
+import com.ticketing.common.entity.Seat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seat map read latency at 10k, 50k and 100k seats: encoding the seat rows (the row-per-seat
+ * path of EventService.getSeatMap) against reading the stored packed seat map of the same
+ * event. Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl event-service test -Dtest=PackedSeatMapBenchmarkTest -Dbenchmark=true
+ *
+ * The write side (hold / confirm) is PackedSeatStatusBenchmarkTest in booking-service.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PackedSeatMapBenchmarkTest {
+
+    private static final int[] SIZES = {10_000, 50_000, 100_000};
+    private static final int RUNS = 30;
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_USER", "ticketing_user")
+        .withEnv("POSTGRES_PASSWORD", "bench")
+        .withEnv("POSTGRES_DB", "ticketing")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static PackedSeatStorage storage;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/ticketing",
+            "ticketing_user", "bench", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        storage = new PackedSeatStorage(new NamedParameterJdbcTemplate(jdbcTemplate));
+        jdbcTemplate.execute(Files.readString(Path.of("../infrastructure/init-db.sql")));
+    }
+
+    @Test
+    void seatMap_RowsVersusPacked() {
+        for (int seats : SIZES) {
+            // The seat rows stay as they were at pack time, so both paths encode the same seat map
+            long eventId = seedEvent(seats);
+            transactionTemplate.execute(status -> storage.pack(eventId));
+            jdbcTemplate.execute("VACUUM ANALYZE");
+
+            byte[] stored = storage.findSeatMap(eventId, Map.of()).orElseThrow();
+            assertThat(stored).isEqualTo(encodeRows(eventId));
+
+            long rowsMicros = median(() -> encodeRows(eventId));
+            long packedMicros = median(() -> storage.findSeatMap(eventId, Map.of()).orElseThrow());
+            System.out.printf("%,d seats: rows p50 %,d us (%,d rows read) | packed p50 %,d us (1 row, %,d bytes)%n",
+                seats, rowsMicros, seats, packedMicros, stored.length);
+        }
+    }
+
+    private long seedEvent(int seats) {
+        long eventId = jdbcTemplate.queryForObject("INSERT INTO events (title, description, category, city, venue, " +
+            "event_date, total_capacity, available_seats, base_price, status, organizer_id) " +
+            "VALUES ('Stadium', 'Benchmark', 'Sports', 'Berlin', 'Stadium', now() + interval '30 days', ?, ?, 50.00, " +
+            "'PUBLISHED', 1) RETURNING id", Long.class, seats, seats);
+        jdbcTemplate.update("INSERT INTO seats (event_id, section, row_letter, seat_number, price, status) " +
+            "SELECT ?, 'S' || (s / 1000), chr(65 + s / 50 % 20) || (s / 1000), s % 50 + 1, " +
+            "CASE WHEN s % 1000 < 100 THEN 120.00 ELSE 60.00 END, " +
+            "CASE WHEN s % 3 = 0 THEN 'AVAILABLE' ELSE 'BOOKED' END FROM generate_series(0, ? - 1) s ORDER BY s",
+            eventId, seats);
+        return eventId;
+    }
+
+    // The row path of EventService.getSeatMap without the entity lookup and Redis overlay
+    private static byte[] encodeRows(long eventId) {
+        SeatMapEncoder encoder = new SeatMapEncoder(eventId);
+        jdbcTemplate.query("SELECT id, section, row_letter, seat_number, price, status FROM seats " +
+            "WHERE event_id = ? ORDER BY section, row_letter, seat_number", rs -> {
+                encoder.addSeat(rs.getLong("id"), rs.getString("section"), rs.getString("row_letter"),
+                    rs.getInt("seat_number"), rs.getBigDecimal("price"), Seat.SeatStatus.valueOf(rs.getString("status")));
+            }, eventId);
+        return encoder.toByteArray();
+    }
+
+    private static long median(Supplier<byte[]> read) {
+        long[] micros = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            read.get();
+            micros[run] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+}
@@ -0,0 +1,117 @@
+package com.ticketing.event.seatmap;
+
+import com.ticketing.common.entity.Seat;
+import com.ticketing.common.util.PackedSeatStatuses;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Packs an event spanning two status blocks against the real schema (infrastructure/init-db.sql)
+ * and checks the stored seat map against one encoded from the seat rows.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PackedSeatStorageIntegrationTest {
+
+    private static final int SEATS = PackedSeatStatuses.BLOCK_SEATS + 500;
+
+    @Container
+    static GenericContainer<?> postgres = new GenericContainer<>(DockerImageName.parse("postgres:16-alpine"))
+        .withEnv("POSTGRES_USER", "ticketing_user")
+        .withEnv("POSTGRES_PASSWORD", "ticketing")
+        .withEnv("POSTGRES_DB", "ticketing")
+        .withExposedPorts(5432)
+        .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private PackedSeatStorage storage;
+    private long eventId;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/ticketing",
+            "ticketing_user", "ticketing");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(Files.readString(Path.of("../infrastructure/init-db.sql")));
+    }
+
+    @BeforeEach
+    void setUp() {
+        storage = new PackedSeatStorage(new NamedParameterJdbcTemplate(jdbcTemplate));
+        eventId = jdbcTemplate.queryForObject("INSERT INTO events (title, description, category, city, venue, " +
+            "event_date, total_capacity, available_seats, base_price, status, organizer_id) " +
+            "VALUES ('Stadium', 'desc', 'Sports', 'Berlin', 'Stadium', now() + interval '30 days', ?, ?, 50.00, " +
+            "'PUBLISHED', 1) RETURNING id", Long.class, SEATS, SEATS);
+        jdbcTemplate.update("INSERT INTO seats (event_id, section, row_letter, seat_number, price, status) " +
+            "SELECT ?, 'S' || (s / 1000), chr(65 + s / 50 % 20) || (s / 1000), s % 50 + 1, " +
+            "CASE WHEN s < 1000 THEN 90.00 ELSE 50.00 END, " +
+            "(ARRAY['AVAILABLE','HELD','BOOKED'])[s % 3 + 1] FROM generate_series(0, ? - 1) s", eventId, SEATS);
+    }
+
+    private byte[] encodeRows() {
+        SeatMapEncoder encoder = new SeatMapEncoder(eventId);
+        jdbcTemplate.query("SELECT id, section, row_letter, seat_number, price, status FROM seats " +
+            "WHERE event_id = ? ORDER BY section, row_letter, seat_number", rs -> {
+                encoder.addSeat(rs.getLong("id"), rs.getString("section"), rs.getString("row_letter"),
+                    rs.getInt("seat_number"), rs.getBigDecimal("price"), Seat.SeatStatus.valueOf(rs.getString("status")));
+            }, eventId);
+        return encoder.toByteArray();
+    }
+
+    @Test
+    void pack_StoredSeatMapMatchesEncodedRows() {
+        byte[] fromRows = encodeRows();
+
+        int packed = transactionTemplate.execute(status -> storage.pack(eventId));
+
+        assertThat(packed).isEqualTo(SEATS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM packed_seat_statuses WHERE event_id = ?",
+            Integer.class, eventId)).isEqualTo(2);
+        assertThat(storage.findSeatMap(eventId, Map.of()).orElseThrow()).isEqualTo(fromRows);
+        assertThat(storage.findStatuses(eventId)).hasSize(PackedSeatStatuses.byteLength(SEATS));
+    }
+
+    @Test
+    void findSeatMap_AppliesOverridesByStatusIndex() {
+        transactionTemplate.execute(status -> storage.pack(eventId));
+        Map<String, Object> lastSeat = jdbcTemplate.queryForMap("SELECT id, status_index FROM seats " +
+            "WHERE event_id = ? ORDER BY status_index DESC LIMIT 1", eventId);
+        long seatId = ((Number) lastSeat.get("id")).longValue();
+        int statusIndex = ((Number) lastSeat.get("status_index")).intValue();
+        Seat.SeatStatus stored = PackedSeatStatuses.get(storage.findStatuses(eventId), statusIndex);
+        Seat.SeatStatus override = stored == Seat.SeatStatus.BOOKED ? Seat.SeatStatus.AVAILABLE : Seat.SeatStatus.BOOKED;
+
+        byte[] seatMap = storage.findSeatMap(eventId, Map.of(seatId, override)).orElseThrow();
+
+        byte[] statuses = new byte[PackedSeatStatuses.byteLength(SEATS)];
+        System.arraycopy(seatMap, seatMap.length - statuses.length, statuses, 0, statuses.length);
+        assertThat(PackedSeatStatuses.get(statuses, statusIndex)).isEqualTo(override);
+        assertThat(statusIndex).isEqualTo(SEATS - 1);
+    }
+
+    @Test
+    void findSeatMap_NotPacked_Empty() {
+        assertThat(storage.findSeatMap(eventId, Map.of())).isEmpty();
+        assertThat(storage.findStatuses(eventId)).isEmpty();
+    }
+}
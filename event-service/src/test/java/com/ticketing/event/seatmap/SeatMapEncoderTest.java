@@ -0,0 +1,230 @@
+package com.ticketing.event.seatmap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.SeatDto;
+import com.ticketing.common.entity.Seat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapEncoderTest {
+
+    @Test
+    void encode_RoundTripsLayoutAndStatuses() throws IOException {
+        SeatMapEncoder encoder = new SeatMapEncoder(7L);
+        encoder.addSeat(100L, "VIP", "A", 1, new BigDecimal("150.00"), Seat.SeatStatus.AVAILABLE);
+        encoder.addSeat(101L, "VIP", "A", 2, new BigDecimal("150.00"), Seat.SeatStatus.HELD);
+        encoder.addSeat(105L, "VIP", "B", 1, new BigDecimal("150.00"), Seat.SeatStatus.BOOKED);
+        encoder.addSeat(90L, "Regular", "A", 10, new BigDecimal("80.00"), Seat.SeatStatus.AVAILABLE);
+        encoder.addSeat(91L, "Regular", "A", 12, new BigDecimal("80.00"), Seat.SeatStatus.HELD);
+
+        List<SeatDto> decoded = decode(encoder.toByteArray());
+
+        assertEquals(5, decoded.size());
+        assertSeat(decoded.get(0), 100L, "VIP", "A", 1, "150.00", "AVAILABLE");
+        assertSeat(decoded.get(1), 101L, "VIP", "A", 2, "150.00", "HELD");
+        assertSeat(decoded.get(2), 105L, "VIP", "B", 1, "150.00", "BOOKED");
+        assertSeat(decoded.get(3), 90L, "Regular", "A", 10, "80.00", "AVAILABLE");
+        assertSeat(decoded.get(4), 91L, "Regular", "A", 12, "80.00", "HELD");
+        decoded.forEach(seat -> assertEquals(7L, seat.getEventId()));
+    }
+
+    @Test
+    void writeLayoutTo_IsSeatMapWithoutStatuses() throws IOException {
+        SeatMapEncoder encoder = new SeatMapEncoder(7L);
+        for (int seat = 1; seat <= 9; seat++) {
+            encoder.addSeat(seat, "Regular", "A", seat, new BigDecimal("80.00"),
+                seat % 3 == 0 ? Seat.SeatStatus.BOOKED : Seat.SeatStatus.AVAILABLE);
+        }
+        ByteArrayOutputStream layout = new ByteArrayOutputStream();
+        encoder.writeLayoutTo(layout);
+        layout.write(encoder.getStatuses());
+
+        assertArrayEquals(encoder.toByteArray(), layout.toByteArray());
+        assertEquals(3, encoder.getStatuses().length);
+    }
+
+    @Test
+    void encode_NoSeats_HeaderOnly() throws IOException {
+        byte[] encoded = new SeatMapEncoder(1L).toByteArray();
+
+        assertTrue(decode(encoded).isEmpty());
+        assertTrue(encoded.length < 20);
+    }
+
+    /**
+     * Payload size and allocation against the JSON path (one SeatDto per seat,
+     * serialised by Jackson) for a 60k-seat stadium.
+     */
+    @Test
+    void encode_StadiumIsMuchSmallerAndCheaperThanJson() throws IOException {
+        List<Object[]> rows = stadiumRows(60, 20, 50);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Warm up both paths before measuring
+        encodeRows(rows);
+        objectMapper.writeValueAsBytes(toDtos(rows));
+
+        long before = allocatedBytes();
+        byte[] json = objectMapper.writeValueAsBytes(toDtos(rows));
+        long jsonAllocated = allocatedBytes() - before;
+
+        before = allocatedBytes();
+        byte[] binary = encodeRows(rows);
+        long binaryAllocated = allocatedBytes() - before;
+
+        System.out.printf("60k seats: json=%d bytes (%d allocated), binary=%d bytes (%d allocated)%n",
+            json.length, jsonAllocated, binary.length, binaryAllocated);
+
+        assertEquals(rows.size(), decode(binary).size());
+        assertTrue(binary.length * 20 < json.length, "binary payload should be < 5% of JSON");
+        if (jsonAllocated > 0 && binaryAllocated > 0) {
+            assertTrue(binaryAllocated * 5 < jsonAllocated, "binary path should allocate < 20% of JSON path");
+        }
+    }
+
+    private static void assertSeat(SeatDto seat, Long id, String section, String row, int number,
+                                   String price, String status) {
+        assertEquals(id, seat.getId());
+        assertEquals(section, seat.getSection());
+        assertEquals(row, seat.getRowLetter());
+        assertEquals(number, seat.getSeatNumber());
+        assertEquals(new BigDecimal(price), seat.getPrice());
+        assertEquals(status, seat.getStatus());
+    }
+
+    // 60 sections x 20 rows x 50 seats, three price tiers, a third of the seats taken
+    private static List<Object[]> stadiumRows(int sections, int rowsPerSection, int seatsPerRow) {
+        List<Object[]> rows = new ArrayList<>(sections * rowsPerSection * seatsPerRow);
+        BigDecimal[] tiers = {new BigDecimal("250.00"), new BigDecimal("120.00"), new BigDecimal("60.00")};
+        Seat.SeatStatus[] statuses = Seat.SeatStatus.values();
+        long seatId = 1;
+        for (int section = 0; section < sections; section++) {
+            for (int row = 0; row < rowsPerSection; row++) {
+                for (int seat = 1; seat <= seatsPerRow; seat++) {
+                    rows.add(new Object[]{seatId, "S" + section, String.valueOf((char) ('A' + row)), seat,
+                        tiers[row * tiers.length / rowsPerSection], statuses[(int) (seatId % 3 == 0 ? 1 + seatId % 2 : 0)]});
+                    seatId++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static byte[] encodeRows(List<Object[]> rows) {
+        SeatMapEncoder encoder = new SeatMapEncoder(1L);
+        for (Object[] row : rows) {
+            encoder.addSeat((Long) row[0], (String) row[1], (String) row[2], (Integer) row[3],
+                (BigDecimal) row[4], (Seat.SeatStatus) row[5]);
+        }
+        return encoder.toByteArray();
+    }
+
+    private static List<SeatDto> toDtos(List<Object[]> rows) {
+        return rows.stream()
+            .map(row -> SeatDto.builder()
+                .id((Long) row[0])
+                .eventId(1L)
+                .section((String) row[1])
+                .rowLetter((String) row[2])
+                .seatNumber((Integer) row[3])
+                .price((BigDecimal) row[4])
+                .status(((Seat.SeatStatus) row[5]).name())
+                .build())
+            .toList();
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean) {
+            return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    // Reference decoder for the documented layout
+    private static List<SeatDto> decode(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        assertEquals(SeatMapEncoder.MAGIC, in.readInt());
+        assertEquals(SeatMapEncoder.VERSION, in.readByte());
+        long eventId = in.readLong();
+        int seatCount = (int) readVarint(in);
+
+        String[] sections = new String[(int) readVarint(in)];
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = readString(in);
+        }
+        BigDecimal[] prices = new BigDecimal[(int) readVarint(in)];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = new BigDecimal(readString(in));
+        }
+        int rowCount = (int) readVarint(in);
+        int[] rowSections = new int[rowCount];
+        String[] rowLetters = new String[rowCount];
+        int[] rowSeatCounts = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rowSections[i] = (int) readVarint(in);
+            rowLetters[i] = readString(in);
+            rowSeatCounts[i] = (int) readVarint(in);
+        }
+
+        List<SeatDto> seats = new ArrayList<>(seatCount);
+        long seatId = 0;
+        for (int row = 0; row < rowCount; row++) {
+            int seatNumber = 0;
+            for (int i = 0; i < rowSeatCounts[row]; i++) {
+                seatId += readZigzag(in);
+                seatNumber += (int) readZigzag(in);
+                seats.add(SeatDto.builder()
+                    .id(seatId)
+                    .eventId(eventId)
+                    .section(sections[rowSections[row]])
+                    .rowLetter(rowLetters[row])
+                    .seatNumber(seatNumber)
+                    .price(prices[(int) readVarint(in)])
+                    .build());
+            }
+        }
+
+        byte[] statuses = new byte[(seatCount + 3) / 4];
+        in.readFully(statuses);
+        for (int i = 0; i < seatCount; i++) {
+            int code = (statuses[i / 4] >> ((i % 4) * 2)) & 0x3;
+            seats.get(i).setStatus(Seat.SeatStatus.values()[code].name());
+        }
+        assertEquals(-1, in.read(), "trailing bytes");
+        return seats;
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long readZigzag(DataInputStream in) throws IOException {
+        long value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
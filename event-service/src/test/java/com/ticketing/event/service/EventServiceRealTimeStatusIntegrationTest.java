@@ -1,6 +1,7 @@
 package com.ticketing.event.service;
 
 import com.ticketing.common.dto.EventDto;
+import com.ticketing.common.dto.SeatChangesDto;
 import com.ticketing.common.dto.SeatDto;
 import com.ticketing.common.entity.Event;
 import com.ticketing.common.entity.Seat;
@@ -233,6 +234,39 @@ class EventServiceRealTimeStatusIntegrationTest {
         assertThat(seat1DB.getStatus()).isEqualTo("AVAILABLE");
     }
 
+    @Test
+    void getSeatChanges_shouldReturnOnlySeatsChangedSinceCursor() {
+        Long seat1Id = testSeats.get(0).getId();
+        Long seat2Id = testSeats.get(1).getId();
+
+        seatStatusCacheService.cacheSeatStatusChange(testEvent.getId(), seat1Id, "HELD");
+        long cursor = eventService.getEventWithSeats(testEvent.getId()).get().getSeatVersion();
+
+        seatStatusCacheService.cacheSeatStatusChange(testEvent.getId(), seat2Id, "HELD");
+        seatStatusCacheService.transitionSeatStatus(testEvent.getId(), seat2Id, "HELD", "BOOKED");
+
+        SeatChangesDto changes = eventService.getSeatChanges(testEvent.getId(), cursor);
+        assertThat(changes.isResyncRequired()).isFalse();
+        assertThat(changes.getVersion()).isEqualTo(cursor + 2);
+        assertThat(changes.getChanges()).containsOnlyKeys(seat2Id).containsEntry(seat2Id, "BOOKED");
+
+        SeatChangesDto upToDate = eventService.getSeatChanges(testEvent.getId(), changes.getVersion());
+        assertThat(upToDate.isResyncRequired()).isFalse();
+        assertThat(upToDate.getChanges()).isEmpty();
+    }
+
+    @Test
+    void getSeatChanges_afterRedisClear_shouldRequireResync() {
+        seatStatusCacheService.cacheSeatStatusChange(testEvent.getId(), testSeats.get(0).getId(), "HELD");
+        seatStatusCacheService.clearRecentChanges(testEvent.getId());
+        seatStatusCacheService.cacheSeatStatusChange(testEvent.getId(), testSeats.get(1).getId(), "HELD");
+
+        SeatChangesDto changes = eventService.getSeatChanges(testEvent.getId(), 0L);
+
+        assertThat(changes.isResyncRequired()).isTrue();
+        assertThat(changes.getVersion()).isEqualTo(2L);
+    }
+
     @Test
     void getEventWithSeats_withRedisDown_shouldFallbackToDBGracefully() {
         redisTemplate.getConnectionFactory().getConnection().close();
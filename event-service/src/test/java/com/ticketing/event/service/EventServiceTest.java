@@ -1,11 +1,19 @@
 package com.ticketing.event.service;
 
 import com.ticketing.common.dto.EventDto;
+import com.ticketing.common.dto.SeatChangesDto;
+import com.ticketing.common.dto.SeatDto;
 import com.ticketing.common.entity.Event;
 import com.ticketing.common.entity.Seat;
 import com.ticketing.common.enums.EventStatus;
 import com.ticketing.common.service.SeatStatusCacheService;
+import com.ticketing.common.util.PackedSeatStatuses;
+import com.ticketing.event.layout.VenueLayout;
+import com.ticketing.event.layout.VenueLayoutCache;
+import com.ticketing.event.layout.VenueLayoutRepository;
 import com.ticketing.event.repository.EventRepository;
+import com.ticketing.event.seatmap.PackedSeatStorage;
+import com.ticketing.event.seatmap.SeatMapEncoder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,10 +24,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +44,15 @@ class EventServiceTest {
     @Mock
     private SeatStatusCacheService seatStatusCacheService;
 
+    @Mock
+    private PackedSeatStorage packedSeatStorage;
+
+    @Mock
+    private VenueLayoutRepository venueLayoutRepository;
+
+    @Mock
+    private VenueLayoutCache venueLayoutCache;
+
     @InjectMocks
     private EventService eventService;
 
@@ -155,10 +174,13 @@ class EventServiceTest {
         recentChanges.put(10L, "HELD");
         when(seatStatusCacheService.getRecentChanges(1L)).thenReturn(recentChanges);
 
+        when(seatStatusCacheService.getSeatVersion(1L)).thenReturn(17L);
+
         Optional<EventDto> result = eventService.getEventWithSeats(1L);
 
         assertTrue(result.isPresent());
         EventDto dto = result.get();
+        assertEquals(17L, dto.getSeatVersion());
         assertEquals(2, dto.getSeats().size());
         assertEquals("HELD", dto.getSeats().stream()
             .filter(s -> s.getId().equals(10L)).findFirst().get().getStatus());
@@ -195,6 +217,61 @@ class EventServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    // ─── getSeatChanges ─────────────────────────────────────────────────
+
+    @Test
+    void getSeatChanges_ReadsChangeLogWithConfiguredLimit() {
+        ReflectionTestUtils.setField(eventService, "maxSeatChanges", 500);
+        SeatChangesDto changes = SeatChangesDto.builder()
+            .eventId(1L).version(18L).changes(Map.of(10L, "BOOKED")).build();
+        when(seatStatusCacheService.getChangesSince(1L, 17L, 500)).thenReturn(changes);
+
+        SeatChangesDto result = eventService.getSeatChanges(1L, 17L);
+
+        assertEquals(18L, result.getVersion());
+        assertEquals("BOOKED", result.getChanges().get(10L));
+        verifyNoInteractions(eventRepository);
+    }
+
+    // ─── getSeatMap ─────────────────────────────────────────────────────
+
+    @Test
+    void getSeatMap_EncodesSeatRowsWithRedisOverlay() {
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(seatStatusCacheService.getRecentChanges(1L)).thenReturn(Map.of(10L, "HELD"));
+        when(eventRepository.streamSeatRowsByEventId(1L)).thenReturn(Stream.of(
+            new Object[]{10L, "A", "A", 1, new BigDecimal("100.00"), Seat.SeatStatus.AVAILABLE},
+            new Object[]{11L, "A", "A", 2, new BigDecimal("100.00"), Seat.SeatStatus.AVAILABLE}));
+
+        Optional<byte[]> result = eventService.getSeatMap(1L);
+
+        assertTrue(result.isPresent());
+        byte[] seatMap = result.get();
+        // Last byte holds the packed statuses: seat 10 HELD (1), seat 11 AVAILABLE (0)
+        assertEquals(0b0001, seatMap[seatMap.length - 1]);
+    }
+
+    @Test
+    void getSeatMap_PackedEvent_ReadsStoredSeatMapWithRedisOverlay() {
+        testEvent.setPackedSeats(true);
+        byte[] stored = {1, 2, 3};
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(seatStatusCacheService.getRecentChanges(1L)).thenReturn(Map.of(10L, "BOOKED"));
+        when(packedSeatStorage.findSeatMap(1L, Map.of(10L, Seat.SeatStatus.BOOKED))).thenReturn(Optional.of(stored));
+
+        assertSame(stored, eventService.getSeatMap(1L).orElseThrow());
+        verify(eventRepository, never()).streamSeatRowsByEventId(any());
+    }
+
+    @Test
+    void getSeatMap_NotPublished_ReturnsEmpty() {
+        testEvent.setStatus(EventStatus.DRAFT);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+
+        assertTrue(eventService.getSeatMap(1L).isEmpty());
+        verify(eventRepository, never()).streamSeatRowsByEventId(any());
+    }
+
     @Test
     void getEventWithSeats_NotPublished() {
         testEvent.setStatus(EventStatus.DRAFT);
@@ -220,6 +297,55 @@ class EventServiceTest {
         assertEquals("AVAILABLE", result.get().getSeats().get(0).getStatus());
     }
 
+    @Test
+    void getEventWithSeats_PackedEvent_StatusFromStatusBlocks() {
+        testEvent.setPackedSeats(true);
+        Seat seat = Seat.builder()
+            .id(10L).event(testEvent).section("A").rowLetter("A").seatNumber(1)
+            .price(new BigDecimal("100.00")).status(Seat.SeatStatus.AVAILABLE).statusIndex(2).build();
+        testEvent.setSeats(List.of(seat));
+        byte[] statuses = new byte[1];
+        PackedSeatStatuses.set(statuses, 2, Seat.SeatStatus.BOOKED);
+
+        when(eventRepository.findByIdWithSeats(1L)).thenReturn(Optional.of(testEvent));
+        when(seatStatusCacheService.getRecentChanges(1L)).thenReturn(Map.of());
+        when(packedSeatStorage.findStatuses(1L)).thenReturn(statuses);
+
+        Optional<EventDto> result = eventService.getEventWithSeats(1L);
+
+        assertEquals("BOOKED", result.orElseThrow().getSeats().get(0).getStatus());
+    }
+
+    @Test
+    void getEventWithSeats_VenueLayoutEvent_SeatsFromSharedLayout() {
+        testEvent.setPackedSeats(true);
+        testEvent.setVenueLayoutId(7L);
+        VenueLayout layout = VenueLayout.builder(7L, "MSG", "Concert", 2)
+            .addSeat("Floor", "A", 1, new BigDecimal("80.00"))
+            .addSeat("Floor", "A", 2, new BigDecimal("80.00"))
+            .build();
+        byte[] statuses = new byte[1];
+        PackedSeatStatuses.set(statuses, 1, Seat.SeatStatus.BOOKED);
+
+        when(eventRepository.findVenueLayoutIdById(1L)).thenReturn(Optional.of(7L));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(seatStatusCacheService.getRecentChanges(1L)).thenReturn(Map.of(100L, "HELD"));
+        when(venueLayoutCache.get(7L)).thenReturn(Optional.of(layout));
+        when(venueLayoutRepository.findSeatIds(1L, 2)).thenReturn(new long[]{100L, 101L});
+        when(packedSeatStorage.findStatuses(1L)).thenReturn(statuses);
+        when(venueLayoutRepository.findSectionPrices(1L)).thenReturn(Map.of("Floor", new BigDecimal("95.00")));
+
+        List<SeatDto> seats = eventService.getEventWithSeats(1L).orElseThrow().getSeats();
+
+        assertEquals(2, seats.size());
+        assertEquals(100L, seats.get(0).getId());
+        assertEquals("HELD", seats.get(0).getStatus());
+        assertEquals("BOOKED", seats.get(1).getStatus());
+        assertEquals(2, seats.get(1).getSeatNumber());
+        assertEquals(new BigDecimal("95.00"), seats.get(1).getPrice());
+        verify(eventRepository, never()).findByIdWithSeats(any());
+    }
+
     // ─── getPopularEventsByCity ──────────────────────────────────────────
 
     @Test
@@ -337,6 +463,58 @@ class EventServiceTest {
         assertEquals("DRAFT", result.getStatus());
     }
 
+    @Test
+    void createEvent_FromVenueLayout_CreatesPackedSeatsFromLayout() {
+        VenueLayout layout = VenueLayout.builder(7L, "Center", "Conference", 3)
+            .addSeat("Floor", "A", 1, new BigDecimal("50.00"))
+            .addSeat("Floor", "A", 2, new BigDecimal("50.00"))
+            .addSeat("VIP", "A", 1, new BigDecimal("90.00"))
+            .build();
+        EventDto inputDto = EventDto.builder()
+            .title("New Event").description("Desc").category("Tech")
+            .city("SF").venue("Center")
+            .eventDate(LocalDateTime.now().plusDays(5))
+            .totalCapacity(1).basePrice(new BigDecimal("50.00"))
+            .organizerId(2L).venueLayoutId(7L)
+            .sectionPrices(Map.of("VIP", new BigDecimal("120")))
+            .build();
+
+        when(venueLayoutCache.get(7L)).thenReturn(Optional.of(layout));
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            event.setId(2L);
+            return event;
+        });
+        when(venueLayoutRepository.createSeats(2L, layout)).thenReturn(new long[]{20L, 21L, 22L});
+
+        EventDto result = eventService.createEvent(inputDto);
+
+        assertEquals(3, result.getTotalCapacity());
+        assertEquals(3, result.getAvailableSeats());
+        assertEquals(7L, result.getVenueLayoutId());
+        verify(venueLayoutRepository).saveSectionPrices(2L, Map.of("VIP", new BigDecimal("120.00")));
+        verify(packedSeatStorage).store(eq(2L), argThat((SeatMapEncoder encoder) -> encoder.getSeatCount() == 3));
+        verify(eventRepository).save(argThat((Event event) -> event.isPackedSeats()));
+    }
+
+    @Test
+    void createEvent_UnknownVenueLayout_Throws() {
+        EventDto inputDto = EventDto.builder().title("New Event").venueLayoutId(7L).build();
+        when(venueLayoutCache.get(7L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> eventService.createEvent(inputDto));
+        verify(eventRepository, never()).save(any());
+    }
+
+    // ─── createVenueLayout ──────────────────────────────────────────────
+
+    @Test
+    void createVenueLayout_CopiesEventLayout() {
+        when(venueLayoutRepository.createFromEvent(1L, "Concert")).thenReturn(Optional.of(7L));
+
+        assertEquals(Optional.of(7L), eventService.createVenueLayout(1L, "Concert"));
+    }
+
     // ─── updateEvent ────────────────────────────────────────────────────
 
     @Test
@@ -382,6 +560,28 @@ class EventServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    // ─── packSeats ──────────────────────────────────────────────────────
+
+    @Test
+    void packSeats_Success_MarksEventPacked() {
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+        when(packedSeatStorage.pack(1L)).thenReturn(1000);
+
+        assertTrue(eventService.packSeats(1L));
+
+        assertTrue(testEvent.isPackedSeats());
+        verify(eventRepository).save(testEvent);
+    }
+
+    @Test
+    void packSeats_AlreadyPacked_ReturnsFalse() {
+        testEvent.setPackedSeats(true);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(testEvent));
+
+        assertFalse(eventService.packSeats(1L));
+        verifyNoInteractions(packedSeatStorage);
+    }
+
     // ─── publishEvent ───────────────────────────────────────────────────
 
     @Test
@@ -0,0 +1,152 @@
+package com.ticketing.event.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.SeatChangesDto;
+import com.ticketing.common.service.SeatStatusCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatStatusStreamServiceTest {
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private SeatStatusCacheService seatStatusCacheService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SeatStatusStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        streamService = new SeatStatusStreamService(listenerContainer, seatStatusCacheService,
+            new ObjectMapper(), meterRegistry);
+        // Long window and heartbeat: the tests flush by hand
+        ReflectionTestUtils.setField(streamService, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(streamService, "heartbeatSeconds", 3_600L);
+        ReflectionTestUtils.setField(streamService, "timeoutMs", 0L);
+        ReflectionTestUtils.setField(streamService, "maxReplayChanges", 100);
+        streamService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.stop();
+    }
+
+    @Test
+    void subscribe_OneRedisSubscriptionPerEvent() {
+        streamService.subscribe(1L, null);
+        streamService.subscribe(1L, null);
+        streamService.subscribe(2L, null);
+
+        verify(listenerContainer).addMessageListener(any(MessageListener.class), eq(new ChannelTopic("{evt:1}:seat_events")));
+        verify(listenerContainer).addMessageListener(any(MessageListener.class), eq(new ChannelTopic("{evt:2}:seat_events")));
+        assertEquals(3, meterRegistry.get(SeatStatusStreamService.CONNECTIONS_METRIC).gauge().value());
+        assertEquals(2, meterRegistry.get(SeatStatusStreamService.STREAMED_EVENTS_METRIC).gauge().value());
+    }
+
+    @Test
+    void unregister_LastClientDropsSubscription() {
+        SseEmitter first = streamService.subscribe(1L, null);
+        SseEmitter second = streamService.subscribe(1L, null);
+        MessageListener listener = capturedListener();
+
+        streamService.unregister(1L, first);
+        verify(listenerContainer, never()).removeMessageListener(any(MessageListener.class));
+
+        streamService.unregister(1L, second);
+        streamService.unregister(1L, second);
+        verify(listenerContainer).removeMessageListener(listener);
+        assertEquals(0, meterRegistry.get(SeatStatusStreamService.CONNECTIONS_METRIC).gauge().value());
+    }
+
+    @Test
+    void flush_CoalescesChangesIntoOneBatchPerEvent() throws Exception {
+        RecordingEmitter client = new RecordingEmitter();
+        SseEmitter subscribed = streamService.subscribe(1L, null);
+        swapEmitter(1L, subscribed, client);
+        MessageListener listener = capturedListener();
+
+        listener.onMessage(message("7 HELD 10,11"), null);
+        listener.onMessage(message("8 BOOKED 10"), null);
+        streamService.flushAll();
+
+        String sent = client.sent.poll(5, TimeUnit.SECONDS);
+        assertNotNull(sent);
+        assertTrue(sent.contains("id:8"), sent);
+        assertTrue(sent.contains("event:" + SeatStatusStreamService.CHANGES_EVENT), sent);
+        assertTrue(sent.contains("\"10\":\"BOOKED\""), sent);
+        assertTrue(sent.contains("\"11\":\"HELD\""), sent);
+
+        // Nothing new: no second batch
+        streamService.flushAll();
+        assertNull(client.sent.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, meterRegistry.get(SeatStatusStreamService.FANOUT_LATENCY_METRIC).timer().count());
+    }
+
+    @Test
+    void subscribe_WithCursor_ReplaysMissedChanges() {
+        when(seatStatusCacheService.getChangesSince(1L, 5L, 100)).thenReturn(SeatChangesDto.builder()
+            .eventId(1L).version(6L).changes(Map.of(10L, "HELD")).build());
+
+        streamService.subscribe(1L, 5L);
+
+        verify(seatStatusCacheService).getChangesSince(1L, 5L, 100);
+    }
+
+    private MessageListener capturedListener() {
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer, atLeastOnce()).addMessageListener(captor.capture(), any(ChannelTopic.class));
+        return captor.getValue();
+    }
+
+    // Replace the servlet-bound emitter with one that records what is written to it
+    @SuppressWarnings("unchecked")
+    private void swapEmitter(Long eventId, SseEmitter subscribed, SseEmitter replacement) {
+        Map<Long, Object> streams = (Map<Long, Object>) ReflectionTestUtils.getField(streamService, "streams");
+        Set<SseEmitter> emitters = (Set<SseEmitter>) ReflectionTestUtils.getField(streams.get(eventId), "emitters");
+        emitters.remove(subscribed);
+        emitters.add(replacement);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("{evt:1}:seat_events".getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final LinkedBlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) {
+            sent.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+}
@@ -18,6 +18,8 @@ CREATE TABLE events (
     base_price DECIMAL(10,2) NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'DRAFT',
     organizer_id BIGINT NOT NULL,
+    packed_seats BOOLEAN NOT NULL DEFAULT FALSE,
+    venue_layout_id BIGINT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     version BIGINT DEFAULT 0
@@ -39,6 +41,7 @@ CREATE TABLE seats (
     seat_number INTEGER NOT NULL,
     price DECIMAL(10,2) NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'AVAILABLE',
+    status_index INTEGER,
     seat_identifier VARCHAR(50),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -50,6 +53,56 @@ CREATE INDEX idx_seat_event ON seats(event_id);
 CREATE INDEX idx_seat_status ON seats(status);
 CREATE INDEX idx_seat_section ON seats(event_id, section);
 
+-- Packed seat storage for large venues (events.packed_seats). The seats rows stay as the
+-- static layout; statuses live in 2-bit arrays, seats.status_index being a seat's position.
+-- The layout is the binary seat map without its status block, written once when packed.
+CREATE TABLE packed_seat_layouts (
+    event_id BIGINT PRIMARY KEY REFERENCES events(id) ON DELETE CASCADE,
+    seat_count INTEGER NOT NULL,
+    layout BYTEA NOT NULL
+);
+
+-- One row per 4096 seats, so holds in different parts of a venue lock different rows
+CREATE TABLE packed_seat_statuses (
+    event_id BIGINT NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    block INTEGER NOT NULL,
+    statuses BYTEA NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (event_id, block)
+);
+
+-- Venue layout templates: the section / row / seat-number layout of a venue, stored once
+-- and shared by every event created from it. Insert-only, so they can be cached forever.
+-- seat_index is the seat's position in seat map order and becomes the status_index of the
+-- event's seats (events created from a layout start packed).
+CREATE TABLE venue_layouts (
+    id BIGSERIAL PRIMARY KEY,
+    venue VARCHAR(200) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    seat_count INTEGER NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE venue_layout_seats (
+    layout_id BIGINT NOT NULL REFERENCES venue_layouts(id),
+    seat_index INTEGER NOT NULL,
+    section VARCHAR(50) NOT NULL,
+    row_letter VARCHAR(10) NOT NULL,
+    seat_number INTEGER NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (layout_id, seat_index)
+);
+
+ALTER TABLE events ADD CONSTRAINT fk_event_venue_layout FOREIGN KEY (venue_layout_id) REFERENCES venue_layouts(id);
+
+-- Per-event section prices over a venue layout's default prices
+CREATE TABLE event_section_prices (
+    event_id BIGINT NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    section VARCHAR(50) NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (event_id, section)
+);
+
 -- Create pricing tiers table
 CREATE TABLE pricing_tiers (
     id BIGSERIAL PRIMARY KEY,
@@ -62,19 +115,28 @@ CREATE TABLE pricing_tiers (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
--- Create seat holds table
+-- Create seat holds table, one partition per day of created_at.
+-- Partitions are created ahead and dropped after the retention window by PartitionMaintainer;
+-- keys include created_at because unique constraints of a partitioned table must, so the
+-- tokens themselves are kept unique by hold_tokens (see claim_hold_token below).
 CREATE TABLE seat_holds (
-    id BIGSERIAL PRIMARY KEY,
-    hold_token VARCHAR(255) UNIQUE NOT NULL,
+    id BIGSERIAL,
+    hold_token VARCHAR(255) NOT NULL,
     customer_id BIGINT NOT NULL,
     event_id BIGINT NOT NULL REFERENCES events(id),
     seat_ids BIGINT[] NOT NULL,
     seat_count INTEGER NOT NULL,
     expires_at TIMESTAMP NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    UNIQUE (hold_token, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows outside the created partitions (maintainer down for longer than it creates ahead);
+-- PartitionMaintainer moves them into their partition when it creates it
+CREATE TABLE seat_holds_default PARTITION OF seat_holds DEFAULT;
 
 -- Create indexes for seat holds
 CREATE INDEX idx_seat_hold_token ON seat_holds(hold_token);
@@ -82,11 +144,20 @@ CREATE INDEX idx_seat_hold_customer ON seat_holds(customer_id);
 CREATE INDEX idx_seat_hold_event ON seat_holds(event_id);
 CREATE INDEX idx_seat_hold_expires ON seat_holds(expires_at);
 CREATE INDEX idx_seat_hold_status ON seat_holds(status);
+-- Keyset paging of active holds by id (expiry cleanup)
+CREATE INDEX idx_seat_hold_active_id ON seat_holds(id) WHERE status = 'ACTIVE';
 
--- Create bookings table
+-- One row per hold token across all partitions, inserted by a trigger on seat_holds: a
+-- token reused on another day fails with a unique violation in the inserting transaction.
+-- PartitionMaintainer deletes a partition's tokens when it drops the partition.
+CREATE TABLE hold_tokens (
+    hold_token VARCHAR(255) PRIMARY KEY
+);
+
+-- Create bookings table, one partition per month of created_at
 CREATE TABLE bookings (
-    id BIGSERIAL PRIMARY KEY,
-    booking_reference VARCHAR(50) UNIQUE NOT NULL,
+    id BIGSERIAL,
+    booking_reference VARCHAR(50) NOT NULL,
     customer_id BIGINT NOT NULL,
     event_id BIGINT NOT NULL REFERENCES events(id),
     seat_ids BIGINT[] NOT NULL,
@@ -94,11 +165,35 @@ CREATE TABLE bookings (
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     payment_id VARCHAR(255),
     hold_token VARCHAR(255),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     confirmed_at TIMESTAMP,
-    cancelled_at TIMESTAMP
+    cancelled_at TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    UNIQUE (booking_reference, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Booking references across all partitions, the same way as hold_tokens
+CREATE TABLE booking_references (
+    booking_reference VARCHAR(50) PRIMARY KEY
 );
 
+-- First partitions, so rows never land in the default partitions before the maintainer's first run
+DO $$
+BEGIN
+    FOR day IN 0..7 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF seat_holds FOR VALUES FROM (%L) TO (%L)',
+            'seat_holds_p' || to_char(CURRENT_DATE + day, 'YYYYMMDD'), CURRENT_DATE + day, CURRENT_DATE + day + 1);
+    END LOOP;
+    FOR month IN 0..3 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+            'bookings_p' || to_char(date_trunc('month', CURRENT_DATE) + make_interval(months => month), 'YYYYMM'),
+            (date_trunc('month', CURRENT_DATE) + make_interval(months => month))::date,
+            (date_trunc('month', CURRENT_DATE) + make_interval(months => month + 1))::date);
+    END LOOP;
+END $$;
+
 -- Create indexes for bookings
 CREATE INDEX idx_booking_reference ON bookings(booking_reference);
 CREATE INDEX idx_booking_customer ON bookings(customer_id);
@@ -107,6 +202,97 @@ CREATE INDEX idx_booking_status ON bookings(status);
 CREATE INDEX idx_booking_payment ON bookings(payment_id);
 CREATE INDEX idx_booking_hold_token ON bookings(hold_token);
 
+-- One row per seat of a hold / booking (seat_ids stays as the seat list read with the row).
+-- Seat lookups probe (event_id, seat_id) instead of searching every hold's seat_ids array.
+-- No foreign key: the partitioned owners have no unique id alone; PartitionMaintainer deletes
+-- the rows of a partition before dropping it.
+CREATE TABLE hold_seats (
+    hold_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_id BIGINT NOT NULL,
+    PRIMARY KEY (hold_id, seat_id)
+);
+CREATE INDEX idx_hold_seats_event_seat ON hold_seats(event_id, seat_id);
+
+CREATE TABLE booking_seats (
+    booking_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_id BIGINT NOT NULL,
+    PRIMARY KEY (booking_id, seat_id)
+);
+CREATE INDEX idx_booking_seats_event_seat ON booking_seats(event_id, seat_id);
+
+-- Booking events waiting to be relayed to Kafka (transactional outbox)
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    message_key VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Cold storage for finished events, filled by EventArchiver in bounded batches.
+-- Compact copies of the hot rows: no per-seat link rows, timestamps or lock versions;
+-- an event's pricing tiers are folded into one jsonb column. Booking and hold lookups
+-- fall back to these tables.
+CREATE TABLE archived_events (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    city VARCHAR(100) NOT NULL,
+    venue VARCHAR(200) NOT NULL,
+    event_date TIMESTAMP NOT NULL,
+    total_capacity INTEGER NOT NULL,
+    available_seats INTEGER NOT NULL,
+    base_price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    organizer_id BIGINT NOT NULL,
+    pricing_tiers JSONB,
+    created_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE archived_seats (
+    id BIGINT PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    section VARCHAR(50) NOT NULL,
+    row_letter VARCHAR(10) NOT NULL,
+    seat_number INTEGER NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL
+);
+CREATE INDEX idx_archived_seat_event ON archived_seats(event_id);
+
+CREATE TABLE archived_seat_holds (
+    id BIGINT PRIMARY KEY,
+    hold_token VARCHAR(255) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_ids BIGINT[] NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_archived_hold_token ON archived_seat_holds(hold_token);
+
+CREATE TABLE archived_bookings (
+    id BIGINT PRIMARY KEY,
+    booking_reference VARCHAR(50) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_ids BIGINT[] NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_id VARCHAR(255),
+    hold_token VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    confirmed_at TIMESTAMP,
+    cancelled_at TIMESTAMP
+);
+CREATE INDEX idx_archived_booking_reference ON archived_bookings(booking_reference);
+CREATE INDEX idx_archived_booking_customer ON archived_bookings(customer_id);
+CREATE INDEX idx_archived_booking_event ON archived_bookings(event_id);
+
 -- Insert sample data for testing
 -- Master data (matches README):
 -- - 3 events
@@ -192,6 +378,29 @@ CREATE TRIGGER update_seats_updated_at BEFORE UPDATE ON seats
 CREATE TRIGGER update_seat_holds_updated_at BEFORE UPDATE ON seat_holds
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
+-- Create functions claiming a hold token / booking reference across partitions
+CREATE OR REPLACE FUNCTION claim_hold_token()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO hold_tokens (hold_token) VALUES (NEW.hold_token);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION claim_booking_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO booking_references (booking_reference) VALUES (NEW.booking_reference);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER claim_seat_holds_hold_token AFTER INSERT ON seat_holds
+    FOR EACH ROW EXECUTE FUNCTION claim_hold_token();
+
+CREATE TRIGGER claim_bookings_booking_reference AFTER INSERT ON bookings
+    FOR EACH ROW EXECUTE FUNCTION claim_booking_reference();
+
 -- Permissions
 GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO ticketing_user;
 GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA public TO ticketing_user;
@@ -0,0 +1,61 @@
+-- Creates the archive tables EventArchiver moves finished events into (see init-db.sql).
+-- Safe to re-run. Run it before rolling out the booking-service version that reads the archive:
+--   psql -d ticketing -f infrastructure/migrate-event-archive.sql
+
+CREATE TABLE IF NOT EXISTS archived_events (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    city VARCHAR(100) NOT NULL,
+    venue VARCHAR(200) NOT NULL,
+    event_date TIMESTAMP NOT NULL,
+    total_capacity INTEGER NOT NULL,
+    available_seats INTEGER NOT NULL,
+    base_price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    organizer_id BIGINT NOT NULL,
+    pricing_tiers JSONB,
+    created_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS archived_seats (
+    id BIGINT PRIMARY KEY,
+    event_id BIGINT NOT NULL,
+    section VARCHAR(50) NOT NULL,
+    row_letter VARCHAR(10) NOT NULL,
+    seat_number INTEGER NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_archived_seat_event ON archived_seats(event_id);
+
+CREATE TABLE IF NOT EXISTS archived_seat_holds (
+    id BIGINT PRIMARY KEY,
+    hold_token VARCHAR(255) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_ids BIGINT[] NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_archived_hold_token ON archived_seat_holds(hold_token);
+
+CREATE TABLE IF NOT EXISTS archived_bookings (
+    id BIGINT PRIMARY KEY,
+    booking_reference VARCHAR(50) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_ids BIGINT[] NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    payment_id VARCHAR(255),
+    hold_token VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    confirmed_at TIMESTAMP,
+    cancelled_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_archived_booking_reference ON archived_bookings(booking_reference);
+CREATE INDEX IF NOT EXISTS idx_archived_booking_customer ON archived_bookings(customer_id);
+CREATE INDEX IF NOT EXISTS idx_archived_booking_event ON archived_bookings(event_id);
@@ -0,0 +1,21 @@
+-- Adds packed seat storage for large venues (see init-db.sql). Existing events keep
+-- row-per-seat statuses until packed through POST /api/events/{id}/seats/pack.
+-- Safe to re-run:
+--   psql -d ticketing -f infrastructure/migrate-packed-seats.sql
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS packed_seats BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE seats ADD COLUMN IF NOT EXISTS status_index INTEGER;
+
+CREATE TABLE IF NOT EXISTS packed_seat_layouts (
+    event_id BIGINT PRIMARY KEY REFERENCES events(id) ON DELETE CASCADE,
+    seat_count INTEGER NOT NULL,
+    layout BYTEA NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS packed_seat_statuses (
+    event_id BIGINT NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    block INTEGER NOT NULL,
+    statuses BYTEA NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (event_id, block)
+);
@@ -0,0 +1,152 @@
+-- Turns existing seat_holds and bookings tables into the range-partitioned tables of init-db.sql.
+-- The current table becomes the first partition (<table>_legacy, everything created before the
+-- cut-over) without copying rows; new rows go to daily (seat_holds) / monthly (bookings)
+-- partitions that PartitionMaintainer keeps creating ahead. Legacy partitions are never dropped
+-- by the maintainer.
+--
+-- Run with psql outside a transaction block:
+--   psql -d ticketing -f infrastructure/migrate-partitioned-tables.sql
+-- Step 1 scans the tables but does not block writes; step 2 takes a short exclusive lock.
+
+-- Step 1: the keys, indexes and constraints the attach needs, built without blocking writes.
+-- A validated range CHECK lets ATTACH PARTITION skip its own scan.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS seat_holds_legacy_id_created ON seat_holds (id, created_at);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS seat_holds_legacy_token_created ON seat_holds (hold_token, created_at);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS bookings_legacy_id_created ON bookings (id, created_at);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS bookings_legacy_reference_created ON bookings (booking_reference, created_at);
+
+-- Hold tokens / booking references stay unique across partitions through these tables,
+-- filled by triggers from here on and backfilled with the rows already there
+CREATE TABLE IF NOT EXISTS hold_tokens (hold_token VARCHAR(255) PRIMARY KEY);
+CREATE TABLE IF NOT EXISTS booking_references (booking_reference VARCHAR(50) PRIMARY KEY);
+
+CREATE OR REPLACE FUNCTION claim_hold_token()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO hold_tokens (hold_token) VALUES (NEW.hold_token);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION claim_booking_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO booking_references (booking_reference) VALUES (NEW.booking_reference);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS claim_seat_holds_hold_token ON seat_holds;
+CREATE TRIGGER claim_seat_holds_hold_token AFTER INSERT ON seat_holds
+    FOR EACH ROW EXECUTE FUNCTION claim_hold_token();
+DROP TRIGGER IF EXISTS claim_bookings_booking_reference ON bookings;
+CREATE TRIGGER claim_bookings_booking_reference AFTER INSERT ON bookings
+    FOR EACH ROW EXECUTE FUNCTION claim_booking_reference();
+
+INSERT INTO hold_tokens (hold_token) SELECT hold_token FROM seat_holds ON CONFLICT DO NOTHING;
+INSERT INTO booking_references (booking_reference) SELECT booking_reference FROM bookings ON CONFLICT DO NOTHING;
+
+UPDATE seat_holds SET created_at = COALESCE(updated_at, expires_at) WHERE created_at IS NULL;
+UPDATE bookings SET created_at = COALESCE(confirmed_at, cancelled_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE seat_holds ADD CONSTRAINT seat_holds_legacy_range '
+        'CHECK (created_at IS NOT NULL AND created_at < %L) NOT VALID', CURRENT_DATE + 1);
+    EXECUTE format('ALTER TABLE bookings ADD CONSTRAINT bookings_legacy_range '
+        'CHECK (created_at IS NOT NULL AND created_at < %L) NOT VALID',
+        (date_trunc('month', CURRENT_DATE) + interval '1 month')::date);
+END $$;
+ALTER TABLE seat_holds VALIDATE CONSTRAINT seat_holds_legacy_range;
+ALTER TABLE bookings VALIDATE CONSTRAINT bookings_legacy_range;
+
+-- Step 2: swap in the partitioned tables
+BEGIN;
+
+-- hold_seats / booking_seats can't reference the partitioned tables' ids (and tables
+-- referenced by a foreign key can't be attached as partitions)
+ALTER TABLE hold_seats DROP CONSTRAINT IF EXISTS hold_seats_hold_id_fkey;
+ALTER TABLE booking_seats DROP CONSTRAINT IF EXISTS booking_seats_booking_id_fkey;
+
+ALTER TABLE seat_holds RENAME TO seat_holds_legacy;
+ALTER TABLE seat_holds_legacy RENAME CONSTRAINT seat_holds_pkey TO seat_holds_legacy_pkey;
+ALTER TABLE seat_holds_legacy RENAME CONSTRAINT seat_holds_hold_token_key TO seat_holds_legacy_hold_token_key;
+ALTER INDEX idx_seat_hold_token RENAME TO idx_seat_hold_token_legacy;
+ALTER INDEX idx_seat_hold_customer RENAME TO idx_seat_hold_customer_legacy;
+ALTER INDEX idx_seat_hold_event RENAME TO idx_seat_hold_event_legacy;
+ALTER INDEX idx_seat_hold_expires RENAME TO idx_seat_hold_expires_legacy;
+ALTER INDEX idx_seat_hold_status RENAME TO idx_seat_hold_status_legacy;
+ALTER INDEX IF EXISTS idx_seat_hold_active_id RENAME TO idx_seat_hold_active_id_legacy;
+DROP TRIGGER IF EXISTS update_seat_holds_updated_at ON seat_holds_legacy;
+-- The partitioned parent's trigger covers the legacy partition once attached
+DROP TRIGGER IF EXISTS claim_seat_holds_hold_token ON seat_holds_legacy;
+ALTER TABLE seat_holds_legacy ALTER COLUMN created_at SET NOT NULL;
+
+CREATE TABLE seat_holds (LIKE seat_holds_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER SEQUENCE seat_holds_id_seq OWNED BY seat_holds.id;
+ALTER TABLE seat_holds ADD PRIMARY KEY (id, created_at);
+ALTER TABLE seat_holds ADD UNIQUE (hold_token, created_at);
+ALTER TABLE seat_holds ADD FOREIGN KEY (event_id) REFERENCES events(id);
+
+ALTER TABLE bookings RENAME TO bookings_legacy;
+ALTER TABLE bookings_legacy RENAME CONSTRAINT bookings_pkey TO bookings_legacy_pkey;
+ALTER TABLE bookings_legacy RENAME CONSTRAINT bookings_booking_reference_key TO bookings_legacy_booking_reference_key;
+ALTER INDEX idx_booking_reference RENAME TO idx_booking_reference_legacy;
+ALTER INDEX idx_booking_customer RENAME TO idx_booking_customer_legacy;
+ALTER INDEX idx_booking_event RENAME TO idx_booking_event_legacy;
+ALTER INDEX idx_booking_status RENAME TO idx_booking_status_legacy;
+ALTER INDEX idx_booking_payment RENAME TO idx_booking_payment_legacy;
+ALTER INDEX idx_booking_hold_token RENAME TO idx_booking_hold_token_legacy;
+DROP TRIGGER IF EXISTS claim_bookings_booking_reference ON bookings_legacy;
+ALTER TABLE bookings_legacy ALTER COLUMN created_at SET NOT NULL;
+
+CREATE TABLE bookings (LIKE bookings_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+ALTER TABLE bookings ADD PRIMARY KEY (id, created_at);
+ALTER TABLE bookings ADD UNIQUE (booking_reference, created_at);
+ALTER TABLE bookings ADD FOREIGN KEY (event_id) REFERENCES events(id);
+
+DO $$
+BEGIN
+    EXECUTE format('ALTER TABLE seat_holds ATTACH PARTITION seat_holds_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+        CURRENT_DATE + 1);
+    FOR day IN 1..8 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF seat_holds FOR VALUES FROM (%L) TO (%L)',
+            'seat_holds_p' || to_char(CURRENT_DATE + day, 'YYYYMMDD'), CURRENT_DATE + day, CURRENT_DATE + day + 1);
+    END LOOP;
+
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION bookings_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+        (date_trunc('month', CURRENT_DATE) + interval '1 month')::date);
+    FOR month IN 1..3 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+            'bookings_p' || to_char(date_trunc('month', CURRENT_DATE) + make_interval(months => month), 'YYYYMM'),
+            (date_trunc('month', CURRENT_DATE) + make_interval(months => month))::date,
+            (date_trunc('month', CURRENT_DATE) + make_interval(months => month + 1))::date);
+    END LOOP;
+END $$;
+
+CREATE TABLE seat_holds_default PARTITION OF seat_holds DEFAULT;
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Same definitions as the renamed legacy indexes, which get attached instead of rebuilt
+CREATE INDEX idx_seat_hold_token ON seat_holds(hold_token);
+CREATE INDEX idx_seat_hold_customer ON seat_holds(customer_id);
+CREATE INDEX idx_seat_hold_event ON seat_holds(event_id);
+CREATE INDEX idx_seat_hold_expires ON seat_holds(expires_at);
+CREATE INDEX idx_seat_hold_status ON seat_holds(status);
+CREATE INDEX idx_seat_hold_active_id ON seat_holds(id) WHERE status = 'ACTIVE';
+CREATE INDEX idx_booking_reference ON bookings(booking_reference);
+CREATE INDEX idx_booking_customer ON bookings(customer_id);
+CREATE INDEX idx_booking_event ON bookings(event_id);
+CREATE INDEX idx_booking_status ON bookings(status);
+CREATE INDEX idx_booking_payment ON bookings(payment_id);
+CREATE INDEX idx_booking_hold_token ON bookings(hold_token);
+
+CREATE TRIGGER update_seat_holds_updated_at BEFORE UPDATE ON seat_holds
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+CREATE TRIGGER claim_seat_holds_hold_token AFTER INSERT ON seat_holds
+    FOR EACH ROW EXECUTE FUNCTION claim_hold_token();
+CREATE TRIGGER claim_bookings_booking_reference AFTER INSERT ON bookings
+    FOR EACH ROW EXECUTE FUNCTION claim_booking_reference();
+
+COMMIT;
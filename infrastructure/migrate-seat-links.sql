@@ -0,0 +1,58 @@
+-- Moves seat lookups of existing databases onto the hold_seats / booking_seats link tables.
+-- Safe to re-run: tables and indexes are created if missing, backfilled rows are skipped.
+-- Run with psql outside a transaction block (the backfill commits per batch):
+--   psql -d ticketing -f infrastructure/migrate-seat-links.sql
+--
+-- Deploy order: run this script, then roll out the booking-service version that writes the
+-- link tables. Holds created in between are picked up by running the script once more.
+
+CREATE TABLE IF NOT EXISTS hold_seats (
+    hold_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_id BIGINT NOT NULL,
+    PRIMARY KEY (hold_id, seat_id)
+);
+
+CREATE TABLE IF NOT EXISTS booking_seats (
+    booking_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    seat_id BIGINT NOT NULL,
+    PRIMARY KEY (booking_id, seat_id)
+);
+
+-- Backfill in id ranges of 10k rows, one transaction each, so locks and WAL stay small
+DO $$
+DECLARE
+    batch CONSTANT BIGINT := 10000;
+    from_id BIGINT;
+    max_id BIGINT;
+BEGIN
+    SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), 0) INTO from_id, max_id FROM seat_holds;
+    WHILE from_id <= max_id LOOP
+        INSERT INTO hold_seats (hold_id, event_id, seat_id)
+        SELECT sh.id, sh.event_id, seat.id
+        FROM seat_holds sh, unnest(sh.seat_ids) AS seat(id)
+        WHERE sh.id >= from_id AND sh.id < from_id + batch
+        ON CONFLICT DO NOTHING;
+        COMMIT;
+        from_id := from_id + batch;
+    END LOOP;
+
+    SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), 0) INTO from_id, max_id FROM bookings;
+    WHILE from_id <= max_id LOOP
+        INSERT INTO booking_seats (booking_id, event_id, seat_id)
+        SELECT b.id, b.event_id, seat.id
+        FROM bookings b, unnest(b.seat_ids) AS seat(id)
+        WHERE b.id >= from_id AND b.id < from_id + batch
+        ON CONFLICT DO NOTHING;
+        COMMIT;
+        from_id := from_id + batch;
+    END LOOP;
+END $$;
+
+-- Built after the backfill, without blocking writes
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_hold_seats_event_seat ON hold_seats(event_id, seat_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_seats_event_seat ON booking_seats(event_id, seat_id);
+
+ANALYZE hold_seats;
+ANALYZE booking_seats;
@@ -0,0 +1,31 @@
+-- Adds venue layout templates (see init-db.sql). Existing events keep their own seat rows;
+-- templates are created from them through POST /api/events/{id}/layout.
+-- Safe to re-run:
+--   psql -d ticketing -f infrastructure/migrate-venue-layouts.sql
+
+CREATE TABLE IF NOT EXISTS venue_layouts (
+    id BIGSERIAL PRIMARY KEY,
+    venue VARCHAR(200) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    seat_count INTEGER NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS venue_layout_seats (
+    layout_id BIGINT NOT NULL REFERENCES venue_layouts(id),
+    seat_index INTEGER NOT NULL,
+    section VARCHAR(50) NOT NULL,
+    row_letter VARCHAR(10) NOT NULL,
+    seat_number INTEGER NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (layout_id, seat_index)
+);
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS venue_layout_id BIGINT REFERENCES venue_layouts(id);
+
+CREATE TABLE IF NOT EXISTS event_section_prices (
+    event_id BIGINT NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    section VARCHAR(50) NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (event_id, section)
+);
@@ -0,0 +1,18 @@
+package com.ticketing.queue.config;
+
+import com.ticketing.common.util.AdmissionTokens;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AdmissionTokenConfig {
+
+    /**
+     * Signs admission tokens; booking-service verifies them with the same secret
+     */
+    @Bean
+    public AdmissionTokens admissionTokens(@Value("${queue.admission.token.secret}") String secret) {
+        return new AdmissionTokens(secret);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ticketing.queue.controller;
+
+import com.ticketing.common.dto.LotteryDto;
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.queue.waitingroom.LotteryService;
+import com.ticketing.queue.waitingroom.PositionStreamService;
+import com.ticketing.queue.waitingroom.QueueUnavailableException;
+import com.ticketing.queue.waitingroom.WaitingRoomService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/queue")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Queue Controller", description = "Virtual waiting room for high-demand on-sales")
+public class QueueController {
+
+    private final WaitingRoomService waitingRoomService;
+    private final PositionStreamService positionStreamService;
+    private final LotteryService lotteryService;
+
+    @PostMapping("/{eventId}/join")
+    @Operation(
+        summary = "Join an event's waiting room",
+        description = "Add the customer to the event's queue and return their position. Customers are " +
+                     "admitted in join order at the configured rate; joining again keeps the place."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Waiting, with position, or already admitted"),
+        @ApiResponse(responseCode = "503", description = "Queue temporarily unavailable, retry")
+    })
+    public ResponseEntity<QueueStatusDto> join(
+            @Parameter(description = "Event ID") @PathVariable Long eventId,
+            @Parameter(description = "Customer ID") @RequestParam Long customerId) {
+        try {
+            return ResponseEntity.ok(waitingRoomService.join(eventId, customerId));
+        } catch (QueueUnavailableException e) {
+            log.warn("Join failed for customer: {} event: {} - {}", customerId, eventId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/{eventId}/status")
+    @Operation(
+        summary = "Get a customer's place in the waiting room",
+        description = "WAITING with position, ADMITTED with the admission token and its expiry, " +
+                     "LOTTERY with the draw time, or NOT_IN_QUEUE"
+    )
+    public ResponseEntity<QueueStatusDto> status(
+            @Parameter(description = "Event ID") @PathVariable Long eventId,
+            @Parameter(description = "Customer ID") @RequestParam Long customerId) {
+        return ResponseEntity.ok(waitingRoomService.status(eventId, customerId));
+    }
+
+    @GetMapping(value = "/{eventId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream a customer's place in the waiting room",
+        description = "Server-Sent Events stream of queue-status events: the status at once, then the position " +
+                     "and estimated wait whenever the position crosses a bucket (two significant digits), " +
+                     "and the ADMITTED status with the admission token, after which the stream ends. Close " +
+                     "the EventSource on ADMITTED or NOT_IN_QUEUE. In a pre-sale lottery the stream sends LOTTERY and " +
+                     "ends with a retry time just after the draw. A customer whose stream stays gone for " +
+                     "queue.stream.leave-grace-ms leaves the queue."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "503", description = "No room for another stream on this instance, poll the status")
+    })
+    public ResponseEntity<SseEmitter> stream(
+            @Parameter(description = "Event ID") @PathVariable Long eventId,
+            @Parameter(description = "Customer ID") @RequestParam Long customerId) {
+        try {
+            return ResponseEntity.ok(positionStreamService.subscribe(eventId, customerId));
+        } catch (QueueUnavailableException e) {
+            log.warn("Position stream refused for customer: {} event: {} - {}", customerId, eventId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @PutMapping("/{eventId}/lottery")
+    @Operation(
+        summary = "Schedule an event's pre-sale lottery",
+        description = "Customers joining before the opening time enter a pool instead of the queue. At the " +
+                     "opening the pool is shuffled with a seed committed to now and takes the places ahead of " +
+                     "everyone joining later. Scheduling again before the opening moves it."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lottery scheduled, with the seed commitment"),
+        @ApiResponse(responseCode = "400", description = "Opening time not in the future"),
+        @ApiResponse(responseCode = "409", description = "Lottery already opened")
+    })
+    public ResponseEntity<LotteryDto> scheduleLottery(
+            @Parameter(description = "Event ID") @PathVariable Long eventId,
+            @Parameter(description = "Opening time, when the lottery is drawn")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime opensAt) {
+        try {
+            return ResponseEntity.ok(lotteryService.schedule(eventId, opensAt));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid lottery opening for event {}: {}", eventId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Lottery not rescheduled for event {}: {}", eventId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/{eventId}/lottery")
+    @Operation(
+        summary = "Audit an event's pre-sale lottery",
+        description = "Opening time, seed commitment and entrants; once drawn also the seed and the SHA-256 " +
+                     "digest of the drawn order, from which the order can be recomputed"
+    )
+    public ResponseEntity<LotteryDto> lottery(
+            @Parameter(description = "Event ID") @PathVariable Long eventId) {
+        return lotteryService.audit(eventId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
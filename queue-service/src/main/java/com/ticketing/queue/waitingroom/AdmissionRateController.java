@@ -0,0 +1,263 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets each event's admission rate.
+ *
+ * Without queue.admission.adaptive.enabled every event is admitted at the configured
+ * rate. With it, the rate follows booking-service's load (AIMD): once per interval it is
+ * cut by the decrease factor when the hold p99, DB pool use or Redis error ratio is over
+ * its limit, when booking-service has stopped reporting, or when most of the event's holds
+ * find their seats gone; it is held while within the headroom of a limit, and otherwise
+ * raised by the increase step while customers are waiting. Always between the floor and
+ * the ceiling.
+ *
+ * The hold p99 covers a window of several intervals (booking.load-report.latency-window.ms),
+ * so it stays high for a while after a cut has already helped. After a cut for latency the
+ * rate is held, not cut again for latency, until that window has turned over.
+ *
+ * The rate lives in the event's state hash next to the token bucket, so all instances
+ * admit at the same rate; the first instance due in an interval moves it, the others
+ * take it over.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionRateController {
+
+    enum Decision {
+        INCREASE("increase", "healthy"),
+        HOLD("hold", "near_limit"),
+        DECREASE_NO_SIGNAL("decrease", "no_signal"),
+        DECREASE_LATENCY("decrease", "hold_latency"),
+        DECREASE_DB_POOL("decrease", "db_pool"),
+        DECREASE_REDIS_ERRORS("decrease", "redis_errors"),
+        DECREASE_SEATS_UNAVAILABLE("decrease", "seats_unavailable"),
+        HOLD_LATENCY_WINDOW("hold", "latency_window");
+
+        private final String action;
+        private final String reason;
+
+        Decision(String action, String reason) {
+            this.action = action;
+            this.reason = reason;
+        }
+
+        String action() {
+            return action;
+        }
+
+        String reason() {
+            return reason;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final BookingLoadReader bookingLoadReader;
+    private final WaitingRoomMetrics metrics;
+
+    // The fixed rate, and the starting rate when adaptive
+    @Value("${queue.admission.rate-per-second:100}")
+    private double ratePerSecond;
+
+    @Value("${queue.admission.adaptive.enabled:false}")
+    private boolean adaptive;
+
+    @Value("${queue.admission.adaptive.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${queue.admission.adaptive.min-rate:10}")
+    private double minRate;
+
+    @Value("${queue.admission.adaptive.max-rate:1000}")
+    private double maxRate;
+
+    @Value("${queue.admission.adaptive.increase-step:10}")
+    private double increaseStep;
+
+    @Value("${queue.admission.adaptive.decrease-factor:0.7}")
+    private double decreaseFactor;
+
+    // Share of a limit above which the rate is held rather than raised
+    @Value("${queue.admission.adaptive.headroom:0.8}")
+    private double headroom;
+
+    @Value("${queue.admission.adaptive.target-hold-p99-ms:500}")
+    private double targetHoldP99Ms;
+
+    // Window of booking-service's hold p99; latency cuts are at least this far apart
+    @Value("${queue.admission.adaptive.latency-window-ms:10000}")
+    private long latencyWindowMs;
+
+    @Value("${queue.admission.adaptive.max-db-pool-utilization:0.9}")
+    private double maxDbPoolUtilization;
+
+    @Value("${queue.admission.adaptive.max-redis-error-ratio:0.01}")
+    private double maxRedisErrorRatio;
+
+    @Value("${queue.admission.adaptive.max-seats-unavailable-ratio:0.5}")
+    private double maxSeatsUnavailableRatio;
+
+    // Fewer holds for an event in an interval say nothing about its seats
+    @Value("${queue.admission.adaptive.min-event-holds:20}")
+    private long minEventHolds;
+
+    private static final List<Object> RATE_FIELDS = List.of("rate", "rate_ms", "latency_cut_ms");
+
+    private final Map<Long, Double> rates = new ConcurrentHashMap<>();
+
+    // KEYS: state, waiting. ARGV: rate_ms the new rate was worked out from, new rate, now ms,
+    // 1 for an increase, 1 for a latency cut. Sets the rate unless another instance moved it
+    // since, or it is an increase while nobody waits. Returns {rate, 1 if set}
+    private static final String SET_RATE_LUA =
+        "local at = redis.call('HGET', KEYS[1], 'rate_ms') or '' " +
+        "if at ~= ARGV[1] or (ARGV[4] == '1' and redis.call('ZCARD', KEYS[2]) == 0) then " +
+        "  return {redis.call('HGET', KEYS[1], 'rate') or '', 0} " +
+        "end " +
+        "redis.call('HSET', KEYS[1], 'rate', ARGV[2], 'rate_ms', ARGV[3]) " +
+        "if ARGV[5] == '1' then redis.call('HSET', KEYS[1], 'latency_cut_ms', ARGV[3]) end " +
+        "return {ARGV[2], 1}";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> SET_RATE_SCRIPT =
+        new DefaultRedisScript<>(SET_RATE_LUA, List.class);
+
+    /**
+     * Admissions per second for an event
+     */
+    public double rate(Long eventId) {
+        if (!adaptive) {
+            return ratePerSecond;
+        }
+        Double rate = rates.get(eventId);
+        return rate != null ? rate : clamp(ratePerSecond);
+    }
+
+    @Scheduled(fixedDelayString = "${queue.admission.adaptive.interval-ms:1000}")
+    public void update() {
+        if (!adaptive) {
+            return;
+        }
+        Set<String> events = redisTemplate.opsForZSet().range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1);
+        if (events == null || events.isEmpty()) {
+            rates.clear();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        BookingLoad load;
+        try {
+            load = bookingLoadReader.read(now);
+        } catch (RuntimeException e) {
+            log.warn("Could not read booking-service load: {}", e.getMessage());
+            load = BookingLoad.NONE;
+        }
+        metrics.bookingLoad(load);
+
+        for (String event : events) {
+            Long eventId = Long.valueOf(event);
+            try {
+                adjust(eventId, load, now);
+            } catch (RuntimeException e) {
+                log.error("Adjusting the admission rate of event {} failed", eventId, e);
+            }
+        }
+        rates.keySet().removeIf(eventId -> !events.contains(String.valueOf(eventId)));
+    }
+
+    /**
+     * Move the event's shared rate for this interval, or take over the one another
+     * instance set
+     */
+    double adjust(Long eventId, BookingLoad load, long now) {
+        String stateKey = RedisKeys.queueStateKey(eventId);
+        List<Object> state = redisTemplate.opsForHash().multiGet(stateKey, RATE_FIELDS);
+        Object storedRate = state != null && state.size() == 3 ? state.get(0) : null;
+        Object storedAt = state != null && state.size() == 3 ? state.get(1) : null;
+        Object latencyCutAt = state != null && state.size() == 3 ? state.get(2) : null;
+        double current = storedRate != null ? clamp(Double.parseDouble(storedRate.toString())) : clamp(ratePerSecond);
+
+        double rate = current;
+        if (storedAt == null || now - Long.parseLong(storedAt.toString()) >= intervalMs) {
+            long sinceLatencyCutMs = latencyCutAt != null ? now - Long.parseLong(latencyCutAt.toString()) : Long.MAX_VALUE;
+            Decision decision = decide(load, eventId, sinceLatencyCutMs);
+            double next = next(current, decision);
+            List<?> result = redisTemplate.execute(SET_RATE_SCRIPT,
+                List.of(stateKey, RedisKeys.queueWaitingKey(eventId)),
+                storedAt != null ? storedAt.toString() : "", String.valueOf(next), String.valueOf(now),
+                decision == Decision.INCREASE ? "1" : "0", decision == Decision.DECREASE_LATENCY ? "1" : "0");
+            if (result != null && result.size() == 2) {
+                String value = String.valueOf(result.get(0));
+                rate = value.isEmpty() ? current : clamp(Double.parseDouble(value));
+                if ("1".equals(String.valueOf(result.get(1)))) {
+                    metrics.rateDecision(eventId, decision.action(), decision.reason());
+                    if (next != current) {
+                        log.debug("Admission rate of event {}: {} -> {}/s ({})", eventId, current, next, decision.reason());
+                    }
+                }
+            }
+        }
+
+        rates.put(eventId, rate);
+        metrics.admissionRate(eventId, rate);
+        return rate;
+    }
+
+    /**
+     * @param sinceLatencyCutMs time since the event's rate was last cut for latency
+     */
+    Decision decide(BookingLoad load, Long eventId, long sinceLatencyCutMs) {
+        if (load.getInstances() == 0) {
+            return Decision.DECREASE_NO_SIGNAL;
+        }
+        // Still partly made of holds from before the last cut
+        boolean latencyLagging = sinceLatencyCutMs < latencyWindowMs;
+        if (load.getHoldP99Millis() > targetHoldP99Ms && !latencyLagging) {
+            return Decision.DECREASE_LATENCY;
+        }
+        if (load.getDbPoolUtilization() > maxDbPoolUtilization) {
+            return Decision.DECREASE_DB_POOL;
+        }
+        if (load.getRedisErrorRatio() > maxRedisErrorRatio) {
+            return Decision.DECREASE_REDIS_ERRORS;
+        }
+        if (load.unavailableRatio(eventId, minEventHolds) > maxSeatsUnavailableRatio) {
+            return Decision.DECREASE_SEATS_UNAVAILABLE;
+        }
+        if (load.getHoldP99Millis() > targetHoldP99Ms) {
+            return Decision.HOLD_LATENCY_WINDOW;
+        }
+        if (load.getHoldP99Millis() > targetHoldP99Ms * headroom
+                || load.getDbPoolUtilization() > maxDbPoolUtilization * headroom) {
+            return Decision.HOLD;
+        }
+        return Decision.INCREASE;
+    }
+
+    double next(double rate, Decision decision) {
+        if (decision == Decision.INCREASE) {
+            return clamp(rate + increaseStep);
+        }
+        if (decision == Decision.HOLD || decision == Decision.HOLD_LATENCY_WINDOW) {
+            return clamp(rate);
+        }
+        return clamp(rate * decreaseFactor);
+    }
+
+    private double clamp(double rate) {
+        return Math.max(minRate, Math.min(maxRate, rate));
+    }
+}
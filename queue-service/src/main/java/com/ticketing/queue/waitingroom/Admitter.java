@@ -0,0 +1,174 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Admits waiting customers at a controlled rate, in join order.
+ *
+ * Every instance ticks over the active events; the token bucket (rate per second, up to
+ * burst) lives in the event's state hash, so the admission rate is the one set by the
+ * AdmissionRateController however many instances tick. Each admitted customer is stored
+ * with a random nonce and the end of the admission window, from which the signed
+ * admission token is built (see WaitingRoomService). Expired admissions are pruned on the
+ * same tick, after which the customer may join again.
+ *
+ * Admission pauses while a pre-sale lottery is being drawn: its entrants hold the places
+ * ahead of everyone who joined after the opening, and are not in the queue yet.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class Admitter {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final StringRedisTemplate redisTemplate;
+    private final QueueIndex queueIndex;
+    private final WaitingRoomMetrics metrics;
+    private final AdmissionRateController rateController;
+
+    @Value("${queue.admission.burst:200}")
+    private int burst;
+
+    @Value("${queue.admission.window-seconds:300}")
+    private long windowSeconds;
+
+    @Value("${queue.admission.tick-ms:100}")
+    private long tickMs;
+
+    // Empty queues without a join for this long leave the active events
+    @Value("${queue.admission.idle-ms:60000}")
+    private long idleMs;
+
+    // KEYS: waiting, joined, state, admissions, admission_expiry, pool.
+    // ARGV: now ms, rate per second, burst, admission window ms, nonces...
+    // Returns {depth, head, customerId, joined ms, ...} for the customers admitted; depth
+    // counts lottery entrants until the draw is done
+    private static final String ADMIT_LUA =
+        "local now = tonumber(ARGV[1]) " +
+        "local rate = tonumber(ARGV[2]) " +
+        "local burst = tonumber(ARGV[3]) " +
+        "local expired = redis.call('ZRANGEBYSCORE', KEYS[5], '-inf', now, 'LIMIT', 0, 1000) " +
+        "for _, customer in ipairs(expired) do " +
+        "  redis.call('HDEL', KEYS[4], customer) " +
+        "  redis.call('ZREM', KEYS[5], customer) " +
+        "end " +
+        "local state = redis.call('HMGET', KEYS[3], 'credit', 'credit_ms', 'head', 'opens_ms', 'lottery_base', " +
+        "  'lottery_drawn') " +
+        "local credit = state[1] and tonumber(state[1]) or burst " +
+        "local last = state[2] and tonumber(state[2]) or now " +
+        "local head = state[3] and tonumber(state[3]) or 0 " +
+        "credit = math.min(burst, credit + math.max(0, now - last) * rate / 1000) " +
+        "local result = {0, 0} " +
+        "local count = math.min(math.floor(credit), #ARGV - 4) " +
+        "if state[5] and not state[6] then " +
+        "  count = 0 " +
+        "end " +
+        "if count > 0 then " +
+        "  local popped = redis.call('ZPOPMIN', KEYS[1], count) " +
+        "  local expires = now + tonumber(ARGV[4]) " +
+        "  for i = 1, #popped, 2 do " +
+        "    local customer = popped[i] " +
+        "    redis.call('HSET', KEYS[4], customer, ARGV[4 + (i + 1) / 2] .. ':' .. expires) " +
+        "    redis.call('ZADD', KEYS[5], expires, customer) " +
+        "    result[#result + 1] = customer " +
+        "    result[#result + 1] = redis.call('HGET', KEYS[2], customer) or ARGV[1] " +
+        "    redis.call('HDEL', KEYS[2], customer) " +
+        "    head = tonumber(popped[i + 1]) " +
+        "  end " +
+        "  credit = credit - #popped / 2 " +
+        "end " +
+        "redis.call('HSET', KEYS[3], 'credit', tostring(credit), 'credit_ms', ARGV[1], 'head', head) " +
+        "result[1] = redis.call('ZCARD', KEYS[1]) " +
+        "if state[4] and not state[6] then " +
+        "  result[1] = result[1] + redis.call('SCARD', KEYS[6]) " +
+        "end " +
+        "result[2] = head " +
+        "return result";
+
+    // KEYS: active events. ARGV: eventId, idle before ms. Removes the event if it had no join since
+    private static final String DEACTIVATE_LUA =
+        "local score = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+        "if score and tonumber(score) < tonumber(ARGV[2]) then " +
+        "  return redis.call('ZREM', KEYS[1], ARGV[1]) " +
+        "end " +
+        "return 0";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ADMIT_SCRIPT =
+        new DefaultRedisScript<>(ADMIT_LUA, List.class);
+
+    private static final DefaultRedisScript<Long> DEACTIVATE_SCRIPT =
+        new DefaultRedisScript<>(DEACTIVATE_LUA, Long.class);
+
+    @Scheduled(fixedDelayString = "${queue.admission.tick-ms:100}")
+    public void tick() {
+        Set<String> events = redisTemplate.opsForZSet().range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1);
+        if (events == null) {
+            return;
+        }
+        for (String event : events) {
+            Long eventId = Long.valueOf(event);
+            try {
+                long depth = admit(eventId);
+                if (depth == 0) {
+                    redisTemplate.execute(DEACTIVATE_SCRIPT, List.of(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY),
+                        event, String.valueOf(System.currentTimeMillis() - idleMs));
+                }
+            } catch (RuntimeException e) {
+                log.error("Admitting customers for event {} failed", eventId, e);
+            }
+        }
+        queueIndex.prune();
+    }
+
+    /**
+     * Run one admission step for an event
+     *
+     * @return customers still waiting
+     */
+    long admit(Long eventId) {
+        long now = System.currentTimeMillis();
+        double rate = rateController.rate(eventId);
+        int nonces = (int) Math.max(1, Math.min(burst, Math.ceil(rate * tickMs / 1000.0 * 2)));
+
+        Object[] args = new Object[4 + nonces];
+        args[0] = String.valueOf(now);
+        args[1] = String.valueOf(rate);
+        args[2] = String.valueOf(burst);
+        args[3] = String.valueOf(windowSeconds * 1000);
+        for (int i = 0; i < nonces; i++) {
+            args[4 + i] = String.valueOf(RANDOM.nextLong());
+        }
+
+        List<?> result = redisTemplate.execute(ADMIT_SCRIPT, List.of(RedisKeys.queueWaitingKey(eventId),
+            RedisKeys.queueJoinedKey(eventId), RedisKeys.queueStateKey(eventId),
+            RedisKeys.queueAdmissionsKey(eventId), RedisKeys.queueAdmissionExpiryKey(eventId),
+            RedisKeys.queuePoolKey(eventId)), args);
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("Unexpected admission script result for event " + eventId);
+        }
+
+        long depth = Long.parseLong(String.valueOf(result.get(0)));
+        queueIndex.advanceHead(eventId, Long.parseLong(String.valueOf(result.get(1))));
+        for (int i = 2; i + 1 < result.size(); i += 2) {
+            metrics.admitted(eventId, Long.parseLong(String.valueOf(result.get(i + 1))), now);
+        }
+        metrics.depth(eventId, depth);
+        if (result.size() > 2) {
+            log.debug("Admitted {} customers for event {}, {} waiting", (result.size() - 2) / 2, eventId, depth);
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ticketing.queue.waitingroom;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Booking-service load as last reported by its instances, combined: the worst p99 and
+ * DB pool use of any instance, Redis errors and seat-unavailable rejections as ratios
+ * of all holds.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BookingLoad {
+
+    static final BookingLoad NONE = new BookingLoad(0, 0, 0, -1, 0, Map.of(), Map.of());
+
+    // Instances with a fresh report; none means booking-service is down or not reporting
+    private final int instances;
+
+    private final long holds;
+
+    private final double holdP99Millis;
+
+    // (active + waiting for a connection) / pool size, -1 when unknown
+    private final double dbPoolUtilization;
+
+    private final double redisErrorRatio;
+
+    private final Map<Long, Long> holdsByEvent;
+
+    private final Map<Long, Long> unavailableByEvent;
+
+    /**
+     * Share of the event's holds rejected for lack of seats, 0 below minHolds holds
+     */
+    public double unavailableRatio(Long eventId, long minHolds) {
+        long eventHolds = holdsByEvent.getOrDefault(eventId, 0L);
+        if (eventHolds == 0 || eventHolds < minHolds) {
+            return 0;
+        }
+        return (double) unavailableByEvent.getOrDefault(eventId, 0L) / eventHolds;
+    }
+}
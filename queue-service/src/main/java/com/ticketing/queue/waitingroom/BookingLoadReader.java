@@ -0,0 +1,80 @@
+package com.ticketing.queue.waitingroom;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.BookingLoadDto;
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the load reports booking-service instances publish to booking:load and combines
+ * the fresh ones. Reports older than the stale limit are left out: an instance that
+ * stopped reporting may be the one in trouble.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookingLoadReader {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${queue.admission.adaptive.signal-stale-ms:5000}")
+    private long staleMs;
+
+    public BookingLoad read(long nowMillis) {
+        Map<Object, Object> reports = redisTemplate.opsForHash().entries(RedisKeys.BOOKING_LOAD_KEY);
+        if (reports == null || reports.isEmpty()) {
+            return BookingLoad.NONE;
+        }
+
+        int instances = 0;
+        long holds = 0;
+        long redisErrors = 0;
+        double holdP99Millis = 0;
+        double dbPoolUtilization = -1;
+        Map<Long, Long> holdsByEvent = new HashMap<>();
+        Map<Long, Long> unavailableByEvent = new HashMap<>();
+
+        for (Map.Entry<Object, Object> report : reports.entrySet()) {
+            BookingLoadDto load;
+            try {
+                load = objectMapper.readValue(report.getValue().toString(), BookingLoadDto.class);
+            } catch (JsonProcessingException e) {
+                log.debug("Skipping unreadable load report of {}", report.getKey(), e);
+                continue;
+            }
+            if (nowMillis - load.getReportedAtMillis() > staleMs) {
+                continue;
+            }
+            instances++;
+            holds += load.getHolds();
+            redisErrors += load.getRedisErrors();
+            holdP99Millis = Math.max(holdP99Millis, load.getHoldP99Millis());
+            if (load.getDbMaxConnections() > 0) {
+                dbPoolUtilization = Math.max(dbPoolUtilization,
+                    (double) (load.getDbActiveConnections() + load.getDbPendingThreads()) / load.getDbMaxConnections());
+            }
+            if (load.getHoldsByEvent() != null) {
+                load.getHoldsByEvent().forEach((eventId, count) -> holdsByEvent.merge(eventId, count, Long::sum));
+            }
+            if (load.getUnavailableByEvent() != null) {
+                load.getUnavailableByEvent().forEach((eventId, count) -> unavailableByEvent.merge(eventId, count, Long::sum));
+            }
+        }
+        if (instances == 0) {
+            return BookingLoad.NONE;
+        }
+
+        double redisErrorRatio = holds > 0 ? Math.min(1.0, (double) redisErrors / holds) : (redisErrors > 0 ? 1.0 : 0);
+        return new BookingLoad(instances, holds, holdP99Millis, dbPoolUtilization, redisErrorRatio,
+            holdsByEvent, unavailableByEvent);
+    }
+}
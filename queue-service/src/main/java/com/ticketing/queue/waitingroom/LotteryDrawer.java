@@ -0,0 +1,200 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Draws pre-sale lotteries at their opening time.
+ *
+ * Until the opening, joins of a lottery event go into the event's pool (see JoinBatcher).
+ * At the opening, the first join or drawer tick to see it reserves one join sequence per
+ * entrant, so joins from then on queue behind all of them, and admission pauses until the
+ * draw is done. One instance then takes the draw lease, reads the pool, shuffles it with
+ * the seed committed to when the lottery was scheduled (LotteryShuffle), writes the drawn
+ * order into the waiting queue in batches of ZADDs and finally drops the pool.
+ *
+ * The draw is repeatable: the order depends only on the pool and the seed, and the pool
+ * stays until the end, so an instance that takes over an expired lease writes the same
+ * places again.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LotteryDrawer {
+
+    private final StringRedisTemplate redisTemplate;
+    private final WaitingRoomMetrics metrics;
+
+    @Value("${queue.lottery.insert-batch-size:10000}")
+    private int insertBatchSize;
+
+    @Value("${queue.lottery.scan-count:10000}")
+    private int scanCount;
+
+    // Longer than a draw takes; another instance redraws after it
+    @Value("${queue.lottery.lease-ms:60000}")
+    private long leaseMs;
+
+    private static final List<Object> LOTTERY_FIELDS = List.of("opens_ms", "lottery_drawn");
+
+    // Lua function for the join and claim scripts: once the opening has passed, reserve the
+    // sequences after the current one for the pool's entrants, once
+    static final String RESERVE_LOTTERY_LUA =
+        "local function reserve_lottery(state, pool, now) " +
+        "  local lottery = redis.call('HMGET', state, 'opens_ms', 'lottery_base', 'seq') " +
+        "  if lottery[1] and not lottery[2] and now >= tonumber(lottery[1]) then " +
+        "    local seq = tonumber(lottery[3] or '0') " +
+        "    local size = redis.call('SCARD', pool) " +
+        "    redis.call('HSET', state, 'lottery_base', seq, 'lottery_size', size, 'seq', seq + size) " +
+        "  end " +
+        "end ";
+
+    // KEYS: state, pool. ARGV: now ms, lease expiry ms.
+    // Returns {base, size, seed, opens ms} if this instance is to draw, else {}
+    private static final String CLAIM_LUA =
+        RESERVE_LOTTERY_LUA +
+        "local now = tonumber(ARGV[1]) " +
+        "reserve_lottery(KEYS[1], KEYS[2], now) " +
+        "local state = redis.call('HMGET', KEYS[1], 'lottery_base', 'lottery_size', 'lottery_seed', 'opens_ms', " +
+        "  'lottery_drawn', 'lottery_lease') " +
+        "if not state[1] or state[5] or (state[6] and tonumber(state[6]) > now) then " +
+        "  return {} " +
+        "end " +
+        "redis.call('HSET', KEYS[1], 'lottery_lease', ARGV[2]) " +
+        "return {state[1], state[2], state[3], state[4]}";
+
+    // KEYS: state, pool. ARGV: lease expiry ms, digest. Completes the draw if the lease is still ours
+    private static final String FINISH_LUA =
+        "if redis.call('HGET', KEYS[1], 'lottery_lease') ~= ARGV[1] then " +
+        "  return 0 " +
+        "end " +
+        "redis.call('HSET', KEYS[1], 'lottery_drawn', '1', 'lottery_digest', ARGV[2]) " +
+        "redis.call('HDEL', KEYS[1], 'lottery_lease') " +
+        "redis.call('DEL', KEYS[2]) " +
+        "return 1";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT =
+        new DefaultRedisScript<>(CLAIM_LUA, List.class);
+
+    private static final DefaultRedisScript<Long> FINISH_SCRIPT =
+        new DefaultRedisScript<>(FINISH_LUA, Long.class);
+
+    @Scheduled(fixedDelayString = "${queue.lottery.tick-ms:200}")
+    public void tick() {
+        Set<String> events = redisTemplate.opsForZSet().range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1);
+        if (events == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (String event : events) {
+            Long eventId = Long.valueOf(event);
+            try {
+                List<Object> state = redisTemplate.opsForHash().multiGet(RedisKeys.queueStateKey(eventId), LOTTERY_FIELDS);
+                if (state != null && state.size() == 2 && state.get(0) != null && state.get(1) == null
+                        && now >= Long.parseLong(state.get(0).toString())) {
+                    draw(eventId, now);
+                }
+            } catch (RuntimeException e) {
+                log.error("Drawing the pre-sale lottery of event {} failed", eventId, e);
+            }
+        }
+    }
+
+    /**
+     * Draw the event's lottery if it is open, not drawn and not being drawn elsewhere
+     *
+     * @return whether this instance drew it
+     */
+    boolean draw(Long eventId, long now) {
+        List<String> keys = List.of(RedisKeys.queueStateKey(eventId), RedisKeys.queuePoolKey(eventId));
+        String lease = String.valueOf(now + leaseMs);
+        List<?> claim = redisTemplate.execute(CLAIM_SCRIPT, keys, String.valueOf(now), lease);
+        if (claim == null || claim.size() < 4) {
+            return false;
+        }
+        long base = Long.parseLong(String.valueOf(claim.get(0)));
+        int size = Integer.parseInt(String.valueOf(claim.get(1)));
+        long seed = Long.parseLong(String.valueOf(claim.get(2)));
+        String opens = String.valueOf(claim.get(3));
+
+        long started = System.nanoTime();
+        long[] entrants = readPool(eventId, size);
+        LotteryShuffle.shuffle(entrants, seed);
+        insert(eventId, entrants, base, opens);
+        String digest = LotteryShuffle.digest(entrants);
+
+        Long finished = redisTemplate.execute(FINISH_SCRIPT, keys, lease, digest);
+        if (finished == null || finished == 0) {
+            log.warn("Lost the lottery lease of event {} while drawing; another instance draws it again", eventId);
+            return false;
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        metrics.lotteryDrawn(eventId, size, elapsedNanos);
+        log.info("Drew the pre-sale lottery of event {}: {} entrants from sequence {} in {} ms, digest {}",
+            eventId, size, base + 1, elapsedNanos / 1_000_000, digest);
+        return true;
+    }
+
+    // All entrants, each once (SSCAN may return a member twice)
+    private long[] readPool(Long eventId, int size) {
+        long[] entrants = new long[size];
+        int count = 0;
+        ScanOptions options = ScanOptions.scanOptions().count(scanCount).build();
+        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(RedisKeys.queuePoolKey(eventId), options)) {
+            while (cursor.hasNext()) {
+                if (count == entrants.length) {
+                    entrants = Arrays.copyOf(entrants, Math.max(16, count * 2));
+                }
+                entrants[count++] = Long.parseLong(cursor.next());
+            }
+        }
+        Arrays.sort(entrants, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || entrants[i] != entrants[distinct - 1]) {
+                entrants[distinct++] = entrants[i];
+            }
+        }
+        if (distinct != size) {
+            throw new IllegalStateException("Lottery pool of event " + eventId + " has " + distinct
+                + " entrants, " + size + " were reserved");
+        }
+        return distinct == entrants.length ? entrants : Arrays.copyOf(entrants, distinct);
+    }
+
+    private void insert(Long eventId, long[] drawnOrder, long base, String joinedAt) {
+        String waitingKey = RedisKeys.queueWaitingKey(eventId);
+        String joinedKey = RedisKeys.queueJoinedKey(eventId);
+        for (int from = 0; from < drawnOrder.length; from += insertBatchSize) {
+            int to = Math.min(from + insertBatchSize, drawnOrder.length);
+            Set<ZSetOperations.TypedTuple<String>> places = new HashSet<>((to - from) * 2);
+            Map<String, String> joined = new HashMap<>((to - from) * 2);
+            for (int i = from; i < to; i++) {
+                String customer = String.valueOf(drawnOrder[i]);
+                places.add(new DefaultTypedTuple<>(customer, (double) (base + i + 1)));
+                // Waits are measured from the opening
+                joined.put(customer, joinedAt);
+            }
+            redisTemplate.opsForZSet().add(waitingKey, places);
+            redisTemplate.opsForHash().putAll(joinedKey, joined);
+        }
+    }
+}
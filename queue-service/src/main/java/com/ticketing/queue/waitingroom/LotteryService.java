@@ -0,0 +1,111 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.dto.LotteryDto;
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Schedules pre-sale lotteries and reports them for audit.
+ *
+ * Scheduling sets the opening time and, the first time only, a secret random seed with its
+ * SHA-256 commitment. The commitment is public from the start; the seed is revealed once the
+ * draw is done, so anyone can check it against the commitment and recompute the drawn order
+ * from the entrants (see LotteryShuffle).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LotteryService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private static final List<Object> AUDIT_FIELDS = List.of("opens_ms", "lottery_commitment", "lottery_base",
+        "lottery_size", "lottery_seed", "lottery_drawn", "lottery_digest");
+
+    // KEYS: state. ARGV: opens ms, seed, commitment.
+    // Returns 0 once the opening has passed (the pool's places are reserved), else 1
+    private static final String SCHEDULE_LUA =
+        "if redis.call('HEXISTS', KEYS[1], 'lottery_base') == 1 then " +
+        "  return 0 " +
+        "end " +
+        "redis.call('HSET', KEYS[1], 'opens_ms', ARGV[1]) " +
+        "if redis.call('HSETNX', KEYS[1], 'lottery_seed', ARGV[2]) == 1 then " +
+        "  redis.call('HSET', KEYS[1], 'lottery_commitment', ARGV[3]) " +
+        "end " +
+        "return 1";
+
+    private static final DefaultRedisScript<Long> SCHEDULE_SCRIPT =
+        new DefaultRedisScript<>(SCHEDULE_LUA, Long.class);
+
+    /**
+     * Open the event's pre-sale lottery at the given time; joins until then enter its pool.
+     * Scheduling again before the opening moves it and keeps the seed.
+     *
+     * @throws IllegalArgumentException if the opening is not in the future
+     * @throws IllegalStateException if the lottery has already opened
+     */
+    public LotteryDto schedule(Long eventId, LocalDateTime opensAt) {
+        long opensMillis = opensAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (opensMillis <= System.currentTimeMillis()) {
+            throw new IllegalArgumentException("Lottery opening must be in the future: " + opensAt);
+        }
+        long seed = RANDOM.nextLong();
+        Long scheduled = redisTemplate.execute(SCHEDULE_SCRIPT, List.of(RedisKeys.queueStateKey(eventId)),
+            String.valueOf(opensMillis), String.valueOf(seed), LotteryShuffle.commitment(seed));
+        if (scheduled == null || scheduled == 0) {
+            throw new IllegalStateException("Lottery of event " + eventId + " has already opened");
+        }
+        log.info("Pre-sale lottery of event {} opens at {}", eventId, opensAt);
+        return audit(eventId).orElseThrow();
+    }
+
+    /**
+     * The event's lottery: opening, commitment and entrants, and once drawn the seed and the
+     * digest of the drawn order
+     */
+    public Optional<LotteryDto> audit(Long eventId) {
+        List<Object> fields = redisTemplate.opsForHash().multiGet(RedisKeys.queueStateKey(eventId), AUDIT_FIELDS);
+        if (fields == null || fields.size() != AUDIT_FIELDS.size() || fields.get(0) == null) {
+            return Optional.empty();
+        }
+        boolean reserved = fields.get(2) != null;
+        boolean drawn = fields.get(5) != null;
+
+        LotteryDto lottery = LotteryDto.builder()
+            .eventId(eventId)
+            .state(drawn ? LotteryDto.DRAWN : reserved ? LotteryDto.DRAWING : LotteryDto.SCHEDULED)
+            .opensAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(fields.get(0).toString())),
+                ZoneId.systemDefault()))
+            .commitment(string(fields.get(1)))
+            .build();
+        if (reserved) {
+            lottery.setEntrants(Long.parseLong(fields.get(3).toString()));
+            lottery.setFirstSeq(Long.parseLong(fields.get(2).toString()) + 1);
+        } else {
+            Long entrants = redisTemplate.opsForSet().size(RedisKeys.queuePoolKey(eventId));
+            lottery.setEntrants(entrants != null ? entrants : 0L);
+        }
+        if (drawn) {
+            lottery.setSeed(Long.parseLong(fields.get(4).toString()));
+            lottery.setDigest(string(fields.get(6)));
+        }
+        return Optional.of(lottery);
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ticketing.queue.waitingroom;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * The pre-sale lottery's permutation, fully specified so anyone holding the entrants and
+ * the revealed seed can recompute the drawn order:
+ *
+ *   1. Sort the entrants' customer IDs ascending, so arrival order plays no part.
+ *   2. Draw 64-bit values from SplitMix64 started at the seed: state += 0x9E3779B97F4A7C15,
+ *      z = (state ^ state >>> 30) * 0xBF58476D1CE4E5B9, z = (z ^ z >>> 27) * 0x94D049BB133111EB,
+ *      value = z ^ z >>> 31.
+ *   3. Fisher-Yates from the last index i down to 1: swap element i with element j, j uniform
+ *      in [0, i] by Lemire's multiply-shift (the high 64 bits of value * (i + 1)), drawing
+ *      again while the low 64 bits fall below 2^64 mod (i + 1), so no j is favoured.
+ *   4. Element k of the result is the k-th place of the lottery.
+ *
+ * The digest is SHA-256 over the drawn order, each ID as 8 big-endian bytes; the commitment
+ * published before the draw is SHA-256 over the seed's 8 big-endian bytes. One pass over a
+ * primitive array: a million entrants sort and shuffle in well under a second.
+ */
+final class LotteryShuffle {
+
+    private LotteryShuffle() {
+    }
+
+    /**
+     * Put the entrants in their drawn order, in place
+     */
+    static void shuffle(long[] customerIds, long seed) {
+        Arrays.sort(customerIds);
+        SplitMix64 random = new SplitMix64(seed);
+        for (int i = customerIds.length - 1; i > 0; i--) {
+            int j = (int) random.nextBelow(i + 1L);
+            long swapped = customerIds[i];
+            customerIds[i] = customerIds[j];
+            customerIds[j] = swapped;
+        }
+    }
+
+    static String digest(long[] drawnOrder) {
+        MessageDigest sha256 = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        for (long customerId : drawnOrder) {
+            if (!buffer.hasRemaining()) {
+                sha256.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putLong(customerId);
+        }
+        sha256.update(buffer.array(), 0, buffer.position());
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    static String commitment(long seed) {
+        return HexFormat.of().formatHex(sha256().digest(ByteBuffer.allocate(8).putLong(seed).array()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static final class SplitMix64 {
+        private long state;
+
+        SplitMix64(long seed) {
+            this.state = seed;
+        }
+
+        long next() {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        // Uniform in [0, bound), bound > 0
+        long nextBelow(long bound) {
+            long value = next();
+            long low = value * bound;
+            if (Long.compareUnsigned(low, bound) < 0) {
+                long threshold = Long.remainderUnsigned(-bound, bound);
+                while (Long.compareUnsigned(low, threshold) < 0) {
+                    value = next();
+                    low = value * bound;
+                }
+            }
+            return Math.unsignedMultiplyHigh(value, bound);
+        }
+    }
+}
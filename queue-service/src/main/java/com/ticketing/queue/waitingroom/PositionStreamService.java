@@ -0,0 +1,506 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.common.util.RedisKeys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes waiting customers their queue position and estimated wait over Server-Sent Events,
+ * so they need not poll the status.
+ *
+ * One tick per interval walks the streams of each event. A customer's position is their
+ * join sequence minus the admitted head this instance already knows, so waiting customers
+ * cost no Redis call. A message goes out only when the position crosses into another bucket
+ * (two significant digits, at least bucket-min-width wide): a customer far back hears every
+ * few percent of progress, one near the front at most once per tick. Once the head passes
+ * them they get their status with the admission token and the stream ends.
+ *
+ * The estimated wait is the position over the admission throughput measured from the head's
+ * progress. Both count join sequences, so customers who left ahead are counted alike on
+ * either side; until there is a measurement the event's admission rate stands in.
+ *
+ * Heartbeats find streams whose client has gone. A customer whose stream stays gone for the
+ * leave grace without reconnecting is removed from the queue, in batches of one script call
+ * per event. The reconnect may land on another instance, so opening a stream and every
+ * heartbeat stamp the customers in the event's seen ZSET, and the script only removes those
+ * no instance has stamped within the grace.
+ *
+ * Per stream this instance keeps the emitter and a small fixed record and never queues
+ * updates: a tick whose writes are still going is skipped, and the next one sends the latest
+ * position. Streams are capped per instance (max-connections); beyond that clients get 503
+ * and poll the status instead. PositionStreamMemoryBenchmarkTest measures the heap per stream.
+ *
+ * Pre-sale lottery entrants have no position until the draw. Their stream gets the LOTTERY
+ * status and ends with an SSE retry time past the draw, spread over a few seconds so the
+ * reconnects do not all land at the opening.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PositionStreamService {
+
+    static final String STATUS_EVENT = "queue-status";
+
+    private static final int FANOUT_CHUNK_SIZE = 500;
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT =
+        SseEmitter.event().comment("keepalive").build();
+
+    private final WaitingRoomService waitingRoomService;
+    private final QueueIndex queueIndex;
+    private final AdmissionRateController rateController;
+    private final StringRedisTemplate redisTemplate;
+    private final WaitingRoomMetrics metrics;
+
+    @Value("${queue.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${queue.stream.max-connections:50000}")
+    private int maxConnections;
+
+    @Value("${queue.stream.bucket-min-width:10}")
+    private long bucketMinWidth;
+
+    // Smoothing window of the measured admission throughput
+    @Value("${queue.stream.throughput-window-ms:10000}")
+    private long throughputWindowMs;
+
+    @Value("${queue.stream.leave-grace-ms:120000}")
+    private long leaveGraceMs;
+
+    @Value("${queue.stream.reclaim.enabled:true}")
+    private boolean reclaimEnabled;
+
+    @Value("${queue.stream.reclaim.batch-size:500}")
+    private int reclaimBatchSize;
+
+    @Value("${queue.stream.lottery-reconnect-spread-ms:10000}")
+    private long lotteryReconnectSpreadMs;
+
+    // KEYS: waiting, joined, seen. ARGV: seen cutoff (ms), customerIds...
+    // Customers seen since the cutoff are kept. Returns how many were removed
+    private static final String RECLAIM_LUA =
+        "local cutoff = tonumber(ARGV[1]) " +
+        "local removed = 0 " +
+        "for i = 2, #ARGV do " +
+        "  local seen = redis.call('ZSCORE', KEYS[3], ARGV[i]) " +
+        "  if not seen or tonumber(seen) < cutoff then " +
+        "    redis.call('ZREM', KEYS[3], ARGV[i]) " +
+        "    if redis.call('ZREM', KEYS[1], ARGV[i]) == 1 then " +
+        "      redis.call('HDEL', KEYS[2], ARGV[i]) " +
+        "      removed = removed + 1 " +
+        "    end " +
+        "  end " +
+        "end " +
+        "return removed";
+
+    private static final DefaultRedisScript<Long> RECLAIM_SCRIPT =
+        new DefaultRedisScript<>(RECLAIM_LUA, Long.class);
+
+    private final Map<Long, EventStreams> events = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private ExecutorService fanOutExecutor;
+
+    // Only touched by the scheduled tick and heartbeat respectively
+    private CompletableFuture<Void> lastUpdate = CompletableFuture.completedFuture(null);
+    private CompletableFuture<Void> lastHeartbeat = CompletableFuture.completedFuture(null);
+
+    @PostConstruct
+    void start() {
+        metrics.streamConnections(connections);
+        fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void stop() {
+        // Shutting down is not leaving: the customers keep their places and reconnect elsewhere
+        for (EventStreams event : events.values()) {
+            for (WaitingStream stream : event.streams.values()) {
+                SseEmitter emitter = stream.detach();
+                if (emitter != null) {
+                    emitter.complete();
+                }
+            }
+        }
+        events.clear();
+        fanOutExecutor.shutdown();
+    }
+
+    /**
+     * Open a position stream for a customer. The current status is sent at once; a waiting
+     * customer then gets updates until admitted, others get just the status.
+     *
+     * @throws QueueUnavailableException if this instance has no room for another stream
+     */
+    public SseEmitter subscribe(Long eventId, Long customerId) {
+        if (connections.get() >= maxConnections) {
+            throw new QueueUnavailableException("No room for another position stream on this instance");
+        }
+
+        SseEmitter emitter = emitter();
+        OptionalLong seq = waitingRoomService.waitingSeq(eventId, customerId);
+        long head = queueIndex.head(eventId);
+        if (seq.isEmpty() || seq.getAsLong() <= head) {
+            QueueStatusDto status = waitingRoomService.status(eventId, customerId);
+            send(emitter, QueueStatusDto.LOTTERY.equals(status.getStatus()) ? lotteryEvent(status) : statusEvent(status));
+            emitter.complete();
+            return emitter;
+        }
+
+        long position = seq.getAsLong() - head;
+        seen(eventId, List.of(customerId), System.currentTimeMillis());
+        EventStreams event = register(eventId, customerId, new WaitingStream(seq.getAsLong(), emitter, bucket(position)));
+        emitter.onCompletion(() -> left(eventId, customerId, emitter));
+        emitter.onTimeout(() -> left(eventId, customerId, emitter));
+        emitter.onError(error -> left(eventId, customerId, emitter));
+        send(emitter, statusEvent(waiting(eventId, customerId, position, eta(position, throughput(eventId, event)))));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${queue.stream.interval-ms:1000}")
+    public void update() {
+        update(System.currentTimeMillis());
+    }
+
+    void update(long now) {
+        // Previous writes still going: no new ones, the next tick sends the latest positions
+        boolean writing = !lastUpdate.isDone();
+        List<Runnable> sends = new ArrayList<>();
+        for (Map.Entry<Long, EventStreams> entry : events.entrySet()) {
+            Long eventId = entry.getKey();
+            try {
+                update(eventId, entry.getValue(), now, writing, sends);
+            } catch (RuntimeException e) {
+                log.error("Updating the position streams of event {} failed", eventId, e);
+            }
+            events.computeIfPresent(eventId, (id, event) -> event.streams.isEmpty() ? null : event);
+        }
+        if (!sends.isEmpty()) {
+            lastUpdate = fanOut(sends);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!lastHeartbeat.isDone()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Runnable> sends = new ArrayList<>();
+        events.forEach((eventId, event) -> {
+            List<Long> open = new ArrayList<>();
+            event.streams.forEach((customerId, stream) -> {
+                SseEmitter emitter = stream.emitter;
+                if (emitter != null) {
+                    open.add(customerId);
+                    sends.add(() -> sendOrLeave(eventId, customerId, emitter, HEARTBEAT));
+                }
+            });
+            seen(eventId, open, now);
+        });
+        lastHeartbeat = fanOut(sends);
+    }
+
+    /**
+     * Bucket of a position: the position kept to two significant digits, in steps of at
+     * least bucket-min-width (250_345 -> 250_000, 1_234 -> 1_200, 57 -> 50)
+     */
+    long bucket(long position) {
+        long width = 1;
+        while (position / width >= 100) {
+            width *= 10;
+        }
+        width = Math.max(width, bucketMinWidth);
+        return position / width * width;
+    }
+
+    /**
+     * A stream ended without the customer being admitted: they are removed from the queue
+     * unless they reconnect within the leave grace
+     */
+    void left(Long eventId, Long customerId, SseEmitter emitter) {
+        EventStreams event = events.get(eventId);
+        WaitingStream stream = event != null ? event.streams.get(customerId) : null;
+        if (stream != null && stream.leave(emitter, System.currentTimeMillis())) {
+            connections.decrementAndGet();
+        }
+    }
+
+    SseEmitter emitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private EventStreams register(Long eventId, Long customerId, WaitingStream stream) {
+        AtomicReference<WaitingStream> replaced = new AtomicReference<>();
+        EventStreams registered = events.compute(eventId, (id, event) -> {
+            if (event == null) {
+                event = new EventStreams();
+            }
+            replaced.set(event.streams.put(customerId, stream));
+            return event;
+        });
+        connections.incrementAndGet();
+
+        // Reconnected, or a second tab: the newest stream takes over
+        WaitingStream previous = replaced.get();
+        SseEmitter previousEmitter = previous != null ? previous.detach() : null;
+        if (previousEmitter != null) {
+            connections.decrementAndGet();
+            previousEmitter.complete();
+        }
+        return registered;
+    }
+
+    private void update(Long eventId, EventStreams event, long now, boolean writing, List<Runnable> sends) {
+        long head = queueIndex.head(eventId);
+        event.sample(head, now, throughputWindowMs);
+        double throughput = throughput(eventId, event);
+
+        List<Long> gone = new ArrayList<>();
+        int updates = 0;
+        for (Map.Entry<Long, WaitingStream> entry : event.streams.entrySet()) {
+            Long customerId = entry.getKey();
+            WaitingStream stream = entry.getValue();
+            SseEmitter emitter = stream.emitter;
+
+            if (emitter == null) {
+                if (stream.seq <= head) {
+                    // Admitted while away; the status endpoint still has the token
+                    event.streams.remove(customerId, stream);
+                } else if (now - stream.leftAtMillis >= leaveGraceMs && event.streams.remove(customerId, stream)
+                        && reclaimEnabled) {
+                    gone.add(customerId);
+                }
+                continue;
+            }
+            if (writing) {
+                continue;
+            }
+
+            if (stream.seq <= head) {
+                if (event.streams.remove(customerId, stream)) {
+                    SseEmitter open = stream.detach();
+                    if (open != null) {
+                        connections.decrementAndGet();
+                        sends.add(() -> finish(eventId, customerId, open));
+                    }
+                }
+                continue;
+            }
+
+            long position = stream.seq - head;
+            long bucket = bucket(position);
+            if (bucket != stream.sentBucket) {
+                stream.sentBucket = bucket;
+                Long eta = eta(position, throughput);
+                sends.add(() -> sendOrLeave(eventId, customerId, emitter,
+                    statusEvent(waiting(eventId, customerId, position, eta))));
+                updates++;
+            }
+        }
+
+        if (updates > 0) {
+            metrics.streamUpdates(eventId, updates);
+        }
+        if (!gone.isEmpty()) {
+            reclaim(eventId, gone, now);
+        }
+    }
+
+    /**
+     * Stamp customers whose stream is open here as seen, and drop the stamps too old to keep
+     * anyone in the queue. A failure is only logged: the next heartbeat stamps them again,
+     * well within the grace.
+     */
+    private void seen(Long eventId, List<Long> customers, long now) {
+        if (!reclaimEnabled) {
+            return;
+        }
+        String key = RedisKeys.queueSeenKey(eventId);
+        try {
+            for (int from = 0; from < customers.size(); from += reclaimBatchSize) {
+                Set<ZSetOperations.TypedTuple<String>> stamps = new HashSet<>();
+                for (Long customerId : customers.subList(from, Math.min(from + reclaimBatchSize, customers.size()))) {
+                    stamps.add(ZSetOperations.TypedTuple.of(String.valueOf(customerId), (double) now));
+                }
+                redisTemplate.opsForZSet().add(key, stamps);
+            }
+            redisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, now - leaveGraceMs);
+        } catch (RuntimeException e) {
+            log.warn("Could not mark the open position streams of event {} as seen: {}", eventId, e.getMessage());
+        }
+    }
+
+    private void reclaim(Long eventId, List<Long> customers, long now) {
+        List<String> keys = List.of(RedisKeys.queueWaitingKey(eventId), RedisKeys.queueJoinedKey(eventId),
+            RedisKeys.queueSeenKey(eventId));
+        String cutoff = String.valueOf(now - leaveGraceMs);
+        long removed = 0;
+        for (int from = 0; from < customers.size(); from += reclaimBatchSize) {
+            List<Long> batch = customers.subList(from, Math.min(from + reclaimBatchSize, customers.size()));
+            Object[] args = new Object[batch.size() + 1];
+            args[0] = cutoff;
+            for (int i = 0; i < batch.size(); i++) {
+                args[i + 1] = String.valueOf(batch.get(i));
+            }
+            Long count = redisTemplate.execute(RECLAIM_SCRIPT, keys, args);
+            removed += count != null ? count : 0;
+        }
+        for (Long customerId : customers) {
+            queueIndex.forget(eventId, customerId);
+        }
+        metrics.reclaimed(eventId, removed);
+        log.info("Removed {} customers who left the queue of event {}", removed, eventId);
+    }
+
+    private void finish(Long eventId, Long customerId, SseEmitter emitter) {
+        try {
+            send(emitter, statusEvent(waitingRoomService.status(eventId, customerId)));
+        } catch (RuntimeException e) {
+            log.warn("Could not send the admission of customer {} for event {}: {}", customerId, eventId, e.getMessage());
+        }
+        emitter.complete();
+    }
+
+    // Admission throughput in join sequences per second, or the admission rate before it is measured
+    private double throughput(Long eventId, EventStreams event) {
+        double measured = event != null ? event.seqPerSecond : Double.NaN;
+        return Double.isNaN(measured) ? rateController.rate(eventId) : measured;
+    }
+
+    private static Long eta(long position, double throughput) {
+        return throughput > 0 ? (long) Math.ceil(position / throughput) : null;
+    }
+
+    private CompletableFuture<Void> fanOut(List<Runnable> sends) {
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < sends.size(); from += FANOUT_CHUNK_SIZE) {
+            List<Runnable> chunk = sends.subList(from, Math.min(from + FANOUT_CHUNK_SIZE, sends.size()));
+            chunks.add(CompletableFuture.runAsync(() -> chunk.forEach(Runnable::run), fanOutExecutor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+    }
+
+    private void sendOrLeave(Long eventId, Long customerId, SseEmitter emitter,
+                             Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (!send(emitter, message)) {
+            left(eventId, customerId, emitter);
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        try {
+            emitter.send(message);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> statusEvent(QueueStatusDto status) {
+        return SseEmitter.event().name(STATUS_EVENT).data(status, MediaType.APPLICATION_JSON).build();
+    }
+
+    // Tells the client to reconnect once the lottery is drawn
+    private Set<ResponseBodyEmitter.DataWithMediaType> lotteryEvent(QueueStatusDto status) {
+        long drawAt = status.getLotteryDrawAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long retry = Math.max(0, drawAt - System.currentTimeMillis())
+            + ThreadLocalRandom.current().nextLong(Math.max(1, lotteryReconnectSpreadMs));
+        return SseEmitter.event().name(STATUS_EVENT).reconnectTime(retry).data(status, MediaType.APPLICATION_JSON).build();
+    }
+
+    private static QueueStatusDto waiting(Long eventId, Long customerId, long position, Long eta) {
+        return QueueStatusDto.builder()
+            .eventId(eventId)
+            .customerId(customerId)
+            .status(QueueStatusDto.WAITING)
+            .position(position)
+            .estimatedWaitSeconds(eta)
+            .build();
+    }
+
+    private static final class EventStreams {
+        private final Map<Long, WaitingStream> streams = new ConcurrentHashMap<>();
+
+        // Written by the tick only
+        private long lastHead;
+        private long lastSampleMillis;
+        private volatile double seqPerSecond = Double.NaN;
+
+        // Exponentially weighted head progress per second; nothing until admissions start
+        void sample(long head, long now, long windowMs) {
+            if (head <= 0 || now <= lastSampleMillis) {
+                return;
+            }
+            if (lastHead > 0) {
+                long elapsed = now - lastSampleMillis;
+                double instant = (head - lastHead) * 1000.0 / elapsed;
+                double weight = 1 - Math.exp(-(double) elapsed / windowMs);
+                double current = seqPerSecond;
+                seqPerSecond = Double.isNaN(current) ? instant : current + weight * (instant - current);
+            }
+            lastHead = head;
+            lastSampleMillis = now;
+        }
+    }
+
+    private static final class WaitingStream {
+        private final long seq;
+        // Null once the client has gone
+        private volatile SseEmitter emitter;
+        private volatile long leftAtMillis;
+        // Only touched by the tick
+        private long sentBucket;
+
+        private WaitingStream(long seq, SseEmitter emitter, long sentBucket) {
+            this.seq = seq;
+            this.emitter = emitter;
+            this.sentBucket = sentBucket;
+        }
+
+        synchronized SseEmitter detach() {
+            SseEmitter current = emitter;
+            emitter = null;
+            return current;
+        }
+
+        synchronized boolean leave(SseEmitter from, long now) {
+            if (emitter == null || emitter != from) {
+                return false;
+            }
+            emitter = null;
+            leftAtMillis = now;
+            return true;
+        }
+    }
+}
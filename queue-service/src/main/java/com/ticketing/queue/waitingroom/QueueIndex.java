@@ -0,0 +1,125 @@
+package com.ticketing.queue.waitingroom;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the customers that joined a waiting room through this instance, so
+ * position checks are answered without a Redis ZRANK.
+ *
+ * Join sequences are global and dense (one counter per event in Redis), and the admitter
+ * learns the last admitted sequence ("head") every tick, so a waiting customer's position
+ * is seq - head, at most one tick stale. Entries at or below the head are dropped on
+ * lookup and by {@link #prune}.
+ */
+@Component
+public class QueueIndex {
+
+    private final Map<Long, EventQueue> events = new ConcurrentHashMap<>();
+
+    public void record(Long eventId, Long customerId, long seq) {
+        event(eventId).seqByCustomer.put(customerId, seq);
+    }
+
+    /**
+     * Position of a customer who joined through this instance and is still waiting (1 = next)
+     */
+    public OptionalLong position(Long eventId, Long customerId) {
+        EventQueue queue = events.get(eventId);
+        if (queue == null) {
+            return OptionalLong.empty();
+        }
+        Long seq = queue.seqByCustomer.get(customerId);
+        if (seq == null) {
+            return OptionalLong.empty();
+        }
+        long head = queue.head;
+        if (seq <= head) {
+            queue.seqByCustomer.remove(customerId, seq);
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(seq - head);
+    }
+
+    /**
+     * Join sequence of a customer who joined through this instance and is still waiting
+     */
+    public OptionalLong seq(Long eventId, Long customerId) {
+        EventQueue queue = events.get(eventId);
+        if (queue == null) {
+            return OptionalLong.empty();
+        }
+        Long seq = queue.seqByCustomer.get(customerId);
+        if (seq == null || seq <= queue.head) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(seq);
+    }
+
+    /**
+     * Drop a customer who left the queue
+     */
+    public void forget(Long eventId, Long customerId) {
+        EventQueue queue = events.get(eventId);
+        if (queue != null) {
+            queue.seqByCustomer.remove(customerId);
+        }
+    }
+
+    /**
+     * Position for a join sequence read from Redis (customer joined through another instance)
+     */
+    public long positionOf(Long eventId, long seq) {
+        return Math.max(1, seq - head(eventId));
+    }
+
+    public long head(Long eventId) {
+        EventQueue queue = events.get(eventId);
+        return queue == null ? 0 : queue.head;
+    }
+
+    /**
+     * Record the last admitted sequence; heads only move forward
+     */
+    public void advanceHead(Long eventId, long head) {
+        EventQueue queue = event(eventId);
+        synchronized (queue) {
+            if (head > queue.head) {
+                queue.head = head;
+            }
+        }
+    }
+
+    /**
+     * Drop the entries of admitted customers
+     *
+     * @return number of entries dropped
+     */
+    public int prune() {
+        int pruned = 0;
+        for (EventQueue queue : events.values()) {
+            long head = queue.head;
+            int before = queue.seqByCustomer.size();
+            queue.seqByCustomer.values().removeIf(seq -> seq <= head);
+            pruned += before - queue.seqByCustomer.size();
+        }
+        return pruned;
+    }
+
+    public int size(Long eventId) {
+        EventQueue queue = events.get(eventId);
+        return queue == null ? 0 : queue.seqByCustomer.size();
+    }
+
+    private EventQueue event(Long eventId) {
+        return events.computeIfAbsent(eventId, id -> new EventQueue());
+    }
+
+    private static final class EventQueue {
+        private final Map<Long, Long> seqByCustomer = new ConcurrentHashMap<>();
+        private volatile long head;
+    }
+}
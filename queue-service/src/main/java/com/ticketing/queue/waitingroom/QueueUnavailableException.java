@@ -0,0 +1,16 @@
+package com.ticketing.queue.waitingroom;
+
+/**
+ * The waiting room could not take a join, typically because Redis is slow or unreachable,
+ * or this instance has no room for another position stream
+ */
+public class QueueUnavailableException extends RuntimeException {
+
+    public QueueUnavailableException(String message) {
+        super(message);
+    }
+
+    public QueueUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,181 @@
+package com.ticketing.queue.waitingroom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Waiting room meters, tagged by event: queue depth as last seen by the admitter, joins,
+ * admissions (rate() of queue.admitted is the admission rate) and the time from join to
+ * admission with its percentiles. The admission rate controller adds the rate it set per
+ * event, its decisions by action and reason, and the booking-service load it last read.
+ * Position streams add the open streams on this node, the position updates sent and the
+ * customers removed from the queue after leaving. Pre-sale lottery draws add how long each
+ * took and how many entrants it placed.
+ */
+@Component
+@RequiredArgsConstructor
+public class WaitingRoomMetrics {
+
+    static final String DEPTH_METRIC = "queue.depth";
+    static final String JOINS_METRIC = "queue.joins";
+    static final String ADMITTED_METRIC = "queue.admitted";
+    static final String WAIT_METRIC = "queue.wait";
+    static final String ADMISSION_RATE_METRIC = "queue.admission.rate";
+    static final String RATE_DECISIONS_METRIC = "queue.admission.rate.decisions";
+    static final String BOOKING_HOLD_P99_METRIC = "queue.admission.booking.hold.p99";
+    static final String BOOKING_DB_POOL_METRIC = "queue.admission.booking.db.pool";
+    static final String BOOKING_REDIS_ERRORS_METRIC = "queue.admission.booking.redis.errors";
+    static final String BOOKING_INSTANCES_METRIC = "queue.admission.booking.instances";
+    static final String STREAM_CONNECTIONS_METRIC = "queue.stream.connections";
+    static final String STREAM_UPDATES_METRIC = "queue.stream.updates";
+    static final String STREAM_RECLAIMED_METRIC = "queue.stream.reclaimed";
+    static final String LOTTERY_DRAW_METRIC = "queue.lottery.draw";
+    static final String LOTTERY_ENTRANTS_METRIC = "queue.lottery.entrants";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, EventMeters> meters = new ConcurrentHashMap<>();
+    private final AtomicReference<BookingLoad> bookingLoad = new AtomicReference<>();
+
+    public void joined(Long eventId, int count) {
+        meters(eventId).joins.increment(count);
+    }
+
+    public void admitted(Long eventId, long joinedAtMillis, long nowMillis) {
+        EventMeters eventMeters = meters(eventId);
+        eventMeters.admitted.increment();
+        eventMeters.wait.record(Duration.ofMillis(Math.max(0, nowMillis - joinedAtMillis)));
+    }
+
+    public void depth(Long eventId, long depth) {
+        meters(eventId).depth.set(depth);
+    }
+
+    public void admissionRate(Long eventId, double ratePerSecond) {
+        meters(eventId).rate.set(Double.doubleToLongBits(ratePerSecond));
+    }
+
+    public void rateDecision(Long eventId, String action, String reason) {
+        meterRegistry.counter(RATE_DECISIONS_METRIC,
+            "event", String.valueOf(eventId), "action", action, "reason", reason).increment();
+    }
+
+    public void bookingLoad(BookingLoad load) {
+        if (bookingLoad.getAndSet(load) == null) {
+            Gauge.builder(BOOKING_HOLD_P99_METRIC, bookingLoad, l -> l.get().getHoldP99Millis())
+                .description("Worst hold p99 (ms) reported by booking-service instances")
+                .register(meterRegistry);
+            Gauge.builder(BOOKING_DB_POOL_METRIC, bookingLoad, l -> l.get().getDbPoolUtilization())
+                .description("Highest DB pool use reported by booking-service instances, -1 unknown")
+                .register(meterRegistry);
+            Gauge.builder(BOOKING_REDIS_ERRORS_METRIC, bookingLoad, l -> l.get().getRedisErrorRatio())
+                .description("Share of booking-service holds that hit a Redis error")
+                .register(meterRegistry);
+            Gauge.builder(BOOKING_INSTANCES_METRIC, bookingLoad, l -> l.get().getInstances())
+                .description("Booking-service instances with a fresh load report")
+                .register(meterRegistry);
+        }
+    }
+
+    public void streamConnections(AtomicInteger connections) {
+        Gauge.builder(STREAM_CONNECTIONS_METRIC, connections, AtomicInteger::get)
+            .description("Open position streams on this node")
+            .register(meterRegistry);
+    }
+
+    public void streamUpdates(Long eventId, int count) {
+        meters(eventId).streamUpdates.increment(count);
+    }
+
+    public void reclaimed(Long eventId, long count) {
+        meters(eventId).reclaimed.increment(count);
+    }
+
+    public void lotteryDrawn(Long eventId, int entrants, long elapsedNanos) {
+        String event = String.valueOf(eventId);
+        Timer.builder(LOTTERY_DRAW_METRIC)
+            .description("Time to shuffle a pre-sale lottery and write its places to the queue")
+            .tag("event", event)
+            .register(meterRegistry)
+            .record(Duration.ofNanos(elapsedNanos));
+        Counter.builder(LOTTERY_ENTRANTS_METRIC)
+            .description("Customers placed in the event's queue by its pre-sale lottery")
+            .tag("event", event)
+            .register(meterRegistry)
+            .increment(entrants);
+    }
+
+    private EventMeters meters(Long eventId) {
+        return meters.computeIfAbsent(eventId, this::register);
+    }
+
+    private EventMeters register(Long eventId) {
+        String event = String.valueOf(eventId);
+        AtomicLong depth = new AtomicLong();
+        Gauge.builder(DEPTH_METRIC, depth, AtomicLong::get)
+            .description("Customers waiting in the event's queue")
+            .tag("event", event)
+            .register(meterRegistry);
+        AtomicLong rate = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+        Gauge.builder(ADMISSION_RATE_METRIC, rate, r -> Double.longBitsToDouble(r.get()))
+            .description("Admissions per second set for the event")
+            .tag("event", event)
+            .register(meterRegistry);
+        Counter joins = Counter.builder(JOINS_METRIC)
+            .description("Customers added to the event's queue")
+            .tag("event", event)
+            .register(meterRegistry);
+        Counter admitted = Counter.builder(ADMITTED_METRIC)
+            .description("Customers admitted from the event's queue")
+            .tag("event", event)
+            .register(meterRegistry);
+        Timer wait = Timer.builder(WAIT_METRIC)
+            .description("Time from joining the queue to admission")
+            .tag("event", event)
+            .publishPercentiles(0.5, 0.9, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Counter streamUpdates = Counter.builder(STREAM_UPDATES_METRIC)
+            .description("Position updates pushed to the event's waiting customers")
+            .tag("event", event)
+            .register(meterRegistry);
+        Counter reclaimed = Counter.builder(STREAM_RECLAIMED_METRIC)
+            .description("Customers removed from the event's queue after their stream left")
+            .tag("event", event)
+            .register(meterRegistry);
+        return new EventMeters(depth, rate, joins, admitted, wait, streamUpdates, reclaimed);
+    }
+
+    private static final class EventMeters {
+        private final AtomicLong depth;
+        // Double bits
+        private final AtomicLong rate;
+        private final Counter joins;
+        private final Counter admitted;
+        private final Timer wait;
+        private final Counter streamUpdates;
+        private final Counter reclaimed;
+
+        private EventMeters(AtomicLong depth, AtomicLong rate, Counter joins, Counter admitted, Timer wait,
+                            Counter streamUpdates, Counter reclaimed) {
+            this.depth = depth;
+            this.rate = rate;
+            this.joins = joins;
+            this.admitted = admitted;
+            this.wait = wait;
+            this.streamUpdates = streamUpdates;
+            this.reclaimed = reclaimed;
+        }
+    }
+}
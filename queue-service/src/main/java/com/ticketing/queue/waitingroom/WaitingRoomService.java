@@ -0,0 +1,144 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.common.util.AdmissionTokens;
+import com.ticketing.common.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Joins customers to an event's waiting room and reports where they stand.
+ *
+ * Status checks of customers who joined through this instance are answered from the
+ * in-memory index while they wait; Redis is asked only once they may have been admitted,
+ * or for customers who joined elsewhere. Admitted customers get their admission token
+ * signed from the stored nonce and expiry, so every instance hands out the same token.
+ * Customers who joined before a pre-sale lottery's opening are in its pool, not the queue,
+ * until the draw.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WaitingRoomService {
+
+    private final JoinBatcher joinBatcher;
+    private final QueueIndex queueIndex;
+    private final StringRedisTemplate redisTemplate;
+    private final AdmissionTokens admissionTokens;
+
+    @Value("${queue.join.timeout.ms:2000}")
+    private long joinTimeoutMs;
+
+    /**
+     * Join the event's queue; joining again keeps the customer's place
+     *
+     * @throws QueueUnavailableException if the join was not written in time
+     */
+    public QueueStatusDto join(Long eventId, Long customerId) {
+        long seq;
+        try {
+            seq = joinBatcher.submit(eventId, customerId).get(joinTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueueUnavailableException("Interrupted joining the queue of event " + eventId, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new QueueUnavailableException("Could not join the queue of event " + eventId, e);
+        }
+
+        if (seq < 0) {
+            return lottery(eventId, customerId, -seq);
+        }
+        if (seq > 0) {
+            OptionalLong position = queueIndex.position(eventId, customerId);
+            if (position.isPresent()) {
+                return waiting(eventId, customerId, position.getAsLong());
+            }
+        }
+        // Already admitted, or admitted since the join was written
+        return status(eventId, customerId);
+    }
+
+    public QueueStatusDto status(Long eventId, Long customerId) {
+        OptionalLong position = queueIndex.position(eventId, customerId);
+        if (position.isPresent()) {
+            return waiting(eventId, customerId, position.getAsLong());
+        }
+
+        String customer = String.valueOf(customerId);
+        Object admission = redisTemplate.opsForHash().get(RedisKeys.queueAdmissionsKey(eventId), customer);
+        if (admission != null) {
+            // <token nonce>:<expires ms>
+            String value = admission.toString();
+            int separator = value.lastIndexOf(':');
+            long nonce = Long.parseLong(value.substring(0, separator));
+            long expiresAt = Long.parseLong(value.substring(separator + 1));
+            if (expiresAt > System.currentTimeMillis()) {
+                return QueueStatusDto.builder()
+                    .eventId(eventId)
+                    .customerId(customerId)
+                    .status(QueueStatusDto.ADMITTED)
+                    .admissionToken(admissionTokens.sign(eventId, customerId, expiresAt, nonce))
+                    .admissionExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()))
+                    .build();
+            }
+        }
+
+        Double seq = redisTemplate.opsForZSet().score(RedisKeys.queueWaitingKey(eventId), customer);
+        if (seq != null) {
+            return waiting(eventId, customerId, queueIndex.positionOf(eventId, seq.longValue()));
+        }
+        if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(RedisKeys.queuePoolKey(eventId), customer))) {
+            Object opens = redisTemplate.opsForHash().get(RedisKeys.queueStateKey(eventId), "opens_ms");
+            if (opens != null) {
+                return lottery(eventId, customerId, Long.parseLong(opens.toString()));
+            }
+        }
+        return QueueStatusDto.builder()
+            .eventId(eventId)
+            .customerId(customerId)
+            .status(QueueStatusDto.NOT_IN_QUEUE)
+            .build();
+    }
+
+    /**
+     * Join sequence of a waiting customer, from the index or, if they joined through another
+     * instance, from Redis; empty once admitted or if not in the queue
+     */
+    public OptionalLong waitingSeq(Long eventId, Long customerId) {
+        OptionalLong seq = queueIndex.seq(eventId, customerId);
+        if (seq.isPresent()) {
+            return seq;
+        }
+        Double score = redisTemplate.opsForZSet().score(RedisKeys.queueWaitingKey(eventId), String.valueOf(customerId));
+        return score != null ? OptionalLong.of(score.longValue()) : OptionalLong.empty();
+    }
+
+    private static QueueStatusDto waiting(Long eventId, Long customerId, long position) {
+        return QueueStatusDto.builder()
+            .eventId(eventId)
+            .customerId(customerId)
+            .status(QueueStatusDto.WAITING)
+            .position(position)
+            .build();
+    }
+
+    private static QueueStatusDto lottery(Long eventId, Long customerId, long drawAtMillis) {
+        return QueueStatusDto.builder()
+            .eventId(eventId)
+            .customerId(customerId)
+            .status(QueueStatusDto.LOTTERY)
+            .lotteryDrawAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(drawAtMillis), ZoneId.systemDefault()))
+            .build();
+    }
+}
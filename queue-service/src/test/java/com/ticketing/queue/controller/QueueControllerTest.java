@@ -0,0 +1,128 @@
+package com.ticketing.queue.controller;
+
+import com.ticketing.common.dto.LotteryDto;
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.queue.waitingroom.LotteryService;
+import com.ticketing.queue.waitingroom.PositionStreamService;
+import com.ticketing.queue.waitingroom.QueueUnavailableException;
+import com.ticketing.queue.waitingroom.WaitingRoomService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueueControllerTest {
+
+    @Mock
+    private WaitingRoomService waitingRoomService;
+
+    @Mock
+    private PositionStreamService positionStreamService;
+
+    @Mock
+    private LotteryService lotteryService;
+
+    @InjectMocks
+    private QueueController queueController;
+
+    @Test
+    void join_Waiting_Returns200WithPosition() {
+        QueueStatusDto waiting = QueueStatusDto.builder()
+            .eventId(1L).customerId(10L).status(QueueStatusDto.WAITING).position(7L).build();
+        when(waitingRoomService.join(1L, 10L)).thenReturn(waiting);
+
+        ResponseEntity<QueueStatusDto> result = queueController.join(1L, 10L);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(7L, result.getBody().getPosition());
+    }
+
+    @Test
+    void join_QueueUnavailable_Returns503() {
+        when(waitingRoomService.join(1L, 10L))
+            .thenThrow(new QueueUnavailableException("slow", new TimeoutException()));
+
+        ResponseEntity<QueueStatusDto> result = queueController.join(1L, 10L);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+    }
+
+    @Test
+    void status_Returns200() {
+        QueueStatusDto notInQueue = QueueStatusDto.builder()
+            .eventId(1L).customerId(10L).status(QueueStatusDto.NOT_IN_QUEUE).build();
+        when(waitingRoomService.status(1L, 10L)).thenReturn(notInQueue);
+
+        ResponseEntity<QueueStatusDto> result = queueController.status(1L, 10L);
+
+        assertEquals(QueueStatusDto.NOT_IN_QUEUE, result.getBody().getStatus());
+    }
+
+    @Test
+    void stream_ReturnsTheEmitter() {
+        SseEmitter emitter = new SseEmitter();
+        when(positionStreamService.subscribe(1L, 10L)).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> result = queueController.stream(1L, 10L);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertSame(emitter, result.getBody());
+    }
+
+    @Test
+    void stream_NoRoom_Returns503() {
+        when(positionStreamService.subscribe(1L, 10L))
+            .thenThrow(new QueueUnavailableException("No room for another position stream on this instance"));
+
+        ResponseEntity<SseEmitter> result = queueController.stream(1L, 10L);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+    }
+
+    @Test
+    void scheduleLottery_Returns200WithCommitment() {
+        LocalDateTime opensAt = LocalDateTime.now().plusHours(1);
+        when(lotteryService.schedule(1L, opensAt)).thenReturn(LotteryDto.builder()
+            .eventId(1L).state(LotteryDto.SCHEDULED).opensAt(opensAt).commitment("ab12").build());
+
+        ResponseEntity<LotteryDto> result = queueController.scheduleLottery(1L, opensAt);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("ab12", result.getBody().getCommitment());
+    }
+
+    @Test
+    void scheduleLottery_InThePast_Returns400() {
+        LocalDateTime opensAt = LocalDateTime.now().minusMinutes(1);
+        when(lotteryService.schedule(1L, opensAt)).thenThrow(new IllegalArgumentException("past"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, queueController.scheduleLottery(1L, opensAt).getStatusCode());
+    }
+
+    @Test
+    void scheduleLottery_AlreadyOpened_Returns409() {
+        LocalDateTime opensAt = LocalDateTime.now().plusHours(1);
+        when(lotteryService.schedule(1L, opensAt)).thenThrow(new IllegalStateException("opened"));
+
+        assertEquals(HttpStatus.CONFLICT, queueController.scheduleLottery(1L, opensAt).getStatusCode());
+    }
+
+    @Test
+    void lottery_NoneScheduled_Returns404() {
+        when(lotteryService.audit(1L)).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, queueController.lottery(1L).getStatusCode());
+    }
+}
@@ -0,0 +1,213 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionRateControllerTest {
+
+    private static final BookingLoad HEALTHY = new BookingLoad(2, 400, 120, 0.3, 0, Map.of(1L, 100L), Map.of());
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+    @Mock private BookingLoadReader bookingLoadReader;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionRateController controller;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        controller = new AdmissionRateController(redisTemplate, bookingLoadReader, new WaitingRoomMetrics(meterRegistry));
+        configure(controller);
+    }
+
+    static void configure(AdmissionRateController controller) {
+        ReflectionTestUtils.setField(controller, "ratePerSecond", 100.0);
+        ReflectionTestUtils.setField(controller, "adaptive", true);
+        ReflectionTestUtils.setField(controller, "intervalMs", 1000L);
+        ReflectionTestUtils.setField(controller, "minRate", 10.0);
+        ReflectionTestUtils.setField(controller, "maxRate", 1000.0);
+        ReflectionTestUtils.setField(controller, "increaseStep", 10.0);
+        ReflectionTestUtils.setField(controller, "decreaseFactor", 0.7);
+        ReflectionTestUtils.setField(controller, "headroom", 0.8);
+        ReflectionTestUtils.setField(controller, "targetHoldP99Ms", 500.0);
+        ReflectionTestUtils.setField(controller, "latencyWindowMs", 10000L);
+        ReflectionTestUtils.setField(controller, "maxDbPoolUtilization", 0.9);
+        ReflectionTestUtils.setField(controller, "maxRedisErrorRatio", 0.01);
+        ReflectionTestUtils.setField(controller, "maxSeatsUnavailableRatio", 0.5);
+        ReflectionTestUtils.setField(controller, "minEventHolds", 20L);
+    }
+
+    private static BookingLoad load(double p99, double pool, double redisErrors, long eventHolds, long unavailable) {
+        return new BookingLoad(1, eventHolds, p99, pool, redisErrors, Map.of(1L, eventHolds), Map.of(1L, unavailable));
+    }
+
+    @Test
+    void rate_NotAdaptive_ConfiguredRate() {
+        ReflectionTestUtils.setField(controller, "adaptive", false);
+
+        controller.update();
+
+        assertEquals(100.0, controller.rate(1L));
+        verifyNoInteractions(redisTemplate, bookingLoadReader);
+    }
+
+    @Test
+    void decide_FirstLimitOverWins() {
+        assertEquals(AdmissionRateController.Decision.DECREASE_NO_SIGNAL,
+            controller.decide(BookingLoad.NONE, 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.DECREASE_LATENCY,
+            controller.decide(load(800, 0.95, 0, 0, 0), 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.DECREASE_DB_POOL,
+            controller.decide(load(100, 0.95, 0.5, 0, 0), 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.DECREASE_REDIS_ERRORS,
+            controller.decide(load(100, 0.5, 0.05, 0, 0), 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.DECREASE_SEATS_UNAVAILABLE,
+            controller.decide(load(100, 0.5, 0, 100, 80), 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.HOLD,
+            controller.decide(load(450, 0.5, 0, 100, 10), 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.HOLD,
+            controller.decide(load(100, 0.85, 0, 100, 10), 1L, Long.MAX_VALUE));
+        assertEquals(AdmissionRateController.Decision.INCREASE,
+            controller.decide(load(100, 0.5, 0, 100, 10), 1L, Long.MAX_VALUE));
+        // Too few holds to judge the event's seats, unknown pool
+        assertEquals(AdmissionRateController.Decision.INCREASE,
+            controller.decide(load(100, -1, 0, 10, 9), 1L, Long.MAX_VALUE));
+    }
+
+    @Test
+    void decide_LatencyWindowNotTurnedOverSinceTheLastCut_HoldsInstead() {
+        assertEquals(AdmissionRateController.Decision.HOLD_LATENCY_WINDOW,
+            controller.decide(load(800, 0.5, 0, 0, 0), 1L, 4000));
+        assertEquals(AdmissionRateController.Decision.DECREASE_LATENCY,
+            controller.decide(load(800, 0.5, 0, 0, 0), 1L, 10000));
+        // Other limits still cut
+        assertEquals(AdmissionRateController.Decision.DECREASE_DB_POOL,
+            controller.decide(load(800, 0.95, 0, 0, 0), 1L, 4000));
+        assertEquals(100.0, controller.next(100, AdmissionRateController.Decision.HOLD_LATENCY_WINDOW));
+    }
+
+    @Test
+    void next_AdditiveIncreaseMultiplicativeDecreaseWithinBounds() {
+        assertEquals(110.0, controller.next(100, AdmissionRateController.Decision.INCREASE));
+        assertEquals(1000.0, controller.next(995, AdmissionRateController.Decision.INCREASE));
+        assertEquals(100.0, controller.next(100, AdmissionRateController.Decision.HOLD));
+        assertEquals(70.0, controller.next(100, AdmissionRateController.Decision.DECREASE_LATENCY), 1e-9);
+        assertEquals(10.0, controller.next(12, AdmissionRateController.Decision.DECREASE_NO_SIGNAL));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adjust_Due_MovesTheSharedRateAndCountsTheDecision() {
+        long now = System.currentTimeMillis();
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(RedisKeys.queueStateKey(1L), List.of("rate", "rate_ms", "latency_cut_ms")))
+            .thenReturn(Arrays.<Object>asList("200.0", String.valueOf(now - 1500), null));
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("210.0", 1L));
+
+        assertEquals(210.0, controller.adjust(1L, HEALTHY, now));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of(RedisKeys.queueStateKey(1L), RedisKeys.queueWaitingKey(1L))), args.capture());
+        assertArrayEquals(new Object[] {String.valueOf(now - 1500), "210.0", String.valueOf(now), "1", "0"}, args.getValue());
+        assertEquals(210.0, controller.rate(1L));
+        assertEquals(210.0, meterRegistry.get(WaitingRoomMetrics.ADMISSION_RATE_METRIC).tag("event", "1").gauge().value());
+        assertEquals(1.0, meterRegistry.get(WaitingRoomMetrics.RATE_DECISIONS_METRIC)
+            .tags("event", "1", "action", "increase", "reason", "healthy").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adjust_LatencyCutWithinTheWindow_HeldAndNotRecordedAsACut() {
+        long now = System.currentTimeMillis();
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(RedisKeys.queueStateKey(1L), List.of("rate", "rate_ms", "latency_cut_ms")))
+            .thenReturn(Arrays.<Object>asList("200.0", String.valueOf(now - 1000), String.valueOf(now - 3000)));
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("200.0", 1L));
+
+        assertEquals(200.0, controller.adjust(1L, load(800, 0.5, 0, 100, 0), now));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(DefaultRedisScript.class), anyList(), args.capture());
+        assertArrayEquals(new Object[] {String.valueOf(now - 1000), "200.0", String.valueOf(now), "0", "0"}, args.getValue());
+        assertEquals(1.0, meterRegistry.get(WaitingRoomMetrics.RATE_DECISIONS_METRIC)
+            .tags("event", "1", "action", "hold", "reason", "latency_window").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adjust_MovedByAnotherInstanceThisInterval_TakesItOver() {
+        long now = System.currentTimeMillis();
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(RedisKeys.queueStateKey(1L), List.of("rate", "rate_ms", "latency_cut_ms")))
+            .thenReturn(Arrays.<Object>asList("140.0", String.valueOf(now - 200), null));
+
+        assertEquals(140.0, controller.adjust(1L, BookingLoad.NONE, now));
+
+        verify(redisTemplate, never()).execute(any(DefaultRedisScript.class), anyList(), any(Object[].class));
+        assertEquals(140.0, controller.rate(1L));
+        assertTrue(meterRegistry.find(WaitingRoomMetrics.RATE_DECISIONS_METRIC).counters().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adjust_LostTheRace_KeepsTheWinnersRateWithoutCounting() {
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(RedisKeys.queueStateKey(1L), List.of("rate", "rate_ms", "latency_cut_ms")))
+            .thenReturn(Arrays.<Object>asList(null, null, null));
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("70.0", 0L));
+
+        assertEquals(70.0, controller.adjust(1L, HEALTHY, System.currentTimeMillis()));
+        assertTrue(meterRegistry.find(WaitingRoomMetrics.RATE_DECISIONS_METRIC).counters().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void update_ReadsTheLoadOnceAndForgetsInactiveEvents() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(zSetOperations.range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1))
+            .thenReturn(new LinkedHashSet<>(List.of("1", "2")))
+            .thenReturn(new LinkedHashSet<>(List.of("2")));
+        when(bookingLoadReader.read(anyLong())).thenReturn(HEALTHY);
+        when(hashOperations.multiGet(anyString(), anyCollection())).thenReturn(Arrays.<Object>asList("50.0", "0", null));
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("60.0", 1L));
+
+        controller.update();
+        assertEquals(60.0, controller.rate(1L));
+        assertEquals(60.0, controller.rate(2L));
+
+        controller.update();
+        verify(bookingLoadReader, times(2)).read(anyLong());
+        // Back to the starting rate once no longer active
+        assertEquals(100.0, controller.rate(1L));
+        assertEquals(2.0, meterRegistry.get(WaitingRoomMetrics.BOOKING_INSTANCES_METRIC).gauge().value());
+    }
+}
@@ -0,0 +1,174 @@
+package com.ticketing.queue.waitingroom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the controller's decisions against a synthetic booking-service, one step per
+ * interval: the hold rate is the admission rate of the step before (reports lag by an
+ * interval), DB pool use is that rate over the booking tier's capacity, and the hold p99
+ * grows like a queue's as the pool fills up. The reported p99 is the worst of the last
+ * latency window's worth of intervals, as booking-service's rotating window keeps a slow
+ * interval in it until the window turns over.
+ */
+class AdmissionRateSimulationTest {
+
+    private static final double HOLDS_PER_ADMISSION = 1.5;
+    private static final double BASE_P99_MS = 40;
+    private static final double TARGET_P99_MS = 500;
+    // booking.load-report.latency-window.ms over the interval
+    private static final int LATENCY_WINDOW_STEPS = 10;
+
+    private AdmissionRateController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AdmissionRateController(mock(StringRedisTemplate.class), mock(BookingLoadReader.class),
+            mock(WaitingRoomMetrics.class));
+        AdmissionRateControllerTest.configure(controller);
+    }
+
+    private static double p99(double utilization) {
+        return Math.min(5000, BASE_P99_MS / Math.max(0.008, 1 - utilization));
+    }
+
+    /**
+     * Admission rate per step for a booking tier that takes capacity(step) holds per second
+     */
+    private double[] run(int steps, double startRate, IntToDoubleFunction capacity, IntToDoubleFunction unavailable) {
+        double[] rates = new double[steps];
+        double[] p99s = new double[steps];
+        int lastLatencyCut = Integer.MIN_VALUE / 2;
+        double rate = startRate;
+        double reportedRate = startRate;
+        for (int step = 0; step < steps; step++) {
+            double holds = reportedRate * HOLDS_PER_ADMISSION;
+            double utilization = holds / capacity.applyAsDouble(step);
+            p99s[step] = p99(utilization);
+            long eventHolds = Math.round(holds);
+            BookingLoad load = new BookingLoad(1, eventHolds, windowP99(p99s, step), Math.min(1.5, utilization), 0,
+                Map.of(1L, eventHolds), Map.of(1L, Math.round(eventHolds * unavailable.applyAsDouble(step))));
+
+            reportedRate = rate;
+            AdmissionRateController.Decision decision = controller.decide(load, 1L, (step - lastLatencyCut) * 1000L);
+            if (decision == AdmissionRateController.Decision.DECREASE_LATENCY) {
+                lastLatencyCut = step;
+            }
+            rate = controller.next(rate, decision);
+            rates[step] = rate;
+        }
+        return rates;
+    }
+
+    private static double windowP99(double[] p99s, int step) {
+        double worst = 0;
+        for (int i = Math.max(0, step - LATENCY_WINDOW_STEPS + 1); i <= step; i++) {
+            worst = Math.max(worst, p99s[i]);
+        }
+        return worst;
+    }
+
+    private static double utilization(double rate, double capacity) {
+        return rate * HOLDS_PER_ADMISSION / capacity;
+    }
+
+    @Test
+    void steadyCapacity_SettlesBelowTheLimitsAndStays() {
+        double[] rates = run(300, 100, step -> 400, step -> 0);
+
+        for (int step = 60; step < 300; step++) {
+            double utilization = utilization(rates[step], 400);
+            assertThat(utilization).as("step %d", step).isBetween(0.6, 0.9);
+            assertThat(p99(utilization)).isLessThan(TARGET_P99_MS);
+        }
+    }
+
+    @Test
+    void databaseSlowdown_BacksOffWithinAFewIntervalsAndRecovers() {
+        // The booking tier loses most of its capacity between 120 s and 240 s
+        IntToDoubleFunction capacity = step -> step >= 120 && step < 240 ? 150 : 400;
+        double[] rates = run(360, 100, capacity, step -> 0);
+
+        int overloaded = 0;
+        for (int step = 120; step < 240; step++) {
+            if (utilization(rates[step], 150) >= 1) {
+                overloaded++;
+            }
+        }
+        assertThat(overloaded).as("intervals with more holds than the slowed tier takes").isLessThanOrEqualTo(3);
+        for (int step = 130; step < 240; step++) {
+            assertThat(p99(utilization(rates[step], 150))).as("step %d", step).isLessThan(TARGET_P99_MS);
+            // Still admitting a useful share, not collapsed to the floor
+            assertThat(utilization(rates[step], 150)).isGreaterThan(0.3);
+        }
+        // Climbs back once the tier is healthy again
+        assertThat(utilization(rates[290], 400)).isGreaterThan(0.6);
+    }
+
+    @Test
+    void latencySpike_CutOncePerWindowWhileOverTargetAndStaysInBounds() {
+        double[] rates = new double[120];
+        double[] p99s = new double[120];
+        int lastLatencyCut = Integer.MIN_VALUE / 2;
+        int cuts = 0;
+        double rate = 500;
+        for (int step = 0; step < 120; step++) {
+            // Synthetic p99 curve: 100 ms, a 2 s spike from 30 s to 50 s, then 100 ms again
+            p99s[step] = step >= 30 && step < 50 ? 2000 : 100;
+            double reported = windowP99(p99s, step);
+            AdmissionRateController.Decision decision = controller.decide(
+                new BookingLoad(1, 1000, reported, 0.5, 0, Map.of(), Map.of()), 1L, (step - lastLatencyCut) * 1000L);
+            if (decision == AdmissionRateController.Decision.DECREASE_LATENCY) {
+                lastLatencyCut = step;
+                cuts++;
+            }
+            double next = controller.next(rate, decision);
+            if (reported > TARGET_P99_MS) {
+                assertThat(next).as("step %d", step).isLessThanOrEqualTo(rate);
+            } else {
+                assertThat(next).as("step %d", step).isGreaterThanOrEqualTo(rate);
+            }
+            rate = next;
+            rates[step] = rate;
+        }
+
+        for (double r : rates) {
+            assertThat(r).isBetween(10.0, 1000.0);
+        }
+        // Up to 800/s by the spike; it and the window it lingers in last 30 s, cut at 30, 40 and 50 s
+        assertThat(cuts).isEqualTo(3);
+        assertThat(rates[58]).isCloseTo(800 * 0.7 * 0.7 * 0.7, within(1e-9));
+        // Additive recovery once the spike has left the window: 10/s per interval
+        assertThat(rates[119]).isCloseTo(800 * 0.7 * 0.7 * 0.7 + 61 * 10, within(1e-9));
+    }
+
+    @Test
+    void seatsRunningOut_SlowsAdmissionsWhileBookingIsHealthy() {
+        // From 60 s on, most holds for the event find their seats gone
+        double[] rates = run(120, 100, step -> 1000, step -> step >= 60 ? 0.8 : 0.1);
+
+        assertThat(rates[59]).isGreaterThan(300);
+        // Near the floor, probing up while too few holds come in to judge the event's seats
+        for (int step = 80; step < 120; step++) {
+            assertThat(rates[step]).as("step %d", step).isLessThanOrEqualTo(30.0);
+        }
+    }
+
+    @Test
+    void bookingSilent_FallsToTheFloor() {
+        double rate = 800;
+        for (int step = 0; step < 30; step++) {
+            rate = controller.next(rate, controller.decide(BookingLoad.NONE, 1L, Long.MAX_VALUE));
+        }
+
+        assertThat(rate).isEqualTo(10.0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmitterTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+    @Mock private AdmissionRateController rateController;
+
+    private final QueueIndex queueIndex = new QueueIndex();
+    private SimpleMeterRegistry meterRegistry;
+    private Admitter admitter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admitter = new Admitter(redisTemplate, queueIndex, new WaitingRoomMetrics(meterRegistry), rateController);
+        ReflectionTestUtils.setField(admitter, "burst", 200);
+        ReflectionTestUtils.setField(admitter, "windowSeconds", 300L);
+        ReflectionTestUtils.setField(admitter, "tickMs", 100L);
+        ReflectionTestUtils.setField(admitter, "idleMs", 60000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void admit_PassesTokensForTwoTicksAndRecordsAdmissions() {
+        long joinedAt = System.currentTimeMillis() - 2000;
+        queueIndex.record(1L, 10L, 1);
+        queueIndex.record(1L, 12L, 3);
+        when(rateController.rate(1L)).thenReturn(100.0);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of(5L, 2L, "10", String.valueOf(joinedAt), "11", String.valueOf(joinedAt)));
+
+        assertEquals(5, admitter.admit(1L));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(DefaultRedisScript.class), eq(List.of(RedisKeys.queueWaitingKey(1L),
+            RedisKeys.queueJoinedKey(1L), RedisKeys.queueStateKey(1L), RedisKeys.queueAdmissionsKey(1L),
+            RedisKeys.queueAdmissionExpiryKey(1L), RedisKeys.queuePoolKey(1L))), args.capture());
+        // rate, burst, window, then nonces for 100/s * 100 ms * 2 admissions
+        assertEquals("100.0", args.getValue()[1]);
+        assertEquals("200", args.getValue()[2]);
+        assertEquals("300000", args.getValue()[3]);
+        assertEquals(4 + 20, args.getValue().length);
+        // Token nonces
+        assertDoesNotThrow(() -> Long.parseLong(args.getValue()[4].toString()));
+
+        assertEquals(2, queueIndex.head(1L));
+        assertTrue(queueIndex.position(1L, 10L).isEmpty());
+        assertEquals(1, queueIndex.position(1L, 12L).getAsLong());
+        assertEquals(2.0, meterRegistry.get(WaitingRoomMetrics.ADMITTED_METRIC).tag("event", "1").counter().count());
+        assertEquals(5.0, meterRegistry.get(WaitingRoomMetrics.DEPTH_METRIC).tag("event", "1").gauge().value());
+        Timer wait = meterRegistry.get(WaitingRoomMetrics.WAIT_METRIC).tag("event", "1").timer();
+        assertEquals(2, wait.count());
+        assertTrue(wait.max(TimeUnit.MILLISECONDS) >= 2000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tick_EmptyQueue_DeactivatesIdleEvent() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1))
+            .thenReturn(new LinkedHashSet<>(List.of("1", "2")));
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenAnswer(inv -> {
+                List<String> keys = inv.getArgument(1);
+                if (keys.contains(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY)) {
+                    return 1L;
+                }
+                return keys.contains(RedisKeys.queueWaitingKey(1L)) ? List.of(0L, 8L) : List.of(3L, 8L);
+            });
+
+        admitter.tick();
+
+        verify(redisTemplate).execute(any(DefaultRedisScript.class), eq(List.of(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY)),
+            eq("1"), anyString());
+        verify(redisTemplate, never()).execute(any(DefaultRedisScript.class), eq(List.of(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY)),
+            eq("2"), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tick_OneEventFails_OthersStillAdmitted() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1))
+            .thenReturn(new LinkedHashSet<>(List.of("1", "2")));
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenThrow(new IllegalStateException("boom"))
+            .thenReturn(List.of(3L, 4L));
+
+        admitter.tick();
+
+        assertEquals(4, queueIndex.head(2L));
+    }
+
+    @Test
+    void tick_NoActiveEvents_Nothing() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1)).thenReturn(Set.of());
+
+        admitter.tick();
+
+        verify(redisTemplate, never()).execute(any(DefaultRedisScript.class), anyList(), any(Object[].class));
+    }
+}
@@ -0,0 +1,90 @@
+package com.ticketing.queue.waitingroom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.BookingLoadDto;
+import com.ticketing.common.util.RedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingLoadReaderTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BookingLoadReader reader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        reader = new BookingLoadReader(redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(reader, "staleMs", 5000L);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+    }
+
+    private String report(String instance, long reportedAt, long holds, long redisErrors, double p99,
+                          int active, int pending, int max, Map<Long, Long> byEvent, Map<Long, Long> unavailable)
+            throws Exception {
+        return objectMapper.writeValueAsString(BookingLoadDto.builder()
+            .instanceId(instance)
+            .reportedAtMillis(reportedAt)
+            .intervalMillis(1000)
+            .holds(holds)
+            .redisErrors(redisErrors)
+            .holdP99Millis(p99)
+            .dbActiveConnections(active)
+            .dbPendingThreads(pending)
+            .dbMaxConnections(max)
+            .holdsByEvent(byEvent)
+            .unavailableByEvent(unavailable)
+            .build());
+    }
+
+    @Test
+    void read_CombinesFreshReports() throws Exception {
+        long now = 100_000;
+        when(hashOperations.entries(RedisKeys.BOOKING_LOAD_KEY)).thenReturn(Map.of(
+            "a", report("a", now - 800, 300, 3, 120, 8, 0, 20, Map.of(1L, 200L, 2L, 100L), Map.of(1L, 50L)),
+            "b", report("b", now - 200, 100, 1, 450, 18, 4, 20, Map.of(1L, 100L), Map.of(1L, 100L)),
+            "c", report("c", now - 60_000, 900, 900, 9000, 20, 50, 20, Map.of(1L, 900L), Map.of()),
+            "d", "not json"));
+
+        BookingLoad load = reader.read(now);
+
+        assertEquals(2, load.getInstances());
+        assertEquals(400, load.getHolds());
+        assertEquals(450, load.getHoldP99Millis());
+        assertEquals(1.1, load.getDbPoolUtilization(), 1e-9);
+        assertEquals(0.01, load.getRedisErrorRatio(), 1e-9);
+        assertEquals(0.5, load.unavailableRatio(1L, 20), 1e-9);
+        assertEquals(0, load.unavailableRatio(2L, 20));
+        assertEquals(0, load.unavailableRatio(1L, 1000));
+    }
+
+    @Test
+    void read_NothingFresh_NoSignal() throws Exception {
+        when(hashOperations.entries(RedisKeys.BOOKING_LOAD_KEY))
+            .thenReturn(Map.of("a", report("a", 1, 10, 0, 10, -1, 0, -1, Map.of(), Map.of())));
+
+        assertSame(BookingLoad.NONE, reader.read(100_000));
+    }
+
+    @Test
+    void read_NoReports_NoSignal() {
+        when(hashOperations.entries(RedisKeys.BOOKING_LOAD_KEY)).thenReturn(Map.of());
+
+        assertSame(BookingLoad.NONE, reader.read(100_000));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JoinBatcherTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+
+    private final QueueIndex queueIndex = new QueueIndex();
+    private SimpleMeterRegistry meterRegistry;
+    private JoinBatcher joinBatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        joinBatcher = new JoinBatcher(redisTemplate, queueIndex, new WaitingRoomMetrics(meterRegistry));
+        ReflectionTestUtils.setField(joinBatcher, "batchSize", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesOneScriptCallPerBatchAndCompletesJoins() throws Exception {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of(1L, 2L), List.of(0L));
+
+        CompletableFuture<Long> first = joinBatcher.submit(1L, 10L);
+        CompletableFuture<Long> second = joinBatcher.submit(1L, 11L);
+        CompletableFuture<Long> admitted = joinBatcher.submit(1L, 12L);
+        joinBatcher.flush();
+
+        assertEquals(1L, first.get());
+        assertEquals(2L, second.get());
+        assertEquals(0L, admitted.get());
+        verify(redisTemplate).execute(any(DefaultRedisScript.class), eq(List.of(RedisKeys.queueWaitingKey(1L),
+            RedisKeys.queueJoinedKey(1L), RedisKeys.queueStateKey(1L), RedisKeys.queueAdmissionsKey(1L),
+            RedisKeys.queuePoolKey(1L))),
+            any(), eq("10"), eq("11"));
+        verify(redisTemplate).execute(any(DefaultRedisScript.class), anyList(), any(), eq("12"));
+        verify(zSetOperations, times(2)).add(eq(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY), eq("1"), anyDouble());
+
+        assertEquals(2, queueIndex.position(1L, 11L).getAsLong());
+        assertTrue(queueIndex.position(1L, 12L).isEmpty());
+        assertEquals(2.0, meterRegistry.get(WaitingRoomMetrics.JOINS_METRIC).tag("event", "1").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_LotteryEntrant_NotIndexed() throws Exception {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of(-1_700_000_000_000L));
+
+        CompletableFuture<Long> entrant = joinBatcher.submit(1L, 10L);
+        joinBatcher.flush();
+
+        assertEquals(-1_700_000_000_000L, entrant.get());
+        assertEquals(0, queueIndex.size(1L));
+        assertEquals(0.0, meterRegistry.get(WaitingRoomMetrics.JOINS_METRIC).tag("event", "1").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ScriptFails_FailsTheBatch() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenThrow(new RedisConnectionFailureException("down"));
+
+        CompletableFuture<Long> join = joinBatcher.submit(1L, 10L);
+        joinBatcher.flush();
+
+        ExecutionException e = assertThrows(ExecutionException.class, join::get);
+        assertInstanceOf(RedisConnectionFailureException.class, e.getCause());
+        assertEquals(0, queueIndex.size(1L));
+    }
+
+    @Test
+    void flush_NothingPending_NoRedisCalls() {
+        joinBatcher.flush();
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A pre-sale lottery of a million entrants: the shuffle and digest alone, then the whole draw
+ * against Redis (reading the pool, shuffling, writing the drawn places in batches of ZADDs).
+ * Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl queue-service test -Dtest=LotteryBenchmarkTest -Dbenchmark=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LotteryBenchmarkTest {
+
+    private static final int ENTRANTS = Integer.getInteger("benchmark.entrants", 1_000_000);
+    private static final long EVENT_ID = 1L;
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeConnections() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void shuffleInMemory() {
+        long[] entrants = new long[ENTRANTS];
+        for (int i = 0; i < ENTRANTS; i++) {
+            entrants[i] = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        }
+        // Warm up
+        for (int i = 0; i < 3; i++) {
+            LotteryShuffle.shuffle(entrants.clone(), i);
+        }
+
+        long start = System.nanoTime();
+        LotteryShuffle.shuffle(entrants, 42L);
+        long shuffled = System.nanoTime();
+        LotteryShuffle.digest(entrants);
+        long digested = System.nanoTime();
+
+        System.out.printf("%,d entrants: sort and shuffle %,d ms, digest %,d ms%n",
+            ENTRANTS, (shuffled - start) / 1_000_000, (digested - shuffled) / 1_000_000);
+        assertThat(shuffled - start).isLessThan(2_000_000_000L);
+    }
+
+    @Test
+    void drawIntoTheQueue() {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LotteryDrawer drawer = new LotteryDrawer(redisTemplate, new WaitingRoomMetrics(meterRegistry));
+        ReflectionTestUtils.setField(drawer, "insertBatchSize", 10_000);
+        ReflectionTestUtils.setField(drawer, "scanCount", 10_000);
+        ReflectionTestUtils.setField(drawer, "leaseMs", 600_000L);
+
+        String[] batch = new String[10_000];
+        for (int from = 0; from < ENTRANTS; from += batch.length) {
+            int size = Math.min(batch.length, ENTRANTS - from);
+            for (int i = 0; i < size; i++) {
+                batch[i] = String.valueOf(1_000_000_000L + from + i);
+            }
+            redisTemplate.opsForSet().add(RedisKeys.queuePoolKey(EVENT_ID),
+                size == batch.length ? batch : Arrays.copyOf(batch, size));
+        }
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForHash().put(RedisKeys.queueStateKey(EVENT_ID), "opens_ms", String.valueOf(now));
+        redisTemplate.opsForHash().put(RedisKeys.queueStateKey(EVENT_ID), "lottery_seed", "42");
+
+        long start = System.nanoTime();
+        assertThat(drawer.draw(EVENT_ID, now)).isTrue();
+        long drawNanos = System.nanoTime() - start;
+
+        long depth = redisTemplate.opsForZSet().zCard(RedisKeys.queueWaitingKey(EVENT_ID));
+        System.out.printf("%,d entrants drawn into the queue in %,d ms (%,.0f places/s), depth %,d%n",
+            ENTRANTS, drawNanos / 1_000_000, ENTRANTS * 1e9 / drawNanos, depth);
+        assertThat(depth).isEqualTo(ENTRANTS);
+        assertThat(redisTemplate.hasKey(RedisKeys.queuePoolKey(EVENT_ID))).isFalse();
+    }
+}
@@ -0,0 +1,146 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LotteryDrawerTest {
+
+    private static final String OPENS_MS = "1700000000000";
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+    @Mock private SetOperations<String, String> setOperations;
+    @Mock private Cursor<String> cursor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LotteryDrawer drawer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        drawer = new LotteryDrawer(redisTemplate, new WaitingRoomMetrics(meterRegistry));
+        ReflectionTestUtils.setField(drawer, "insertBatchSize", 2);
+        ReflectionTestUtils.setField(drawer, "scanCount", 1000);
+        ReflectionTestUtils.setField(drawer, "leaseMs", 60_000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void draw_WritesTheShuffledPoolBehindTheBaseInBatches() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("40", "3", "42", OPENS_MS), 1L);
+        pool("103", "101", "102", "101");
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+
+        assertTrue(drawer.draw(1L, 1_000L));
+
+        long[] expected = {101, 102, 103};
+        LotteryShuffle.shuffle(expected, 42L);
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> places = ArgumentCaptor.forClass(Set.class);
+        verify(zSetOperations, times(2)).add(eq(RedisKeys.queueWaitingKey(1L)), places.capture());
+        Map<String, Double> scores = new HashMap<>();
+        for (Set<ZSetOperations.TypedTuple<String>> batch : places.getAllValues()) {
+            for (ZSetOperations.TypedTuple<String> place : batch) {
+                scores.put(place.getValue(), place.getScore());
+            }
+        }
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(41.0 + i, scores.get(String.valueOf(expected[i])));
+        }
+        verify(hashOperations, times(2)).putAll(eq(RedisKeys.queueJoinedKey(1L)), anyMap());
+        // Finished with the lease taken and the digest of the drawn order
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of(RedisKeys.queueStateKey(1L), RedisKeys.queuePoolKey(1L))),
+            eq("61000"), eq(LotteryShuffle.digest(expected)));
+        assertEquals(3, meterRegistry.get(WaitingRoomMetrics.LOTTERY_ENTRANTS_METRIC).counter().count());
+        assertEquals(1, meterRegistry.get(WaitingRoomMetrics.LOTTERY_DRAW_METRIC).timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void draw_NotOpenOrTakenElsewhere_DoesNothing() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of());
+
+        assertFalse(drawer.draw(1L, 1_000L));
+
+        verify(redisTemplate, never()).opsForSet();
+        verify(redisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void draw_LeaseLost_NotRecorded() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("0", "1", "42", OPENS_MS), 0L);
+        pool("101");
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+
+        assertFalse(drawer.draw(1L, 1_000L));
+
+        assertTrue(meterRegistry.find(WaitingRoomMetrics.LOTTERY_DRAW_METRIC).timers().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void draw_PoolDiffersFromTheReservation_Fails() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(List.of("0", "3", "42", OPENS_MS));
+        pool("101", "102");
+
+        assertThrows(IllegalStateException.class, () -> drawer.draw(1L, 1_000L));
+
+        verify(redisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tick_NotOpenYet_NotDrawn() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.range(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, 0, -1)).thenReturn(Set.of("1"));
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(eq(RedisKeys.queueStateKey(1L)), anyCollection()))
+            .thenReturn(Arrays.<Object>asList(String.valueOf(System.currentTimeMillis() + 60_000), null));
+
+        drawer.tick();
+
+        verify(redisTemplate, never()).execute(any(DefaultRedisScript.class), anyList(), any(Object[].class));
+    }
+
+    private void pool(String... members) {
+        Iterator<String> scanned = List.of(members).iterator();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.scan(eq(RedisKeys.queuePoolKey(1L)), any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(inv -> scanned.hasNext());
+        when(cursor.next()).thenAnswer(inv -> scanned.next());
+    }
+}
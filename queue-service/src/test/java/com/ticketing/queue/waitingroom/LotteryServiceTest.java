@@ -0,0 +1,104 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.dto.LotteryDto;
+import com.ticketing.common.util.RedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LotteryServiceTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+    @Mock private SetOperations<String, String> setOperations;
+
+    private LotteryService lotteryService;
+
+    @BeforeEach
+    void setUp() {
+        lotteryService = new LotteryService(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void schedule_StoresTheOpeningAndACommittedSeed() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(eq(RedisKeys.queueStateKey(1L)), anyCollection()))
+            .thenReturn(Arrays.<Object>asList("1900000000000", "ab12", null, null, "42", null, null));
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.size(RedisKeys.queuePoolKey(1L))).thenReturn(0L);
+
+        LotteryDto lottery = lotteryService.schedule(1L, LocalDateTime.now().plusHours(1));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(DefaultRedisScript.class), eq(List.of(RedisKeys.queueStateKey(1L))),
+            args.capture());
+        // opens ms, seed, commitment of that seed
+        assertEquals(LotteryShuffle.commitment(Long.parseLong((String) args.getValue()[1])), args.getValue()[2]);
+        assertEquals(LotteryDto.SCHEDULED, lottery.getState());
+        assertEquals("ab12", lottery.getCommitment());
+        // Secret until drawn
+        assertNull(lottery.getSeed());
+    }
+
+    @Test
+    void schedule_InThePast_Refused() {
+        assertThrows(IllegalArgumentException.class,
+            () -> lotteryService.schedule(1L, LocalDateTime.now().minusSeconds(1)));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void schedule_AlreadyOpened_Refused() {
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        assertThrows(IllegalStateException.class,
+            () -> lotteryService.schedule(1L, LocalDateTime.now().plusHours(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void audit_Drawn_RevealsTheSeedAndDigest() {
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(eq(RedisKeys.queueStateKey(1L)), anyCollection()))
+            .thenReturn(Arrays.<Object>asList("1700000000000", "ab12", "40", "3", "42", "1", "cd34"));
+
+        LotteryDto lottery = lotteryService.audit(1L).orElseThrow();
+
+        assertEquals(LotteryDto.DRAWN, lottery.getState());
+        assertEquals(3L, lottery.getEntrants());
+        assertEquals(41L, lottery.getFirstSeq());
+        assertEquals(42L, lottery.getSeed());
+        assertEquals("cd34", lottery.getDigest());
+        verify(redisTemplate, never()).opsForSet();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void audit_NoneScheduled_Empty() {
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.multiGet(eq(RedisKeys.queueStateKey(1L)), anyCollection()))
+            .thenReturn(Arrays.asList(new Object[7]));
+
+        assertTrue(lotteryService.audit(1L).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ticketing.queue.waitingroom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LotteryShuffleTest {
+
+    // Published reference vector: anyone reimplementing the documented steps must get this order
+    private static final long[] ENTRANTS = {107, 103, 110, 101, 105, 102, 109, 104, 108, 106};
+    private static final long[] DRAWN_WITH_SEED_42 = {109, 104, 107, 106, 105, 101, 110, 103, 102, 108};
+
+    @Test
+    void shuffle_MatchesTheReferenceVector() {
+        long[] entrants = ENTRANTS.clone();
+
+        LotteryShuffle.shuffle(entrants, 42L);
+
+        assertArrayEquals(DRAWN_WITH_SEED_42, entrants);
+        assertEquals("c7126ff5b552a8f761ae1d4009dea216e4a470ca93a94fc1d49c70c39e5d558f",
+            LotteryShuffle.digest(entrants));
+        assertEquals("a6bb133cb1e3638ad7b8a3ff0539668e9e56f9b850ef1b2a810f5422eaa6c323",
+            LotteryShuffle.commitment(42L));
+    }
+
+    @Test
+    void shuffle_ArrivalOrderPlaysNoPart() {
+        long[] reversed = ENTRANTS.clone();
+        for (int i = 0; i < reversed.length / 2; i++) {
+            long swapped = reversed[i];
+            reversed[i] = reversed[reversed.length - 1 - i];
+            reversed[reversed.length - 1 - i] = swapped;
+        }
+
+        LotteryShuffle.shuffle(reversed, 42L);
+
+        assertArrayEquals(DRAWN_WITH_SEED_42, reversed);
+    }
+
+    @Test
+    void shuffle_IsAPermutationThatDependsOnTheSeed() {
+        long[] first = new long[10_000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = i * 7L + 1;
+        }
+        long[] second = first.clone();
+
+        LotteryShuffle.shuffle(first, 1L);
+        LotteryShuffle.shuffle(second, 2L);
+
+        assertFalse(Arrays.equals(first, second));
+        long[] sorted = first.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i * 7L + 1, sorted[i]);
+        }
+        assertNotEquals(LotteryShuffle.digest(first), LotteryShuffle.digest(second));
+    }
+
+    @Test
+    void shuffle_EveryEntrantEquallyLikelyToDrawFirst() {
+        int entrants = 10;
+        int draws = 100_000;
+        int[] first = new int[entrants];
+        for (int seed = 0; seed < draws; seed++) {
+            long[] pool = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+            LotteryShuffle.shuffle(pool, seed);
+            first[(int) pool[0]]++;
+        }
+
+        // 10k expected each; 5 standard deviations is about 475
+        for (int count : first) {
+            assertEquals(draws / entrants, count, 500);
+        }
+    }
+
+    @Test
+    void shuffle_EmptyAndSinglePools() {
+        long[] empty = {};
+        long[] single = {5};
+
+        LotteryShuffle.shuffle(empty, 42L);
+        LotteryShuffle.shuffle(single, 42L);
+
+        assertEquals(0, empty.length);
+        assertArrayEquals(new long[] {5}, single);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ticketing.queue.waitingroom;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retained heap per open position stream: the service's record of the stream and the
+ * emitter with its callbacks and first message, which stays buffered in the emitter while
+ * no response is attached. The socket and its buffers belong to the container and are not
+ * counted. Queue index entries exist for every waiting customer, streamed or not, and are
+ * built before measuring. Only runs with -Dbenchmark=true:
+ *
+ *   mvn -pl queue-service test -Dtest=PositionStreamMemoryBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PositionStreamMemoryBenchmarkTest {
+
+    private static final int STREAMS = Integer.getInteger("benchmark.streams", 100_000);
+    private static final long EVENT_ID = 1L;
+
+    // Budget per stream: at queue.stream.max-connections (50k) a node holds 200 MB at most
+    private static final long MAX_BYTES_PER_STREAM = 4096;
+
+    @Test
+    void retainedHeapPerStream() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WaitingRoomMetrics metrics = new WaitingRoomMetrics(meterRegistry);
+        QueueIndex queueIndex = new QueueIndex();
+        // Waiting sequences all come from the index, so no Redis is needed
+        WaitingRoomService waitingRoomService = new WaitingRoomService(null, queueIndex, null, null);
+        AdmissionRateController rateController = new AdmissionRateController(null, null, metrics);
+        ReflectionTestUtils.setField(rateController, "ratePerSecond", 100.0);
+
+        PositionStreamService streamService = new PositionStreamService(waitingRoomService, queueIndex,
+            rateController, null, metrics);
+        ReflectionTestUtils.setField(streamService, "timeoutMs", 1_800_000L);
+        ReflectionTestUtils.setField(streamService, "maxConnections", STREAMS);
+        ReflectionTestUtils.setField(streamService, "bucketMinWidth", 10L);
+        streamService.start();
+
+        queueIndex.advanceHead(EVENT_ID, 1);
+        for (int i = 0; i < STREAMS; i++) {
+            queueIndex.record(EVENT_ID, (long) i, 2L + i);
+        }
+
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < STREAMS; i++) {
+            streamService.subscribe(EVENT_ID, (long) i);
+        }
+        long after = usedHeapAfterGc();
+        long perStream = (after - before) / STREAMS;
+
+        System.out.printf("%,d open position streams: %,d KB retained, %,d bytes per stream%n",
+            STREAMS, (after - before) >> 10, perStream);
+
+        assertThat(meterRegistry.get(WaitingRoomMetrics.STREAM_CONNECTIONS_METRIC).gauge().value())
+            .isEqualTo(STREAMS);
+        assertThat(perStream).isLessThan(MAX_BYTES_PER_STREAM);
+        streamService.stop();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,315 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PositionStreamServiceTest {
+
+    @Mock private WaitingRoomService waitingRoomService;
+    @Mock private AdmissionRateController rateController;
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+
+    private final QueueIndex queueIndex = new QueueIndex();
+    private final LinkedBlockingQueue<RecordingEmitter> opened = new LinkedBlockingQueue<>();
+    private SimpleMeterRegistry meterRegistry;
+    private PositionStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        streamService = new PositionStreamService(waitingRoomService, queueIndex, rateController, redisTemplate,
+                new WaitingRoomMetrics(meterRegistry)) {
+            @Override
+            SseEmitter emitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                opened.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(streamService, "maxConnections", 100);
+        ReflectionTestUtils.setField(streamService, "bucketMinWidth", 10L);
+        ReflectionTestUtils.setField(streamService, "throughputWindowMs", 10_000L);
+        ReflectionTestUtils.setField(streamService, "leaveGraceMs", 60_000L);
+        ReflectionTestUtils.setField(streamService, "reclaimEnabled", true);
+        ReflectionTestUtils.setField(streamService, "reclaimBatchSize", 500);
+        ReflectionTestUtils.setField(streamService, "lotteryReconnectSpreadMs", 10_000L);
+        streamService.start();
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.stop();
+    }
+
+    @Test
+    void subscribe_Waiting_SendsPositionAndEstimatedWait() throws Exception {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.of(350));
+        when(rateController.rate(1L)).thenReturn(100.0);
+
+        streamService.subscribe(1L, 10L);
+
+        QueueStatusDto sent = opened.poll().statuses.poll(5, TimeUnit.SECONDS);
+        assertEquals(QueueStatusDto.WAITING, sent.getStatus());
+        assertEquals(250L, sent.getPosition());
+        assertEquals(3L, sent.getEstimatedWaitSeconds());
+        assertEquals(1, connections());
+        verify(zSetOperations).add(eq(RedisKeys.queueSeenKey(1L)),
+            argThat(stamps -> stamps.size() == 1 && "10".equals(stamps.iterator().next().getValue())));
+    }
+
+    @Test
+    void subscribe_Admitted_SendsStatusAndEnds() throws Exception {
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.empty());
+        when(waitingRoomService.status(1L, 10L)).thenReturn(QueueStatusDto.builder()
+            .eventId(1L).customerId(10L).status(QueueStatusDto.ADMITTED).admissionToken("QUEUE_x").build());
+
+        streamService.subscribe(1L, 10L);
+
+        RecordingEmitter emitter = opened.poll();
+        assertEquals("QUEUE_x", emitter.statuses.poll(5, TimeUnit.SECONDS).getAdmissionToken());
+        assertTrue(emitter.completed);
+        assertEquals(0, connections());
+    }
+
+    @Test
+    void subscribe_InTheLottery_EndsWithRetryPastTheDraw() throws Exception {
+        long drawAt = System.currentTimeMillis() + 60_000;
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.empty());
+        when(waitingRoomService.status(1L, 10L)).thenReturn(QueueStatusDto.builder()
+            .eventId(1L).customerId(10L).status(QueueStatusDto.LOTTERY)
+            .lotteryDrawAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(drawAt), ZoneId.systemDefault())).build());
+
+        streamService.subscribe(1L, 10L);
+
+        RecordingEmitter emitter = opened.poll();
+        assertEquals(QueueStatusDto.LOTTERY, emitter.statuses.poll(5, TimeUnit.SECONDS).getStatus());
+        assertTrue(emitter.completed);
+        assertTrue(emitter.retryMs > 50_000 && emitter.retryMs <= 70_000, "retry " + emitter.retryMs);
+        assertEquals(0, connections());
+    }
+
+    @Test
+    void subscribe_OverTheLimit_Refused() {
+        ReflectionTestUtils.setField(streamService, "maxConnections", 1);
+        when(waitingRoomService.waitingSeq(eq(1L), anyLong())).thenReturn(OptionalLong.of(5));
+
+        streamService.subscribe(1L, 10L);
+
+        assertThrows(QueueUnavailableException.class, () -> streamService.subscribe(1L, 11L));
+    }
+
+    @Test
+    void update_SendsOnlyWhenThePositionCrossesABucket() throws Exception {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.of(1_350));
+        streamService.subscribe(1L, 10L);
+        RecordingEmitter emitter = opened.poll();
+        assertEquals(1_250L, emitter.statuses.poll(5, TimeUnit.SECONDS).getPosition());
+
+        // 1_230: still in the 1_200 bucket
+        queueIndex.advanceHead(1L, 120);
+        streamService.update(1_000);
+        awaitWrites();
+        assertNull(emitter.statuses.poll(200, TimeUnit.MILLISECONDS));
+
+        queueIndex.advanceHead(1L, 160);
+        streamService.update(2_000);
+        awaitWrites();
+        assertEquals(1_190L, emitter.statuses.poll(5, TimeUnit.SECONDS).getPosition());
+        assertEquals(1, meterRegistry.get(WaitingRoomMetrics.STREAM_UPDATES_METRIC).counter().count());
+    }
+
+    @Test
+    void update_EstimatedWaitFollowsMeasuredThroughput() throws Exception {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.of(10_100));
+        when(rateController.rate(1L)).thenReturn(100.0);
+        streamService.subscribe(1L, 10L);
+        RecordingEmitter emitter = opened.poll();
+        assertEquals(100L, emitter.statuses.poll(5, TimeUnit.SECONDS).getEstimatedWaitSeconds());
+
+        streamService.update(1_000);
+        queueIndex.advanceHead(1L, 300);
+        streamService.update(2_000);
+        awaitWrites();
+
+        // 200 admitted in a second: 9_800 to go takes 49 s, not the 98 s the configured rate says
+        QueueStatusDto sent = emitter.statuses.poll(5, TimeUnit.SECONDS);
+        assertEquals(9_800L, sent.getPosition());
+        assertEquals(49L, sent.getEstimatedWaitSeconds());
+    }
+
+    @Test
+    void update_Admitted_SendsAdmissionAndEndsStream() throws Exception {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.of(105));
+        when(waitingRoomService.status(1L, 10L)).thenReturn(QueueStatusDto.builder()
+            .eventId(1L).customerId(10L).status(QueueStatusDto.ADMITTED).admissionToken("QUEUE_y").build());
+        streamService.subscribe(1L, 10L);
+        RecordingEmitter emitter = opened.poll();
+        emitter.statuses.poll(5, TimeUnit.SECONDS);
+
+        queueIndex.advanceHead(1L, 105);
+        streamService.update(1_000);
+        awaitWrites();
+
+        assertEquals("QUEUE_y", emitter.statuses.poll(5, TimeUnit.SECONDS).getAdmissionToken());
+        assertTrue(emitter.completed);
+        assertEquals(0, connections());
+        verify(redisTemplate, never()).execute(any(DefaultRedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void update_GonePastGrace_RemovedFromQueueInOneBatch() {
+        ReflectionTestUtils.setField(streamService, "leaveGraceMs", 0L);
+        queueIndex.advanceHead(1L, 100);
+        for (long customerId = 10; customerId <= 12; customerId++) {
+            queueIndex.record(1L, customerId, 190 + customerId);
+            when(waitingRoomService.waitingSeq(1L, customerId)).thenReturn(OptionalLong.of(190 + customerId));
+            streamService.subscribe(1L, customerId);
+        }
+        RecordingEmitter first = opened.poll();
+        RecordingEmitter second = opened.poll();
+        streamService.left(1L, 10L, first);
+        streamService.left(1L, 11L, second);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class))).thenReturn(2L);
+        long now = System.currentTimeMillis() + 1;
+
+        streamService.update(now);
+
+        // Only those no instance has seen since the grace began
+        verify(redisTemplate).execute(any(DefaultRedisScript.class),
+            eq(List.of(RedisKeys.queueWaitingKey(1L), RedisKeys.queueJoinedKey(1L), RedisKeys.queueSeenKey(1L))),
+            eq(String.valueOf(now)), eq("10"), eq("11"));
+        assertTrue(queueIndex.seq(1L, 10L).isEmpty());
+        assertTrue(queueIndex.seq(1L, 11L).isEmpty());
+        assertEquals(202L, queueIndex.seq(1L, 12L).getAsLong());
+        assertEquals(2, meterRegistry.get(WaitingRoomMetrics.STREAM_RECLAIMED_METRIC).counter().count());
+        assertEquals(1, connections());
+    }
+
+    @Test
+    void subscribe_AgainWithinGrace_KeepsThePlace() {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.of(200));
+        streamService.subscribe(1L, 10L);
+        streamService.left(1L, 10L, opened.poll());
+
+        streamService.subscribe(1L, 10L);
+        streamService.update(System.currentTimeMillis() + 120_000);
+
+        verify(redisTemplate, never()).execute(any(DefaultRedisScript.class), anyList(), any(Object[].class));
+        assertEquals(1, connections());
+    }
+
+    @Test
+    void heartbeat_ClientGone_StreamLeaves() {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(1L, 10L)).thenReturn(OptionalLong.of(200));
+        streamService.subscribe(1L, 10L);
+        opened.poll().failing = true;
+
+        streamService.heartbeat();
+        ((CompletableFuture<?>) ReflectionTestUtils.getField(streamService, "lastHeartbeat")).join();
+
+        assertEquals(0, connections());
+    }
+
+    @Test
+    void heartbeat_StampsOpenStreamsSeenAndDropsStaleStamps() {
+        queueIndex.advanceHead(1L, 100);
+        when(waitingRoomService.waitingSeq(eq(1L), anyLong())).thenReturn(OptionalLong.of(200));
+        streamService.subscribe(1L, 10L);
+        streamService.subscribe(1L, 11L);
+        opened.poll();
+        streamService.left(1L, 11L, opened.poll());
+        clearInvocations(zSetOperations);
+
+        streamService.heartbeat();
+
+        verify(zSetOperations).add(eq(RedisKeys.queueSeenKey(1L)),
+            argThat(stamps -> stamps.size() == 1 && "10".equals(stamps.iterator().next().getValue())));
+        verify(zSetOperations).removeRangeByScore(eq(RedisKeys.queueSeenKey(1L)), eq(Double.NEGATIVE_INFINITY),
+            anyDouble());
+    }
+
+    @Test
+    void bucket_KeepsTwoSignificantDigits() {
+        assertEquals(250_000, streamService.bucket(250_345));
+        assertEquals(1_200, streamService.bucket(1_234));
+        assertEquals(990, streamService.bucket(999));
+        assertEquals(100, streamService.bucket(100));
+        assertEquals(50, streamService.bucket(57));
+        assertEquals(0, streamService.bucket(7));
+    }
+
+    private void awaitWrites() {
+        ((CompletableFuture<?>) ReflectionTestUtils.getField(streamService, "lastUpdate")).join();
+    }
+
+    private double connections() {
+        return meterRegistry.get(WaitingRoomMetrics.STREAM_CONNECTIONS_METRIC).gauge().value();
+    }
+
+    // Records the statuses written to it instead of writing to a response
+    private static class RecordingEmitter extends SseEmitter {
+        private final LinkedBlockingQueue<QueueStatusDto> statuses = new LinkedBlockingQueue<>();
+        private volatile boolean failing;
+        private volatile boolean completed;
+        private volatile long retryMs = -1;
+
+        @Override
+        public synchronized void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType item : items) {
+                if (item.getData() instanceof QueueStatusDto) {
+                    statuses.add((QueueStatusDto) item.getData());
+                } else if (item.getData().toString().contains("retry:")) {
+                    String text = item.getData().toString();
+                    int from = text.indexOf("retry:") + "retry:".length();
+                    retryMs = Long.parseLong(text.substring(from, text.indexOf('\n', from)));
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ticketing.queue.waitingroom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueueIndexTest {
+
+    private final QueueIndex queueIndex = new QueueIndex();
+
+    @Test
+    void position_IsSequenceAfterTheAdmittedHead() {
+        queueIndex.record(1L, 10L, 5);
+        queueIndex.record(1L, 11L, 9);
+
+        assertEquals(5, queueIndex.position(1L, 10L).getAsLong());
+
+        queueIndex.advanceHead(1L, 4);
+
+        assertEquals(1, queueIndex.position(1L, 10L).getAsLong());
+        assertEquals(5, queueIndex.position(1L, 11L).getAsLong());
+    }
+
+    @Test
+    void position_AdmittedOrUnknown_EmptyAndDropped() {
+        queueIndex.record(1L, 10L, 5);
+        queueIndex.advanceHead(1L, 5);
+
+        assertTrue(queueIndex.position(1L, 10L).isEmpty());
+        assertTrue(queueIndex.position(1L, 99L).isEmpty());
+        assertTrue(queueIndex.position(2L, 10L).isEmpty());
+        assertEquals(0, queueIndex.size(1L));
+    }
+
+    @Test
+    void advanceHead_NeverMovesBack() {
+        queueIndex.advanceHead(1L, 7);
+        queueIndex.advanceHead(1L, 3);
+
+        assertEquals(7, queueIndex.head(1L));
+        assertEquals(3, queueIndex.positionOf(1L, 10));
+        assertEquals(1, queueIndex.positionOf(1L, 2));
+    }
+
+    @Test
+    void prune_DropsAdmittedEntriesOnly() {
+        queueIndex.record(1L, 10L, 1);
+        queueIndex.record(1L, 11L, 2);
+        queueIndex.record(1L, 12L, 3);
+        queueIndex.advanceHead(1L, 2);
+
+        assertEquals(2, queueIndex.prune());
+        assertEquals(1, queueIndex.size(1L));
+        assertEquals(1, queueIndex.position(1L, 12L).getAsLong());
+    }
+
+    @Test
+    void seq_WaitingOnly_AndForgotten() {
+        queueIndex.record(1L, 10L, 5);
+        queueIndex.record(1L, 11L, 9);
+        queueIndex.advanceHead(1L, 5);
+
+        assertTrue(queueIndex.seq(1L, 10L).isEmpty());
+        assertEquals(9, queueIndex.seq(1L, 11L).getAsLong());
+
+        queueIndex.forget(1L, 11L);
+
+        assertTrue(queueIndex.seq(1L, 11L).isEmpty());
+        assertEquals(1, queueIndex.size(1L));
+    }
+}
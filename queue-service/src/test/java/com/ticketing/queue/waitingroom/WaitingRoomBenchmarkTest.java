@@ -0,0 +1,150 @@
+package com.ticketing.queue.waitingroom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Join throughput of one node (target: 100k joins/s) with concurrent clients and the
+ * batcher flushing every few milliseconds, then a few seconds of admission at a high rate
+ * reporting queue depth, admissions per second and wait percentiles. Only runs with
+ * -Dbenchmark=true:
+ *
+ *   mvn -pl queue-service test -Dtest=WaitingRoomBenchmarkTest -Dbenchmark=true
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WaitingRoomBenchmarkTest {
+
+    private static final int JOINS = Integer.getInteger("benchmark.joins", 1_000_000);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 8);
+    private static final long EVENT_ID = 1L;
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeConnections() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void joinThroughputThenAdmission() throws Exception {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WaitingRoomMetrics metrics = new WaitingRoomMetrics(meterRegistry);
+        QueueIndex queueIndex = new QueueIndex();
+        JoinBatcher joinBatcher = new JoinBatcher(redisTemplate, queueIndex, metrics);
+        ReflectionTestUtils.setField(joinBatcher, "batchSize", 1000);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                joinBatcher.flush();
+                sleepQuietly(5);
+            }
+            joinBatcher.flush();
+        });
+
+        long start = System.nanoTime();
+        flusher.start();
+        List<Thread> clients = new ArrayList<>(CLIENTS);
+        List<List<CompletableFuture<Long>>> results = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            List<CompletableFuture<Long>> futures = new ArrayList<>(JOINS / CLIENTS);
+            results.add(futures);
+            Thread thread = new Thread(() -> {
+                for (int i = client; i < JOINS; i += CLIENTS) {
+                    futures.add(joinBatcher.submit(EVENT_ID, (long) i));
+                }
+            });
+            clients.add(thread);
+            thread.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        for (List<CompletableFuture<Long>> futures : results) {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+        }
+        long joinNanos = System.nanoTime() - start;
+        running.set(false);
+        flusher.join();
+
+        long depth = redisTemplate.opsForZSet().zCard(RedisKeys.queueWaitingKey(EVENT_ID));
+        System.out.printf("%,d joins from %d clients: %,.0f joins/s, depth %,d, index %,d entries%n",
+            JOINS, CLIENTS, JOINS * 1e9 / joinNanos, depth, queueIndex.size(EVENT_ID));
+        assertThat(depth).isEqualTo(JOINS);
+
+        AdmissionRateController rateController = new AdmissionRateController(redisTemplate,
+            new BookingLoadReader(redisTemplate, new ObjectMapper()), metrics);
+        ReflectionTestUtils.setField(rateController, "ratePerSecond", 5000.0);
+        Admitter admitter = new Admitter(redisTemplate, queueIndex, metrics, rateController);
+        ReflectionTestUtils.setField(admitter, "burst", 5000);
+        ReflectionTestUtils.setField(admitter, "windowSeconds", 300L);
+        ReflectionTestUtils.setField(admitter, "tickMs", 100L);
+        ReflectionTestUtils.setField(admitter, "idleMs", 60000L);
+
+        long admitStart = System.nanoTime();
+        for (int tick = 0; tick < 30; tick++) {
+            admitter.tick();
+            Thread.sleep(100);
+        }
+        double admitSeconds = (System.nanoTime() - admitStart) / 1e9;
+
+        Timer wait = meterRegistry.get(WaitingRoomMetrics.WAIT_METRIC).tag("event", "1").timer();
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile percentile : wait.takeSnapshot().percentileValues()) {
+            percentiles.append(String.format(" p%.0f %,.0f ms", percentile.percentile() * 100,
+                percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        double admitted = meterRegistry.get(WaitingRoomMetrics.ADMITTED_METRIC).tag("event", "1").counter().count();
+        System.out.printf("admission at 5,000/s: %,.0f admitted/s, depth %,.0f, wait%s%n",
+            admitted / admitSeconds, meterRegistry.get(WaitingRoomMetrics.DEPTH_METRIC).tag("event", "1").gauge().value(),
+            percentiles);
+
+        assertThat(admitted).isPositive();
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
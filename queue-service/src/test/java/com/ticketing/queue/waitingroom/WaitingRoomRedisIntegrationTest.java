@@ -0,0 +1,266 @@
+package com.ticketing.queue.waitingroom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketing.common.dto.LotteryDto;
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.common.util.AdmissionTokens;
+import com.ticketing.common.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the join and admission scripts against a cluster-mode Redis node, which rejects
+ * scripts whose keys span several slots, as a multi-node cluster does.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class WaitingRoomRedisIntegrationTest {
+
+    @Container
+    static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withCommand("redis-server", "--cluster-enabled", "yes")
+        .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private QueueIndex queueIndex;
+    private JoinBatcher joinBatcher;
+    private AdmissionRateController rateController;
+    private Admitter admitter;
+    private WaitingRoomService waitingRoomService;
+    private LotteryService lotteryService;
+    private LotteryDrawer lotteryDrawer;
+
+    @BeforeAll
+    static void assignAllSlots() throws Exception {
+        redis.execInContainer("redis-cli", "CLUSTER", "ADDSLOTSRANGE", "0", "16383");
+        for (int i = 0; i < 50; i++) {
+            if (redis.execInContainer("redis-cli", "CLUSTER", "INFO").getStdout().contains("cluster_state:ok")) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void closeConnections() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        WaitingRoomMetrics metrics = new WaitingRoomMetrics(new SimpleMeterRegistry());
+        queueIndex = new QueueIndex();
+        joinBatcher = new JoinBatcher(redisTemplate, queueIndex, metrics);
+        ReflectionTestUtils.setField(joinBatcher, "batchSize", 1000);
+        rateController = new AdmissionRateController(redisTemplate,
+            new BookingLoadReader(redisTemplate, new ObjectMapper()), metrics);
+        ReflectionTestUtils.setField(rateController, "ratePerSecond", 10.0);
+        admitter = new Admitter(redisTemplate, queueIndex, metrics, rateController);
+        ReflectionTestUtils.setField(admitter, "burst", 3);
+        ReflectionTestUtils.setField(admitter, "windowSeconds", 300L);
+        ReflectionTestUtils.setField(admitter, "tickMs", 100L);
+        ReflectionTestUtils.setField(admitter, "idleMs", 0L);
+        waitingRoomService = new WaitingRoomService(joinBatcher, queueIndex, redisTemplate,
+            new AdmissionTokens("test-admission-token-secret-32-bytes!"));
+        ReflectionTestUtils.setField(waitingRoomService, "joinTimeoutMs", 2000L);
+        lotteryService = new LotteryService(redisTemplate);
+        lotteryDrawer = new LotteryDrawer(redisTemplate, metrics);
+        ReflectionTestUtils.setField(lotteryDrawer, "insertBatchSize", 2);
+        ReflectionTestUtils.setField(lotteryDrawer, "scanCount", 2);
+        ReflectionTestUtils.setField(lotteryDrawer, "leaseMs", 60_000L);
+    }
+
+    private List<Long> join(long eventId, long... customerIds) throws Exception {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (long customerId : customerIds) {
+            futures.add(joinBatcher.submit(eventId, customerId));
+        }
+        joinBatcher.flush();
+        List<Long> seqs = new ArrayList<>();
+        for (CompletableFuture<Long> future : futures) {
+            seqs.add(future.get());
+        }
+        return seqs;
+    }
+
+    @Test
+    void joinAndAdmit_FifoWithinTheBurst() throws Exception {
+        assertThat(join(7L, 100, 101, 100, 102, 103, 104)).containsExactly(1L, 2L, 1L, 3L, 4L, 5L);
+        assertThat(redisTemplate.opsForZSet().score(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, "7")).isNotNull();
+
+        // A fresh bucket holds the burst (3), a tick admits at most two ticks' worth (2)
+        assertThat(admitter.admit(7L)).isEqualTo(3);
+
+        assertThat(waitingRoomService.status(7L, 100L).getAdmissionToken()).startsWith("QUEUE_");
+        assertThat(waitingRoomService.status(7L, 101L).getStatus()).isEqualTo(QueueStatusDto.ADMITTED);
+        QueueStatusDto waiting = waitingRoomService.status(7L, 104L);
+        assertThat(waiting.getStatus()).isEqualTo(QueueStatusDto.WAITING);
+        assertThat(waiting.getPosition()).isEqualTo(3L);
+        assertThat(waitingRoomService.status(7L, 999L).getStatus()).isEqualTo(QueueStatusDto.NOT_IN_QUEUE);
+
+        // Admitted customers keep their admission, waiting ones their place
+        assertThat(join(7L, 100, 103)).containsExactly(0L, 4L);
+    }
+
+    @Test
+    void admit_RefillsAtTheRateAndDeactivatesEmptyQueues() throws Exception {
+        join(8L, 1, 2, 3, 4, 5);
+        assertThat(admitter.admit(8L)).isEqualTo(3);
+
+        // 10/s: the one credit left plus one per 100 ms
+        Thread.sleep(120);
+        assertThat(admitter.admit(8L)).isEqualTo(1);
+        Thread.sleep(250);
+        assertThat(admitter.admit(8L)).isZero();
+
+        admitter.tick();
+
+        assertThat(queueIndex.head(8L)).isEqualTo(5);
+        assertThat(redisTemplate.opsForZSet().score(RedisKeys.QUEUE_ACTIVE_EVENTS_KEY, "8")).isNull();
+        assertThat(redisTemplate.opsForHash().size(RedisKeys.queueAdmissionsKey(8L))).isEqualTo(5);
+        assertThat(redisTemplate.opsForHash().size(RedisKeys.queueJoinedKey(8L))).isZero();
+    }
+
+    @Test
+    void admit_ExpiredAdmissionsArePrunedAndMayJoinAgain() throws Exception {
+        ReflectionTestUtils.setField(admitter, "windowSeconds", 0L);
+        join(9L, 1);
+        admitter.admit(9L);
+        Thread.sleep(5);
+        admitter.admit(9L);
+
+        assertThat(redisTemplate.opsForHash().size(RedisKeys.queueAdmissionsKey(9L))).isZero();
+        assertThat(join(9L, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void adaptiveRate_OneInstanceMovesItPerIntervalAndAllAdmitAtIt() throws Exception {
+        AdmissionRateController other = new AdmissionRateController(redisTemplate,
+            new BookingLoadReader(redisTemplate, new ObjectMapper()), new WaitingRoomMetrics(new SimpleMeterRegistry()));
+        AdmissionRateControllerTest.configure(rateController);
+        AdmissionRateControllerTest.configure(other);
+        ReflectionTestUtils.setField(rateController, "intervalMs", 60_000L);
+        ReflectionTestUtils.setField(other, "intervalMs", 60_000L);
+        BookingLoad healthy = new BookingLoad(1, 100, 50, 0.2, 0, Map.of(), Map.of());
+        join(10L, 1, 2);
+        long now = System.currentTimeMillis();
+
+        assertThat(rateController.adjust(10L, healthy, now)).isEqualTo(110.0);
+        // Same interval: taken over, not raised again
+        assertThat(other.adjust(10L, healthy, now + 10)).isEqualTo(110.0);
+        assertThat(other.rate(10L)).isEqualTo(110.0);
+
+        assertThat(other.adjust(10L, BookingLoad.NONE, now + 60_000)).isEqualTo(77.0);
+        assertThat(rateController.adjust(10L, healthy, now + 60_010)).isEqualTo(77.0);
+
+        // Nobody waiting: not raised
+        redisTemplate.delete(RedisKeys.queueWaitingKey(10L));
+        assertThat(rateController.adjust(10L, healthy, now + 120_000)).isEqualTo(77.0);
+        assertThat(redisTemplate.opsForHash().get(RedisKeys.queueStateKey(10L), "rate")).isEqualTo("77.0");
+    }
+
+    @Test
+    void lottery_PoolIsDrawnAheadOfLaterJoinsInTheCommittedOrder() throws Exception {
+        LotteryDto scheduled = lotteryService.schedule(11L, LocalDateTime.now().plusMinutes(5));
+        assertThat(scheduled.getState()).isEqualTo(LotteryDto.SCHEDULED);
+        assertThat(scheduled.getSeed()).isNull();
+
+        assertThat(join(11L, 105, 101, 103, 102, 104, 101)).allMatch(seq -> seq < 0);
+        assertThat(waitingRoomService.status(11L, 103L).getStatus()).isEqualTo(QueueStatusDto.LOTTERY);
+        // Entrants count as waiting, so the event stays active until the opening
+        assertThat(admitter.admit(11L)).isEqualTo(5);
+
+        redisTemplate.opsForHash().put(RedisKeys.queueStateKey(11L), "opens_ms",
+            String.valueOf(System.currentTimeMillis() - 1));
+        assertThat(join(11L, 200)).containsExactly(6L);
+        // Admission pauses until the draw
+        assertThat(admitter.admit(11L)).isEqualTo(6);
+        assertThat(queueIndex.head(11L)).isZero();
+
+        lotteryDrawer.tick();
+
+        LotteryDto drawn = lotteryService.audit(11L).orElseThrow();
+        assertThat(drawn.getState()).isEqualTo(LotteryDto.DRAWN);
+        assertThat(drawn.getEntrants()).isEqualTo(5);
+        assertThat(drawn.getFirstSeq()).isEqualTo(1);
+        assertThat(LotteryShuffle.commitment(drawn.getSeed())).isEqualTo(scheduled.getCommitment());
+        long[] expected = {101, 102, 103, 104, 105};
+        LotteryShuffle.shuffle(expected, drawn.getSeed());
+        assertThat(LotteryShuffle.digest(expected)).isEqualTo(drawn.getDigest());
+        List<String> order = new ArrayList<>();
+        for (long customerId : expected) {
+            order.add(String.valueOf(customerId));
+        }
+        order.add("200");
+        assertThat(redisTemplate.opsForZSet().range(RedisKeys.queueWaitingKey(11L), 0, -1)).containsExactlyElementsOf(order);
+        assertThat(redisTemplate.hasKey(RedisKeys.queuePoolKey(11L))).isFalse();
+
+        assertThat(admitter.admit(11L)).isEqualTo(4);
+        assertThat(waitingRoomService.status(11L, expected[0]).getStatus()).isEqualTo(QueueStatusDto.ADMITTED);
+        assertThat(join(11L, expected[4])).containsExactly(5L);
+        assertThat(lotteryDrawer.draw(11L, System.currentTimeMillis())).isFalse();
+    }
+
+    @Test
+    void streams_CustomerReconnectedElsewhereIsNotReclaimed() throws Exception {
+        join(12L, 100, 101);
+        PositionStreamService first = streamService();
+        PositionStreamService second = streamService();
+        try {
+            first.left(12L, 100L, first.subscribe(12L, 100L));
+            first.left(12L, 101L, first.subscribe(12L, 101L));
+            long leftAt = System.currentTimeMillis();
+            // 100 comes back through another instance, 101 does not
+            second.subscribe(12L, 100L);
+
+            first.update(leftAt + 60_000);
+
+            assertThat(redisTemplate.opsForZSet().range(RedisKeys.queueWaitingKey(12L), 0, -1)).containsExactly("100");
+            assertThat(redisTemplate.opsForHash().keys(RedisKeys.queueJoinedKey(12L))).containsExactly("100");
+        } finally {
+            first.stop();
+            second.stop();
+        }
+    }
+
+    private PositionStreamService streamService() {
+        PositionStreamService streamService = new PositionStreamService(waitingRoomService, queueIndex, rateController,
+            redisTemplate, new WaitingRoomMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(streamService, "maxConnections", 100);
+        ReflectionTestUtils.setField(streamService, "bucketMinWidth", 10L);
+        ReflectionTestUtils.setField(streamService, "throughputWindowMs", 10_000L);
+        ReflectionTestUtils.setField(streamService, "leaveGraceMs", 60_000L);
+        ReflectionTestUtils.setField(streamService, "reclaimEnabled", true);
+        ReflectionTestUtils.setField(streamService, "reclaimBatchSize", 500);
+        streamService.start();
+        return streamService;
+    }
+}
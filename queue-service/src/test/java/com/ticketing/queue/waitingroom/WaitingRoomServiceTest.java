@@ -0,0 +1,166 @@
+package com.ticketing.queue.waitingroom;
+
+import com.ticketing.common.dto.QueueStatusDto;
+import com.ticketing.common.util.AdmissionTokens;
+import com.ticketing.common.util.RedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitingRoomServiceTest {
+
+    @Mock private JoinBatcher joinBatcher;
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+    @Mock private SetOperations<String, String> setOperations;
+
+    private final QueueIndex queueIndex = new QueueIndex();
+    private final AdmissionTokens admissionTokens = new AdmissionTokens("test-admission-token-secret-32-bytes!");
+    private WaitingRoomService waitingRoomService;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoomService = new WaitingRoomService(joinBatcher, queueIndex, redisTemplate, admissionTokens);
+        ReflectionTestUtils.setField(waitingRoomService, "joinTimeoutMs", 100L);
+    }
+
+    @Test
+    void join_Waiting_PositionFromTheIndex() {
+        queueIndex.advanceHead(1L, 40);
+        when(joinBatcher.submit(1L, 10L)).thenAnswer(inv -> {
+            queueIndex.record(1L, 10L, 42);
+            return CompletableFuture.completedFuture(42L);
+        });
+
+        QueueStatusDto status = waitingRoomService.join(1L, 10L);
+
+        assertEquals(QueueStatusDto.WAITING, status.getStatus());
+        assertEquals(2L, status.getPosition());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void join_AlreadyAdmitted_ReturnsTheSignedAdmission() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        when(joinBatcher.submit(1L, 10L)).thenReturn(CompletableFuture.completedFuture(0L));
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(hashOperations.get(RedisKeys.queueAdmissionsKey(1L), "10")).thenReturn("-77:" + expiresAt);
+
+        QueueStatusDto status = waitingRoomService.join(1L, 10L);
+
+        assertEquals(QueueStatusDto.ADMITTED, status.getStatus());
+        AdmissionTokens.Claims claims = new AdmissionTokens.Claims();
+        assertEquals(AdmissionTokens.Status.VALID,
+            admissionTokens.verify(status.getAdmissionToken(), System.currentTimeMillis(), claims));
+        assertEquals(1L, claims.getEventId());
+        assertEquals(10L, claims.getCustomerId());
+        assertEquals(expiresAt, claims.getExpiresAtMillis());
+        assertEquals(-77L, claims.getNonce());
+        assertNotNull(status.getAdmissionExpiresAt());
+        assertNull(status.getPosition());
+    }
+
+    @Test
+    void join_NotWrittenInTime_Unavailable() {
+        when(joinBatcher.submit(1L, 10L)).thenReturn(new CompletableFuture<>());
+
+        assertThrows(QueueUnavailableException.class, () -> waitingRoomService.join(1L, 10L));
+    }
+
+    @Test
+    void join_ScriptFailed_Unavailable() {
+        when(joinBatcher.submit(1L, 10L)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        assertThrows(QueueUnavailableException.class, () -> waitingRoomService.join(1L, 10L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void status_JoinedElsewhere_PositionFromTheQueue() {
+        queueIndex.advanceHead(1L, 100);
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score(RedisKeys.queueWaitingKey(1L), "10")).thenReturn(130.0);
+
+        QueueStatusDto status = waitingRoomService.status(1L, 10L);
+
+        assertEquals(QueueStatusDto.WAITING, status.getStatus());
+        assertEquals(30L, status.getPosition());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void status_AdmissionExpired_NotInQueue() {
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(hashOperations.get(RedisKeys.queueAdmissionsKey(1L), "10"))
+            .thenReturn("-77:" + (System.currentTimeMillis() - 1));
+        when(zSetOperations.score(RedisKeys.queueWaitingKey(1L), "10")).thenReturn(null);
+        when(setOperations.isMember(RedisKeys.queuePoolKey(1L), "10")).thenReturn(false);
+
+        QueueStatusDto status = waitingRoomService.status(1L, 10L);
+
+        assertEquals(QueueStatusDto.NOT_IN_QUEUE, status.getStatus());
+        assertNull(status.getAdmissionToken());
+    }
+
+    @Test
+    void join_BeforeTheLotteryOpens_InTheLottery() {
+        long opensAt = System.currentTimeMillis() + 60_000;
+        when(joinBatcher.submit(1L, 10L)).thenReturn(CompletableFuture.completedFuture(-opensAt));
+
+        QueueStatusDto status = waitingRoomService.join(1L, 10L);
+
+        assertEquals(QueueStatusDto.LOTTERY, status.getStatus());
+        assertEquals(opensAt, status.getLotteryDrawAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        assertNull(status.getPosition());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void status_InTheLotteryPool_InTheLottery() {
+        long opensAt = System.currentTimeMillis() + 60_000;
+        when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(hashOperations.get(RedisKeys.queueAdmissionsKey(1L), "10")).thenReturn(null);
+        when(zSetOperations.score(RedisKeys.queueWaitingKey(1L), "10")).thenReturn(null);
+        when(setOperations.isMember(RedisKeys.queuePoolKey(1L), "10")).thenReturn(true);
+        when(hashOperations.get(RedisKeys.queueStateKey(1L), "opens_ms")).thenReturn(String.valueOf(opensAt));
+
+        QueueStatusDto status = waitingRoomService.status(1L, 10L);
+
+        assertEquals(QueueStatusDto.LOTTERY, status.getStatus());
+        assertEquals(opensAt, status.getLotteryDrawAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void waitingSeq_FromTheIndexElseTheQueue() {
+        queueIndex.record(1L, 10L, 42);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score(RedisKeys.queueWaitingKey(1L), "11")).thenReturn(130.0);
+        when(zSetOperations.score(RedisKeys.queueWaitingKey(1L), "12")).thenReturn(null);
+
+        assertEquals(42L, waitingRoomService.waitingSeq(1L, 10L).getAsLong());
+        assertEquals(130L, waitingRoomService.waitingSeq(1L, 11L).getAsLong());
+        assertTrue(waitingRoomService.waitingSeq(1L, 12L).isEmpty());
+    }
+}